@@ -0,0 +1,54 @@
+package com.kinnarastudio.odooxmlrpc.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+/**
+ * Entry point of <code>benchmarks.jar</code>, taking the usual JMH command line
+ * <p>
+ * The GC profiler is always added, so every suite reports <code>gc.alloc.rate.norm</code>, the bytes allocated per
+ * operation, next to its score. Unless <code>-rf</code> or <code>-rff</code> is given, results are written as JSON to
+ * <code>results/jmh-&lt;version&gt;.json</code>, the version being the client version the jar was built against, so
+ * that the files of two releases can be compared side by side.
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        } else if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+
+        if (!commandLine.getResult().hasValue()) {
+            final String version = Optional.ofNullable(BenchmarkMain.class.getPackage().getImplementationVersion())
+                    .orElse("dev");
+            final Path directory = Files.createDirectories(Paths.get("results"));
+            options.result(directory.resolve("jmh-" + version + ".json").toString());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
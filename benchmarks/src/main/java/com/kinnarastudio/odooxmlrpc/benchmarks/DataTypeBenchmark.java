@@ -0,0 +1,48 @@
+package com.kinnarastudio.odooxmlrpc.benchmarks;
+
+import com.kinnarastudio.odooxmlrpc.model.DataType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of raw field values by {@link DataType#valueParser(Object)}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataTypeBenchmark {
+    @Param({"STRING", "INTEGER", "FLOAT", "BOOLEAN", "MANY2ONE", "MANY2MANY"})
+    private DataType type;
+
+    private Object rawValue;
+
+    @Setup
+    public void setUp() {
+        switch (type) {
+            case INTEGER:
+            case MANY2ONE:
+                rawValue = "123456";
+                break;
+            case FLOAT:
+                rawValue = "1234.5678";
+                break;
+            case BOOLEAN:
+                rawValue = "True";
+                break;
+            case MANY2MANY:
+                rawValue = "1; 2; 3; 5; 8; 13; 21; 34";
+                break;
+            default:
+                rawValue = "Azure Interior";
+        }
+    }
+
+    @Benchmark
+    public Object valueParser() {
+        return type.valueParser(rawValue);
+    }
+}
@@ -0,0 +1,117 @@
+package com.kinnarastudio.odooxmlrpc.benchmarks;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.JsonOdooRpc;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import org.openjdk.jmh.annotations.*;
+import stub.InMemoryOdooServer;
+import stub.ModelStore;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls through {@link OdooRpc} to a loopback {@link InMemoryOdooServer} at several concurrency levels, each thread
+ * with its own client
+ * <p>
+ * Without latency the score is bound by the client and the stub, with latency it shows how well calls overlap.
+ * Both protocols read the same records from the same server, XML-RPC through {@link OdooRpc} and JSON-RPC through
+ * {@link JsonOdooRpc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+    private final static String MODEL = "res.partner";
+    private final static String[] FIELDS = {"name", "email", "active"};
+    private final static SearchFilter[] FILTERS = {new SearchFilter("active", true)};
+    private final static int PAGE_SIZE = 100;
+
+    @State(Scope.Benchmark)
+    public static class Odoo {
+        @Param({"0", "5"})
+        private long latencyMillis;
+
+        @Param({"XML", "JSON"})
+        private String protocol;
+
+        private InMemoryOdooServer server;
+
+        @Setup
+        public void setUp() throws Exception {
+            final ModelStore store = new ModelStore();
+            store.generate(MODEL, 1_000, 256);
+            server = InMemoryOdooServer.start(store, 0);
+            server.setLatency(latencyMillis, 0);
+        }
+
+        @TearDown
+        public void tearDown() {
+            server.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private OdooRpc rpc;
+
+        @Setup
+        public void setUp(Odoo odoo) throws Exception {
+            rpc = "JSON".equals(odoo.protocol)
+                    ? new JsonOdooRpc(odoo.server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)
+                    : new OdooRpc(odoo.server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY);
+        }
+
+        @TearDown
+        public void tearDown() {
+            rpc.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int[] searchThreads1(Client client) throws OdooCallMethodException {
+        return search(client);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int[] searchThreads4(Client client) throws OdooCallMethodException {
+        return search(client);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public int[] searchThreads16(Client client) throws OdooCallMethodException {
+        return search(client);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Map<String, Object>[] searchReadThreads1(Client client) throws OdooCallMethodException {
+        return searchRead(client);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Map<String, Object>[] searchReadThreads4(Client client) throws OdooCallMethodException {
+        return searchRead(client);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Map<String, Object>[] searchReadThreads16(Client client) throws OdooCallMethodException {
+        return searchRead(client);
+    }
+
+    private static int[] search(Client client) throws OdooCallMethodException {
+        return client.rpc.search(MODEL, FILTERS, null, null, null);
+    }
+
+    private static Map<String, Object>[] searchRead(Client client) throws OdooCallMethodException {
+        return client.rpc.searchRead(MODEL, FIELDS, FILTERS, "id", 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.kinnarastudio.odooxmlrpc.benchmarks;
+
+import com.kinnarastudio.odooxmlrpc.annotation.OdooField;
+import com.kinnarastudio.odooxmlrpc.annotation.OdooModel;
+
+/**
+ * Model of {@link RecordMappingBenchmark}, a mapper is generated for it when the module is compiled
+ */
+@OdooModel("res.partner")
+public class Partner {
+    @OdooField("id")
+    private int id;
+    @OdooField("name")
+    private String name;
+    @OdooField("email")
+    private String email;
+    @OdooField("active")
+    private boolean active;
+    @OdooField("credit_limit")
+    private double creditLimit;
+    @OdooField("parent_id")
+    private Integer parentId;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public double getCreditLimit() {
+        return creditLimit;
+    }
+
+    public void setCreditLimit(double creditLimit) {
+        this.creditLimit = creditLimit;
+    }
+
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Integer parentId) {
+        this.parentId = parentId;
+    }
+}
@@ -0,0 +1,55 @@
+package com.kinnarastudio.odooxmlrpc.benchmarks;
+
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compilation of search filters into odoo's prefix notation
+ * <p>
+ * Filters are built once per trial, as an application reusing its filters would, and fresh ones per call are measured
+ * separately since {@link SearchFilter} caches its domain leaf.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrefixationBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    private int filterCount;
+
+    private SearchFilter[] filters;
+
+    @Setup
+    public void setUp() {
+        filters = filters(filterCount);
+    }
+
+    @Benchmark
+    public Object[] prefixation() {
+        return XmlRpcUtil.prefixation(filters);
+    }
+
+    @Benchmark
+    public Object[] prefixationFreshFilters() {
+        return XmlRpcUtil.prefixation(filters(filterCount));
+    }
+
+    @Benchmark
+    public Object[] mathematicPrefixation() {
+        return XmlRpcUtil.mathematicPrefixation(filters);
+    }
+
+    private static SearchFilter[] filters(int count) {
+        final SearchFilter[] filters = new SearchFilter[count];
+        for (int i = 0; i < count; i++) {
+            filters[i] = new SearchFilter(i % 3 == 2 ? SearchFilter.Join.OR : SearchFilter.Join.AND,
+                    "field_" + (i % 16), SearchFilter.Operator.GREATER_EQUAL, i);
+        }
+        return filters;
+    }
+}
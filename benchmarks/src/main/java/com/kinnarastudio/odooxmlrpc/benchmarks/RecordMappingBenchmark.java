@@ -0,0 +1,151 @@
+package com.kinnarastudio.odooxmlrpc.benchmarks;
+
+import com.kinnarastudio.odooxmlrpc.annotation.OdooField;
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.rpc.ModelMapping;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import org.openjdk.jmh.annotations.*;
+import stub.InMemoryOdooServer;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion between record maps and objects by {@link OdooRpc#parseRecord(Class, Map)} and
+ * {@link OdooRpc#getRowMap(Object)}
+ * <p>
+ * Three paths are compared: the mapper generated for {@link Partner}, the cached method handles of {@link ModelMapping}
+ * for {@link ReflectivePartner}, and as a baseline the per-record reflection done before mappings were cached.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordMappingBenchmark {
+    private InMemoryOdooServer server;
+    private MappingRpc rpc;
+    private Map<String, Object> record;
+    private Partner partner;
+    private ReflectivePartner reflectivePartner;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = InMemoryOdooServer.start();
+        rpc = new MappingRpc(server);
+
+        record = new HashMap<>();
+        record.put("id", 42);
+        record.put("name", "Azure Interior");
+        record.put("email", "azure.interior@example.com");
+        record.put("active", true);
+        record.put("credit_limit", 15000.0);
+        record.put("parent_id", new Object[]{7, "Azure Group"});
+        partner = rpc.parse(Partner.class, record).orElseThrow(() -> new IllegalStateException("Record cannot be mapped to Partner"));
+        reflectivePartner = rpc.parse(ReflectivePartner.class, record).orElseThrow(() -> new IllegalStateException("Record cannot be mapped to ReflectivePartner"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        rpc.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Optional<Partner> parseRecord() {
+        return rpc.parse(Partner.class, record);
+    }
+
+    @Benchmark
+    public Map<String, Object> getRowMap() {
+        return rpc.rowMap(partner);
+    }
+
+    @Benchmark
+    public Optional<ReflectivePartner> parseRecordCachedReflection() {
+        return rpc.parse(ReflectivePartner.class, record);
+    }
+
+    @Benchmark
+    public Map<String, Object> getRowMapCachedReflection() {
+        return rpc.rowMap(reflectivePartner);
+    }
+
+    @Benchmark
+    public Optional<ReflectivePartner> parseRecordPerRecordReflection() {
+        return parsePerRecord(ReflectivePartner.class, record);
+    }
+
+    @Benchmark
+    public Map<String, Object> getRowMapPerRecordReflection() {
+        return rowMapPerRecord(reflectivePartner);
+    }
+
+    /**
+     * The per-record reflection of parseRecord before mappings were cached. Values were set as they came, a value of
+     * another type, such as a many2one pair, failed and the field was left unset.
+     */
+    private static <T> Optional<T> parsePerRecord(Class<T> type, Map<String, Object> record) {
+        final T instance;
+        try {
+            instance = type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+
+        for (Field field : type.getDeclaredFields()) {
+            field.setAccessible(true);
+            final String name = Optional.ofNullable(field.getAnnotation(OdooField.class))
+                    .map(OdooField::value)
+                    .orElseGet(field::getName);
+            if (record.containsKey(name)) {
+                try {
+                    field.set(instance, record.get(name));
+                } catch (IllegalAccessException | IllegalArgumentException ignored) {
+                    // ignored, as it was
+                }
+            }
+        }
+        return Optional.of(instance);
+    }
+
+    /**
+     * The per-record reflection of getRowMap before mappings were cached
+     */
+    private static Map<String, Object> rowMapPerRecord(Object object) {
+        final Map<String, Object> map = new HashMap<>();
+        for (Field field : object.getClass().getDeclaredFields()) {
+            field.setAccessible(true);
+            final String name = Optional.ofNullable(field.getAnnotation(OdooField.class))
+                    .map(OdooField::value)
+                    .orElseGet(field::getName);
+            try {
+                map.put(name, field.get(object));
+            } catch (IllegalAccessException ignored) {
+                // ignored, as it was
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Exposes the protected mapping methods
+     */
+    private final static class MappingRpc extends OdooRpc {
+        MappingRpc(InMemoryOdooServer server) throws OdooAuthorizationException {
+            super(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY);
+        }
+
+        <T> Optional<T> parse(Class<T> type, Map<String, Object> record) {
+            return parseRecord(type, record);
+        }
+
+        <T> Map<String, Object> rowMap(T object) {
+            return getRowMap(object);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.kinnarastudio.odooxmlrpc.benchmarks;
+
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcResponseReader;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcUtil;
+import org.apache.xmlrpc.XmlRpcException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * XML-RPC serialization of requests and parsing of <b>search_read()</b> responses, without any network
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XmlRpcBenchmark {
+    @Param({"100", "10000"})
+    private int recordCount;
+
+    private Object[] searchReadParams;
+    private Object[] createParams;
+    private byte[] searchReadResponse;
+
+    @Setup
+    public void setUp() {
+        final SearchFilter[] filters = {
+                new SearchFilter("active", true),
+                new SearchFilter("customer_rank", SearchFilter.Operator.GREATER, 0),
+                new SearchFilter(SearchFilter.Join.OR, "name", SearchFilter.Operator.ILIKE, "azure%"),
+                new SearchFilter("country_id", SearchFilter.Operator.IN, 1, 2, 3, 5, 8, 13),
+        };
+        final Map<String, Object> kwargs = new HashMap<>();
+        kwargs.put("fields", new String[]{"id", "name", "email", "active", "parent_id", "credit_limit", "write_date"});
+        kwargs.put("limit", recordCount);
+        kwargs.put("order", "id asc");
+        searchReadParams = new Object[]{"odoo", 2, "admin", "res.partner", "search_read", new Object[]{XmlRpcUtil.prefixation(filters)}, kwargs};
+
+        final List<Object> values = new ArrayList<>(recordCount);
+        for (int id = 1; id <= recordCount; id++) {
+            values.add(values(id));
+        }
+        createParams = new Object[]{"odoo", 2, "admin", "res.partner", "create", new Object[]{values.toArray()}};
+
+        final StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?><methodResponse><params><param><value><array><data>");
+        for (int id = 1; id <= recordCount; id++) {
+            xml.append("<value><struct>")
+                    .append("<member><name>id</name><value><int>").append(id).append("</int></value></member>")
+                    .append("<member><name>name</name><value><string>Partner ").append(id).append("</string></value></member>")
+                    .append("<member><name>email</name><value><string>partner").append(id).append("@example.com</string></value></member>")
+                    .append("<member><name>active</name><value><boolean>1</boolean></value></member>")
+                    .append("<member><name>parent_id</name><value><array><data><value><int>").append(id % 10 + 1)
+                    .append("</int></value><value><string>Parent ").append(id % 10 + 1).append("</string></value></data></array></value></member>")
+                    .append("<member><name>credit_limit</name><value><double>").append(id * 1.5).append("</double></value></member>")
+                    .append("<member><name>write_date</name><value><string>2024-01-01 10:00:00</string></value></member>")
+                    .append("</struct></value>");
+        }
+        searchReadResponse = xml.append("</data></array></value></param></params></methodResponse>")
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeSearchRead() {
+        return XmlRpcUtil.serializeRequest("execute_kw", searchReadParams);
+    }
+
+    @Benchmark
+    public byte[] serializeCreate() {
+        return XmlRpcUtil.serializeRequest("execute_kw", createParams);
+    }
+
+    @Benchmark
+    public Object parseSearchRead() throws XmlRpcException {
+        return new XmlRpcResponseReader(new ByteArrayInputStream(searchReadResponse), null).readValue();
+    }
+
+    @Benchmark
+    public void streamSearchRead(Blackhole blackhole) throws XmlRpcException {
+        try (XmlRpcResponseReader reader = new XmlRpcResponseReader(new ByteArrayInputStream(searchReadResponse), null)) {
+            while (reader.hasNext()) {
+                blackhole.consume(reader.next());
+            }
+        }
+    }
+
+    private static Map<String, Object> values(int id) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("name", "Partner " + id);
+        values.put("email", "partner" + id + "@example.com");
+        values.put("active", true);
+        values.put("parent_id", id % 10 + 1);
+        values.put("credit_limit", id * 1.5);
+        return values;
+    }
+}
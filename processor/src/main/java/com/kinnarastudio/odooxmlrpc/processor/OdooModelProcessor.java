@@ -0,0 +1,317 @@
+package com.kinnarastudio.odooxmlrpc.processor;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates an <code>&lt;ClassName&gt;OdooMapper</code> for every class annotated with <code>@OdooModel</code>.
+ * <p>
+ * The mapper lives in the same package as the model and reads and writes fields directly,
+ * or through their getter and setter when the field is private. Values are converted with <code>OdooValues</code>.
+ */
+@SupportedAnnotationTypes(OdooModelProcessor.ODOO_MODEL)
+public class OdooModelProcessor extends AbstractProcessor {
+    final static String ODOO_MODEL = "com.kinnarastudio.odooxmlrpc.annotation.OdooModel";
+    final static String ODOO_FIELD = "com.kinnarastudio.odooxmlrpc.annotation.OdooField";
+    private final static String ODOO_MAPPER = "com.kinnarastudio.odooxmlrpc.rpc.OdooMapper";
+    private final static String ODOO_VALUES = "com.kinnarastudio.odooxmlrpc.rpc.OdooValues";
+    private final static String SUFFIX = "OdooMapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@OdooModel can only be used on classes");
+                    continue;
+                }
+
+                try {
+                    generate((TypeElement) element);
+                } catch (IOException e) {
+                    error(element, "Cannot generate mapper: " + e.getMessage());
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        if (type.getModifiers().contains(Modifier.PRIVATE) || type.getModifiers().contains(Modifier.ABSTRACT)
+                || (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))) {
+            error(type, "@OdooModel class must be a concrete, non-private, top level or static nested class");
+            return;
+        }
+
+        if (!hasNoArgConstructor(type)) {
+            error(type, "@OdooModel class must have a non-private no-arg constructor");
+            return;
+        }
+
+        final String model = annotationValue(type, ODOO_MODEL);
+        final List<Property> properties = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+
+            final Property property = property(type, field);
+            if (property == null) {
+                return;
+            }
+            properties.add(property);
+        }
+
+        final String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String typeName = type.getQualifiedName().toString();
+        final String mapperName = mapperSimpleName(type);
+
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(OdooModelProcessor.class.getName()).append("\")\n")
+                .append("public final class ").append(mapperName).append(" implements ").append(ODOO_MAPPER).append('<').append(typeName).append("> {\n")
+                .append("    private final static String[] FIELDS = {");
+        for (int i = 0; i < properties.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append(literal(properties.get(i).name));
+        }
+        source.append("};\n\n")
+                .append("    @Override\n")
+                .append("    public Class<").append(typeName).append("> getType() {\n")
+                .append("        return ").append(typeName).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public String getModel() {\n")
+                .append("        return ").append(literal(model)).append(";\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public String[] getFields() {\n")
+                .append("        return FIELDS.clone();\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ").append(typeName).append(" fromMap(java.util.Map<String, Object> record) {\n")
+                .append("        final ").append(typeName).append(" result = new ").append(typeName).append("();\n");
+        for (Property property : properties) {
+            final String value = property.converter("record.get(" + literal(property.name) + ")");
+            source.append("        if (record.containsKey(").append(literal(property.name)).append(")) {\n")
+                    .append("            ").append(property.write("result", value)).append(";\n")
+                    .append("        }\n");
+        }
+        source.append("        return result;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public java.util.Map<String, Object> toMap(").append(typeName).append(" record) {\n")
+                .append("        final java.util.Map<String, Object> map = new java.util.HashMap<>(").append(properties.size() * 4 / 3 + 1).append(");\n");
+        for (Property property : properties) {
+            source.append("        map.put(").append(literal(property.name)).append(", ").append(property.read("record")).append(");\n");
+        }
+        source.append("        return map;\n")
+                .append("    }\n")
+                .append("}\n");
+
+        final String qualifiedMapperName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedMapperName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private Property property(TypeElement type, VariableElement field) {
+        final String fieldName = field.getSimpleName().toString();
+        final String odooName = Optional.ofNullable(annotationValue(field, ODOO_FIELD)).orElse(fieldName);
+        final TypeMirror fieldType = field.asType();
+        final boolean direct = !field.getModifiers().contains(Modifier.PRIVATE);
+
+        final String getter;
+        final String setter;
+        if (direct) {
+            getter = null;
+            setter = null;
+            if (field.getModifiers().contains(Modifier.FINAL)) {
+                error(field, "@OdooModel field [" + fieldName + "] must not be final");
+                return null;
+            }
+        } else {
+            final String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+            getter = findMethod(type, fieldType, "get" + capitalized, false)
+                    .or(() -> fieldType.getKind() == TypeKind.BOOLEAN ? findMethod(type, fieldType, "is" + capitalized, false) : Optional.empty())
+                    .orElse(null);
+            setter = findMethod(type, fieldType, "set" + capitalized, true).orElse(null);
+
+            if (getter == null || setter == null) {
+                error(field, "Private @OdooModel field [" + fieldName + "] needs a non-private getter and setter, or must not be private");
+                return null;
+            }
+        }
+
+        final String converter = converter(fieldType);
+        if (converter == null) {
+            error(field, "Unsupported @OdooModel field type [" + fieldType + "]");
+            return null;
+        }
+
+        return new Property(odooName, fieldName, getter, setter, converter);
+    }
+
+    /**
+     * Conversion expression template of a field type, <code>%s</code> is replaced by the raw value expression
+     */
+    private String converter(TypeMirror fieldType) {
+        final Types types = processingEnv.getTypeUtils();
+        final String field = "%2$s";
+        switch (fieldType.getKind()) {
+            case INT:
+                return ODOO_VALUES + ".toInt(%1$s, " + field + ")";
+            case LONG:
+                return ODOO_VALUES + ".toLong(%1$s, " + field + ")";
+            case DOUBLE:
+                return ODOO_VALUES + ".toDouble(%1$s, " + field + ")";
+            case FLOAT:
+                return ODOO_VALUES + ".toFloat(%1$s, " + field + ")";
+            case BOOLEAN:
+                return ODOO_VALUES + ".toBoolean(%1$s, " + field + ")";
+            case ARRAY:
+                final String array = fieldType.toString();
+                if ("int[]".equals(array)) {
+                    return ODOO_VALUES + ".toIntArray(%1$s, " + field + ")";
+                } else if ("java.lang.Integer[]".equals(array)) {
+                    return ODOO_VALUES + ".toIntegerArray(%1$s, " + field + ")";
+                }
+                return "(" + array + ") " + ODOO_VALUES + ".cast(%1$s, " + array + ".class, " + field + ")";
+            case DECLARED:
+                final String erased = types.erasure(fieldType).toString();
+                switch (erased) {
+                    case "java.lang.String":
+                        return ODOO_VALUES + ".toText(%1$s, " + field + ")";
+                    case "java.lang.Integer":
+                        return ODOO_VALUES + ".toIntOrNull(%1$s, " + field + ")";
+                    case "java.lang.Long":
+                        return ODOO_VALUES + ".toLongOrNull(%1$s, " + field + ")";
+                    case "java.lang.Double":
+                        return ODOO_VALUES + ".toDoubleOrNull(%1$s, " + field + ")";
+                    case "java.lang.Float":
+                        return ODOO_VALUES + ".toFloatOrNull(%1$s, " + field + ")";
+                    case "java.lang.Boolean":
+                        return ODOO_VALUES + ".toBooleanOrNull(%1$s, " + field + ")";
+                    default:
+                        final String cast = erased.equals(fieldType.toString()) ? "" : "(" + fieldType + ") ";
+                        return cast + ODOO_VALUES + ".cast(%1$s, " + erased + ".class, " + field + ")";
+                }
+            default:
+                return null;
+        }
+    }
+
+    private Optional<String> findMethod(TypeElement type, TypeMirror fieldType, String name, boolean setter) {
+        final Types types = processingEnv.getTypeUtils();
+        return ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type)).stream()
+                .filter(m -> m.getSimpleName().contentEquals(name))
+                .filter(m -> !m.getModifiers().contains(Modifier.PRIVATE) && !m.getModifiers().contains(Modifier.STATIC))
+                .filter(m -> setter
+                        ? m.getParameters().size() == 1 && types.isSameType(m.getParameters().get(0).asType(), fieldType)
+                        : m.getParameters().isEmpty() && types.isSameType(m.getReturnType(), fieldType))
+                .map(m -> m.getSimpleName().toString())
+                .findFirst();
+    }
+
+    private boolean hasNoArgConstructor(TypeElement type) {
+        final List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        return constructors.isEmpty() || constructors.stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE));
+    }
+
+    private String annotationValue(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return String.valueOf(entry.getValue().getValue());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Nested classes are flattened, <code>Outer.Inner</code> becomes <code>Outer_InnerOdooMapper</code>
+     */
+    private static String mapperSimpleName(TypeElement type) {
+        final Deque<String> names = new ArrayDeque<>();
+        Element current = type;
+        while (current instanceof TypeElement) {
+            names.addFirst(current.getSimpleName().toString());
+            current = current.getEnclosingElement();
+        }
+        return String.join("_", names) + SUFFIX;
+    }
+
+    private static String literal(String value) {
+        final StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * A single mapped field
+     */
+    private final static class Property {
+        private final String name;
+        private final String fieldName;
+        private final String getter;
+        private final String setter;
+        private final String converter;
+
+        Property(String name, String fieldName, String getter, String setter, String converter) {
+            this.name = name;
+            this.fieldName = fieldName;
+            this.getter = getter;
+            this.setter = setter;
+            this.converter = converter;
+        }
+
+        String converter(String rawValue) {
+            return String.format(converter, rawValue, literal(name));
+        }
+
+        String read(String instance) {
+            return getter == null ? instance + "." + fieldName : instance + "." + getter + "()";
+        }
+
+        String write(String instance, String value) {
+            return setter == null ? instance + "." + fieldName + " = " + value : instance + "." + setter + "(" + value + ")";
+        }
+    }
+}
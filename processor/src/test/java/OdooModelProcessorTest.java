@@ -0,0 +1,165 @@
+import com.kinnarastudio.odooxmlrpc.processor.OdooModelProcessor;
+import com.kinnarastudio.odooxmlrpc.rpc.ModelMapping;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooMapper;
+import org.junit.Test;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Mappers generated by {@link OdooModelProcessor}, compared with the reflective {@link ModelMapping} of the same class
+ */
+public class OdooModelProcessorTest {
+    private final static String PARTNER = "package sample;\n"
+            + "import com.kinnarastudio.odooxmlrpc.annotation.OdooField;\n"
+            + "import com.kinnarastudio.odooxmlrpc.annotation.OdooModel;\n"
+            + "@OdooModel(\"res.partner\")\n"
+            + "public class Partner {\n"
+            + "    @OdooField(\"id\") int id;\n"
+            + "    @OdooField(\"name\") private String name;\n"
+            + "    @OdooField(\"parent_id\") Integer parentId;\n"
+            + "    @OdooField(\"company_id\") String company;\n"
+            + "    @OdooField(\"category_id\") int[] categoryIds;\n"
+            + "    @OdooField(\"credit_limit\") double creditLimit;\n"
+            + "    @OdooField(\"active\") boolean active;\n"
+            + "    public String getName() { return name; }\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "}\n";
+
+    @Test
+    public void testGeneratedMapperIsPickedUp() throws Exception {
+        final Class<?> generated = compile(PARTNER, true);
+        final Class<?> reflective = compile(PARTNER, false);
+
+        assert ModelMapping.of(generated).getMapper().isPresent();
+        assert ModelMapping.of(reflective).getMapper().isEmpty();
+        assert Arrays.equals(ModelMapping.of(generated).getFields(), ModelMapping.of(reflective).getFields());
+        assert "res.partner".equals(ModelMapping.of(generated).getMapper().map(OdooMapper::getModel).orElse(null));
+    }
+
+    @Test
+    public void testGeneratedAndReflectiveAgree() throws Exception {
+        final ModelMapping<?> generated = ModelMapping.of(compile(PARTNER, true));
+        final ModelMapping<?> reflective = ModelMapping.of(compile(PARTNER, false));
+
+        final Map<String, Object> record = new HashMap<>();
+        record.put("id", 7);
+        record.put("name", "Azure Interior");
+        record.put("parent_id", new Object[]{3, "Azure Group"});
+        record.put("company_id", new Object[]{1, "My Company"});
+        record.put("category_id", new Object[]{4, 5});
+        record.put("credit_limit", 500);
+        record.put("active", true);
+
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("id", 7);
+        expected.put("name", "Azure Interior");
+        expected.put("parent_id", 3);
+        expected.put("company_id", "My Company");
+        expected.put("category_id", new int[]{4, 5});
+        expected.put("credit_limit", 500.0);
+        expected.put("active", true);
+        assertMaps(roundTrip(generated, record), expected);
+        assertMaps(roundTrip(reflective, record), expected);
+
+        // odoo sends false for empty values
+        for (String field : record.keySet()) {
+            record.put(field, false);
+        }
+        expected.put("id", 0);
+        expected.put("name", null);
+        expected.put("parent_id", null);
+        expected.put("company_id", null);
+        expected.put("category_id", null);
+        expected.put("credit_limit", 0.0);
+        expected.put("active", false);
+        assertMaps(roundTrip(generated, record), expected);
+        assertMaps(roundTrip(reflective, record), expected);
+    }
+
+    @Test
+    public void testMismatchThrowsOnBothPaths() throws Exception {
+        for (boolean process : new boolean[]{true, false}) {
+            final ModelMapping<?> mapping = ModelMapping.of(compile(PARTNER, process));
+            assertMismatch(mapping, "id", "not a number");
+            // a list of two ids is not a many2one pair
+            assertMismatch(mapping, "parent_id", new Object[]{3, 4});
+            assertMismatch(mapping, "company_id", new Object[]{3, 4});
+        }
+    }
+
+    @Test
+    public void testUnsupportedFieldIsReported() throws Exception {
+        final String source = "package sample;\n"
+                + "@com.kinnarastudio.odooxmlrpc.annotation.OdooModel(\"res.partner\")\n"
+                + "public class Partner {\n"
+                + "    private String name;\n"
+                + "}\n";
+        final StringWriter output = new StringWriter();
+        assert !run(source, true, Files.createTempDirectory("odoo-processor"), output);
+        assert output.toString().contains("needs a non-private getter and setter") : output;
+    }
+
+    private static void assertMismatch(ModelMapping<?> mapping, String field, Object value) {
+        try {
+            mapping.fromMap(Collections.singletonMap(field, value));
+            assert false : field;
+        } catch (IllegalArgumentException expected) {
+            assert expected.getMessage().contains("[" + field + "]") : expected.getMessage();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Map<String, Object> roundTrip(ModelMapping<T> mapping, Map<String, Object> record) {
+        return mapping.toMap(mapping.fromMap(record).orElseThrow());
+    }
+
+    private static void assertMaps(Map<String, Object> actual, Map<String, Object> expected) {
+        assert actual.keySet().equals(expected.keySet()) : actual.keySet();
+        for (Map.Entry<String, Object> e : expected.entrySet()) {
+            assert Objects.deepEquals(actual.get(e.getKey()), e.getValue()) : e.getKey() + "=" + actual.get(e.getKey());
+        }
+    }
+
+    /**
+     * Compile a source into its own class loader, with or without running the processor
+     */
+    private static Class<?> compile(String source, boolean process) throws Exception {
+        final Path output = Files.createTempDirectory("odoo-processor");
+        final StringWriter diagnostics = new StringWriter();
+        // compiled outside the assert, which would otherwise skip it when assertions are disabled
+        final boolean compiled = run(source, process, output, diagnostics);
+        assert compiled : diagnostics;
+        assert Files.exists(output.resolve("sample/PartnerOdooMapper.class")) == process;
+
+        final ClassLoader loader = new URLClassLoader(new URL[]{output.toUri().toURL()}, OdooModelProcessorTest.class.getClassLoader());
+        return Class.forName("sample.Partner", true, loader);
+    }
+
+    private static boolean run(String source, boolean process, Path output, StringWriter diagnostics) throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final String classPath = new File(OdooMapper.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator + System.getProperty("java.class.path");
+        final List<String> options = new ArrayList<>(Arrays.asList("-d", output.toString(), "-classpath", classPath));
+        if (process) {
+            options.addAll(Arrays.asList("-processor", OdooModelProcessor.class.getName()));
+        } else {
+            options.add("-proc:none");
+        }
+
+        final JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///sample/Partner.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        return compiler.getTask(diagnostics, null, null, options, null, Collections.singletonList(file)).call();
+    }
+}
@@ -0,0 +1,45 @@
+package com.kinnarastudio.odooxmlrpc.cache;
+
+/**
+ * Eviction policy of a model in the {@link RecordCache}
+ */
+public final class CachePolicy {
+    /**
+     * Policy which does not cache at all
+     */
+    public final static CachePolicy DISABLED = new CachePolicy(0, 0L);
+
+    private final int maxRecords;
+    private final long ttl;
+
+    /**
+     * Constructs a policy
+     *
+     * @param maxRecords Maximum number of cached records of the model, the least recently used is evicted first
+     * @param ttl        Time to live of a cached record in milliseconds
+     */
+    public CachePolicy(int maxRecords, long ttl) {
+        if (maxRecords < 0 || ttl < 0) {
+            throw new IllegalArgumentException("maxRecords and ttl must not be negative");
+        }
+        this.maxRecords = maxRecords;
+        this.ttl = ttl;
+    }
+
+    public int getMaxRecords() {
+        return maxRecords;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Check if records are cached under this policy
+     *
+     * @return true when caching is enabled
+     */
+    public boolean isEnabled() {
+        return maxRecords > 0 && ttl > 0;
+    }
+}
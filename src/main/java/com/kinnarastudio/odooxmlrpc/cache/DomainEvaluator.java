@@ -0,0 +1,458 @@
+package com.kinnarastudio.odooxmlrpc.cache;
+
+import com.kinnarastudio.odooxmlrpc.model.IntIdSet;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.ModelMapping;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcUtil;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Search domain evaluated in memory, against record maps or objects annotated with
+ * {@link com.kinnarastudio.odooxmlrpc.annotation.OdooModel}, such as the records of a {@link RecordCache}
+ * <p>
+ * The domain is compiled once into a chain of predicates: field readers are resolved, <code>in</code> operands are
+ * hashed and <code>=like</code> patterns turned into regular expressions, so testing a record only reads its values.
+ * Operators follow odoo. Unset values are <code>false</code>, a many2one <code>[id, name]</code> compares by id and
+ * matches patterns by name, an x2many list matches when any of its ids does, and negative operators match whatever
+ * their positive operator does not, unset values included.
+ * <code>child_of</code>, <code>parent_of</code> and dotted paths need other records and are rejected.
+ * <pre>{@code
+ * DomainEvaluator<Map<String, Object>> draft = DomainEvaluator.of(new SearchFilter("state", "draft"));
+ * Map<String, Object>[] orders = cache.searchRead("sale.order", fields, draft);
+ * }</pre>
+ *
+ * @param <T> The type of the records
+ */
+public final class DomainEvaluator<T> implements Predicate<T> {
+    private final Predicate<T> predicate;
+
+    private DomainEvaluator(Object[] domain, Function<String, Function<T, Object>> readers) {
+        this.predicate = new Parser<>(domain, readers).parse();
+    }
+
+    /**
+     * Compile filters into an evaluator of record maps, joined as {@link XmlRpcUtil#prefixation(SearchFilter[])} does
+     *
+     * @param filters The filters, none to match every record
+     * @return the evaluator
+     * @throws IllegalArgumentException when a filter cannot be evaluated in memory
+     */
+    @Nonnull
+    public static DomainEvaluator<Map<String, Object>> of(SearchFilter... filters) throws IllegalArgumentException {
+        return ofDomain(XmlRpcUtil.prefixation(filters));
+    }
+
+    /**
+     * Compile a domain in prefix notation, such as {@link com.kinnarastudio.odooxmlrpc.model.Domain#toPrefix()},
+     * into an evaluator of record maps
+     *
+     * @param domain The domain
+     * @return the evaluator
+     * @throws IllegalArgumentException when the domain is malformed or cannot be evaluated in memory
+     */
+    @Nonnull
+    public static DomainEvaluator<Map<String, Object>> ofDomain(@Nonnull Object[] domain) throws IllegalArgumentException {
+        return new DomainEvaluator<>(domain, field -> record -> record.get(field));
+    }
+
+    /**
+     * Compile filters into an evaluator of objects
+     *
+     * @param type    The class of the objects
+     * @param filters The filters, none to match every object
+     * @param <T>     The type of the objects
+     * @return the evaluator
+     * @throws IllegalArgumentException when a filter cannot be evaluated in memory or names a field the class does not map
+     */
+    @Nonnull
+    public static <T> DomainEvaluator<T> of(@Nonnull Class<T> type, SearchFilter... filters) throws IllegalArgumentException {
+        return ofDomain(type, XmlRpcUtil.prefixation(filters));
+    }
+
+    /**
+     * Compile a domain in prefix notation into an evaluator of objects
+     *
+     * @param type   The class of the objects
+     * @param domain The domain
+     * @param <T>    The type of the objects
+     * @return the evaluator
+     * @throws IllegalArgumentException when the domain is malformed, cannot be evaluated in memory or names a field the class does not map
+     */
+    @Nonnull
+    public static <T> DomainEvaluator<T> ofDomain(@Nonnull Class<T> type, @Nonnull Object[] domain) throws IllegalArgumentException {
+        final ModelMapping<T> mapping = ModelMapping.of(type);
+        return new DomainEvaluator<>(domain, field -> mapping.getReader(field)
+                .orElseThrow(() -> new IllegalArgumentException("Class [" + type.getName() + "] has no field [" + field + "]")));
+    }
+
+    /**
+     * Check if a record matches the domain
+     *
+     * @param record The record
+     * @return true when it matches
+     */
+    @Override
+    public boolean test(T record) {
+        return predicate.test(record);
+    }
+
+    /**
+     * Get the matching records
+     *
+     * @param records The records
+     * @return the matching records, in their original order
+     */
+    @Nonnull
+    public List<T> filter(@Nonnull Iterable<? extends T> records) {
+        final List<T> result = new ArrayList<>();
+        for (T record : records) {
+            if (predicate.test(record)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Recursive descent over a domain in prefix notation, terms at top level being joined with AND
+     */
+    private final static class Parser<T> {
+        private final Object[] domain;
+        private final Function<String, Function<T, Object>> readers;
+        private int position;
+
+        Parser(Object[] domain, Function<String, Function<T, Object>> readers) {
+            this.domain = domain;
+            this.readers = readers;
+        }
+
+        Predicate<T> parse() {
+            Predicate<T> result = null;
+            while (position < domain.length) {
+                final Predicate<T> term = term();
+                result = result == null ? term : Junction.of(true, result, term);
+            }
+            return result == null ? record -> true : result;
+        }
+
+        private Predicate<T> term() {
+            if (position >= domain.length) {
+                throw new IllegalArgumentException("Domain ends before its last operand");
+            }
+
+            final Object term = domain[position++];
+            if ("&".equals(term) || "|".equals(term)) {
+                final Predicate<T> left = term();
+                return Junction.of("&".equals(term), left, term());
+            } else if ("!".equals(term)) {
+                return term().negate();
+            } else if (term instanceof Object[] || term instanceof List) {
+                return leaf(term instanceof List ? ((List<?>) term).toArray() : (Object[]) term);
+            }
+            throw new IllegalArgumentException("Invalid domain term [" + term + "]");
+        }
+
+        private Predicate<T> leaf(Object[] leaf) {
+            if (leaf.length != 3 || !(leaf[1] instanceof String)) {
+                throw new IllegalArgumentException("Invalid domain leaf " + Arrays.deepToString(leaf));
+            }
+
+            final Predicate<Object> test = valueTest((String) leaf[1], leaf[2]);
+            if (!(leaf[0] instanceof String)) {
+                // constant leaf such as [1, "=", 1]
+                final boolean result = test.test(leaf[0]);
+                return record -> result;
+            }
+
+            final String field = (String) leaf[0];
+            if (field.indexOf('.') >= 0) {
+                throw new IllegalArgumentException("Field path [" + field + "] cannot be evaluated in memory");
+            }
+
+            final Function<T, Object> reader = readers.apply(field);
+            return record -> test.test(reader.apply(record));
+        }
+    }
+
+    /**
+     * Terms joined with the same operator, flattened so that a chain of <code>&amp;</code> is a single loop
+     */
+    private final static class Junction<T> implements Predicate<T> {
+        private final boolean and;
+        private final Predicate<T>[] terms;
+
+        private Junction(boolean and, Predicate<T>[] terms) {
+            this.and = and;
+            this.terms = terms;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <T> Predicate<T> of(boolean and, Predicate<T> left, Predicate<T> right) {
+            final List<Predicate<T>> terms = new ArrayList<>();
+            for (Predicate<T> term : Arrays.asList(left, right)) {
+                if (term instanceof Junction && ((Junction<T>) term).and == and) {
+                    terms.addAll(Arrays.asList(((Junction<T>) term).terms));
+                } else {
+                    terms.add(term);
+                }
+            }
+            return new Junction<>(and, terms.toArray(new Predicate[0]));
+        }
+
+        @Override
+        public boolean test(T record) {
+            for (Predicate<T> term : terms) {
+                if (term.test(record) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        }
+    }
+
+    /**
+     * Compile the test of a record value
+     *
+     * @param symbol  The operator, see {@link SearchFilter.Operator}
+     * @param operand The operand
+     * @return the test
+     */
+    private static Predicate<Object> valueTest(String symbol, Object operand) {
+        final Object value = single(operand);
+        switch (symbol) {
+            case "!=":
+                return equalTo(value).negate();
+            case "like":
+                return like("%" + value + "%", false);
+            case "not like":
+                return like("%" + value + "%", false).negate();
+            case "ilike":
+                return like("%" + value + "%", true);
+            case "not ilike":
+                return like("%" + value + "%", true).negate();
+            default:
+                break;
+        }
+
+        final SearchFilter.Operator operator = SearchFilter.Operator.parse(symbol);
+        switch (operator) {
+            case EQUAL:
+                return equalTo(value);
+            case NOT_EQUAL:
+                return equalTo(value).negate();
+            case GREATER:
+                return ordered(value, c -> c > 0);
+            case GREATER_EQUAL:
+                return ordered(value, c -> c >= 0);
+            case LESS:
+                return ordered(value, c -> c < 0);
+            case LESS_EQUAL:
+                return ordered(value, c -> c <= 0);
+            case IN:
+                return in(operand);
+            case NOT_IN:
+                return in(operand).negate();
+            case LIKE:
+                return like(String.valueOf(value), false);
+            case NOT_LIKE:
+                return like(String.valueOf(value), false).negate();
+            case ILIKE:
+                return like(String.valueOf(value), true);
+            case NOT_ILIKE:
+                return like(String.valueOf(value), true).negate();
+            case UNSET_OR_EQUAL:
+                return isUnset(value) ? actual -> true : equalTo(value);
+            default:
+                throw new IllegalArgumentException("Operator [" + operator + "] cannot be evaluated in memory");
+        }
+    }
+
+    /**
+     * Unwrap an operand of a single element, as passed by {@link SearchFilter#SearchFilter(String, SearchFilter.Operator, Object...)}
+     */
+    private static Object single(Object operand) {
+        if (operand instanceof Object[] && ((Object[]) operand).length == 1) {
+            return ((Object[]) operand)[0];
+        } else if (operand instanceof int[] && ((int[]) operand).length == 1) {
+            return ((int[]) operand)[0];
+        }
+        return operand;
+    }
+
+    /**
+     * Compile <code>=</code>, which odoo turns into <code>in</code> for a list operand
+     */
+    private static Predicate<Object> equalTo(Object value) {
+        if (value instanceof int[] || value instanceof Collection || value instanceof Object[] && !isMany2one(value)) {
+            return in(value);
+        }
+
+        final Object expected = scalar(value);
+        return any(actual -> same(actual, expected), false);
+    }
+
+    private static Predicate<Object> ordered(Object value, IntPredicate sign) {
+        final Object expected = scalar(value);
+        return any(actual -> {
+            if (actual instanceof Number && expected instanceof Number) {
+                return sign.test(Double.compare(((Number) actual).doubleValue(), ((Number) expected).doubleValue()));
+            } else if (actual instanceof String && expected instanceof String) {
+                return sign.test(((String) actual).compareTo((String) expected));
+            }
+            return false;
+        }, false);
+    }
+
+    private static Predicate<Object> in(Object operand) {
+        // a list passed alone to the varargs constructor arrives wrapped in another one
+        final Object single = single(operand);
+        final Object value = single instanceof int[] || single instanceof Object[] || single instanceof Collection ? single : operand;
+
+        final Object[] operands;
+        if (value instanceof int[]) {
+            final IntIdSet ids = IntIdSet.of((int[]) value);
+            return any(actual -> actual instanceof Integer && ids.contains((Integer) actual), false);
+        } else if (value instanceof Object[]) {
+            operands = (Object[]) value;
+        } else if (value instanceof Collection) {
+            operands = ((Collection<?>) value).toArray();
+        } else {
+            operands = new Object[]{value};
+        }
+
+        if (Arrays.stream(operands).allMatch(o -> o instanceof Integer)) {
+            final IntIdSet ids = IntIdSet.of(Arrays.stream(operands).mapToInt(o -> (Integer) o).toArray());
+            return any(actual -> actual instanceof Integer && ids.contains((Integer) actual), false);
+        }
+
+        final Set<Object> keys = new HashSet<>(operands.length * 4 / 3 + 1);
+        for (Object element : operands) {
+            keys.add(key(scalar(element)));
+        }
+        return any(actual -> keys.contains(key(actual)), false);
+    }
+
+    /**
+     * Compile a <code>like</code> pattern, where <code>%</code> matches any text, <code>_</code> any character and
+     * <code>\</code> escapes the next character
+     */
+    private static Predicate<Object> like(String pattern, boolean ignoreCase) {
+        final StringBuilder regex = new StringBuilder(pattern.length() + 16);
+        final StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else if (c == '\\' && i + 1 < pattern.length()) {
+                literal.append(pattern.charAt(++i));
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+
+        final Pattern compiled = Pattern.compile(regex.toString(),
+                Pattern.DOTALL | (ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0));
+        return any(actual -> !isUnset(actual) && compiled.matcher(actual.toString()).matches(), true);
+    }
+
+    /**
+     * Apply a test to a record value, or to each id of an x2many value until one matches
+     *
+     * @param test  The test of a single value
+     * @param label true to test a many2one by its name rather than its id
+     */
+    private static Predicate<Object> any(Predicate<Object> test, boolean label) {
+        return value -> {
+            if (value instanceof int[]) {
+                final int[] ids = (int[]) value;
+                for (int id : ids) {
+                    if (test.test(id)) {
+                        return true;
+                    }
+                }
+                return ids.length == 0 && test.test(false);
+            } else if (value instanceof Object[] && !isMany2one(value)) {
+                final Object[] values = (Object[]) value;
+                for (Object element : values) {
+                    if (test.test(scalar(element))) {
+                        return true;
+                    }
+                }
+                return values.length == 0 && test.test(false);
+            } else if (value instanceof Collection) {
+                final Collection<?> values = (Collection<?>) value;
+                for (Object element : values) {
+                    if (test.test(scalar(element))) {
+                        return true;
+                    }
+                }
+                return values.isEmpty() && test.test(false);
+            }
+            return test.test(label && isMany2one(value) ? ((Object[]) value)[1] : scalar(value));
+        };
+    }
+
+    private static boolean isMany2one(Object value) {
+        if (!(value instanceof Object[])) {
+            return false;
+        }
+
+        final Object[] values = (Object[]) value;
+        return values.length == 2 && values[0] instanceof Integer && values[1] instanceof String;
+    }
+
+    private static boolean isUnset(Object value) {
+        return value == null || Boolean.FALSE.equals(value);
+    }
+
+    /**
+     * Reduce a value to what odoo compares, <code>false</code> for unset and the id of a many2one
+     */
+    private static Object scalar(Object value) {
+        if (value == null) {
+            return false;
+        } else if (isMany2one(value)) {
+            return ((Object[]) value)[0];
+        }
+        return value;
+    }
+
+    private static boolean same(Object actual, Object expected) {
+        if (actual instanceof Number && expected instanceof Number) {
+            return isIntegral(actual) && isIntegral(expected)
+                    ? ((Number) actual).longValue() == ((Number) expected).longValue()
+                    : ((Number) actual).doubleValue() == ((Number) expected).doubleValue();
+        }
+        return actual.equals(expected);
+    }
+
+    /**
+     * Hash key of a value, equal for numbers which {@link #same(Object, Object)} considers equal
+     */
+    private static Object key(Object value) {
+        if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            return isIntegral(value) || number == Math.rint(number) && !Double.isInfinite(number)
+                    ? (Object) ((Number) value).longValue()
+                    : (Object) number;
+        }
+        return value;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+}
@@ -0,0 +1,365 @@
+package com.kinnarastudio.odooxmlrpc.cache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Cache of records read through {@link com.kinnarastudio.odooxmlrpc.rpc.OdooRpc#read(String, String[], int[])},
+ * keyed by model, record id and requested field set.
+ * <p>
+ * Each model has its own {@link CachePolicy}, models without one use the default policy.
+ * Records are copied in and out so callers cannot change cached values. Thread safe.
+ * <p>
+ * A read racing with a write could cache the record as it was before the write. Readers take a {@link #stamp()}
+ * before reading and pass it to {@link #put(String, String[], Map, long)}, which drops the record when it was
+ * invalidated since.
+ */
+public class RecordCache {
+    private final static String ALL_FIELDS = "*";
+
+    /**
+     * Invalidated ids remembered per model, older invalidations are only known by their latest stamp
+     */
+    private final static int MAX_INVALIDATIONS = 4096;
+
+    private final CachePolicy defaultPolicy;
+    private final ConcurrentMap<String, CachePolicy> policies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ModelCache> models = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Invalidations> invalidations = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private volatile long invalidatedAll;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructs a record cache which only caches models with an explicit policy
+     */
+    public RecordCache() {
+        this(CachePolicy.DISABLED);
+    }
+
+    /**
+     * Constructs a record cache
+     *
+     * @param defaultPolicy The policy of models without an explicit one
+     */
+    public RecordCache(@Nonnull CachePolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * Set the policy of a model, dropping its cached records
+     *
+     * @param model  The odoo model
+     * @param policy The policy
+     */
+    public void setPolicy(@Nonnull String model, @Nonnull CachePolicy policy) {
+        policies.put(model, policy);
+        invalidate(model);
+    }
+
+    @Nonnull
+    public CachePolicy getPolicy(@Nonnull String model) {
+        return policies.getOrDefault(model, defaultPolicy);
+    }
+
+    /**
+     * Check if a model is cached
+     *
+     * @param model The odoo model
+     * @return true when the policy of the model is enabled
+     */
+    public boolean isCached(@Nonnull String model) {
+        return getPolicy(model).isEnabled();
+    }
+
+    /**
+     * Get a cached record
+     *
+     * @param model    The odoo model
+     * @param fields   The requested fields, null for all
+     * @param recordId The record id
+     * @return a copy of the record, null when missing or expired
+     */
+    @Nullable
+    public Map<String, Object> get(@Nonnull String model, String[] fields, int recordId) {
+        final ModelCache cache = models.get(model);
+        final Map<String, Object> record = cache == null ? null : cache.get(recordId, fieldSetKey(fields));
+        if (record == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return new HashMap<>(record);
+    }
+
+    /**
+     * Search the cached records of a model without a round trip
+     * <p>
+     * Only unexpired records read with the same field set are searched, so unless the whole model is cached the result
+     * is a subset of what <b>search_read()</b> would return. Lookups are not counted as hits or misses.
+     *
+     * @param model  The odoo model
+     * @param fields The requested fields the records were read with, null for all
+     * @param filter The filter, such as a {@link DomainEvaluator}
+     * @return copies of the matching records, by ascending id
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public Map<String, Object>[] searchRead(@Nonnull String model, String[] fields, @Nonnull Predicate<Map<String, Object>> filter) {
+        final ModelCache cache = models.get(model);
+        return cache == null ? new Map[0] : cache.search(fieldSetKey(fields), filter);
+    }
+
+    /**
+     * Get the stamp of the current state, to take before reading records that will be put
+     *
+     * @return the stamp
+     * @see #put(String, String[], Map, long)
+     */
+    public long stamp() {
+        return clock.get();
+    }
+
+    /**
+     * Put a record
+     *
+     * @param model  The odoo model
+     * @param fields The requested fields the record was read with, null for all
+     * @param record The record, must contain <code>id</code>
+     */
+    public void put(@Nonnull String model, String[] fields, @Nonnull Map<String, Object> record) {
+        put(model, fields, record, Long.MAX_VALUE);
+    }
+
+    /**
+     * Put a record unless it was invalidated after it was read
+     *
+     * @param model  The odoo model
+     * @param fields The requested fields the record was read with, null for all
+     * @param record The record, must contain <code>id</code>
+     * @param stamp  The {@link #stamp()} taken before the record was read
+     * @return true when the record was put
+     */
+    public boolean put(@Nonnull String model, String[] fields, @Nonnull Map<String, Object> record, long stamp) {
+        final CachePolicy policy = getPolicy(model);
+        final Object id = record.get("id");
+        if (!policy.isEnabled() || !(id instanceof Integer)) {
+            return false;
+        }
+
+        final Invalidations invalidated = invalidations(model);
+        synchronized (invalidated) {
+            if (stamp < invalidatedAll || stamp < invalidated.get((Integer) id)) {
+                return false;
+            }
+
+            models.computeIfAbsent(model, m -> new ModelCache(policy))
+                    .put((Integer) id, fieldSetKey(fields), new HashMap<>(record));
+            return true;
+        }
+    }
+
+    /**
+     * Remove every field set of a record
+     *
+     * @param model    The odoo model
+     * @param recordId The record id
+     */
+    public void invalidate(@Nonnull String model, int recordId) {
+        final Invalidations invalidated = invalidations(model);
+        synchronized (invalidated) {
+            invalidated.put(recordId, clock.incrementAndGet());
+            Optional.ofNullable(models.get(model)).ifPresent(c -> c.remove(recordId));
+        }
+    }
+
+    /**
+     * Remove all records of a model
+     *
+     * @param model The odoo model
+     */
+    public void invalidate(@Nonnull String model) {
+        final Invalidations invalidated = invalidations(model);
+        synchronized (invalidated) {
+            invalidated.invalidateAll(clock.incrementAndGet());
+            models.remove(model);
+        }
+    }
+
+    /**
+     * Remove all records
+     */
+    public void invalidateAll() {
+        invalidatedAll = clock.incrementAndGet();
+        for (Map.Entry<String, Invalidations> entry : invalidations.entrySet()) {
+            // waits for puts which checked the stamp before it changed
+            synchronized (entry.getValue()) {
+                models.remove(entry.getKey());
+            }
+        }
+        models.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Get the ratio of hits to lookups
+     *
+     * @return hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        final long h = hits.get();
+        final long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Get the number of cached records of a model
+     *
+     * @param model The odoo model
+     * @return number of record ids
+     */
+    public int size(@Nonnull String model) {
+        return Optional.ofNullable(models.get(model)).map(ModelCache::size).orElse(0);
+    }
+
+    private Invalidations invalidations(String model) {
+        return invalidations.computeIfAbsent(model, m -> new Invalidations());
+    }
+
+    private static String fieldSetKey(String[] fields) {
+        if (fields == null || fields.length == 0) {
+            return ALL_FIELDS;
+        }
+
+        final String[] sorted = fields.clone();
+        Arrays.sort(sorted);
+        return String.join(",", sorted);
+    }
+
+    /**
+     * Records of one model, least recently used first
+     */
+    private final class ModelCache {
+        private final CachePolicy policy;
+        private final LinkedHashMap<Integer, Map<String, CachedRecord>> records;
+
+        ModelCache(CachePolicy policy) {
+            this.policy = policy;
+            this.records = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Map<String, CachedRecord>> eldest) {
+                    final boolean evict = size() > ModelCache.this.policy.getMaxRecords();
+                    if (evict) {
+                        evictions.incrementAndGet();
+                    }
+                    return evict;
+                }
+            };
+        }
+
+        synchronized Map<String, Object> get(int id, String fieldSet) {
+            final Map<String, CachedRecord> fieldSets = records.get(id);
+            final CachedRecord entry = fieldSets == null ? null : fieldSets.get(fieldSet);
+            if (entry == null) {
+                return null;
+            }
+
+            if (System.currentTimeMillis() - entry.cachedAt >= policy.getTtl()) {
+                fieldSets.remove(fieldSet);
+                if (fieldSets.isEmpty()) {
+                    records.remove(id);
+                }
+                return null;
+            }
+            return entry.record;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized Map<String, Object>[] search(String fieldSet, Predicate<Map<String, Object>> filter) {
+            final long now = System.currentTimeMillis();
+            final SortedMap<Integer, Map<String, Object>> result = new TreeMap<>();
+            for (Map.Entry<Integer, Map<String, CachedRecord>> entry : records.entrySet()) {
+                final CachedRecord cached = entry.getValue().get(fieldSet);
+                if (cached != null && now - cached.cachedAt < policy.getTtl() && filter.test(cached.record)) {
+                    result.put(entry.getKey(), new HashMap<>(cached.record));
+                }
+            }
+            return result.values().toArray(new Map[0]);
+        }
+
+        synchronized void put(int id, String fieldSet, Map<String, Object> record) {
+            records.computeIfAbsent(id, k -> new HashMap<>(4))
+                    .put(fieldSet, new CachedRecord(record, System.currentTimeMillis()));
+        }
+
+        synchronized void remove(int id) {
+            records.remove(id);
+        }
+
+        synchronized int size() {
+            return records.size();
+        }
+    }
+
+    /**
+     * Stamps of the latest invalidations of a model, guarded by its own monitor
+     */
+    private final static class Invalidations {
+        private final LinkedHashMap<Integer, Long> stamps = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                final boolean forget = size() > MAX_INVALIDATIONS;
+                if (forget) {
+                    floor = Math.max(floor, eldest.getValue());
+                }
+                return forget;
+            }
+        };
+
+        // invalidation stamp of every id not in stamps
+        private long floor;
+
+        long get(int id) {
+            return Math.max(floor, stamps.getOrDefault(id, 0L));
+        }
+
+        void put(int id, long stamp) {
+            stamps.remove(id);
+            stamps.put(id, stamp);
+        }
+
+        void invalidateAll(long stamp) {
+            stamps.clear();
+            floor = stamp;
+        }
+    }
+
+    private final static class CachedRecord {
+        private final Map<String, Object> record;
+        private final long cachedAt;
+
+        CachedRecord(Map<String, Object> record, long cachedAt) {
+            this.record = record;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
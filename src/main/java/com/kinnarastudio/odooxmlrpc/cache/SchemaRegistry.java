@@ -0,0 +1,231 @@
+package com.kinnarastudio.odooxmlrpc.cache;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.ModelSchema;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Cache of <b>fields_get()</b> results per database, model and requested attributes.
+ * <p>
+ * Entries expire after a time to live and the least recently used entry is evicted once the registry is full.
+ * Thread safe, a registry may be shared by several {@link com.kinnarastudio.odooxmlrpc.rpc.OdooRpc} instances
+ * as long as they connect to the same server.
+ */
+public class SchemaRegistry {
+    public final static long DEFAULT_TTL = 10 * 60_000L;
+    public final static int DEFAULT_MAX_ENTRIES = 256;
+
+    private final long ttl;
+    private final int maxEntries;
+    private final LinkedHashMap<Key, ModelSchema> entries;
+
+    /**
+     * Constructs a registry with default time to live and size
+     */
+    public SchemaRegistry() {
+        this(DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a registry
+     *
+     * @param ttl        Time to live of an entry in milliseconds, 0 disables caching
+     * @param maxEntries Maximum number of cached schemas
+     */
+    public SchemaRegistry(long ttl, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ModelSchema> eldest) {
+                return size() > SchemaRegistry.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get a schema, loading it when it is missing or expired
+     *
+     * @param database   The database name
+     * @param model      The odoo model
+     * @param attributes The requested field attributes, null for all
+     * @param loader     Loads the schema from odoo
+     * @return the schema
+     * @throws OdooCallMethodException when loading failed
+     */
+    @Nonnull
+    public ModelSchema get(@Nonnull String database, @Nonnull String model, String[] attributes, @Nonnull Loader loader) throws OdooCallMethodException {
+        final ModelSchema cached = peek(database, model, attributes);
+        if (cached != null) {
+            return cached;
+        }
+
+        // load outside the lock, concurrent misses on the same key may load twice
+        final ModelSchema loaded = loader.load(model, attributes);
+        if (ttl > 0) {
+            put(new Key(database, model, attributes), loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Get a cached schema without loading it
+     *
+     * @param database   The database name
+     * @param model      The odoo model
+     * @param attributes The requested field attributes, null for all
+     * @return the schema, null when it is missing or expired
+     */
+    @Nullable
+    public ModelSchema peek(@Nonnull String database, @Nonnull String model, String[] attributes) {
+        final Key key = new Key(database, model, attributes);
+        final long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            final ModelSchema cached = entries.get(key);
+            return cached != null && now - cached.getLoadedAt() < ttl ? cached : null;
+        }
+    }
+
+    /**
+     * Put a schema, replacing any cached one
+     *
+     * @param schema     The schema
+     * @param attributes The field attributes the schema was loaded with, null for all
+     */
+    public void put(@Nonnull ModelSchema schema, String[] attributes) {
+        put(new Key(schema.getDatabase(), schema.getModel(), attributes), schema);
+    }
+
+    /**
+     * Get the cached schemas of a database, including expired ones
+     *
+     * @param database The database name
+     * @return the cached entries
+     */
+    @Nonnull
+    public List<Entry> getEntries(@Nonnull String database) {
+        synchronized (entries) {
+            final List<Entry> result = new ArrayList<>();
+            entries.forEach((k, v) -> {
+                if (k.database.equals(database)) {
+                    result.add(new Entry(v, k.attributes == null ? null : k.attributes.toArray(new String[0])));
+                }
+            });
+            return result;
+        }
+    }
+
+    /**
+     * Remove all cached schemas of a model
+     *
+     * @param database The database name
+     * @param model    The odoo model
+     */
+    public void invalidate(@Nonnull String database, @Nonnull String model) {
+        synchronized (entries) {
+            entries.keySet().removeIf(k -> k.database.equals(database) && k.model.equals(model));
+        }
+    }
+
+    /**
+     * Remove all cached schemas
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached schemas
+     *
+     * @return number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    private void put(Key key, ModelSchema schema) {
+        synchronized (entries) {
+            entries.put(key, schema);
+        }
+    }
+
+    /**
+     * Loads a schema from odoo
+     */
+    @FunctionalInterface
+    public interface Loader {
+        @Nonnull
+        ModelSchema load(@Nonnull String model, String[] attributes) throws OdooCallMethodException;
+    }
+
+    /**
+     * A cached schema with the field attributes it was loaded with
+     */
+    public final static class Entry {
+        private final ModelSchema schema;
+        private final String[] attributes;
+
+        public Entry(@Nonnull ModelSchema schema, String[] attributes) {
+            this.schema = schema;
+            this.attributes = attributes;
+        }
+
+        public ModelSchema getSchema() {
+            return schema;
+        }
+
+        /**
+         * Get the field attributes
+         *
+         * @return the field attributes, null for all
+         */
+        public String[] getAttributes() {
+            return attributes;
+        }
+    }
+
+    private final static class Key {
+        private final String database;
+        private final String model;
+        private final Set<String> attributes;
+
+        Key(String database, String model, String[] attributes) {
+            this.database = database;
+            this.model = model;
+            this.attributes = attributes == null ? null : new TreeSet<>(Arrays.asList(attributes));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return database.equals(key.database) && model.equals(key.model) && Objects.equals(attributes, key.attributes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(database, model, attributes);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.kinnarastudio.odooxmlrpc.cache;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooUtilityException;
+import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.ModelSchema;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local snapshot of {@link SchemaRegistry} entries, so a new JVM does not pay <b>fields_get()</b> latency
+ * for every model it touches.
+ * <p>
+ * The snapshot is a gzip compressed binary file holding the database name, a fingerprint of the installed
+ * module versions and the cached schemas. Values are stored with a small tagged encoding of the XML-RPC types.
+ */
+public class SchemaSnapshot {
+    private final static int MAGIC = 0x4F445353;
+    private final static int FORMAT_VERSION = 1;
+
+    private final static byte TAG_NULL = 0;
+    private final static byte TAG_FALSE = 1;
+    private final static byte TAG_TRUE = 2;
+    private final static byte TAG_INT = 3;
+    private final static byte TAG_DOUBLE = 4;
+    private final static byte TAG_STRING = 5;
+    private final static byte TAG_ARRAY = 6;
+    private final static byte TAG_MAP = 7;
+    private final static byte TAG_DATE = 8;
+    private final static byte TAG_LONG = 9;
+
+    private final String database;
+    private final String fingerprint;
+    private final List<SchemaRegistry.Entry> entries;
+
+    /**
+     * Constructs a snapshot
+     *
+     * @param database    The database name
+     * @param fingerprint Fingerprint of the installed module versions, null when unknown
+     * @param entries     The cached schemas
+     */
+    public SchemaSnapshot(@Nonnull String database, @Nullable String fingerprint, @Nonnull List<SchemaRegistry.Entry> entries) {
+        this.database = database;
+        this.fingerprint = fingerprint;
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    @Nullable
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public List<SchemaRegistry.Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Read a snapshot file
+     *
+     * @param file The snapshot file
+     * @return the snapshot, empty when the file does not exist
+     * @throws OdooUtilityException when the file cannot be read or has an unknown format
+     */
+    @Nonnull
+    public static Optional<SchemaSnapshot> read(@Nonnull Path file) throws OdooUtilityException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new OdooUtilityException("Unknown schema snapshot format [" + file + "]");
+            }
+
+            final String database = readString(in);
+            final String fingerprint = (String) readValue(in);
+            final long now = System.currentTimeMillis();
+
+            final int count = in.readInt();
+            final List<SchemaRegistry.Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final String model = readString(in);
+                final Object[] attributes = (Object[]) readValue(in);
+                final long loadedAt = in.readLong();
+
+                final int fieldCount = in.readInt();
+                final List<Field> fields = new ArrayList<>(fieldCount);
+                for (int j = 0; j < fieldCount; j++) {
+                    final String key = readString(in);
+                    fields.add(new Field(key, (Map<String, Object>) readValue(in)));
+                }
+
+                entries.add(new SchemaRegistry.Entry(
+                        new ModelSchema(database, model, fields, Math.min(loadedAt, now)),
+                        attributes == null ? null : Arrays.copyOf(attributes, attributes.length, String[].class)));
+            }
+
+            return Optional.of(new SchemaSnapshot(database, fingerprint, entries));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | ClassCastException e) {
+            throw new OdooUtilityException(e);
+        }
+    }
+
+    /**
+     * Write this snapshot, replacing the file atomically
+     *
+     * @param file The snapshot file
+     * @throws OdooUtilityException when the file cannot be written
+     */
+    public void write(@Nonnull Path file) throws OdooUtilityException {
+        final Path parent = Optional.ofNullable(file.toAbsolutePath().getParent()).orElse(file.toAbsolutePath());
+        Path temp = null;
+        try {
+            Files.createDirectories(parent);
+            temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, database);
+                writeValue(out, fingerprint);
+
+                out.writeInt(entries.size());
+                for (SchemaRegistry.Entry entry : entries) {
+                    final ModelSchema schema = entry.getSchema();
+                    writeString(out, schema.getModel());
+                    writeValue(out, entry.getAttributes());
+                    out.writeLong(schema.getLoadedAt());
+
+                    out.writeInt(schema.getFields().size());
+                    for (Field field : schema.getFields()) {
+                        writeString(out, field.getKey());
+                        writeValue(out, field.getMetadata());
+                    }
+                }
+            }
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new OdooUtilityException(e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Number) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Date) {
+            out.writeByte(TAG_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof Object[]) {
+            final Object[] array = (Object[]) value;
+            out.writeByte(TAG_ARRAY);
+            out.writeInt(array.length);
+            for (Object o : array) {
+                writeValue(out, o);
+            }
+        } else if (value instanceof Collection) {
+            writeValue(out, ((Collection<?>) value).toArray());
+        } else if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TAG_MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writeString(out, String.valueOf(e.getKey()));
+                writeValue(out, e.getValue());
+            }
+        } else {
+            out.writeByte(TAG_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return false;
+            case TAG_TRUE:
+                return true;
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_DATE:
+                return new Date(in.readLong());
+            case TAG_STRING:
+                return readString(in);
+            case TAG_ARRAY: {
+                final Object[] array = new Object[in.readInt()];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = readValue(in);
+                }
+                return array;
+            }
+            case TAG_MAP: {
+                final int size = in.readInt();
+                final Map<String, Object> map = new HashMap<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    map.put(readString(in), readValue(in));
+                }
+                return map;
+            }
+            default:
+                throw new IOException("Unknown value tag [" + tag + "]");
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
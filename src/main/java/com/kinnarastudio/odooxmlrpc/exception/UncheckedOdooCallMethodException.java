@@ -0,0 +1,15 @@
+package com.kinnarastudio.odooxmlrpc.exception;
+
+/**
+ * Wraps {@link OdooCallMethodException} where checked exceptions cannot be thrown, such as iterators and streams
+ */
+public class UncheckedOdooCallMethodException extends RuntimeException {
+    public UncheckedOdooCallMethodException(OdooCallMethodException cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized OdooCallMethodException getCause() {
+        return (OdooCallMethodException) super.getCause();
+    }
+}
@@ -0,0 +1,72 @@
+package com.kinnarastudio.odooxmlrpc.export;
+
+/**
+ * Snapshot of the progress of a {@link ModelExporter}
+ */
+public final class ExportProgress {
+    private final int totalShards;
+    private final int completedShards;
+    private final long records;
+    private final int retries;
+    private final long elapsed;
+
+    /**
+     * Constructs a progress snapshot
+     *
+     * @param totalShards     The number of shards of the export
+     * @param completedShards The number of shards handed to the sink
+     * @param records         The number of records handed to the sink
+     * @param retries         The number of shard reads which were retried
+     * @param elapsed         The time since the export started in milliseconds
+     */
+    public ExportProgress(int totalShards, int completedShards, long records, int retries, long elapsed) {
+        this.totalShards = totalShards;
+        this.completedShards = completedShards;
+        this.records = records;
+        this.retries = retries;
+        this.elapsed = elapsed;
+    }
+
+    public int getTotalShards() {
+        return totalShards;
+    }
+
+    public int getCompletedShards() {
+        return completedShards;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Check if every shard was handed to the sink
+     *
+     * @return true when done
+     */
+    public boolean isDone() {
+        return completedShards == totalShards;
+    }
+
+    /**
+     * Get the number of records exported per second
+     *
+     * @return records per second
+     */
+    public double getThroughput() {
+        return elapsed == 0 ? 0 : records * 1000.0 / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d shards, %d records, %.1f records/s, %d retries", completedShards, totalShards, records, getThroughput(), retries);
+    }
+}
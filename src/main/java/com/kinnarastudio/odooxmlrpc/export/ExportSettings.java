@@ -0,0 +1,178 @@
+package com.kinnarastudio.odooxmlrpc.export;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Settings of a {@link ModelExporter}
+ */
+public final class ExportSettings {
+    public final static int DEFAULT_SHARD_SIZE = 2_000;
+    public final static int DEFAULT_PARALLELISM = 4;
+    public final static boolean DEFAULT_ORDERED = false;
+    public final static int DEFAULT_MAX_RETRIES = 2;
+    public final static long DEFAULT_RETRY_DELAY = 1_000L;
+
+    private final int shardSize;
+    private final int parallelism;
+    private final ShardMode shardMode;
+    private final boolean ordered;
+    private final int maxRetries;
+    private final long retryDelay;
+
+    /**
+     * Constructs export settings
+     *
+     * @param shardSize   Maximum number of records of a shard, the width of an id range on {@link ShardMode#ID_RANGE}
+     * @param parallelism Number of shards read at the same time
+     * @param shardMode   How the model is split into shards
+     * @param ordered     Hand shards to the sink in id order, buffering shards which complete early
+     * @param maxRetries  Number of times a failed shard read is retried
+     * @param retryDelay  Delay before the first retry in milliseconds, doubled on each further retry
+     */
+    public ExportSettings(int shardSize, int parallelism, @Nonnull ShardMode shardMode, boolean ordered, int maxRetries, long retryDelay) {
+        if (shardSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("shardSize and parallelism must be positive");
+        }
+        if (maxRetries < 0 || retryDelay < 0) {
+            throw new IllegalArgumentException("maxRetries and retryDelay must not be negative");
+        }
+        this.shardSize = shardSize;
+        this.parallelism = parallelism;
+        this.shardMode = shardMode;
+        this.ordered = ordered;
+        this.maxRetries = maxRetries;
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Gets the default export settings
+     *
+     * @return default export settings
+     */
+    public static ExportSettings getDefault() {
+        return getBuilder().build();
+    }
+
+    /**
+     * Gets a new Builder instance
+     *
+     * @return a new Builder instance
+     */
+    public static Builder getBuilder() {
+        return new Builder();
+    }
+
+    public int getShardSize() {
+        return shardSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ShardMode getShardMode() {
+        return shardMode;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Builder for creating {@link ExportSettings}
+     */
+    public final static class Builder {
+        private int shardSize = DEFAULT_SHARD_SIZE;
+        private int parallelism = DEFAULT_PARALLELISM;
+        private ShardMode shardMode = ShardMode.ID_LIST;
+        private boolean ordered = DEFAULT_ORDERED;
+        private int maxRetries = DEFAULT_MAX_RETRIES;
+        private long retryDelay = DEFAULT_RETRY_DELAY;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of records of a shard
+         *
+         * @param shardSize records per shard
+         * @return The Builder instance
+         */
+        public Builder shardSize(int shardSize) {
+            this.shardSize = shardSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of shards read at the same time
+         *
+         * @param parallelism concurrent workers
+         * @return The Builder instance
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Sets how the model is split into shards
+         *
+         * @param shardMode the shard mode
+         * @return The Builder instance
+         */
+        public Builder shardMode(@Nonnull ShardMode shardMode) {
+            this.shardMode = shardMode;
+            return this;
+        }
+
+        /**
+         * Sets whether shards are handed to the sink in id order
+         *
+         * @param ordered true for id order, false to deliver shards as they complete
+         * @return The Builder instance
+         */
+        public Builder ordered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        /**
+         * Sets the number of times a failed shard read is retried
+         *
+         * @param maxRetries retries per shard
+         * @return The Builder instance
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first retry
+         *
+         * @param retryDelay delay in milliseconds
+         * @return The Builder instance
+         */
+        public Builder retryDelay(long retryDelay) {
+            this.retryDelay = retryDelay;
+            return this;
+        }
+
+        /**
+         * Builds the {@link ExportSettings}
+         *
+         * @return The {@link ExportSettings}
+         */
+        public ExportSettings build() {
+            return new ExportSettings(shardSize, parallelism, shardMode, ordered, maxRetries, retryDelay);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.kinnarastudio.odooxmlrpc.export;
+
+import com.kinnarastudio.odooxmlrpc.rpc.JsonRpcTransport;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * {@link RecordSink} writing each record as a line of JSON
+ *
+ * @see <a href="https://jsonlines.org/">JSON Lines</a>
+ */
+public class JsonLinesSink implements RecordSink, Closeable {
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(512);
+
+    /**
+     * Create or truncate a file
+     *
+     * @param file The file
+     * @throws IOException when the file cannot be created
+     */
+    public JsonLinesSink(@Nonnull Path file) throws IOException {
+        this(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * JsonLinesSink constructor
+     *
+     * @param writer The writer, closed by {@link #close()}
+     */
+    public JsonLinesSink(@Nonnull Writer writer) {
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+    }
+
+    @Override
+    public void accept(@Nonnull Shard shard, @Nonnull Map<String, Object>[] records) throws IOException {
+        for (Map<String, Object> record : records) {
+            line.setLength(0);
+            JsonRpcTransport.writeValue(line, record);
+            writer.append(line).append('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,368 @@
+package com.kinnarastudio.odooxmlrpc.export;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Full export of a model, read in shards by concurrent workers
+ * <p>
+ * The model is first split into {@link Shard shards} of ids, see {@link ShardMode}, then {@link ExportSettings#getParallelism()}
+ * workers read the shards and hand them to a {@link RecordSink}. A shard read which fails on the transport or with a
+ * server error is retried with a growing delay, see {@link #isRetryable(OdooCallMethodException)}; a shard which still
+ * fails, or fails otherwise, stops the export. In ordered mode workers read at most twice as many shards ahead of the
+ * next one to deliver as there are workers, so a slow shard does not make the others pile up in memory.
+ * <pre>{@code
+ * ModelExporter exporter = new ModelExporter(() -> new OdooRpc(url, db, user, apiKey), ExportSettings.getDefault());
+ * try (JsonLinesSink sink = new JsonLinesSink(Path.of("res.partner.jsonl"))) {
+ *     exporter.export("res.partner", fields, null, sink);
+ * }
+ * }</pre>
+ */
+public class ModelExporter {
+    private final RpcFactory rpcFactory;
+    private final boolean ownsRpc;
+    private final ExportSettings settings;
+    private volatile Consumer<ExportProgress> progressListener;
+
+    /**
+     * ModelExporter constructor where every worker has its own {@link OdooRpc}, and so its own connections
+     *
+     * @param rpcFactory Creates the rpc of each worker, which is closed when the worker is done
+     * @param settings   The export settings
+     */
+    public ModelExporter(@Nonnull RpcFactory rpcFactory, @Nonnull ExportSettings settings) {
+        this(rpcFactory, true, settings);
+    }
+
+    /**
+     * ModelExporter constructor where the workers share an {@link OdooRpc} and its connection pool,
+     * see {@link com.kinnarastudio.odooxmlrpc.rpc.ConnectionSettings#getMaxConnectionsPerRoute()}
+     *
+     * @param rpc      The odoo rpc, it is not closed by the exporter
+     * @param settings The export settings
+     */
+    public ModelExporter(@Nonnull OdooRpc rpc, @Nonnull ExportSettings settings) {
+        this(() -> rpc, false, settings);
+    }
+
+    private ModelExporter(RpcFactory rpcFactory, boolean ownsRpc, ExportSettings settings) {
+        this.rpcFactory = rpcFactory;
+        this.ownsRpc = ownsRpc;
+        this.settings = settings;
+    }
+
+    public ExportSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Set the listener notified each time a shard has been handed to the sink.
+     * It is called by the worker that delivered the shard, never by two workers at the same time.
+     *
+     * @param progressListener The listener, null for none
+     */
+    public void setProgressListener(@Nullable Consumer<ExportProgress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Export
+     * <p>
+     * Read every record of a model matching the filters and hand them to the sink, shard by shard
+     *
+     * @param model   The odoo model
+     * @param fields  an array of field, the default {@link com.kinnarastudio.odooxmlrpc.model.FieldSet} of the rpc when null or empty
+     * @param filters An array of {@link SearchFilter}, null to export every record
+     * @param sink    The sink receiving the records
+     * @return the final progress
+     * @throws OdooCallMethodException when splitting the model failed, a shard failed after every retry or the sink failed
+     */
+    @Nonnull
+    public ExportProgress export(@Nonnull String model, String[] fields, SearchFilter[] filters, @Nonnull RecordSink sink) throws OdooCallMethodException {
+        final long start = System.currentTimeMillis();
+        final List<Shard> shards;
+        final OdooRpc planner = newRpc();
+        try {
+            shards = plan(planner, model, filters);
+        } finally {
+            release(planner);
+        }
+
+        final int parallelism = Math.max(1, Math.min(settings.getParallelism(), shards.size()));
+        final Export export = new Export(model, fields, filters, shards, sink, start, 2 * parallelism);
+        if (shards.isEmpty()) {
+            return export.progress();
+        }
+
+        final AtomicInteger counter = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            final Thread thread = new Thread(r, "odoo-export-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            final List<Future<?>> workers = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                workers.add(executor.submit(export::work));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OdooCallMethodException("Interrupted while exporting [" + model + "]");
+        } catch (ExecutionException e) {
+            throw new OdooCallMethodException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (export.failure.get() != null) {
+            throw export.failure.get();
+        }
+        return export.progress();
+    }
+
+    /**
+     * Split the model into shards
+     *
+     * @param rpc     The odoo rpc
+     * @param model   The odoo model
+     * @param filters An array of {@link SearchFilter}
+     * @return the shards in id order
+     * @throws OdooCallMethodException when searching the ids failed
+     */
+    @Nonnull
+    protected List<Shard> plan(@Nonnull OdooRpc rpc, @Nonnull String model, SearchFilter[] filters) throws OdooCallMethodException {
+        final int shardSize = settings.getShardSize();
+        final List<Shard> shards = new ArrayList<>();
+
+        if (settings.getShardMode() == ShardMode.ID_RANGE) {
+            final int[] lowest = rpc.search(model, filters, "id asc", null, 1);
+            final int[] highest = rpc.search(model, filters, "id desc", null, 1);
+            if (lowest.length == 0 || highest.length == 0) {
+                return shards;
+            }
+
+            for (long from = lowest[0]; from <= highest[0]; from += shardSize) {
+                shards.add(new Shard(shards.size(), null, (int) from, (int) Math.min(highest[0], from + shardSize - 1)));
+            }
+        } else {
+            final int[] ids = rpc.search(model, filters, "id", null, null);
+            Arrays.sort(ids);
+            for (int from = 0; from < ids.length; from += shardSize) {
+                final int[] shardIds = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + shardSize));
+                shards.add(new Shard(shards.size(), shardIds, shardIds[0], shardIds[shardIds.length - 1]));
+            }
+        }
+        return shards;
+    }
+
+    /**
+     * Read the records of a shard
+     * <p>
+     * Both modes search the shard within the filters, rather than <b>read()</b> its ids, so a record deleted since the
+     * shards were planned is left out instead of failing the shard with a <code>MissingError</code>.
+     *
+     * @param rpc     The odoo rpc of the worker
+     * @param model   The odoo model
+     * @param fields  an array of field
+     * @param filters An array of {@link SearchFilter}
+     * @param shard   The shard
+     * @return the records
+     * @throws OdooCallMethodException when reading failed
+     */
+    @Nonnull
+    protected Map<String, Object>[] read(@Nonnull OdooRpc rpc, @Nonnull String model, String[] fields, SearchFilter[] filters, @Nonnull Shard shard) throws OdooCallMethodException {
+        final SearchFilter[] base = filters == null ? new SearchFilter[0] : filters;
+        if (shard.getIds() != null) {
+            final SearchFilter[] ids = Arrays.copyOf(base, base.length + 1);
+            ids[ids.length - 1] = new SearchFilter(SearchFilter.Join.AND, "id", SearchFilter.Operator.IN, shard.getIds());
+            return rpc.searchRead(model, fields, ids, "id", null, null);
+        }
+
+        final SearchFilter[] range = Arrays.copyOf(base, base.length + 2);
+        range[range.length - 2] = new SearchFilter(SearchFilter.Join.AND, "id", SearchFilter.Operator.GREATER_EQUAL, shard.getFromId());
+        range[range.length - 1] = new SearchFilter(SearchFilter.Join.AND, "id", SearchFilter.Operator.LESS_EQUAL, shard.getToId());
+        return rpc.searchRead(model, fields, range, "id", null, null);
+    }
+
+    /**
+     * Check if a failed shard read may succeed when retried: the request did not get through or the server
+     * answered with a 5xx status. Faults raised by odoo, such as access errors, are not retried.
+     *
+     * @param e The failure
+     * @return true to retry the read
+     */
+    protected boolean isRetryable(@Nonnull OdooCallMethodException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+            if (cause instanceof XmlRpcException && ((XmlRpcException) cause).code >= 500 && ((XmlRpcException) cause).code <= 599) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private OdooRpc newRpc() throws OdooCallMethodException {
+        try {
+            return rpcFactory.create();
+        } catch (OdooAuthorizationException e) {
+            throw new OdooCallMethodException(e);
+        }
+    }
+
+    private void release(OdooRpc rpc) {
+        if (ownsRpc) {
+            rpc.close();
+        }
+    }
+
+    /**
+     * Factory of the {@link OdooRpc} of each worker
+     */
+    @FunctionalInterface
+    public interface RpcFactory {
+        OdooRpc create() throws OdooAuthorizationException;
+    }
+
+    /**
+     * State of a single export, shared by its workers
+     */
+    private class Export {
+        private final String model;
+        private final String[] fields;
+        private final SearchFilter[] filters;
+        private final List<Shard> shards;
+        private final RecordSink sink;
+        private final long start;
+        private final int maxAhead;
+        private final AtomicInteger retries = new AtomicInteger();
+        private final AtomicReference<OdooCallMethodException> failure = new AtomicReference<>();
+
+        // guarded by this
+        private final Map<Integer, Map<String, Object>[]> pending = new HashMap<>();
+        private int nextShard;
+        private int nextDelivery;
+        private int completedShards;
+        private long records;
+
+        Export(String model, String[] fields, SearchFilter[] filters, List<Shard> shards, RecordSink sink, long start, int maxAhead) {
+            this.model = model;
+            this.fields = fields;
+            this.filters = filters;
+            this.shards = shards;
+            this.sink = sink;
+            this.start = start;
+            this.maxAhead = maxAhead;
+        }
+
+        void work() {
+            final OdooRpc rpc;
+            try {
+                rpc = newRpc();
+            } catch (OdooCallMethodException e) {
+                fail(e);
+                return;
+            }
+
+            try {
+                int index;
+                while ((index = claim()) >= 0) {
+                    final Shard shard = shards.get(index);
+                    try {
+                        deliver(shard, readWithRetry(rpc, shard));
+                    } catch (OdooCallMethodException e) {
+                        fail(e);
+                    } catch (IOException e) {
+                        fail(new OdooCallMethodException(e));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        fail(new OdooCallMethodException("Interrupted while exporting " + shard + " of [" + model + "]"));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(new OdooCallMethodException("Interrupted while exporting [" + model + "]"));
+            } finally {
+                release(rpc);
+            }
+        }
+
+        /**
+         * Claim the next shard to read, in ordered mode waiting while too many shards are ahead of the next delivery
+         *
+         * @return the shard index, negative when there is none left or the export failed
+         */
+        private synchronized int claim() throws InterruptedException {
+            while (failure.get() == null && nextShard < shards.size() && settings.isOrdered() && nextShard - nextDelivery >= maxAhead) {
+                wait();
+            }
+            return failure.get() == null && nextShard < shards.size() ? nextShard++ : -1;
+        }
+
+        private synchronized void fail(OdooCallMethodException e) {
+            failure.compareAndSet(null, e);
+            notifyAll();
+        }
+
+        private Map<String, Object>[] readWithRetry(OdooRpc rpc, Shard shard) throws OdooCallMethodException, InterruptedException {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return read(rpc, model, fields, filters, shard);
+                } catch (OdooCallMethodException e) {
+                    if (attempt >= settings.getMaxRetries() || failure.get() != null || !isRetryable(e)) {
+                        throw e;
+                    }
+                    retries.incrementAndGet();
+                    Thread.sleep(settings.getRetryDelay() << Math.min(attempt, 16));
+                }
+            }
+        }
+
+        private synchronized void deliver(Shard shard, Map<String, Object>[] shardRecords) throws IOException {
+            if (!settings.isOrdered()) {
+                accept(shard, shardRecords);
+                return;
+            }
+
+            pending.put(shard.getIndex(), shardRecords);
+            Map<String, Object>[] next;
+            while ((next = pending.remove(nextDelivery)) != null) {
+                accept(shards.get(nextDelivery), next);
+                nextDelivery++;
+                notifyAll();
+            }
+        }
+
+        private void accept(Shard shard, Map<String, Object>[] shardRecords) throws IOException {
+            sink.accept(shard, shardRecords);
+            completedShards++;
+            records += shardRecords.length;
+
+            final Consumer<ExportProgress> listener = progressListener;
+            if (listener != null) {
+                listener.accept(progress());
+            }
+        }
+
+        synchronized ExportProgress progress() {
+            return new ExportProgress(shards.size(), completedShards, records, retries.get(), System.currentTimeMillis() - start);
+        }
+    }
+}
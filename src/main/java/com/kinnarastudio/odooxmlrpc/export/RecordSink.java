@@ -0,0 +1,24 @@
+package com.kinnarastudio.odooxmlrpc.export;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Receiver of the records exported by a {@link ModelExporter}
+ * <p>
+ * The exporter never calls a sink from two threads at the same time, so implementations need no synchronization.
+ *
+ * @see JsonLinesSink
+ */
+@FunctionalInterface
+public interface RecordSink {
+    /**
+     * Receive the records of a shard
+     *
+     * @param shard   The shard
+     * @param records The records of the shard, in id order
+     * @throws IOException when the records cannot be written, which fails the export
+     */
+    void accept(@Nonnull Shard shard, @Nonnull Map<String, Object>[] records) throws IOException;
+}
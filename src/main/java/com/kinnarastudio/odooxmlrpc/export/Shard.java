@@ -0,0 +1,55 @@
+package com.kinnarastudio.odooxmlrpc.export;
+
+import javax.annotation.Nullable;
+
+/**
+ * Part of a model exported by a single worker of a {@link ModelExporter}
+ */
+public final class Shard {
+    private final int index;
+    private final int[] ids;
+    private final int fromId;
+    private final int toId;
+
+    /**
+     * Constructs a shard
+     *
+     * @param index  The position of the shard in the export
+     * @param ids    The ids of the shard on {@link ShardMode#ID_LIST}, null on {@link ShardMode#ID_RANGE}
+     * @param fromId The lowest id, inclusive
+     * @param toId   The highest id, inclusive
+     */
+    public Shard(int index, @Nullable int[] ids, int fromId, int toId) {
+        this.index = index;
+        this.ids = ids;
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the ids of the shard
+     *
+     * @return the ids, null when the shard is a range of ids
+     */
+    @Nullable
+    public int[] getIds() {
+        return ids;
+    }
+
+    public int getFromId() {
+        return fromId;
+    }
+
+    public int getToId() {
+        return toId;
+    }
+
+    @Override
+    public String toString() {
+        return "Shard[" + index + ": " + fromId + ".." + toId + "]";
+    }
+}
@@ -0,0 +1,18 @@
+package com.kinnarastudio.odooxmlrpc.export;
+
+/**
+ * How a {@link ModelExporter} splits a model into shards
+ */
+public enum ShardMode {
+    /**
+     * Search every matching id first, then <b>search_read()</b> shards of ids. The shards are evenly filled,
+     * less the records deleted meanwhile.
+     */
+    ID_LIST,
+
+    /**
+     * Search only the lowest and highest id, then <b>search_read()</b> ranges of ids.
+     * Nothing is held in memory up front, but gaps in the ids leave shards partly empty.
+     */
+    ID_RANGE
+}
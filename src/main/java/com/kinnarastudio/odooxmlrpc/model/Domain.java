@@ -0,0 +1,572 @@
+package com.kinnarastudio.odooxmlrpc.model;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Odoo search domain as an expression tree
+ * <p>
+ * Unlike an array of {@link SearchFilter}, whose joins apply from left to right, a domain nests groups of
+ * <code>AND</code>, <code>OR</code> and <code>NOT</code> explicitly, and compiles to the prefix notation odoo expects.
+ * Fields may be dotted paths through relations, such as <code>partner_id.country_id.code</code>.
+ * <pre>{@code
+ * Domain domain = Domain.and(
+ *         Domain.eq("active", true),
+ *         Domain.or(Domain.eq("state", "draft"), Domain.eq("state", "sent")),
+ *         Domain.not(Domain.childOf("categ_id", 4)));
+ * rpc.searchReadDomain("sale.order", fields, domain.simplify().toPrefix(), null, null, null);
+ * }</pre>
+ * Domains are immutable.
+ */
+public abstract class Domain {
+    /**
+     * Matches every record, compiles to an empty domain at the top level
+     */
+    public final static Domain TRUE = new Constant(true);
+
+    /**
+     * Matches no record
+     */
+    public final static Domain FALSE = new Constant(false);
+
+    private Domain() {
+    }
+
+    /**
+     * A single condition
+     *
+     * @param field    The field or dotted path
+     * @param operator The operator
+     * @param value    The value, null for an unset value
+     * @return the domain
+     */
+    @Nonnull
+    public static Domain leaf(@Nonnull String field, @Nonnull SearchFilter.Operator operator, Object value) {
+        return new Leaf(field, operator, value);
+    }
+
+    @Nonnull
+    public static Domain eq(@Nonnull String field, Object value) {
+        return leaf(field, SearchFilter.Operator.EQUAL, value);
+    }
+
+    @Nonnull
+    public static Domain ne(@Nonnull String field, Object value) {
+        return leaf(field, SearchFilter.Operator.NOT_EQUAL, value);
+    }
+
+    @Nonnull
+    public static Domain in(@Nonnull String field, @Nonnull Object... values) {
+        return leaf(field, SearchFilter.Operator.IN, values);
+    }
+
+    @Nonnull
+    public static Domain notIn(@Nonnull String field, @Nonnull Object... values) {
+        return leaf(field, SearchFilter.Operator.NOT_IN, values);
+    }
+
+    /**
+     * Records whose hierarchical field is the given record or one of its descendants
+     *
+     * @param field The many2one field of a model with a parent hierarchy
+     * @param value The record id or ids
+     * @return the domain
+     */
+    @Nonnull
+    public static Domain childOf(@Nonnull String field, @Nonnull Object value) {
+        return leaf(field, SearchFilter.Operator.CHILD_OF, value);
+    }
+
+    /**
+     * Records whose hierarchical field is the given record or one of its ancestors
+     *
+     * @param field The many2one field of a model with a parent hierarchy
+     * @param value The record id or ids
+     * @return the domain
+     */
+    @Nonnull
+    public static Domain parentOf(@Nonnull String field, @Nonnull Object value) {
+        return leaf(field, SearchFilter.Operator.PARENT_OF, value);
+    }
+
+    /**
+     * Records whose field equals the value, or every record when the value is unset
+     *
+     * @param field The field
+     * @param value The value, null or false matches every record
+     * @return the domain
+     */
+    @Nonnull
+    public static Domain unsetOrEq(@Nonnull String field, Object value) {
+        return leaf(field, SearchFilter.Operator.UNSET_OR_EQUAL, value);
+    }
+
+    /**
+     * Records matching every domain, {@link #TRUE} for none
+     *
+     * @param domains The domains
+     * @return the domain
+     */
+    @Nonnull
+    public static Domain and(@Nonnull Domain... domains) {
+        return junction(true, Arrays.asList(domains));
+    }
+
+    /**
+     * Records matching any domain, {@link #FALSE} for none
+     *
+     * @param domains The domains
+     * @return the domain
+     */
+    @Nonnull
+    public static Domain or(@Nonnull Domain... domains) {
+        return junction(false, Arrays.asList(domains));
+    }
+
+    @Nonnull
+    public static Domain not(@Nonnull Domain domain) {
+        return new Not(domain);
+    }
+
+    /**
+     * Convert an array of {@link SearchFilter}, whose joins apply from left to right
+     *
+     * @param filters An array of {@link SearchFilter}
+     * @return the domain, {@link #TRUE} for no filter
+     * @see com.kinnarastudio.odooxmlrpc.rpc.XmlRpcUtil#prefixation(SearchFilter[])
+     */
+    @Nonnull
+    public static Domain of(SearchFilter[] filters) {
+        if (filters == null || filters.length == 0) {
+            return TRUE;
+        }
+
+        Domain result = leaf(filters[0]);
+        for (int i = 1; i < filters.length; i++) {
+            result = junction(filters[i].getJoin() == SearchFilter.Join.AND, List.of(result, leaf(filters[i])));
+        }
+        return result;
+    }
+
+    /**
+     * Convert an array of {@link SearchFilter} where <code>AND</code> binds tighter than <code>OR</code>,
+     * so <code>a, OR b, AND c</code> is <code>a OR (b AND c)</code>
+     *
+     * @param filters An array of {@link SearchFilter}
+     * @return the domain, {@link #TRUE} for no filter
+     */
+    @Nonnull
+    public static Domain ofPrecedence(SearchFilter[] filters) {
+        if (filters == null || filters.length == 0) {
+            return TRUE;
+        }
+
+        final List<Domain> alternatives = new ArrayList<>();
+        List<Domain> group = new ArrayList<>();
+        for (int i = 0; i < filters.length; i++) {
+            if (i > 0 && filters[i].getJoin() == SearchFilter.Join.OR) {
+                alternatives.add(junction(true, group));
+                group = new ArrayList<>();
+            }
+            group.add(leaf(filters[i]));
+        }
+        alternatives.add(junction(true, group));
+        return junction(false, alternatives);
+    }
+
+    /**
+     * Compile to odoo's prefix notation
+     *
+     * @return the domain, such as <code>["|", ["a", "=", 1], "!", ["b", "=", 2]]</code>, empty for {@link #TRUE}
+     */
+    @Nonnull
+    public Object[] toPrefix() {
+        if (this == TRUE) {
+            return new Object[0];
+        }
+
+        final Object[] result = new Object[length()];
+        write(result, 0);
+        return result;
+    }
+
+    /**
+     * Simplify
+     * <p>
+     * Flatten nested groups of the same kind, drop constants and repeated terms, push <code>NOT</code> into leaves
+     * which have an inverse operator, and merge <code>=</code> and <code>in</code> leaves on the same field under an
+     * <code>OR</code> into a single <code>in</code>, and <code>!=</code> and <code>not in</code> leaves under an
+     * <code>AND</code> into a single <code>not in</code>.
+     *
+     * @return the equivalent simplified domain
+     */
+    @Nonnull
+    public abstract Domain simplify();
+
+    /**
+     * Number of elements of the prefix notation
+     */
+    abstract int length();
+
+    /**
+     * Write the prefix notation
+     *
+     * @return the index following the written elements
+     */
+    abstract int write(Object[] out, int at);
+
+    private static Domain leaf(SearchFilter filter) {
+        return new Leaf(filter.getField(), filter.getOperator(), filter.getValue());
+    }
+
+    private static Domain junction(boolean and, List<Domain> children) {
+        if (children.isEmpty()) {
+            return and ? TRUE : FALSE;
+        }
+        return children.size() == 1 ? children.get(0) : new Junction(and, children);
+    }
+
+    /**
+     * <code>field operator value</code>
+     */
+    public final static class Leaf extends Domain {
+        private final String field;
+        private final SearchFilter.Operator operator;
+        private final Object value;
+
+        private Leaf(String field, SearchFilter.Operator operator, Object value) {
+            if (field.isEmpty() || field.startsWith(".") || field.endsWith(".") || field.contains("..")) {
+                throw new IllegalArgumentException("Invalid field path [" + field + "]");
+            }
+            this.field = field;
+            this.operator = operator;
+            this.value = value instanceof Collection ? ((Collection<?>) value).toArray() : value;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public SearchFilter.Operator getOperator() {
+            return operator;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        @Nonnull
+        @Override
+        public Domain simplify() {
+            if ((operator == SearchFilter.Operator.IN || operator == SearchFilter.Operator.NOT_IN) && value instanceof Object[]) {
+                final Object[] values = distinct((Object[]) value);
+                if (values.length == 0) {
+                    // nothing is in an empty list
+                    return operator == SearchFilter.Operator.IN ? FALSE : TRUE;
+                }
+                return values.length == ((Object[]) value).length ? this : new Leaf(field, operator, values);
+            }
+            return this;
+        }
+
+        @Override
+        int length() {
+            return 1;
+        }
+
+        @Override
+        int write(Object[] out, int at) {
+            out[at] = new Object[]{field, operator.toString(), value == null ? false : value};
+            return at + 1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Leaf)) return false;
+            final Leaf other = (Leaf) o;
+            return field.equals(other.field) && operator == other.operator && Objects.deepEquals(value, other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            // deep, as in equals, so that primitive arrays hash by content too
+            return Arrays.deepHashCode(new Object[]{field, operator, value});
+        }
+
+        @Override
+        public String toString() {
+            return "[" + field + " " + operator + " " + (value instanceof Object[] ? Arrays.deepToString((Object[]) value) : value) + "]";
+        }
+
+        /**
+         * Operator matching exactly the records this one does not, with odoo's handling of unset values
+         */
+        private SearchFilter.Operator inverse() {
+            switch (operator) {
+                case EQUAL:
+                    return SearchFilter.Operator.NOT_EQUAL;
+                case NOT_EQUAL:
+                    return SearchFilter.Operator.EQUAL;
+                case IN:
+                    return SearchFilter.Operator.NOT_IN;
+                case NOT_IN:
+                    return SearchFilter.Operator.IN;
+                default:
+                    // comparisons exclude unset values on both sides, odoo has no negated =like or =ilike
+                    // and hierarchy operators have no inverse
+                    return null;
+            }
+        }
+
+        /**
+         * Check if the leaf can be merged with others of its field. Unset values match differently in lists, and paths
+         * through x2many fields match any related record, so both are kept as written.
+         */
+        private boolean isMergeable() {
+            if (field.contains(".")) {
+                return false;
+            } else if (value instanceof Object[]) {
+                return Arrays.stream((Object[]) value).noneMatch(v -> v == null || Boolean.FALSE.equals(v) || v instanceof Object[]);
+            }
+            return value != null && !Boolean.FALSE.equals(value);
+        }
+    }
+
+    /**
+     * <code>NOT domain</code>
+     */
+    public final static class Not extends Domain {
+        private final Domain domain;
+
+        private Not(Domain domain) {
+            this.domain = domain;
+        }
+
+        public Domain getDomain() {
+            return domain;
+        }
+
+        @Nonnull
+        @Override
+        public Domain simplify() {
+            final Domain inner = domain.simplify();
+            if (inner == TRUE) {
+                return FALSE;
+            } else if (inner == FALSE) {
+                return TRUE;
+            } else if (inner instanceof Not) {
+                return ((Not) inner).domain;
+            } else if (inner instanceof Leaf && ((Leaf) inner).inverse() != null) {
+                final Leaf leaf = (Leaf) inner;
+                return new Leaf(leaf.field, leaf.inverse(), leaf.value);
+            }
+            return inner == domain ? this : new Not(inner);
+        }
+
+        @Override
+        int length() {
+            return 1 + domain.length();
+        }
+
+        @Override
+        int write(Object[] out, int at) {
+            out[at] = "!";
+            return domain.write(out, at + 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Not && domain.equals(((Not) o).domain);
+        }
+
+        @Override
+        public int hashCode() {
+            return ~domain.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + domain;
+        }
+    }
+
+    /**
+     * <code>AND</code> or <code>OR</code> of two or more domains
+     */
+    public final static class Junction extends Domain {
+        private final boolean and;
+        private final List<Domain> children;
+
+        private Junction(boolean and, List<Domain> children) {
+            this.and = and;
+            this.children = List.copyOf(children);
+        }
+
+        public boolean isAnd() {
+            return and;
+        }
+
+        public List<Domain> getChildren() {
+            return children;
+        }
+
+        @Nonnull
+        @Override
+        public Domain simplify() {
+            final Domain absorbing = and ? FALSE : TRUE;
+            final Domain neutral = and ? TRUE : FALSE;
+
+            // flatten, drop constants and repeated terms
+            final Set<Domain> terms = new LinkedHashSet<>();
+            final Deque<Domain> pending = new ArrayDeque<>(children);
+            while (!pending.isEmpty()) {
+                final Domain child = pending.pollFirst().simplify();
+                if (child == absorbing) {
+                    return absorbing;
+                } else if (child == neutral) {
+                    continue;
+                } else if (child instanceof Junction && ((Junction) child).and == and) {
+                    final List<Domain> grandChildren = ((Junction) child).children;
+                    for (int i = grandChildren.size() - 1; i >= 0; i--) {
+                        pending.addFirst(grandChildren.get(i));
+                    }
+                    continue;
+                }
+                terms.add(child);
+            }
+
+            final List<Domain> merged = merge(new ArrayList<>(terms));
+            return merged.equals(children) ? this : junction(and, merged);
+        }
+
+        /**
+         * Merge <code>=</code> and <code>in</code> leaves of a field under OR, <code>!=</code> and <code>not in</code> under AND
+         */
+        private List<Domain> merge(List<Domain> terms) {
+            final SearchFilter.Operator single = and ? SearchFilter.Operator.NOT_EQUAL : SearchFilter.Operator.EQUAL;
+            final SearchFilter.Operator list = and ? SearchFilter.Operator.NOT_IN : SearchFilter.Operator.IN;
+
+            final Map<String, List<Object>> values = new LinkedHashMap<>();
+            final Map<String, Integer> counts = new HashMap<>();
+            for (Domain term : terms) {
+                final String field = mergeableField(term, single, list);
+                if (field != null) {
+                    final Leaf leaf = (Leaf) term;
+                    final List<Object> fieldValues = values.computeIfAbsent(field, k -> new ArrayList<>());
+                    if (leaf.operator == single) {
+                        fieldValues.add(leaf.value);
+                    } else {
+                        fieldValues.addAll(Arrays.asList((Object[]) leaf.value));
+                    }
+                    counts.merge(field, 1, Integer::sum);
+                }
+            }
+
+            final List<Domain> result = new ArrayList<>(terms.size());
+            final Set<String> written = new HashSet<>();
+            for (Domain term : terms) {
+                final String field = mergeableField(term, single, list);
+                if (field == null || counts.get(field) == 1) {
+                    result.add(term);
+                } else if (written.add(field)) {
+                    result.add(new Leaf(field, list, distinct(values.get(field).toArray())));
+                }
+            }
+            return result;
+        }
+
+        private static String mergeableField(Domain term, SearchFilter.Operator single, SearchFilter.Operator list) {
+            if (!(term instanceof Leaf)) {
+                return null;
+            }
+
+            final Leaf leaf = (Leaf) term;
+            if (!leaf.isMergeable()) {
+                return null;
+            } else if (leaf.operator == single && !(leaf.value instanceof Object[]) || leaf.operator == list && leaf.value instanceof Object[]) {
+                return leaf.field;
+            }
+            return null;
+        }
+
+        @Override
+        int length() {
+            int length = children.size() - 1;
+            for (Domain child : children) {
+                length += child.length();
+            }
+            return length;
+        }
+
+        @Override
+        int write(Object[] out, int at) {
+            final String operator = and ? "&" : "|";
+            for (int i = 1; i < children.size(); i++) {
+                out[at++] = operator;
+            }
+            for (Domain child : children) {
+                at = child.write(out, at);
+            }
+            return at;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Junction)) return false;
+            final Junction other = (Junction) o;
+            return and == other.and && children.equals(other.children);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(and, children);
+        }
+
+        @Override
+        public String toString() {
+            final StringJoiner joiner = new StringJoiner(and ? " AND " : " OR ", "(", ")");
+            children.forEach(child -> joiner.add(child.toString()));
+            return joiner.toString();
+        }
+    }
+
+    /**
+     * {@link #TRUE} or {@link #FALSE}, written as odoo's constant leaves when nested
+     */
+    private final static class Constant extends Domain {
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Nonnull
+        @Override
+        public Domain simplify() {
+            return this;
+        }
+
+        @Override
+        int length() {
+            return 1;
+        }
+
+        @Override
+        int write(Object[] out, int at) {
+            out[at] = new Object[]{value ? 1 : 0, "=", 1};
+            return at + 1;
+        }
+
+        @Override
+        public String toString() {
+            return value ? "TRUE" : "FALSE";
+        }
+    }
+
+    private static Object[] distinct(Object[] values) {
+        final Set<Object> result = new LinkedHashSet<>(Arrays.asList(values));
+        return result.size() == values.length ? values : result.toArray();
+    }
+}
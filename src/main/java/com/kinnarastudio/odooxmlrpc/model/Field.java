@@ -7,6 +7,8 @@ public class Field {
     private final String string;
     private final boolean required;
     private final DataType type;
+    private final String typeName;
+    private final boolean stored;
     private final boolean sortable;
     private final String help;
     private final Map<String, Object> metadata;
@@ -16,6 +18,8 @@ public class Field {
         this.string = (String) metadata.get("string");
         this.required = "true".equals(metadata.getOrDefault("required", true));
         this.type = DataType.parse(String.valueOf(metadata.get("type")));
+        this.typeName = String.valueOf(metadata.get("type"));
+        this.stored = !Boolean.FALSE.equals(metadata.get("store"));
         this.sortable = "true".equals(metadata.getOrDefault("sortable", true));
         this.help = (String) metadata.get("help");
         this.metadata = metadata;
@@ -37,6 +41,24 @@ public class Field {
         return type;
     }
 
+    /**
+     * Get the odoo field type as sent by <b>fields_get()</b>, such as <code>char</code>, <code>binary</code> or <code>html</code>
+     *
+     * @return the raw type name
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * Check if the field is stored in the database, non-stored fields are computed on every read
+     *
+     * @return false when <code>store</code> is false, true when stored or unknown
+     */
+    public boolean isStored() {
+        return stored;
+    }
+
     public boolean isSortable() {
         return sortable;
     }
@@ -0,0 +1,148 @@
+package com.kinnarastudio.odooxmlrpc.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Projection of the fields returned by <b>read()</b> and <b>search_read()</b>, resolved against the model's {@link ModelSchema}
+ */
+public final class FieldSet {
+    private final static Set<String> HEAVY_TYPES = Set.of("binary", "html");
+
+    private final Mode mode;
+    private final Set<String> includes;
+    private final Set<String> excludes;
+
+    private FieldSet(Mode mode, Set<String> includes, Set<String> excludes) {
+        this.mode = mode;
+        this.includes = Collections.unmodifiableSet(includes);
+        this.excludes = Collections.unmodifiableSet(excludes);
+    }
+
+    /**
+     * All fields, the server default
+     *
+     * @return the field set
+     */
+    public static FieldSet all() {
+        return new FieldSet(Mode.ALL, Set.of(), Set.of());
+    }
+
+    /**
+     * All fields except <code>binary</code>, <code>html</code> and non-stored computed fields
+     *
+     * @return the field set
+     */
+    public static FieldSet lightweight() {
+        return new FieldSet(Mode.LIGHTWEIGHT, Set.of(), Set.of());
+    }
+
+    /**
+     * Only the given fields, unknown fields are dropped
+     *
+     * @param fields The field names
+     * @return the field set
+     */
+    public static FieldSet of(String... fields) {
+        return new FieldSet(Mode.INCLUDE, new LinkedHashSet<>(Arrays.asList(fields)), Set.of());
+    }
+
+    /**
+     * Add fields on top of this set
+     *
+     * @param fields The field names
+     * @return a new field set
+     */
+    public FieldSet include(String... fields) {
+        final Set<String> result = new LinkedHashSet<>(includes);
+        result.addAll(Arrays.asList(fields));
+        final Set<String> remaining = new LinkedHashSet<>(excludes);
+        remaining.removeAll(Arrays.asList(fields));
+        return new FieldSet(mode, result, remaining);
+    }
+
+    /**
+     * Remove fields from this set
+     *
+     * @param fields The field names
+     * @return a new field set
+     */
+    public FieldSet exclude(String... fields) {
+        final Set<String> result = new LinkedHashSet<>(excludes);
+        result.addAll(Arrays.asList(fields));
+        final Set<String> remaining = new LinkedHashSet<>(includes);
+        remaining.removeAll(Arrays.asList(fields));
+        return new FieldSet(mode, remaining, result);
+    }
+
+    /**
+     * Check if the set needs the model schema to be resolved
+     *
+     * @return false when every field is requested, which needs no schema
+     */
+    public boolean requiresSchema() {
+        return mode != Mode.ALL || !excludes.isEmpty() || !includes.isEmpty();
+    }
+
+    /**
+     * Resolve the field names to request
+     *
+     * @param schema The model schema, only used when {@link #requiresSchema()}
+     * @return field names, null to request every field
+     */
+    @Nullable
+    public String[] resolve(@Nullable ModelSchema schema) {
+        if (!requiresSchema()) {
+            return null;
+        }
+
+        if (schema == null) {
+            // without a schema only explicit names can be sent
+            return mode == Mode.INCLUDE ? includes.stream().filter(Predicate.not(excludes::contains)).toArray(String[]::new) : null;
+        }
+
+        final Set<String> result = new LinkedHashSet<>();
+        switch (mode) {
+            case ALL:
+                result.addAll(schema.getKeys());
+                break;
+            case LIGHTWEIGHT:
+                schema.getFields().stream()
+                        .filter(FieldSet::isLightweight)
+                        .map(Field::getKey)
+                        .forEach(result::add);
+                break;
+            default:
+                break;
+        }
+
+        includes.stream()
+                .filter(schema::hasField)
+                .forEach(result::add);
+        result.removeAll(excludes);
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * Check if a field is cheap to read
+     *
+     * @param field The field
+     * @return false for binary, html and non-stored computed fields
+     */
+    public static boolean isLightweight(@Nonnull Field field) {
+        return field.isStored() && !HEAVY_TYPES.contains(field.getTypeName());
+    }
+
+    @Override
+    public String toString() {
+        return mode + " +" + includes + " -" + excludes;
+    }
+
+    private enum Mode {
+        ALL,
+        LIGHTWEIGHT,
+        INCLUDE
+    }
+}
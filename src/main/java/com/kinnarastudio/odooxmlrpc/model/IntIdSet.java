@@ -0,0 +1,257 @@
+package com.kinnarastudio.odooxmlrpc.model;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable set of record ids, held as a sorted array of distinct <code>int</code>
+ * <p>
+ * Lookups are binary searches and set operations merge both arrays in a single pass, so comparing the ids of two
+ * <b>search()</b> calls of 100k records costs two arrays and no boxing.
+ * <pre>{@code
+ * IntIdSet before = IntIdSet.of(rpc.search("res.partner", filters, null, null, null));
+ * IntIdSet after = IntIdSet.of(rpc.search("res.partner", filters, null, null, null));
+ * int[] removed = before.minus(after).toArray();
+ * }</pre>
+ */
+public final class IntIdSet {
+    private final static IntIdSet EMPTY = new IntIdSet(new int[0]);
+
+    private final int[] ids;
+
+    private IntIdSet(int[] ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Gets the empty set
+     *
+     * @return the empty set
+     */
+    @Nonnull
+    public static IntIdSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Create a set from ids in any order, which may repeat
+     *
+     * @param ids The ids, not modified
+     * @return the set
+     */
+    @Nonnull
+    public static IntIdSet of(@Nonnull int... ids) {
+        if (ids.length == 0) {
+            return EMPTY;
+        }
+
+        final int[] sorted = ids.clone();
+        if (!isSorted(sorted)) {
+            Arrays.sort(sorted);
+        }
+
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new IntIdSet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    /**
+     * Create a set from ids which are already sorted and distinct, without copying them
+     *
+     * @param ids The sorted distinct ids, must not be modified afterwards
+     * @return the set
+     * @throws IllegalArgumentException when the ids are not sorted and distinct
+     */
+    @Nonnull
+    public static IntIdSet ofSorted(@Nonnull int[] ids) {
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i - 1] >= ids[i]) {
+                throw new IllegalArgumentException("ids must be sorted and distinct");
+            }
+        }
+        return ids.length == 0 ? EMPTY : new IntIdSet(ids);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Gets the position of an id in sorted order
+     *
+     * @param id The id
+     * @return the position, negative when the id is not in the set
+     */
+    public int indexOf(int id) {
+        final int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * Gets the lowest id
+     *
+     * @return the lowest id
+     * @throws NoSuchElementException when the set is empty
+     */
+    public int first() {
+        if (ids.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return ids[0];
+    }
+
+    /**
+     * Gets the highest id
+     *
+     * @return the highest id
+     * @throws NoSuchElementException when the set is empty
+     */
+    public int last() {
+        if (ids.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return ids[ids.length - 1];
+    }
+
+    /**
+     * Ids in either set
+     *
+     * @param other The other set
+     * @return the union
+     */
+    @Nonnull
+    public IntIdSet union(@Nonnull IntIdSet other) {
+        if (other.isEmpty()) {
+            return this;
+        } else if (isEmpty()) {
+            return other;
+        }
+
+        final int[] a = ids, b = other.ids;
+        final int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[size++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[size++] = b[j++];
+            } else {
+                result[size++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[size++] = a[i++];
+        }
+        while (j < b.length) {
+            result[size++] = b[j++];
+        }
+        return new IntIdSet(size == result.length ? result : Arrays.copyOf(result, size));
+    }
+
+    /**
+     * Ids in both sets
+     *
+     * @param other The other set
+     * @return the intersection
+     */
+    @Nonnull
+    public IntIdSet intersect(@Nonnull IntIdSet other) {
+        final int[] a = ids, b = other.ids;
+        final int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i++];
+                j++;
+            }
+        }
+        return size == 0 ? EMPTY : new IntIdSet(size == result.length ? result : Arrays.copyOf(result, size));
+    }
+
+    /**
+     * Ids in this set but not in the other one
+     *
+     * @param other The other set
+     * @return the difference
+     */
+    @Nonnull
+    public IntIdSet minus(@Nonnull IntIdSet other) {
+        if (other.isEmpty() || isEmpty()) {
+            return this;
+        }
+
+        final int[] a = ids, b = other.ids;
+        final int[] result = new int[a.length];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length) {
+            while (j < b.length && b[j] < a[i]) {
+                j++;
+            }
+            if (j >= b.length || b[j] != a[i]) {
+                result[size++] = a[i];
+            }
+            i++;
+        }
+        return size == 0 ? EMPTY : new IntIdSet(size == result.length ? result : Arrays.copyOf(result, size));
+    }
+
+    /**
+     * Gets the ids
+     *
+     * @return a sorted copy of the ids
+     */
+    @Nonnull
+    public int[] toArray() {
+        return ids.clone();
+    }
+
+    @Nonnull
+    public IntStream stream() {
+        return Arrays.stream(ids);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof IntIdSet && Arrays.equals(ids, ((IntIdSet) o).ids);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ids);
+    }
+
+    @Override
+    public String toString() {
+        return ids.length <= 16
+                ? "IntIdSet" + Arrays.toString(ids)
+                : "IntIdSet[" + ids.length + " ids, " + ids[0] + ".." + ids[ids.length - 1] + "]";
+    }
+
+    private static boolean isSorted(int[] ids) {
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i - 1] > ids[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
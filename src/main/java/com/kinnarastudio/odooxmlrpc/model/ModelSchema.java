@@ -0,0 +1,81 @@
+package com.kinnarastudio.odooxmlrpc.model;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Result of <b>fields_get()</b> for a single model, indexed by field key
+ */
+public class ModelSchema {
+    private final String database;
+    private final String model;
+    private final Map<String, Field> fields;
+    private final long loadedAt;
+
+    /**
+     * Constructs a model schema
+     *
+     * @param database The database name
+     * @param model    The odoo model
+     * @param fields   The fields of the model
+     * @param loadedAt Time the schema was fetched, in epoch milliseconds
+     */
+    public ModelSchema(@Nonnull String database, @Nonnull String model, @Nonnull Collection<Field> fields, long loadedAt) {
+        this.database = database;
+        this.model = model;
+        final Map<String, Field> index = new LinkedHashMap<>(fields.size() * 4 / 3 + 1);
+        fields.forEach(f -> index.put(f.getKey(), f));
+        this.fields = Collections.unmodifiableMap(index);
+        this.loadedAt = loadedAt;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Get a field by key
+     *
+     * @param key The field key
+     * @return the field, empty when the model has no such field
+     */
+    public Optional<Field> getField(String key) {
+        return Optional.ofNullable(fields.get(key));
+    }
+
+    /**
+     * Check if the model has a field
+     *
+     * @param key The field key
+     * @return true when the field exists
+     */
+    public boolean hasField(String key) {
+        return fields.containsKey(key);
+    }
+
+    /**
+     * Get all fields
+     *
+     * @return an unmodifiable collection of field
+     */
+    public Collection<Field> getFields() {
+        return fields.values();
+    }
+
+    /**
+     * Get all field keys
+     *
+     * @return an unmodifiable set of field key
+     */
+    public Set<String> getKeys() {
+        return fields.keySet();
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.kinnarastudio.odooxmlrpc.model;
+
+/**
+ * Pagination strategy for streamed search read
+ */
+public enum PageMode {
+    /**
+     * Page with offset and limit, keeps the requested order
+     */
+    OFFSET,
+
+    /**
+     * Page on <code>id &gt; lastId</code> ordered by id, deep pages are as fast as the first one
+     */
+    KEYSET
+}
@@ -10,6 +10,7 @@ public class SearchFilter {
     private final String field;
     private final Operator operator;
     private final Object value;
+    private volatile Object[] leaf;
 
     /**
      * Constructs a search filter with default join (AND) and operator (EQUAL)
@@ -86,6 +87,19 @@ public class SearchFilter {
         return join;
     }
 
+    /**
+     * Gets the filter as a domain leaf <code>[field, operator, value]</code>, built once and shared by every domain
+     * holding this filter, so it must not be modified
+     * @return The domain leaf
+     */
+    public Object[] toLeaf() {
+        Object[] result = leaf;
+        if (result == null) {
+            leaf = result = new Operand(this).toObjects();
+        }
+        return result;
+    }
+
     /**
      * Operator enumeration
      */
@@ -101,7 +115,10 @@ public class SearchFilter {
         LIKE("=like"),
         NOT_LIKE("not =like"),
         ILIKE("=ilike"),
-        NOT_ILIKE("not =ilike");
+        NOT_ILIKE("not =ilike"),
+        CHILD_OF("child_of"),
+        PARENT_OF("parent_of"),
+        UNSET_OR_EQUAL("=?");
 
         private final String symbol;
 
@@ -0,0 +1,367 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.annotation.OdooModel;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous Odoo RPC
+ * <p>
+ * Facade over {@link OdooRpc} which runs every call on an executor and returns a {@link CompletableFuture}.
+ * Failures complete the future exceptionally with the {@link OdooCallMethodException} thrown by the underlying call.
+ * <p>
+ * The number of requests actually on the wire is still bounded by the {@link ConnectionSettings} of the wrapped {@link OdooRpc}.
+ *
+ * @see OdooRpc
+ */
+public class AsyncOdooRpc implements AutoCloseable {
+    private final OdooRpc rpc;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * AsyncOdooRpc constructor using virtual threads when the runtime supports them,
+     * otherwise a cached pool of daemon threads
+     *
+     * @param rpc The odoo rpc
+     */
+    public AsyncOdooRpc(@Nonnull OdooRpc rpc) {
+        this(rpc, newDefaultExecutor(), true);
+    }
+
+    /**
+     * AsyncOdooRpc constructor
+     *
+     * @param rpc      The odoo rpc
+     * @param executor The executor running the calls, it is not shut down by {@link #close()}
+     */
+    public AsyncOdooRpc(@Nonnull OdooRpc rpc, @Nonnull Executor executor) {
+        this(rpc, executor, false);
+    }
+
+    private AsyncOdooRpc(OdooRpc rpc, Executor executor, boolean ownsExecutor) {
+        this.rpc = rpc;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Get the wrapped blocking rpc
+     *
+     * @return the odoo rpc
+     */
+    public OdooRpc getRpc() {
+        return rpc;
+    }
+
+    /**
+     * Fields Get
+     *
+     * @param model The odoo model
+     * @return future of a collection of Field
+     * @see OdooRpc#fieldsGet(String)
+     */
+    public CompletableFuture<Collection<Field>> fieldsGet(@Nonnull String model) {
+        return supply(() -> rpc.fieldsGet(model));
+    }
+
+    /**
+     * Search
+     *
+     * @param model   The odoo model
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @return future of an array of record id
+     * @see OdooRpc#search(String, SearchFilter[], String, Integer, Integer)
+     */
+    public CompletableFuture<int[]> search(@Nonnull String model, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+        return supply(() -> rpc.search(model, filters, order, offset, limit));
+    }
+
+    /**
+     * Search
+     *
+     * @param tClass  The class that is annotated with {@link OdooModel}
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @param <T>     The type of class
+     * @return future of an array of record id
+     * @see OdooRpc#search(Class, SearchFilter[], String, Integer, Integer)
+     */
+    public <T> CompletableFuture<int[]> search(@Nonnull Class<T> tClass, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+        return supply(() -> rpc.search(tClass, filters, order, offset, limit));
+    }
+
+    /**
+     * Search Read
+     *
+     * @param model   The odoo model
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @return future of an array of map
+     * @see OdooRpc#searchRead(String, SearchFilter[], String, Integer, Integer)
+     */
+    public CompletableFuture<Map<String, Object>[]> searchRead(@Nonnull String model, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+        return supply(() -> rpc.searchRead(model, filters, order, offset, limit));
+    }
+
+    /**
+     * Search Read
+     *
+     * @param model   The odoo model
+     * @param fields  an array of field
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @return future of an array of map
+     * @see OdooRpc#searchRead(String, String[], SearchFilter[], String, Integer, Integer)
+     */
+    public CompletableFuture<Map<String, Object>[]> searchRead(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+        return supply(() -> rpc.searchRead(model, fields, filters, order, offset, limit));
+    }
+
+    /**
+     * Search Read
+     *
+     * @param tClass  The class that is annotated with {@link OdooModel}
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @param <T>     The type of class
+     * @return future of an array of object
+     * @see OdooRpc#searchRead(Class, SearchFilter[], String, Integer, Integer)
+     */
+    public <T> CompletableFuture<T[]> searchRead(@Nonnull Class<T> tClass, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+        return supply(() -> rpc.searchRead(tClass, filters, order, offset, limit));
+    }
+
+    /**
+     * Search Count
+     *
+     * @param model   The odoo model
+     * @param filters An array of {@link SearchFilter}
+     * @return future of total of counted record
+     * @see OdooRpc#searchCount(String, SearchFilter[])
+     */
+    public CompletableFuture<Integer> searchCount(@Nonnull String model, SearchFilter[] filters) {
+        return supply(() -> rpc.searchCount(model, filters));
+    }
+
+    /**
+     * Read
+     *
+     * @param model     The odoo model
+     * @param fields    an array of field
+     * @param recordIds The record ids
+     * @return future of an array of map
+     * @see OdooRpc#read(String, String[], int[])
+     */
+    public CompletableFuture<Map<String, Object>[]> read(@Nonnull String model, String[] fields, int[] recordIds) {
+        return supply(() -> rpc.read(model, fields, recordIds));
+    }
+
+    /**
+     * Read
+     *
+     * @param model    The odoo model
+     * @param fields   an array of field
+     * @param recordId The record id
+     * @return future of an optional of map
+     * @see OdooRpc#read(String, String[], int)
+     */
+    public CompletableFuture<Optional<Map<String, Object>>> read(@Nonnull String model, String[] fields, int recordId) {
+        return supply(() -> rpc.read(model, fields, recordId));
+    }
+
+    /**
+     * Read
+     *
+     * @param tClass    The class that is annotated with {@link OdooModel}
+     * @param recordIds The record ids
+     * @return future of an array of map
+     * @see OdooRpc#read(Class, int[])
+     */
+    public CompletableFuture<Map<String, Object>[]> read(@Nonnull Class<?> tClass, int[] recordIds) {
+        return supply(() -> rpc.read(tClass, recordIds));
+    }
+
+    /**
+     * Create
+     *
+     * @param model  The odoo model
+     * @param record The record map
+     * @return future of the new record id
+     * @see OdooRpc#create(String, Map)
+     */
+    public CompletableFuture<Integer> create(@Nonnull String model, Map<String, Object> record) {
+        return supply(() -> rpc.create(model, record));
+    }
+
+    /**
+     * Create
+     *
+     * @param record The record object
+     * @param <T>    The type of record
+     * @return future of the new record id
+     * @see OdooRpc#create(Object)
+     */
+    public <T> CompletableFuture<Integer> create(@Nonnull T record) {
+        return supply(() -> rpc.create(record));
+    }
+
+    /**
+     * Write
+     *
+     * @param model    The odoo model
+     * @param recordId The record id
+     * @param record   The record map
+     * @return future completed when the record is written
+     * @see OdooRpc#write(String, int, Map)
+     */
+    public CompletableFuture<Void> write(@Nonnull String model, int recordId, Map<String, Object> record) {
+        return run(() -> rpc.write(model, recordId, record));
+    }
+
+    /**
+     * Write
+     *
+     * @param recordId The record id
+     * @param record   The record object
+     * @param <T>      The type of record
+     * @return future completed when the record is written
+     * @see OdooRpc#write(int, Object)
+     */
+    public <T> CompletableFuture<Void> write(int recordId, @Nonnull T record) {
+        return run(() -> rpc.write(recordId, record));
+    }
+
+    /**
+     * Unlink
+     *
+     * @param model    The odoo model
+     * @param recordId The record id
+     * @return future completed when the record is deleted
+     * @see OdooRpc#unlink(String, int)
+     */
+    public CompletableFuture<Void> unlink(@Nonnull String model, int recordId) {
+        return run(() -> rpc.unlink(model, recordId));
+    }
+
+    /**
+     * Unlink
+     *
+     * @param tClass   The class that is annotated with {@link OdooModel}
+     * @param recordId The record id
+     * @return future completed when the record is deleted
+     * @see OdooRpc#unlink(Class, int)
+     */
+    public CompletableFuture<Void> unlink(@Nonnull Class<?> tClass, int recordId) {
+        return run(() -> rpc.unlink(tClass, recordId));
+    }
+
+    /**
+     * Execute Kw
+     * <p>
+     * Sent with the async api of the {@link OdooTransport}, no thread of the executor is held while waiting
+     *
+     * @param model     The odoo model
+     * @param method    The method name to execute
+     * @param posArgs   The positional arguments
+     * @param namedArgs The named arguments
+     * @return future of the result of the method execution
+     * @see OdooRpc#executeKwAsync(String, String, Object[], Map)
+     */
+    public CompletableFuture<Object> executeKw(String model, String method, Object[] posArgs, Map<String, Object> namedArgs) {
+        return rpc.executeKwAsync(model, method, posArgs, namedArgs);
+    }
+
+    /**
+     * Shut down the executor if it was created by this instance. The wrapped {@link OdooRpc} is left open.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor && executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    /**
+     * Run a call on the executor
+     *
+     * @param call The call
+     * @param <R>  The type of result
+     * @return future of the result
+     */
+    protected <R> CompletableFuture<R> supply(@Nonnull Call<R> call) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Run a call without result on the executor
+     *
+     * @param call The call
+     * @return future completed when the call is done
+     */
+    protected CompletableFuture<Void> run(@Nonnull VoidCall call) {
+        return supply(() -> {
+            call.call();
+            return null;
+        });
+    }
+
+    /**
+     * Create an executor of virtual threads (Java 21+) or fall back to a cached pool of daemon threads
+     *
+     * @return the executor
+     */
+    protected static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            final AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                final Thread thread = new Thread(r, "odoo-rpc-async-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @FunctionalInterface
+    protected interface Call<R> {
+        R call() throws OdooCallMethodException;
+    }
+
+    @FunctionalInterface
+    protected interface VoidCall {
+        void call() throws OdooCallMethodException;
+    }
+}
@@ -0,0 +1,108 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Fair counting semaphore whose permits can be waited for without holding a thread
+ * <p>
+ * Waiters are served in arrival order, whether they block in {@link #acquire()} or wait on the future of
+ * {@link #acquireAsync()}. A permit released while someone waits is handed over to the first waiter on the executor,
+ * so that a chain of waiters never runs on the stack of the thread releasing the permit.
+ */
+final class AsyncSemaphore {
+    private final Executor executor;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int available;
+
+    /**
+     * AsyncSemaphore constructor
+     *
+     * @param permits  The number of permits
+     * @param executor Completes the futures of waiters
+     */
+    AsyncSemaphore(int permits, @Nonnull Executor executor) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        this.available = permits;
+        this.executor = executor;
+    }
+
+    /**
+     * Acquire a permit without blocking
+     *
+     * @return future completed once the permit is acquired, already completed when one was available
+     */
+    @Nonnull
+    CompletableFuture<Void> acquireAsync() {
+        synchronized (this) {
+            if (available > 0 && waiters.isEmpty()) {
+                available--;
+                return CompletableFuture.completedFuture(null);
+            }
+
+            final CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    /**
+     * Acquire a permit, blocking until one is available
+     *
+     * @throws InterruptedException when the thread was interrupted while waiting, no permit is then held
+     */
+    void acquire() throws InterruptedException {
+        final CompletableFuture<Void> waiter = acquireAsync();
+        try {
+            waiter.get();
+        } catch (InterruptedException e) {
+            final boolean waiting;
+            synchronized (this) {
+                waiting = waiters.remove(waiter);
+            }
+            if (!waiting) {
+                // the permit was handed over meanwhile
+                release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Release a permit, handing it over to the first waiter if any
+     */
+    void release() {
+        final CompletableFuture<Void> next;
+        synchronized (this) {
+            next = waiters.poll();
+            if (next == null) {
+                available++;
+                return;
+            }
+        }
+
+        try {
+            executor.execute(() -> next.complete(null));
+        } catch (RejectedExecutionException e) {
+            next.complete(null);
+        }
+    }
+
+    /**
+     * Get the number of permits available right now
+     *
+     * @return the available permits
+     */
+    synchronized int availablePermits() {
+        return available;
+    }
+}
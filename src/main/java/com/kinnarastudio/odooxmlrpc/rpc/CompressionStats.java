@@ -0,0 +1,187 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Byte counters of an {@link OdooTransport}, before and after gzip compression
+ */
+public final class CompressionStats {
+    public final static String GZIP = "gzip";
+
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder requestBytesSent = new LongAdder();
+    private final LongAdder responseBytesReceived = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder compressedRequests = new LongAdder();
+    private final LongAdder compressedResponses = new LongAdder();
+
+    private volatile boolean serverGzip;
+
+    /**
+     * Gets the size of the request bodies before compression
+     *
+     * @return bytes
+     */
+    public long getRequestBytes() {
+        return requestBytes.sum();
+    }
+
+    /**
+     * Gets the size of the request bodies as sent
+     *
+     * @return bytes
+     */
+    public long getRequestBytesSent() {
+        return requestBytesSent.sum();
+    }
+
+    /**
+     * Gets the size of the response bodies as received
+     *
+     * @return bytes
+     */
+    public long getResponseBytesReceived() {
+        return responseBytesReceived.sum();
+    }
+
+    /**
+     * Gets the size of the response bodies after decompression
+     *
+     * @return bytes
+     */
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    public long getCompressedRequests() {
+        return compressedRequests.sum();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    /**
+     * Gets the bytes which did not go over the wire thanks to compression, in both directions
+     *
+     * @return bytes saved
+     */
+    public long getBytesSaved() {
+        return getRequestBytes() - getRequestBytesSent() + getResponseBytes() - getResponseBytesReceived();
+    }
+
+    /**
+     * Checks if the server has answered with a gzip compressed response
+     *
+     * @return true once the server advertised gzip support
+     */
+    public boolean isServerGzip() {
+        return serverGzip;
+    }
+
+    @Override
+    public String toString() {
+        return "requests " + getRequestBytes() + "B sent " + getRequestBytesSent() + "B, "
+                + "responses " + getResponseBytes() + "B received " + getResponseBytesReceived() + "B, "
+                + "saved " + getBytesSaved() + "B";
+    }
+
+    /**
+     * Compress a request body when it reaches the threshold and the server advertised gzip support
+     *
+     * @param body      The request body
+     * @param threshold Size from which the body is compressed, negative never compresses
+     * @return the body to send, compressed when {@link #isCompressed(byte[], byte[])}
+     */
+    @Nonnull
+    byte[] encode(@Nonnull byte[] body, int threshold) {
+        requestBytes.add(body.length);
+        if (threshold < 0 || body.length < threshold || !serverGzip) {
+            requestBytesSent.add(body.length);
+            return body;
+        }
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(32, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            // not thrown by an in-memory stream
+            throw new UncheckedIOException(e);
+        }
+
+        final byte[] compressed = buffer.toByteArray();
+        if (compressed.length >= body.length) {
+            requestBytesSent.add(body.length);
+            return body;
+        }
+
+        compressedRequests.increment();
+        requestBytesSent.add(compressed.length);
+        return compressed;
+    }
+
+    /**
+     * Check if {@link #encode(byte[], int)} compressed the body
+     */
+    static boolean isCompressed(byte[] body, byte[] encoded) {
+        return body != encoded;
+    }
+
+    /**
+     * Wrap a response body, decompressing it when the server sent it gzipped
+     *
+     * @param in              The response body as received
+     * @param contentEncoding The <code>Content-Encoding</code> header, may be null
+     * @return the decoded response body
+     * @throws IOException when the gzip header cannot be read
+     */
+    @Nonnull
+    InputStream decode(@Nonnull InputStream in, String contentEncoding) throws IOException {
+        final InputStream received = new CountingInputStream(in, responseBytesReceived);
+        if (contentEncoding == null || !GZIP.equalsIgnoreCase(contentEncoding.trim())) {
+            return new CountingInputStream(received, responseBytes);
+        }
+
+        serverGzip = true;
+        compressedResponses.increment();
+        return new CountingInputStream(new GZIPInputStream(received, 8192), responseBytes);
+    }
+
+    private final static class CountingInputStream extends FilterInputStream {
+        private final LongAdder counter;
+
+        CountingInputStream(InputStream in, LongAdder counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                counter.add(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final long skipped = super.skip(n);
+            counter.add(skipped);
+            return skipped;
+        }
+    }
+}
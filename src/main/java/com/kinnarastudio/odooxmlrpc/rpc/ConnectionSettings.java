@@ -0,0 +1,248 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+/**
+ * HTTP connection settings used by {@link OdooTransport} implementations
+ */
+public final class ConnectionSettings {
+    public final static int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 8;
+    public final static int DEFAULT_MAX_TOTAL_CONNECTIONS = 32;
+    public final static int DEFAULT_CONNECT_TIMEOUT = 10_000;
+    public final static int DEFAULT_READ_TIMEOUT = 120_000;
+    public final static long DEFAULT_IDLE_TIMEOUT = 60_000L;
+    public final static boolean DEFAULT_RESPONSE_COMPRESSION = true;
+    public final static int DEFAULT_REQUEST_COMPRESSION_THRESHOLD = -1;
+
+    private final int maxConnectionsPerRoute;
+    private final int maxTotalConnections;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final long idleTimeout;
+    private final boolean responseCompression;
+    private final int requestCompressionThreshold;
+
+    /**
+     * Constructs connection settings
+     *
+     * @param maxConnectionsPerRoute Maximum pooled connections to a single host
+     * @param maxTotalConnections    Maximum pooled connections overall
+     * @param connectTimeout         Connect timeout in milliseconds, 0 means infinite
+     * @param readTimeout            Read (socket) timeout in milliseconds, 0 means infinite
+     * @param idleTimeout            Idle time in milliseconds after which pooled connections are evicted, see {@link #getIdleTimeout()}
+     */
+    public ConnectionSettings(int maxConnectionsPerRoute, int maxTotalConnections, int connectTimeout, int readTimeout, long idleTimeout) {
+        this(maxConnectionsPerRoute, maxTotalConnections, connectTimeout, readTimeout, idleTimeout, DEFAULT_RESPONSE_COMPRESSION, DEFAULT_REQUEST_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Constructs connection settings
+     *
+     * @param maxConnectionsPerRoute      Maximum pooled connections to a single host
+     * @param maxTotalConnections         Maximum pooled connections overall
+     * @param connectTimeout              Connect timeout in milliseconds, 0 means infinite
+     * @param readTimeout                 Read (socket) timeout in milliseconds, 0 means infinite
+     * @param idleTimeout                 Idle time in milliseconds after which pooled connections are evicted, see {@link #getIdleTimeout()}
+     * @param responseCompression         Send <code>Accept-Encoding: gzip</code> and decode compressed responses
+     * @param requestCompressionThreshold Request size in bytes from which bodies are gzipped, negative never compresses
+     */
+    public ConnectionSettings(int maxConnectionsPerRoute, int maxTotalConnections, int connectTimeout, int readTimeout, long idleTimeout, boolean responseCompression, int requestCompressionThreshold) {
+        if (maxConnectionsPerRoute <= 0 || maxTotalConnections <= 0) {
+            throw new IllegalArgumentException("Connection pool size must be positive");
+        }
+
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.maxTotalConnections = Math.max(maxConnectionsPerRoute, maxTotalConnections);
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.idleTimeout = idleTimeout;
+        this.responseCompression = responseCompression;
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    /**
+     * Gets the default connection settings
+     *
+     * @return default connection settings
+     */
+    public static ConnectionSettings getDefault() {
+        return new ConnectionSettings(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_MAX_TOTAL_CONNECTIONS, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Gets a new Builder instance
+     *
+     * @return a new Builder instance
+     */
+    public static Builder getBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the maximum pooled connections to a single host
+     *
+     * @return maximum connections per route
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Gets the maximum pooled connections overall
+     *
+     * @return maximum total connections
+     */
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    /**
+     * Gets the connect timeout
+     *
+     * @return connect timeout in milliseconds
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Gets the read timeout
+     *
+     * @return read timeout in milliseconds
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Gets the idle timeout
+     * <p>
+     * {@link JavaHttpTransport} drops its pooled connections, together with the client owning them, once no call was
+     * made for this long. Connections are never kept longer than the JVM wide <code>jdk.httpclient.keepalive.timeout</code>.
+     *
+     * @return idle timeout in milliseconds, 0 or negative never evicts
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Checks if gzip compressed responses are requested
+     *
+     * @return true to send <code>Accept-Encoding: gzip</code>
+     */
+    public boolean isResponseCompression() {
+        return responseCompression;
+    }
+
+    /**
+     * Gets the request size from which bodies are gzipped. Compression only starts once the server
+     * has advertised gzip support by answering with a compressed response, and the server or its proxy
+     * must accept <code>Content-Encoding: gzip</code> request bodies.
+     *
+     * @return threshold in bytes, negative when requests are never compressed
+     */
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * Builder for creating {@link ConnectionSettings}
+     */
+    public final static class Builder {
+        private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        private int maxTotalConnections = DEFAULT_MAX_TOTAL_CONNECTIONS;
+        private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        private int readTimeout = DEFAULT_READ_TIMEOUT;
+        private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+        private boolean responseCompression = DEFAULT_RESPONSE_COMPRESSION;
+        private int requestCompressionThreshold = DEFAULT_REQUEST_COMPRESSION_THRESHOLD;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum pooled connections to a single host
+         *
+         * @param maxConnectionsPerRoute maximum connections per route
+         * @return The Builder instance
+         */
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * Sets the maximum pooled connections overall
+         *
+         * @param maxTotalConnections maximum total connections
+         * @return The Builder instance
+         */
+        public Builder maxTotalConnections(int maxTotalConnections) {
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        /**
+         * Sets the connect timeout
+         *
+         * @param connectTimeout connect timeout in milliseconds
+         * @return The Builder instance
+         */
+        public Builder connectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the read timeout
+         *
+         * @param readTimeout read timeout in milliseconds
+         * @return The Builder instance
+         */
+        public Builder readTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the idle timeout, see {@link ConnectionSettings#getIdleTimeout()}
+         *
+         * @param idleTimeout idle timeout in milliseconds
+         * @return The Builder instance
+         */
+        public Builder idleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * Sets whether gzip compressed responses are requested
+         *
+         * @param responseCompression true to send <code>Accept-Encoding: gzip</code>
+         * @return The Builder instance
+         */
+        public Builder responseCompression(boolean responseCompression) {
+            this.responseCompression = responseCompression;
+            return this;
+        }
+
+        /**
+         * Sets the request size from which bodies are gzipped
+         *
+         * @param requestCompressionThreshold threshold in bytes, negative never compresses
+         * @return The Builder instance
+         */
+        public Builder requestCompressionThreshold(int requestCompressionThreshold) {
+            this.requestCompressionThreshold = requestCompressionThreshold;
+            return this;
+        }
+
+        /**
+         * Builds the {@link ConnectionSettings}
+         *
+         * @return The {@link ConnectionSettings}
+         */
+        public ConnectionSettings build() {
+            return new ConnectionSettings(maxConnectionsPerRoute, maxTotalConnections, connectTimeout, readTimeout, idleTimeout, responseCompression, requestCompressionThreshold);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Split of the longest <code>in</code> or <code>not in</code> operand list of a domain into chunks
+ * <p>
+ * A domain of <code>&amp;</code> and <code>|</code> holds each filter without negation. So when the operands of
+ * <code>x in V</code> are split into <code>A</code> and <code>B</code>, the domain matches the union of the records it
+ * matches with <code>x in A</code> and with <code>x in B</code>, and for <code>x not in V</code> their intersection.
+ * Other oversized filters are split in turn when a chunk is executed.
+ */
+final class FilterChunks {
+    private final SearchFilter[] filters;
+    private final int index;
+    private final Object values;
+    private final int length;
+    private final int chunkSize;
+
+    private FilterChunks(SearchFilter[] filters, int index, Object values, int length, int chunkSize) {
+        this.filters = filters;
+        this.index = index;
+        this.values = values;
+        this.length = length;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Find the longest operand list exceeding the chunk size
+     *
+     * @param filters   The filters
+     * @param chunkSize The maximum number of operands per request
+     * @return the chunks, null when no filter needs to be split
+     */
+    @Nullable
+    static FilterChunks of(SearchFilter[] filters, int chunkSize) {
+        if (filters == null) {
+            return null;
+        }
+
+        FilterChunks longest = null;
+        for (int i = 0; i < filters.length; i++) {
+            final SearchFilter filter = filters[i];
+            if (filter == null || (filter.getOperator() != SearchFilter.Operator.IN && filter.getOperator() != SearchFilter.Operator.NOT_IN)) {
+                continue;
+            }
+
+            Object values = filter.getValue();
+            if (values instanceof Collection) {
+                values = ((Collection<?>) values).toArray();
+            }
+
+            final int length = values instanceof int[] ? ((int[]) values).length : values instanceof Object[] ? ((Object[]) values).length : 0;
+            if (length > chunkSize && (longest == null || length > longest.length)) {
+                longest = new FilterChunks(filters, i, values, length, chunkSize);
+            }
+        }
+        return longest;
+    }
+
+    int count() {
+        return (length + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * @return true for <code>not in</code>, whose chunk results are intersected rather than merged
+     */
+    boolean isExclusion() {
+        return filters[index].getOperator() == SearchFilter.Operator.NOT_IN;
+    }
+
+    /**
+     * Gets the filters of a chunk
+     *
+     * @param chunk The chunk index
+     * @return the filters, with the split filter holding the operands of the chunk
+     */
+    @Nonnull
+    SearchFilter[] chunk(int chunk) {
+        final int from = chunk * chunkSize;
+        final int to = Math.min(length, from + chunkSize);
+        final Object operands = values instanceof int[]
+                ? Arrays.copyOfRange((int[]) values, from, to)
+                : Arrays.copyOfRange((Object[]) values, from, to);
+
+        final SearchFilter filter = filters[index];
+        final SearchFilter[] result = filters.clone();
+        result[index] = new SearchFilter(filter.getJoin(), filter.getField(), filter.getOperator(), operands);
+        return result;
+    }
+}
@@ -0,0 +1,178 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import javax.annotation.Nonnull;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JDK {@link HttpClient} shared by the {@link JavaHttpTransport} instances of the same connection settings
+ * <p>
+ * Instances share the keep-alive connections of the client and its selector thread, which also closes idle connections,
+ * so opening more {@link OdooRpc} instances does not start more threads. Requests in flight are bounded by
+ * {@link ConnectionSettings#getMaxConnectionsPerRoute()} per server and by {@link ConnectionSettings#getMaxTotalConnections()}
+ * overall, as an HTTP/1.1 request in flight holds a connection of its own.
+ * <p>
+ * The JDK offers no per client idle timeout, so once no call has been made for {@link ConnectionSettings#getIdleTimeout()}
+ * the client is dropped and the next call builds a new one. The connections of the dropped client are never used again
+ * and are closed with its selector thread once it is garbage collected. The JVM wide
+ * <code>jdk.httpclient.keepalive.timeout</code> system property still bounds how long any connection is kept.
+ */
+final class HttpClientPool {
+    private final static Map<String, HttpClientPool> POOLS = new HashMap<>();
+    private final static ExecutorService EXECUTOR = newExecutor();
+
+    private final String key;
+    private final ConnectionSettings settings;
+    private final HttpClient.Version version;
+    private final long idleTimeoutNanos;
+    private final int maxConnectionsPerRoute;
+    private final AsyncSemaphore totalPermits;
+    private final ConcurrentMap<String, AsyncSemaphore> routePermits = new ConcurrentHashMap<>();
+
+    // guarded by POOLS
+    private int references;
+
+    // guarded by this
+    private HttpClient httpClient;
+    private int leases;
+    private long lastActivity;
+
+    private HttpClientPool(String key, ConnectionSettings settings, HttpClient.Version version) {
+        this.key = key;
+        this.settings = settings;
+        this.version = version;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.getIdleTimeout());
+        this.maxConnectionsPerRoute = settings.getMaxConnectionsPerRoute();
+        this.totalPermits = new AsyncSemaphore(settings.getMaxTotalConnections(), EXECUTOR);
+        this.httpClient = newHttpClient();
+        this.lastActivity = System.nanoTime();
+    }
+
+    /**
+     * Get the pool of the settings, creating it for the first transport using them
+     *
+     * @param settings The connection settings
+     * @param version  The preferred http version
+     * @return the pool, {@link #release()} it when done
+     */
+    @Nonnull
+    static HttpClientPool acquire(@Nonnull ConnectionSettings settings, @Nonnull HttpClient.Version version) {
+        final String key = version + "," + settings.getConnectTimeout() + "," + settings.getIdleTimeout() + "," + settings.getMaxConnectionsPerRoute() + "," + settings.getMaxTotalConnections();
+        synchronized (POOLS) {
+            final HttpClientPool pool = POOLS.computeIfAbsent(key, k -> new HttpClientPool(k, settings, version));
+            pool.references++;
+            return pool;
+        }
+    }
+
+    /**
+     * Release a reference to this pool. Once released by every transport the client is dropped,
+     * and its thread stops as soon as it is garbage collected.
+     */
+    void release() {
+        synchronized (POOLS) {
+            if (references > 0 && --references == 0) {
+                POOLS.remove(key, this);
+            }
+        }
+    }
+
+    /**
+     * Get the current client, to send a call with once a connection is leased
+     *
+     * @return the client
+     */
+    @Nonnull
+    synchronized HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Wait for a connection to the server of an uri
+     *
+     * @param uri The uri
+     * @return action giving the connection back, which runs once however often it is called
+     * @throws InterruptedException when the thread was interrupted while waiting
+     */
+    @Nonnull
+    Runnable lease(@Nonnull URI uri) throws InterruptedException {
+        final AsyncSemaphore route = routePermits(uri);
+        route.acquire();
+        try {
+            totalPermits.acquire();
+        } catch (InterruptedException e) {
+            route.release();
+            throw e;
+        }
+        return newLease(route);
+    }
+
+    /**
+     * Wait for a connection to the server of an uri without holding a thread
+     *
+     * @param uri The uri
+     * @return future of the action giving the connection back
+     */
+    @Nonnull
+    CompletableFuture<Runnable> leaseAsync(@Nonnull URI uri) {
+        final AsyncSemaphore route = routePermits(uri);
+        return route.acquireAsync()
+                .thenCompose(v -> totalPermits.acquireAsync())
+                .thenApply(v -> newLease(route));
+    }
+
+    private AsyncSemaphore routePermits(URI uri) {
+        return routePermits.computeIfAbsent(uri.getScheme() + "://" + uri.getAuthority(), route -> new AsyncSemaphore(maxConnectionsPerRoute, EXECUTOR));
+    }
+
+    private Runnable newLease(AsyncSemaphore route) {
+        synchronized (this) {
+            if (leases++ == 0 && idleTimeoutNanos > 0 && System.nanoTime() - lastActivity >= idleTimeoutNanos) {
+                httpClient = newHttpClient();
+            }
+        }
+
+        final AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                synchronized (this) {
+                    leases--;
+                    lastActivity = System.nanoTime();
+                }
+                totalPermits.release();
+                route.release();
+            }
+        };
+    }
+
+    private HttpClient newHttpClient() {
+        final HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(EXECUTOR);
+        if (settings.getConnectTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(settings.getConnectTimeout()));
+        }
+        return builder.build();
+    }
+
+    private static ExecutorService newExecutor() {
+        final AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "odoo-rpc-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,301 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transport over {@link HttpClient} of the JDK
+ * <p>
+ * Prefers HTTP/2, so concurrent calls to the same server are multiplexed over a single connection,
+ * and falls back to HTTP/1.1 when the server does not support it. Calls made through
+ * {@link #executeAsync(String, String, Object[])} do not hold a thread while waiting for the response.
+ * <p>
+ * Transports of the same {@link ConnectionSettings} share one client, its keep-alive connections and its single thread.
+ * The client is replaced once no call was made for {@link ConnectionSettings#getIdleTimeout()}. Calls in flight are
+ * bounded by {@link ConnectionSettings#getMaxConnectionsPerRoute()} per server and {@link ConnectionSettings#getMaxTotalConnections()}
+ * overall; a streamed response counts until its reader is closed. TLS certificates and host names are verified by the JDK.
+ */
+public class JavaHttpTransport implements OdooTransport {
+    private final ConnectionSettings connectionSettings;
+    private final HttpClientPool pool;
+    private final CompressionStats compressionStats = new CompressionStats();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * JavaHttpTransport constructor preferring HTTP/2
+     *
+     * @param connectionSettings The connection settings
+     */
+    public JavaHttpTransport(@Nonnull ConnectionSettings connectionSettings) {
+        this(connectionSettings, HttpClient.Version.HTTP_2);
+    }
+
+    /**
+     * JavaHttpTransport constructor
+     *
+     * @param connectionSettings The connection settings
+     * @param version            The preferred http version
+     */
+    public JavaHttpTransport(@Nonnull ConnectionSettings connectionSettings, @Nonnull HttpClient.Version version) {
+        this.connectionSettings = connectionSettings;
+        this.pool = HttpClientPool.acquire(connectionSettings, version);
+    }
+
+    @Nonnull
+    @Override
+    public ConnectionSettings getConnectionSettings() {
+        return connectionSettings;
+    }
+
+    @Nonnull
+    @Override
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    @Nullable
+    @Override
+    public Object execute(@Nonnull String url, @Nonnull String method, Object[] params) throws MalformedURLException, XmlRpcException {
+        return executeStreaming(newRequest(url, method, params), method).readValue();
+    }
+
+    @Nonnull
+    @Override
+    public ResponseReader executeStreaming(@Nonnull String url, @Nonnull String method, Object[] params) throws XmlRpcException {
+        try {
+            return executeStreaming(newRequest(url, method, params), method);
+        } catch (MalformedURLException e) {
+            throw new XmlRpcException("Invalid url [" + url + "]", e);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public CompletableFuture<Object> executeAsync(@Nonnull String url, @Nonnull String method, Object[] params) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final HttpRequest request;
+        try {
+            request = newRequest(url, method, params);
+        } catch (MalformedURLException e) {
+            future.completeExceptionally(new XmlRpcException("Invalid url [" + url + "]", e));
+            return future;
+        }
+
+        pool.leaseAsync(request.uri())
+                .thenCompose(lease -> pool.getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                        .whenComplete((response, error) -> lease.run()))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        future.completeExceptionally(new XmlRpcException("Failed to execute [" + method + "]", cause));
+                        return;
+                    }
+
+                    try {
+                        checkStatus(response.statusCode(), method);
+                        final InputStream in = compressionStats.decode(new ByteArrayInputStream(response.body()), contentEncoding(response));
+                        future.complete(newResponseReader(in, null).readValue());
+                    } catch (IOException e) {
+                        future.completeExceptionally(new XmlRpcException("Failed to decode response of [" + method + "]", e));
+                    } catch (XmlRpcException | RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * Release the shared client, calls in flight still complete
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            pool.release();
+        }
+    }
+
+    /**
+     * Get the shared client, replaced by a new one once it was idle for {@link ConnectionSettings#getIdleTimeout()}
+     *
+     * @return the current client
+     */
+    public HttpClient getHttpClient() {
+        return pool.getHttpClient();
+    }
+
+    private ResponseReader executeStreaming(HttpRequest request, String method) throws XmlRpcException {
+        return newResponseReader(send(request, method), null);
+    }
+
+    /**
+     * Post a request body to the endpoint of a url
+     *
+     * @param url    The XML-RPC endpoint url
+     * @param body   The serialized request body
+     * @param method The method, for error messages
+     * @return the decoded response body, close it when done
+     * @throws XmlRpcException when the request failed
+     */
+    @Nonnull
+    protected InputStream send(@Nonnull String url, @Nonnull byte[] body, @Nonnull String method) throws XmlRpcException {
+        try {
+            return send(newRequest(getEndpoint(url), body), method);
+        } catch (MalformedURLException e) {
+            throw new XmlRpcException("Invalid url [" + url + "]", e);
+        }
+    }
+
+    private InputStream send(HttpRequest request, String method) throws XmlRpcException {
+        final Runnable lease;
+        try {
+            lease = pool.lease(request.uri());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XmlRpcException("Interrupted while waiting for a connection to execute [" + method + "]", e);
+        }
+
+        final HttpResponse<InputStream> response;
+        try {
+            response = pool.getHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            lease.run();
+            throw new XmlRpcException("Failed to execute [" + method + "]", e);
+        } catch (InterruptedException e) {
+            lease.run();
+            Thread.currentThread().interrupt();
+            throw new XmlRpcException("Interrupted while executing [" + method + "]", e);
+        } catch (RuntimeException e) {
+            lease.run();
+            throw e;
+        }
+
+        try {
+            checkStatus(response.statusCode(), method);
+            return new FilterInputStream(compressionStats.decode(response.body(), contentEncoding(response))) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        lease.run();
+                    }
+                }
+            };
+        } catch (IOException e) {
+            close(response, lease);
+            throw new XmlRpcException("Failed to decode response of [" + method + "]", e);
+        } catch (XmlRpcException | RuntimeException e) {
+            close(response, lease);
+            throw e;
+        }
+    }
+
+    private static void close(HttpResponse<InputStream> response, Runnable lease) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+            // ignore
+        } finally {
+            lease.run();
+        }
+    }
+
+    /**
+     * Get the uri a call is posted to
+     *
+     * @param url The XML-RPC endpoint url
+     * @return the uri
+     * @throws MalformedURLException when the url is malformed
+     */
+    @Nonnull
+    protected URI getEndpoint(@Nonnull String url) throws MalformedURLException {
+        try {
+            return URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw (MalformedURLException) new MalformedURLException(url).initCause(e);
+        }
+    }
+
+    /**
+     * Get the content type of the request body
+     *
+     * @return the content type
+     */
+    @Nonnull
+    protected String getContentType() {
+        return XmlRpcUtil.CONTENT_TYPE;
+    }
+
+    /**
+     * Serialize the request body of a call
+     *
+     * @param url    The XML-RPC endpoint url
+     * @param method The method
+     * @param params The parameters
+     * @return the request body
+     */
+    @Nonnull
+    protected byte[] serializeRequest(@Nonnull String url, @Nonnull String method, Object[] params) {
+        return XmlRpcUtil.serializeRequest(method, params);
+    }
+
+    /**
+     * Create the parser of a response body
+     *
+     * @param in      The decoded response body
+     * @param onClose Called once when the reader is closed
+     * @return the response reader
+     * @throws XmlRpcException when the response is an error or is not valid
+     */
+    @Nonnull
+    protected ResponseReader newResponseReader(@Nonnull InputStream in, @Nullable Runnable onClose) throws XmlRpcException {
+        return new XmlRpcResponseReader(in, onClose);
+    }
+
+    private HttpRequest newRequest(String url, String method, Object[] params) throws MalformedURLException {
+        return newRequest(getEndpoint(url), serializeRequest(url, method, params));
+    }
+
+    private HttpRequest newRequest(URI uri, byte[] body) {
+        final byte[] encoded = compressionStats.encode(body, connectionSettings.getRequestCompressionThreshold());
+
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .header("Content-Type", getContentType())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(encoded));
+        if (CompressionStats.isCompressed(body, encoded)) {
+            builder.header("Content-Encoding", CompressionStats.GZIP);
+        }
+        if (connectionSettings.isResponseCompression()) {
+            builder.header("Accept-Encoding", CompressionStats.GZIP);
+        }
+        if (connectionSettings.getReadTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(connectionSettings.getReadTimeout()));
+        }
+        return builder.build();
+    }
+
+    private static String contentEncoding(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Encoding").orElse(null);
+    }
+
+    private static void checkStatus(int status, String method) throws XmlRpcException {
+        if (status != 200) {
+            throw new XmlRpcException(status, "HTTP server returned status " + status + " for [" + method + "]");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Odoo RPC
+ * <p>
+ * {@link OdooRpc} talking to odoo's <code>/jsonrpc</code> endpoint instead of XML-RPC.
+ * The api and the values returned are the same, see {@link JsonRpcTransport}.
+ *
+ * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#external-api">External API</a>
+ */
+public class JsonOdooRpc extends OdooRpc {
+    public JsonOdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey) throws OdooAuthorizationException {
+        this(baseUrl, database, user, apiKey, ConnectionSettings.getDefault());
+    }
+
+    /**
+     * JsonOdooRpc constructor
+     *
+     * @param baseUrl            The odoo base url
+     * @param database           The database name
+     * @param user               The username
+     * @param apiKey             The api key
+     * @param connectionSettings The http connection settings
+     * @throws OdooAuthorizationException when authorization failed
+     */
+    public JsonOdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey, @Nonnull ConnectionSettings connectionSettings) throws OdooAuthorizationException {
+        super(baseUrl, database, user, apiKey, new JsonRpcTransport(connectionSettings));
+    }
+}
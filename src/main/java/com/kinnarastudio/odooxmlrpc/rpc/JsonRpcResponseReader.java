@@ -0,0 +1,472 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.exception.UncheckedOdooCallMethodException;
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Pull parser of a JSON-RPC 2.0 response
+ * <p>
+ * Values are converted to the types {@link XmlRpcResponseReader} produces, so {@link OdooRpc} handles both alike:
+ * objects to {@link Map}, arrays to <code>Object[]</code>, integral numbers to {@link Integer} or {@link Long} when they
+ * do not fit, other numbers to {@link Double}. An <code>error</code> member is thrown as {@link XmlRpcException}
+ * carrying the odoo error message, and for odoo's access exceptions the fault code <code>/xmlrpc/2</code> answers them with.
+ */
+public class JsonRpcResponseReader extends ResponseReader {
+    private final static String RESULT = "result";
+    private final static String ERROR = "error";
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private final boolean array;
+    private final Object single;
+    private boolean first = true;
+    private boolean ready;
+    private boolean consumed;
+
+    /**
+     * Start reading a response, up to its result
+     *
+     * @param in      The response body, closed by {@link #close()}
+     * @param onClose Called once when the reader is closed, for example to release the http connection
+     * @throws XmlRpcException when the response is an error or is not a valid JSON-RPC response
+     */
+    public JsonRpcResponseReader(@Nonnull InputStream in, @Nullable Runnable onClose) throws XmlRpcException {
+        super(in, onClose);
+        this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+
+        boolean array = false;
+        Object single = null;
+        try {
+            expect('{');
+            while (true) {
+                if (peek() == '}') {
+                    throw new XmlRpcException("Invalid JSON-RPC response, neither result nor error");
+                }
+
+                final String key = readString();
+                expect(':');
+                if (RESULT.equals(key)) {
+                    if (peek() == '[') {
+                        read();
+                        array = true;
+                    } else {
+                        // a single value is small, read it right away
+                        single = readAny();
+                    }
+                    break;
+                } else if (ERROR.equals(key)) {
+                    throw error(readAny());
+                }
+
+                readAny();
+                if (peek() == ',') {
+                    read();
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw new XmlRpcException("Invalid JSON-RPC response", e);
+        } catch (XmlRpcException | RuntimeException e) {
+            close();
+            throw e;
+        }
+
+        this.array = array;
+        this.single = single;
+    }
+
+    /**
+     * Reader of a raw JSON document, without a JSON-RPC envelope
+     */
+    private JsonRpcResponseReader(@Nonnull InputStream in) {
+        super(in, null);
+        this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        this.array = false;
+        this.single = null;
+    }
+
+    /**
+     * Read the response of a JSON-RPC 2.0 batch, whose responses may come in any order
+     *
+     * @param in      The response body, closed when done
+     * @param firstId The id of the first request, the following requests have consecutive ids
+     * @param size    The number of requests
+     * @return the result of each request in the order of ids, an {@link XmlRpcException} for a request which failed
+     * @throws XmlRpcException when the response is not a valid batch response
+     */
+    @Nonnull
+    public static List<Object> readBatch(@Nonnull InputStream in, long firstId, int size) throws XmlRpcException {
+        final Object[] results = new Object[size];
+        final boolean[] answered = new boolean[size];
+        final JsonRpcResponseReader parser = new JsonRpcResponseReader(in);
+        try {
+            final Object batch = parser.readAny();
+            if (batch instanceof Map) {
+                // a batch failing as a whole is answered with a single error
+                throw error(((Map<?, ?>) batch).get(ERROR));
+            } else if (!(batch instanceof Object[])) {
+                throw new XmlRpcException("Invalid JSON-RPC batch response");
+            }
+
+            for (Object response : (Object[]) batch) {
+                final Map<?, ?> map = response instanceof Map ? (Map<?, ?>) response : Collections.emptyMap();
+                final Object id = map.get("id");
+                final long index = id instanceof Number ? ((Number) id).longValue() - firstId : -1;
+                if (index < 0 || index >= size) {
+                    throw new XmlRpcException("Invalid JSON-RPC batch response, unknown id [" + id + "]");
+                }
+                results[(int) index] = map.containsKey(ERROR) ? error(map.get(ERROR)) : map.get(RESULT);
+                answered[(int) index] = true;
+            }
+        } catch (IOException e) {
+            throw new XmlRpcException("Invalid JSON-RPC batch response", e);
+        } finally {
+            parser.close();
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (!answered[i]) {
+                throw new XmlRpcException("Invalid JSON-RPC batch response, no response for id [" + (firstId + i) + "]");
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public boolean isArray() {
+        return array;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (isClosed() || consumed) {
+            return false;
+        }
+
+        if (!array || ready) {
+            return true;
+        }
+
+        try {
+            final int c = peek();
+            if (c == ']') {
+                consumed = true;
+                close();
+                return false;
+            }
+
+            if (!first) {
+                expect(',');
+            }
+            first = false;
+            ready = true;
+            return true;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedOdooCallMethodException(new OdooCallMethodException(e));
+        }
+    }
+
+    /**
+     * Parse the next element
+     *
+     * @return the element, may be null
+     */
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        if (!array) {
+            consumed = true;
+            close();
+            return single;
+        }
+
+        try {
+            ready = false;
+            return readAny();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedOdooCallMethodException(new OdooCallMethodException(e));
+        }
+    }
+
+    /**
+     * Parse the next integral number straight from the buffer
+     */
+    @Override
+    protected int nextInt() throws XmlRpcException {
+        if (!array) {
+            return super.nextInt();
+        }
+
+        try {
+            ready = false;
+            int c = peek();
+            final boolean negative = c == '-';
+            if (negative) {
+                read();
+                c = peek();
+            }
+            if (c < '0' || c > '9') {
+                throw new XmlRpcException("Expected an integer in JSON-RPC response but found [" + (c < 0 ? "EOF" : String.valueOf((char) c)) + "]");
+            }
+
+            long value = 0;
+            while ((position < limit || fill()) && buffer[position] >= '0' && buffer[position] <= '9') {
+                value = value * 10 + (buffer[position++] - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new XmlRpcException("Integer out of range in JSON-RPC response");
+                }
+            }
+            if (position < limit && (buffer[position] == '.' || buffer[position] == 'e' || buffer[position] == 'E')) {
+                throw new XmlRpcException("Expected an integer in JSON-RPC response but found a decimal number");
+            }
+
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new XmlRpcException("Integer out of range in JSON-RPC response");
+            }
+            return (int) value;
+        } catch (IOException e) {
+            throw new XmlRpcException("Invalid JSON-RPC response", e);
+        }
+    }
+
+    @Override
+    protected void release() {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // ignore
+        }
+    }
+
+    private Object readAny() throws IOException {
+        final int c = peek();
+        switch (c) {
+            case '{': {
+                read();
+                final Map<String, Object> object = new HashMap<>();
+                if (peek() == '}') {
+                    read();
+                    return object;
+                }
+                do {
+                    final String key = readString();
+                    expect(':');
+                    object.put(key, readAny());
+                } while (separator('}'));
+                return object;
+            }
+            case '[': {
+                read();
+                final List<Object> list = new ArrayList<>();
+                if (peek() == ']') {
+                    read();
+                    return new Object[0];
+                }
+                do {
+                    list.add(readAny());
+                } while (separator(']'));
+                return list.toArray();
+            }
+            case '"':
+                return readString();
+            case 't':
+                literal("true");
+                return Boolean.TRUE;
+            case 'f':
+                literal("false");
+                return Boolean.FALSE;
+            case 'n':
+                literal("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw new IOException("Unexpected character [" + (c < 0 ? "EOF" : String.valueOf((char) c)) + "]");
+        }
+    }
+
+    /**
+     * Read a comma or the closing character
+     *
+     * @return true when a comma was read
+     */
+    private boolean separator(char close) throws IOException {
+        final int c = peek();
+        read();
+        if (c == ',') {
+            return true;
+        } else if (c == close) {
+            return false;
+        }
+        throw new IOException("Expected [,] or [" + close + "]");
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        final StringBuilder text = new StringBuilder();
+        while (true) {
+            final int c = read();
+            if (c == '"') {
+                return text.toString();
+            } else if (c == '\\') {
+                final int escaped = read();
+                switch (escaped) {
+                    case 'b':
+                        text.append('\b');
+                        break;
+                    case 'f':
+                        text.append('\f');
+                        break;
+                    case 'n':
+                        text.append('\n');
+                        break;
+                    case 'r':
+                        text.append('\r');
+                        break;
+                    case 't':
+                        text.append('\t');
+                        break;
+                    case 'u': {
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            final int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw new IOException("Invalid unicode escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        text.append((char) code);
+                        break;
+                    }
+                    case -1:
+                        throw new IOException("Unexpected end of JSON-RPC response");
+                    default:
+                        text.append((char) escaped);
+                }
+            } else if (c < 0) {
+                throw new IOException("Unexpected end of JSON-RPC response");
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private Object readNumber() throws IOException {
+        final StringBuilder text = new StringBuilder();
+        boolean decimal = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+
+            final char c = buffer[position];
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (c != '-' && c != '+' && (c < '0' || c > '9')) {
+                break;
+            }
+            text.append(c);
+            position++;
+        }
+
+        try {
+            if (!decimal) {
+                final long value = Long.parseLong(text.toString());
+                return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Object) (int) value : (Object) value;
+            }
+            return Double.valueOf(text.toString());
+        } catch (NumberFormatException e) {
+            try {
+                return Double.valueOf(text.toString());
+            } catch (NumberFormatException invalid) {
+                throw new IOException("Invalid number [" + text + "]", invalid);
+            }
+        }
+    }
+
+    private void literal(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw new IOException("Expected [" + literal + "]");
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        final int c = peek();
+        if (c != expected) {
+            throw new IOException("Expected [" + expected + "] but found [" + (c < 0 ? "EOF" : String.valueOf((char) c)) + "]");
+        }
+        read();
+    }
+
+    /**
+     * Skip whitespace and return the next character without consuming it
+     */
+    private int peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+
+            final char c = buffer[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            position++;
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        final int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private static XmlRpcException error(Object error) {
+        if (!(error instanceof Map)) {
+            return new XmlRpcException("Invalid JSON-RPC error [" + error + "]");
+        }
+
+        final Map<?, ?> map = (Map<?, ?>) error;
+        final Object data = map.get("data");
+        final Object name = data instanceof Map ? ((Map<?, ?>) data).get("name") : null;
+        final Object code = "odoo.exceptions.AccessError".equals(name) ? XmlRpcUtil.FAULT_ACCESS_ERROR
+                : "odoo.exceptions.AccessDenied".equals(name) ? XmlRpcUtil.FAULT_ACCESS_DENIED
+                : map.get("code");
+        final Object message = Optional.ofNullable(data instanceof Map ? ((Map<?, ?>) data).get("message") : null)
+                .orElseGet(() -> map.get("message"));
+        return new XmlRpcException(code instanceof Integer ? (Integer) code : 0, message == null ? "Unknown JSON-RPC error" : String.valueOf(message));
+    }
+}
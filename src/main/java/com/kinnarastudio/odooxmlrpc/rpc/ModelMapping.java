@@ -0,0 +1,303 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.annotation.OdooField;
+import com.kinnarastudio.odooxmlrpc.annotation.OdooModel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Mapping between a class annotated with {@link OdooModel} and odoo records.
+ * <p>
+ * When a generated {@link OdooMapper} named <code>&lt;ClassName&gt;OdooMapper</code> exists next to the class,
+ * conversion is delegated to it. Otherwise reflection is done once per class and field access goes through
+ * precomputed {@link MethodHandle}s. Both convert values with {@link OdooValues}, so they agree on <code>false</code>,
+ * many2one pairs and type mismatches. Instances are immutable and shared, see {@link #of(Class)}.
+ *
+ * @param <T> The type of the mapped class
+ */
+public final class ModelMapping<T> {
+    private final static ClassValue<ModelMapping<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected ModelMapping<?> computeValue(Class<?> type) {
+            return new ModelMapping<>(type);
+        }
+    };
+
+    private final static MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private final static MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private final static MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final Class<T> type;
+    private final String model;
+    private final String[] fields;
+    private final Property[] properties;
+    private final MethodHandle constructor;
+    private final OdooMapper<T> mapper;
+
+    private ModelMapping(Class<T> type) {
+        this.type = type;
+        this.model = Optional.ofNullable(type.getAnnotation(OdooModel.class))
+                .map(OdooModel::value)
+                .orElse(null);
+
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.properties = Arrays.stream(type.getDeclaredFields())
+                .filter(f -> !Modifier.isStatic(f.getModifiers()) && !f.isSynthetic())
+                .map(f -> new Property(lookup, f))
+                .toArray(Property[]::new);
+        this.fields = Arrays.stream(properties)
+                .map(p -> p.name)
+                .toArray(String[]::new);
+        this.constructor = findConstructor(lookup, type);
+        this.mapper = findMapper(type);
+    }
+
+    /**
+     * Get the mapping of a class, computed on first use
+     *
+     * @param type The class
+     * @param <T>  The type of the class
+     * @return the shared mapping
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public static <T> ModelMapping<T> of(@Nonnull Class<T> type) {
+        return (ModelMapping<T>) CACHE.get(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Get the odoo model name
+     *
+     * @return the value of {@link OdooModel}, null when the class is not annotated
+     */
+    @Nullable
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * Get the odoo field names, taken from {@link OdooField} or the java field name
+     *
+     * @return a copy of the field names
+     */
+    @Nonnull
+    public String[] getFields() {
+        return fields.clone();
+    }
+
+    /**
+     * Get the generated mapper
+     *
+     * @return the generated mapper, empty when the class was not processed
+     */
+    @Nonnull
+    public Optional<OdooMapper<T>> getMapper() {
+        return Optional.ofNullable(mapper);
+    }
+
+    /**
+     * Get a reader of a single odoo field, for callers which only need a few values of each object
+     *
+     * @param field The odoo field name
+     * @return the reader, empty when the class has no such field
+     */
+    @Nonnull
+    public Optional<Function<T, Object>> getReader(@Nonnull String field) {
+        for (Property property : properties) {
+            if (property.name.equals(field)) {
+                final MethodHandle getter = property.getter;
+                return Optional.of(record -> {
+                    try {
+                        return getter.invokeExact((Object) record);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalStateException("Cannot read field [" + field + "]", e);
+                    }
+                });
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Convert an object into a record map
+     *
+     * @param record The object
+     * @return the record map, keyed by odoo field name
+     */
+    @Nonnull
+    public Map<String, Object> toMap(@Nonnull T record) {
+        if (mapper != null) {
+            return mapper.toMap(record);
+        }
+
+        final Map<String, Object> map = new HashMap<>(properties.length * 4 / 3 + 1);
+        for (Property property : properties) {
+            try {
+                map.put(property.name, property.getter.invokeExact((Object) record));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot read field [" + property.name + "]", e);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Convert a record map into an object
+     *
+     * @param record The record map, keyed by odoo field name
+     * @return the object, empty when the class has no accessible no-arg constructor
+     * @throws IllegalArgumentException when a value cannot be converted to its field type
+     */
+    @Nonnull
+    public Optional<T> fromMap(@Nonnull Map<String, Object> record) throws IllegalArgumentException {
+        if (mapper != null) {
+            return Optional.of(mapper.fromMap(record));
+        }
+
+        if (constructor == null) {
+            return Optional.empty();
+        }
+
+        final T instance;
+        try {
+            instance = type.cast((Object) constructor.invokeExact());
+        } catch (Throwable e) {
+            return Optional.empty();
+        }
+
+        for (Property property : properties) {
+            if (record.containsKey(property.name)) {
+                property.set(instance, record.get(property.name));
+            }
+        }
+        return Optional.of(instance);
+    }
+
+    /**
+     * Find the mapper generated by the annotation processor, in the same package as the class
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <T> OdooMapper<T> findMapper(Class<T> type) {
+        final String packagePrefix = type.getPackageName().isEmpty() ? "" : type.getPackageName() + ".";
+        final String mapperName = packagePrefix
+                + type.getName().substring(packagePrefix.length()).replace('$', '_')
+                + OdooMapper.SUFFIX;
+
+        try {
+            final Class<?> mapperClass = Class.forName(mapperName, true, type.getClassLoader());
+            if (!OdooMapper.class.isAssignableFrom(mapperClass)) {
+                return null;
+            }
+
+            final OdooMapper<T> mapper = (OdooMapper<T>) mapperClass.getDeclaredConstructor().newInstance();
+            return mapper.getType() == type ? mapper : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static MethodHandle findConstructor(MethodHandles.Lookup lookup, Class<?> type) {
+        try {
+            final Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A single mapped field
+     */
+    private final static class Property {
+        private final String name;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final BiFunction<Object, String, Object> converter;
+
+        Property(MethodHandles.Lookup lookup, java.lang.reflect.Field field) {
+            this.name = Optional.ofNullable(field.getAnnotation(OdooField.class))
+                    .map(OdooField::value)
+                    .orElseGet(field::getName);
+            this.converter = converter(field.getType());
+
+            try {
+                field.setAccessible(true);
+                this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot access field [" + field + "]", e);
+            }
+        }
+
+        void set(Object instance, Object value) throws IllegalArgumentException {
+            final Object converted = converter.apply(value, name);
+            try {
+                setter.invokeExact(instance, converted);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot write field [" + name + "]", e);
+            }
+        }
+
+        /**
+         * The same conversion as generated mappers do for the field type
+         */
+        private static BiFunction<Object, String, Object> converter(Class<?> fieldType) {
+            if (fieldType == int.class) {
+                return OdooValues::toInt;
+            } else if (fieldType == Integer.class) {
+                return OdooValues::toIntOrNull;
+            } else if (fieldType == long.class) {
+                return OdooValues::toLong;
+            } else if (fieldType == Long.class) {
+                return OdooValues::toLongOrNull;
+            } else if (fieldType == double.class) {
+                return OdooValues::toDouble;
+            } else if (fieldType == Double.class) {
+                return OdooValues::toDoubleOrNull;
+            } else if (fieldType == float.class) {
+                return OdooValues::toFloat;
+            } else if (fieldType == Float.class) {
+                return OdooValues::toFloatOrNull;
+            } else if (fieldType == boolean.class) {
+                return OdooValues::toBoolean;
+            } else if (fieldType == Boolean.class) {
+                return OdooValues::toBooleanOrNull;
+            } else if (fieldType == String.class) {
+                return OdooValues::toText;
+            } else if (fieldType == int[].class) {
+                return OdooValues::toIntArray;
+            } else if (fieldType == Integer[].class) {
+                return OdooValues::toIntegerArray;
+            } else if (fieldType.isPrimitive()) {
+                // not generated, the processor rejects them
+                final Class<?> wrapper = MethodType.methodType(fieldType).wrap().returnType();
+                final Object defaultValue = Array.get(Array.newInstance(fieldType, 1), 0);
+                return (value, field) -> Optional.<Object>ofNullable(OdooValues.cast(value, wrapper, field)).orElse(defaultValue);
+            }
+            return (value, field) -> OdooValues.cast(value, fieldType, field);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.cache.SchemaRegistry;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.FieldSet;
+import com.kinnarastudio.odooxmlrpc.model.ModelSchema;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Batch of calls sent together
+ * <p>
+ * Each call returns a future, completed once the batch is {@link #execute() executed}. When
+ * {@link OdooRpc#setMulticall(boolean) multicall} is enabled the whole batch is a single request, otherwise
+ * every call is sent at the same time so the batch still costs about one round trip.
+ * <pre>{@code
+ * OdooBatch batch = rpc.batch();
+ * CompletableFuture<int[]> ids = batch.search("res.partner", filters, null, null, null);
+ * CompletableFuture<Integer> count = batch.searchCount("res.partner", filters);
+ * batch.execute();
+ * }</pre>
+ * Calls reading the default {@link FieldSet} of the rpc resolve it when the batch is executed. The schemas it needs and
+ * the {@link com.kinnarastudio.odooxmlrpc.cache.SchemaRegistry} does not hold are loaded first, together, so a batch
+ * costs one more round trip until they are cached.
+ * <p>
+ * As with {@link OdooRpc}, a <b>read()</b> of more ids than {@link OdooRpc#getIdChunkSize()}, or an <code>in</code> or
+ * <code>not in</code> filter with more operands, is sent as several calls of the batch and their results merged. The
+ * merges needing a further round trip are not available in a batch and fail the call instead, see
+ * {@link #search(String, SearchFilter[], String, Integer, Integer)} and
+ * {@link #searchRead(String, String[], SearchFilter[], String, Integer, Integer)}.
+ * <p>
+ * A batch is not thread safe, the {@link com.kinnarastudio.odooxmlrpc.cache.RecordCache} is neither consulted nor updated.
+ *
+ * @see OdooRpc#batch()
+ */
+public class OdooBatch {
+    private final OdooRpc rpc;
+    private final List<Call<?>> calls = new ArrayList<>();
+
+    OdooBatch(@Nonnull OdooRpc rpc) {
+        this.rpc = rpc;
+    }
+
+    /**
+     * Search
+     * <p>
+     * An oversized <code>in</code> filter with an offset or limit must be ordered by id, its future fails otherwise.
+     *
+     * @param model   The odoo model
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @return future of an array of record id
+     * @see OdooRpc#search(String, SearchFilter[], String, Integer, Integer)
+     */
+    @Nonnull
+    public CompletableFuture<int[]> search(@Nonnull String model, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+        final FilterChunks chunks = FilterChunks.of(filters, rpc.getIdChunkSize());
+        if (chunks == null) {
+            return add(model, "search", new Object[]{XmlRpcUtil.prefixation(filters)}, searchParams(order, offset, limit), OdooRpc::toIds);
+        }
+
+        if (OdooRpc.pagesAmong(chunks, order, offset, limit)) {
+            return oversized(model, "search", "an oversized in filter paged in an order other than by id");
+        }
+
+        final Integer chunkLimit = OdooRpc.chunkLimit(chunks, order, offset, limit);
+        return allOf(IntStream.range(0, chunks.count())
+                .mapToObj(chunk -> add(model, "search", new Object[]{XmlRpcUtil.prefixation(chunks.chunk(chunk))}, searchParams(order, null, chunkLimit), OdooRpc::toIds))
+                .collect(Collectors.toList()))
+                .thenApply(results -> OdooRpc.page(OdooRpc.mergeChunks(chunks, order, results), offset, limit));
+    }
+
+    /**
+     * Search Read
+     * <p>
+     * An oversized <code>not in</code> filter fails its future, as does an oversized <code>in</code> filter with an offset
+     * or limit not ordered by id.
+     *
+     * @param model   The odoo model
+     * @param fields  an array of field, the default {@link FieldSet} of the rpc when null or empty
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @return future of an array of map
+     * @see OdooRpc#searchRead(String, String[], SearchFilter[], String, Integer, Integer)
+     */
+    @Nonnull
+    public CompletableFuture<Map<String, Object>[]> searchRead(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+        final FieldSet fieldSet = fields == null || fields.length == 0 ? rpc.getDefaultFieldSet() : null;
+        final FilterChunks chunks = FilterChunks.of(filters, rpc.getIdChunkSize());
+        if (chunks == null) {
+            return add(model, "search_read", new Object[]{XmlRpcUtil.prefixation(filters)}, OdooRpc.searchReadParams(fields, order, offset, limit), fieldSet, OdooRpc::toRecords);
+        }
+
+        if (chunks.isExclusion()) {
+            return oversized(model, "search_read", "an oversized not in filter");
+        } else if (OdooRpc.pagesAmong(chunks, order, offset, limit)) {
+            return oversized(model, "search_read", "an oversized in filter paged in an order other than by id");
+        }
+
+        final Integer chunkLimit = OdooRpc.chunkLimit(chunks, order, offset, limit);
+        return allOf(IntStream.range(0, chunks.count())
+                .mapToObj(chunk -> add(model, "search_read", new Object[]{XmlRpcUtil.prefixation(chunks.chunk(chunk))}, OdooRpc.searchReadParams(fields, order, null, chunkLimit), fieldSet, OdooRpc::toRecords))
+                .collect(Collectors.toList()))
+                .thenApply(results -> OdooRpc.mergeRecordChunks(results, order, offset, limit));
+    }
+
+    /**
+     * Read
+     *
+     * @param model     The odoo model
+     * @param fields    an array of field, the default {@link FieldSet} of the rpc when null or empty
+     * @param recordIds The record ids
+     * @return future of an array of map
+     * @see OdooRpc#read(String, String[], int[])
+     */
+    @Nonnull
+    public CompletableFuture<Map<String, Object>[]> read(@Nonnull String model, String[] fields, @Nonnull int[] recordIds) {
+        final FieldSet fieldSet = fields == null || fields.length == 0 ? rpc.getDefaultFieldSet() : null;
+        final int size = rpc.getIdChunkSize();
+        if (recordIds.length <= size) {
+            return add(model, "read", new Object[]{recordIds}, readParams(fields), fieldSet, OdooRpc::toRecords);
+        }
+
+        // odoo reads records in the order of the ids, so chunks in order keep that order
+        return allOf(IntStream.range(0, OdooRpc.chunkCount(recordIds.length, size))
+                .mapToObj(chunk -> add(model, "read", new Object[]{OdooRpc.chunkIds(recordIds, chunk, size)}, readParams(fields), fieldSet, OdooRpc::toRecords))
+                .collect(Collectors.toList()))
+                .thenApply(results -> results.stream()
+                        .flatMap(Arrays::stream)
+                        .toArray(Map[]::new));
+    }
+
+    /**
+     * Search Count
+     *
+     * @param model   The odoo model
+     * @param filters An array of {@link SearchFilter}
+     * @return future of the total of counted record
+     * @see OdooRpc#searchCount(String, SearchFilter[])
+     */
+    @Nonnull
+    public CompletableFuture<Integer> searchCount(@Nonnull String model, SearchFilter[] filters) {
+        return add(model, "search_count", new Object[]{XmlRpcUtil.prefixation(filters)}, null, ret -> ret == null ? 0 : (Integer) ret);
+    }
+
+    /**
+     * Fields Get, bypassing the {@link com.kinnarastudio.odooxmlrpc.cache.SchemaRegistry}
+     *
+     * @param model      The odoo model
+     * @param attributes The field attributes to retrieve, null for all
+     * @return future of a collection of Field
+     * @see OdooRpc#fieldsGet(String, String[])
+     */
+    @Nonnull
+    public CompletableFuture<Collection<Field>> fieldsGet(@Nonnull String model, String[] attributes) {
+        final Map<String, Object> namedParams = new HashMap<>() {{
+            if (attributes != null) put("attributes", attributes);
+        }};
+        return add(model, "fields_get", null, namedParams, OdooRpc::toFields);
+    }
+
+    /**
+     * Execute Kw
+     *
+     * @param model     The odoo model
+     * @param method    The method name to execute
+     * @param posArgs   The positional arguments
+     * @param namedArgs The named arguments
+     * @return future of the result of the method execution
+     * @see OdooRpc#executeKw(String, String, Object[], Map)
+     */
+    @Nonnull
+    public CompletableFuture<Object> executeKw(@Nonnull String model, @Nonnull String method, Object[] posArgs, Map<String, Object> namedArgs) {
+        return add(model, method, posArgs, namedArgs, Function.identity());
+    }
+
+    /**
+     * Get the number of calls waiting to be executed, an oversized call counts once per chunk
+     *
+     * @return the number of calls
+     */
+    public int size() {
+        return calls.size();
+    }
+
+    /**
+     * Execute
+     * <p>
+     * Send the calls added so far and complete their futures. A call which failed completes its future exceptionally
+     * with {@link OdooCallMethodException}, the other calls are not affected. The batch is empty afterwards and may be reused.
+     *
+     * @throws OdooCallMethodException when a multicall request failed as a whole, every future of the batch is completed exceptionally
+     */
+    public void execute() throws OdooCallMethodException {
+        if (calls.isEmpty()) {
+            return;
+        }
+
+        final List<Call<?>> pending = new ArrayList<>(calls);
+        calls.clear();
+
+        final List<Call<?>> resolved = project(pending);
+        if (!resolved.isEmpty()) {
+            send(resolved);
+        }
+    }
+
+    /**
+     * Resolve the default {@link FieldSet} of the calls added without fields, loading the missing schemas in one round
+     * trip. A schema odoo denies access to requests every field, as {@link OdooRpc#resolveFields(String, FieldSet)} does,
+     * a schema failing to load for another reason fails the calls needing it.
+     *
+     * @return the calls left to send
+     * @throws OdooCallMethodException when a multicall loading the schemas failed as a whole, every call is failed
+     */
+    private List<Call<?>> project(List<Call<?>> pending) throws OdooCallMethodException {
+        final Map<String, ModelSchema> schemas = new HashMap<>();
+        final List<Call<ModelSchema>> loads = new ArrayList<>();
+        for (Call<?> call : pending) {
+            if (call.fieldSet == null || !call.fieldSet.requiresSchema() || schemas.containsKey(call.model)) {
+                continue;
+            }
+
+            if (rpc.isSchemaDenied(call.model)) {
+                schemas.put(call.model, null);
+                continue;
+            }
+
+            final ModelSchema schema = rpc.getCachedSchema(call.model, OdooRpc.PROJECTION_ATTRIBUTES);
+            schemas.put(call.model, schema);
+            if (schema == null) {
+                loads.add(new Call<>(call.model, "fields_get", null, Map.of("attributes", OdooRpc.PROJECTION_ATTRIBUTES), null, ret -> rpc.toSchema(call.model, ret)));
+            }
+        }
+
+        final Map<String, Throwable> failures = new HashMap<>();
+        if (!loads.isEmpty()) {
+            try {
+                send(new ArrayList<>(loads));
+            } catch (OdooCallMethodException e) {
+                pending.forEach(call -> call.fail(e));
+                throw e;
+            }
+
+            final SchemaRegistry registry = rpc.getSchemaRegistry();
+            for (Call<ModelSchema> load : loads) {
+                try {
+                    final ModelSchema schema = load.future.join();
+                    if (registry.getTtl() > 0) {
+                        registry.put(schema, OdooRpc.PROJECTION_ATTRIBUTES);
+                    }
+                    schemas.put(load.model, schema);
+                } catch (CompletionException e) {
+                    if (OdooRpc.isAccessFault(e)) {
+                        rpc.denySchema(load.model);
+                    } else {
+                        failures.put(load.model, e.getCause());
+                    }
+                }
+            }
+        }
+
+        final List<Call<?>> resolved = new ArrayList<>(pending.size());
+        for (Call<?> call : pending) {
+            if (call.fieldSet != null && call.fieldSet.requiresSchema()) {
+                final Throwable failure = failures.get(call.model);
+                if (failure != null) {
+                    call.fail(failure);
+                    continue;
+                }
+
+                final String[] fields = OdooRpc.project(call.fieldSet, schemas.get(call.model));
+                if (fields != null) {
+                    call.namedArgs.put("fields", fields);
+                }
+            }
+            resolved.add(call);
+        }
+        return resolved;
+    }
+
+    /**
+     * Send calls as a single multicall request, or at the same time when multicall is disabled
+     */
+    private void send(List<Call<?>> pending) throws OdooCallMethodException {
+        if (!rpc.isMulticall() || pending.size() == 1) {
+            final CompletableFuture<?>[] futures = pending.stream()
+                    .map(call -> rpc.executeKwAsync(call.model, call.method, call.posArgs, call.namedArgs)
+                            .whenComplete((result, error) -> {
+                                if (error == null) {
+                                    call.complete(result);
+                                } else {
+                                    call.fail(error);
+                                }
+                            }))
+                    .toArray(CompletableFuture[]::new);
+
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException ignored) {
+                // failures are reported through the future of each call
+            }
+            return;
+        }
+
+        final List<Object> results;
+        try {
+            results = rpc.executeKwMulticall(pending.stream()
+                    .map(call -> rpc.executeKwParams(call.model, call.method, call.posArgs, call.namedArgs))
+                    .collect(Collectors.toList()));
+        } catch (OdooCallMethodException e) {
+            pending.forEach(call -> call.fail(e));
+            throw e;
+        }
+
+        for (int i = 0; i < pending.size(); i++) {
+            final Object result = results.get(i);
+            if (result instanceof XmlRpcException) {
+                pending.get(i).fail((XmlRpcException) result);
+            } else {
+                pending.get(i).complete(result);
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> add(String model, String method, Object[] posArgs, Map<String, Object> namedArgs, Function<Object, T> converter) {
+        return add(model, method, posArgs, namedArgs, null, converter);
+    }
+
+    private <T> CompletableFuture<T> add(String model, String method, Object[] posArgs, Map<String, Object> namedArgs, FieldSet fieldSet, Function<Object, T> converter) {
+        final Call<T> call = new Call<>(model, method, posArgs, namedArgs, fieldSet, converter);
+        calls.add(call);
+        return call.future;
+    }
+
+    /**
+     * Future of a call too large for a batch
+     */
+    private static <T> CompletableFuture<T> oversized(String model, String method, String reason) {
+        return CompletableFuture.failedFuture(new OdooCallMethodException("Cannot batch " + method + " on [" + model + "] with "
+                + reason + ", call it on the rpc or raise the id chunk size"));
+    }
+
+    /**
+     * Future of the results of every chunk of a call, in order
+     */
+    private static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> chunks) {
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> chunks.stream()
+                        .map(CompletableFuture::join)
+                        .collect(Collectors.toList()));
+    }
+
+    private static Map<String, Object> searchParams(String order, Integer offset, Integer limit) {
+        return new HashMap<>() {{
+            if (offset != null) put("offset", offset);
+            if (limit != null) put("limit", limit);
+            if (order != null) put("order", order);
+        }};
+    }
+
+    private static Map<String, Object> readParams(String[] fields) {
+        return new HashMap<>() {{
+            if (fields != null && fields.length > 0) put("fields", fields);
+        }};
+    }
+
+    /**
+     * Call of a batch and the future of its converted result
+     *
+     * @param <T> The type of result
+     */
+    private static class Call<T> {
+        private final String model;
+        private final String method;
+        private final Object[] posArgs;
+        private final Map<String, Object> namedArgs;
+        private final FieldSet fieldSet;
+        private final Function<Object, T> converter;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /**
+         * @param fieldSet The projection to resolve into the <code>fields</code> of namedArgs on execution, null when the fields are given
+         */
+        Call(String model, String method, Object[] posArgs, Map<String, Object> namedArgs, FieldSet fieldSet, Function<Object, T> converter) {
+            this.model = model;
+            this.method = method;
+            this.posArgs = posArgs;
+            this.namedArgs = namedArgs;
+            this.fieldSet = fieldSet;
+            this.converter = converter;
+        }
+
+        void complete(Object result) {
+            try {
+                future.complete(converter.apply(result));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(new OdooCallMethodException(e));
+            }
+        }
+
+        void fail(Throwable error) {
+            final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            future.completeExceptionally(cause instanceof OdooCallMethodException ? cause : new OdooCallMethodException(cause));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.annotation.OdooModel;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+/**
+ * Reflection free mapping between a class annotated with {@link OdooModel} and odoo records.
+ * <p>
+ * Implementations named <code>&lt;ClassName&gt;OdooMapper</code> are generated at build time by
+ * <code>kinnara-odoo-xmlrpc-processor</code> and picked up automatically by {@link ModelMapping}.
+ *
+ * @param <T> The type of the mapped class
+ */
+public interface OdooMapper<T> {
+    /**
+     * Suffix of generated mapper class names
+     */
+    String SUFFIX = "OdooMapper";
+
+    /**
+     * Get the mapped class
+     *
+     * @return the class annotated with {@link OdooModel}
+     */
+    @Nonnull
+    Class<T> getType();
+
+    /**
+     * Get the odoo model name
+     *
+     * @return the model name
+     */
+    @Nonnull
+    String getModel();
+
+    /**
+     * Get the odoo field names
+     *
+     * @return the field names
+     */
+    @Nonnull
+    String[] getFields();
+
+    /**
+     * Convert a record map into an object
+     *
+     * @param record The record map, keyed by odoo field name
+     * @return the object
+     * @throws IllegalArgumentException when a value cannot be converted to its field type
+     */
+    @Nonnull
+    T fromMap(@Nonnull Map<String, Object> record) throws IllegalArgumentException;
+
+    /**
+     * Convert an object into a record map
+     *
+     * @param record The object
+     * @return the record map, keyed by odoo field name
+     */
+    @Nonnull
+    Map<String, Object> toMap(@Nonnull T record);
+}
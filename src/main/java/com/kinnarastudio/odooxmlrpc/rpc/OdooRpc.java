@@ -1,33 +1,75 @@
 package com.kinnarastudio.odooxmlrpc.rpc;
 
-import com.kinnarastudio.commons.Try;
-import com.kinnarastudio.odooxmlrpc.annotation.OdooField;
 import com.kinnarastudio.odooxmlrpc.annotation.OdooModel;
+import com.kinnarastudio.odooxmlrpc.cache.RecordCache;
+import com.kinnarastudio.odooxmlrpc.cache.SchemaRegistry;
+import com.kinnarastudio.odooxmlrpc.cache.SchemaSnapshot;
 import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
 import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooUtilityException;
+import com.kinnarastudio.odooxmlrpc.exception.UncheckedOdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.Domain;
 import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.FieldSet;
+import com.kinnarastudio.odooxmlrpc.model.IntIdSet;
 import com.kinnarastudio.odooxmlrpc.model.MessageType;
+import com.kinnarastudio.odooxmlrpc.model.ModelSchema;
+import com.kinnarastudio.odooxmlrpc.model.PageMode;
 import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
 import org.apache.xmlrpc.XmlRpcException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.net.MalformedURLException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Odoo RPC
  *
  * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#external-api">External API</a>
  */
-public class OdooRpc {
+public class OdooRpc implements AutoCloseable {
     public final static String PATH_COMMON = "/xmlrpc/2/common";
     public final static String PATH_OBJECT = "/xmlrpc/2/object";
+    public final static int DEFAULT_BATCH_SIZE = 500;
+    public final static int DEFAULT_ID_CHUNK_SIZE = 10_000;
+
+    /**
+     * The field attributes a {@link FieldSet} is resolved on, help texts and selections of every field are not worth transferring
+     */
+    final static String[] PROJECTION_ATTRIBUTES = {"type", "store"};
+
     private final String baseUrl;
     private final String database;
     private final String user;
     private final String apiKey;
+    private final OdooTransport transport;
     private final int uid;
+    private final Object executorLock = new Object();
+    private volatile ExecutorService executor;
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile int batchParallelism = 1;
+    private volatile int idChunkSize = DEFAULT_ID_CHUNK_SIZE;
+    private volatile boolean multicall;
+    private volatile SchemaRegistry schemaRegistry = new SchemaRegistry();
+    private final Map<String, Long> deniedSchemas = new ConcurrentHashMap<>();
+    private volatile RecordCache recordCache;
+    private volatile FieldSet defaultFieldSet = FieldSet.lightweight();
 
     /**
      * OdooRpc constructor
@@ -39,17 +81,158 @@ public class OdooRpc {
      * @throws OdooAuthorizationException when authorization failed
      */
     public OdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey) throws OdooAuthorizationException {
+        this(baseUrl, database, user, apiKey, ConnectionSettings.getDefault());
+    }
+
+    /**
+     * OdooRpc constructor
+     *
+     * @param baseUrl            The odoo base url
+     * @param database           The database name
+     * @param user               The username
+     * @param apiKey             The api key
+     * @param connectionSettings The http connection pool settings
+     * @throws OdooAuthorizationException when authorization failed
+     */
+    public OdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey, @Nonnull ConnectionSettings connectionSettings) throws OdooAuthorizationException {
+        this(baseUrl, database, user, apiKey, new JavaHttpTransport(connectionSettings, HttpClient.Version.HTTP_1_1));
+    }
+
+    /**
+     * OdooRpc constructor
+     *
+     * @param baseUrl   The odoo base url
+     * @param database  The database name
+     * @param user      The username
+     * @param apiKey    The api key
+     * @param transport The transport, closed together with this instance
+     * @throws OdooAuthorizationException when authorization failed
+     * @see JavaHttpTransport
+     */
+    public OdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey, @Nonnull OdooTransport transport) throws OdooAuthorizationException {
         this.baseUrl = baseUrl;
         this.database = database;
         this.user = user;
         this.apiKey = apiKey;
-        this.uid = login();
+        this.transport = transport;
+
+        try {
+            this.uid = login();
+        } catch (OdooAuthorizationException e) {
+            close();
+            throw e;
+        }
     }
 
     public int getUid() {
         return uid;
     }
 
+    public ConnectionSettings getConnectionSettings() {
+        return transport.getConnectionSettings();
+    }
+
+    public OdooTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Get the byte counters of the transport, showing how much gzip compression saved
+     *
+     * @return the compression stats
+     */
+    public CompressionStats getCompressionStats() {
+        return transport.getCompressionStats();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Set the maximum number of records sent in a single batch call
+     *
+     * @param batchSize records per call
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchParallelism() {
+        return batchParallelism;
+    }
+
+    /**
+     * Set the number of batch chunks sent at the same time, 1 sends them one after another
+     *
+     * @param batchParallelism concurrent chunks
+     */
+    public void setBatchParallelism(int batchParallelism) {
+        if (batchParallelism <= 0) {
+            throw new IllegalArgumentException("batchParallelism must be positive");
+        }
+        this.batchParallelism = batchParallelism;
+    }
+
+    public int getIdChunkSize() {
+        return idChunkSize;
+    }
+
+    /**
+     * Set the maximum number of ids sent in a single <b>read()</b> call, and of operands of an <code>in</code> or
+     * <code>not in</code> filter sent in a single search call. Larger requests are split into chunks,
+     * sent as {@link #setBatchParallelism(int)} allows, and their results merged.
+     *
+     * @param idChunkSize ids per call
+     */
+    public void setIdChunkSize(int idChunkSize) {
+        if (idChunkSize <= 0) {
+            throw new IllegalArgumentException("idChunkSize must be positive");
+        }
+        this.idChunkSize = idChunkSize;
+    }
+
+    public boolean isMulticall() {
+        return multicall;
+    }
+
+    /**
+     * Send the calls of a {@link #batch()} in a single request, using XML-RPC <code>system.multicall</code>
+     * or a JSON-RPC batch array depending on the transport. Only enable it when the server supports it,
+     * otherwise the calls of a batch are sent at the same time as separate requests.
+     *
+     * @param multicall true to send a batch in a single request
+     */
+    public void setMulticall(boolean multicall) {
+        this.multicall = multicall;
+    }
+
+    /**
+     * Start a batch of calls sent together, see {@link #setMulticall(boolean)}
+     *
+     * @return the batch
+     */
+    @Nonnull
+    public OdooBatch batch() {
+        return new OdooBatch(this);
+    }
+
+    /**
+     * Stop the batch executor and close the transport
+     */
+    @Override
+    public void close() {
+        synchronized (executorLock) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        transport.close();
+    }
+
     /**
      * Login
      * <p>
@@ -79,7 +262,7 @@ public class OdooRpc {
      * <p>
      * Implementation of odoo's xmlrpc <b>fields_get()</b> method
      * <p>
-     * Retrieve fields on the model
+     * Retrieve fields on the model, served from the {@link SchemaRegistry} while the cached schema is fresh
      *
      * @param model The odoo model
      * @return a collection of Field
@@ -88,15 +271,184 @@ public class OdooRpc {
      */
     @Nonnull
     public Collection<Field> fieldsGet(@Nonnull String model) throws OdooCallMethodException {
+        return getSchema(model).getFields();
+    }
+
+    /**
+     * Fields Get
+     * <p>
+     * Retrieve fields on the model with only the requested attributes, such as <code>type</code> or <code>string</code>
+     *
+     * @param model      The odoo model
+     * @param attributes The field attributes to retrieve, null for all
+     * @return a collection of Field
+     * @throws OdooCallMethodException when calling method failed
+     * @see #getSchema(String, String[])
+     */
+    @Nonnull
+    public Collection<Field> fieldsGet(@Nonnull String model, String[] attributes) throws OdooCallMethodException {
+        return getSchema(model, attributes).getFields();
+    }
+
+    /**
+     * Get Schema
+     *
+     * @param model The odoo model
+     * @return the schema with all field attributes
+     * @throws OdooCallMethodException when calling method failed
+     * @see #getSchema(String, String[])
+     */
+    @Nonnull
+    public ModelSchema getSchema(@Nonnull String model) throws OdooCallMethodException {
+        return getSchema(model, null);
+    }
+
+    /**
+     * Get Schema
+     * <p>
+     * Get the fields of the model indexed by key, cached in the {@link SchemaRegistry}
+     *
+     * @param model      The odoo model
+     * @param attributes The field attributes to retrieve, null for all
+     * @return the schema
+     * @throws OdooCallMethodException when calling method failed
+     */
+    @Nonnull
+    public ModelSchema getSchema(@Nonnull String model, String[] attributes) throws OdooCallMethodException {
+        return schemaRegistry.get(database, model, attributes, this::loadSchema);
+    }
+
+    /**
+     * Remove the cached schema of a model, for example after installing a module
+     *
+     * @param model The odoo model
+     */
+    public void invalidateSchema(@Nonnull String model) {
+        schemaRegistry.invalidate(database, model);
+        deniedSchemas.remove(model);
+    }
+
+    public SchemaRegistry getSchemaRegistry() {
+        return schemaRegistry;
+    }
+
+    /**
+     * Set the schema registry, which may be shared with other instances connected to the same server
+     *
+     * @param schemaRegistry The schema registry
+     */
+    public void setSchemaRegistry(@Nonnull SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
+    /**
+     * Load schema snapshot
+     * <p>
+     * Put the schemas of a snapshot file written by {@link #saveSchemaSnapshot(Path)} into the {@link SchemaRegistry},
+     * then revalidate them in the background. When the installed module versions changed since the snapshot was taken,
+     * or cannot be read, the schemas are fetched again.
+     *
+     * @param file The snapshot file
+     * @return future completed when revalidation is done
+     * @throws OdooUtilityException when the file cannot be read
+     */
+    @Nonnull
+    public CompletableFuture<Void> loadSchemaSnapshot(@Nonnull Path file) throws OdooUtilityException {
+        final Optional<SchemaSnapshot> snapshot = SchemaSnapshot.read(file)
+                .filter(s -> database.equals(s.getDatabase()));
+        if (snapshot.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final SchemaRegistry registry = schemaRegistry;
+        final long now = System.currentTimeMillis();
+        for (SchemaRegistry.Entry entry : snapshot.get().getEntries()) {
+            final ModelSchema schema = entry.getSchema();
+            registry.put(new ModelSchema(database, schema.getModel(), schema.getFields(), now), entry.getAttributes());
+        }
+
+        return CompletableFuture.runAsync(() -> revalidateSchemaSnapshot(registry, snapshot.get()), getExecutor());
+    }
+
+    /**
+     * Save schema snapshot
+     * <p>
+     * Write the schemas cached for this database to a local file, see {@link #loadSchemaSnapshot(Path)}
+     *
+     * @param file The snapshot file
+     * @throws OdooUtilityException when the file cannot be written
+     */
+    public void saveSchemaSnapshot(@Nonnull Path file) throws OdooUtilityException {
+        new SchemaSnapshot(database, getModuleFingerprint(), schemaRegistry.getEntries(database)).write(file);
+    }
+
+    /**
+     * Fetch again the schemas of a snapshot unless the installed modules are unchanged
+     *
+     * @param registry The registry the snapshot was loaded into
+     * @param snapshot The snapshot
+     */
+    protected void revalidateSchemaSnapshot(@Nonnull SchemaRegistry registry, @Nonnull SchemaSnapshot snapshot) {
+        final String fingerprint = getModuleFingerprint();
+        if (fingerprint != null && fingerprint.equals(snapshot.getFingerprint())) {
+            return;
+        }
+
+        for (SchemaRegistry.Entry entry : snapshot.getEntries()) {
+            final String model = entry.getSchema().getModel();
+            try {
+                registry.put(loadSchema(model, entry.getAttributes()), entry.getAttributes());
+            } catch (OdooCallMethodException e) {
+                registry.invalidate(database, model);
+            }
+        }
+    }
+
+    /**
+     * Get a fingerprint of the installed module versions
+     *
+     * @return hex encoded SHA-256 of the installed module names and versions, null when they cannot be read
+     */
+    @Nullable
+    protected String getModuleFingerprint() {
         try {
-            final Object ret = executeKw(model, "fields_get");
+            final Map<String, Object>[] modules = searchRead("ir.module.module",
+                    new String[]{"name", "latest_version"},
+                    new SearchFilter[]{new SearchFilter("state", "installed")},
+                    "name", null, null);
 
-            return Optional.ofNullable((Map<String, Map<String, Object>>) ret)
-                    .map(Map::entrySet)
-                    .stream()
-                    .flatMap(Collection::stream)
-                    .map(e -> new Field(e.getKey(), e.getValue()))
-                    .collect(Collectors.toSet());
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map<String, Object> module : modules) {
+                digest.update((module.get("name") + "=" + module.get("latest_version") + ";").getBytes(StandardCharsets.UTF_8));
+            }
+
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (OdooCallMethodException | NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Load schema
+     * <p>
+     * Call odoo's xmlrpc <b>fields_get()</b> bypassing the {@link SchemaRegistry}
+     *
+     * @param model      The odoo model
+     * @param attributes The field attributes to retrieve, null for all
+     * @return the schema
+     * @throws OdooCallMethodException when calling method failed
+     */
+    @Nonnull
+    protected ModelSchema loadSchema(@Nonnull String model, String[] attributes) throws OdooCallMethodException {
+        try {
+            final Map<String, Object> namedParams = new HashMap<>() {{
+                if (attributes != null) put("attributes", attributes);
+            }};
+            return toSchema(model, executeKw(model, "fields_get", null, namedParams));
         } catch (Exception e) {
             throw new OdooCallMethodException(e);
         }
@@ -152,6 +504,11 @@ public class OdooRpc {
      */
     @Nonnull
     public int[] search(@Nonnull String model, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        final FilterChunks chunks = FilterChunks.of(filters, idChunkSize);
+        if (chunks != null) {
+            return searchChunks(model, chunks, order, offset, limit);
+        }
+
         final Object[] domains = new Object[]{XmlRpcUtil.prefixation(filters)};
 
         final Map<String, Object> namedParams = new HashMap<>() {{
@@ -160,9 +517,7 @@ public class OdooRpc {
             if (order != null) put("order", order);
         }};
 
-        return Arrays.stream((Object[]) executeKw(model, "search", domains, namedParams))
-                .mapToInt(o -> (Integer) o)
-                .toArray();
+        return executeKwIds(model, "search", domains, namedParams);
     }
 
     /**
@@ -198,24 +553,375 @@ public class OdooRpc {
      */
     @Nonnull
     public Map<String, Object>[] searchRead(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        final String[] projection = fields == null || fields.length == 0 ? resolveFields(model, defaultFieldSet) : fields;
+        return searchReadRecords(model, projection, filters, order, offset, limit);
+    }
 
-        final Object[] domain = new Object[]{XmlRpcUtil.prefixation(filters)};
+    /**
+     * Search Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>search_read()</b> method with a domain already in odoo's prefix notation,
+     * for conditions which cannot be written as an array of {@link SearchFilter}
+     *
+     * @param model  The odoo model
+     * @param fields an array of field, the default {@link FieldSet} when null or empty
+     * @param domain The domain, such as <code>["|", ["a", "=", 1], ["b", "=", 2]]</code>, see {@link Domain#toPrefix()}
+     * @param order  The order
+     * @param offset The offset
+     * @param limit  The limit
+     * @return an array of map
+     * @throws OdooCallMethodException when calling method failed
+     * @see XmlRpcUtil#prefixation(SearchFilter[])
+     */
+    @Nonnull
+    public Map<String, Object>[] searchReadDomain(@Nonnull String model, String[] fields, @Nonnull Object[] domain, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        final String[] projection = fields == null || fields.length == 0 ? resolveFields(model, defaultFieldSet) : fields;
+        return toRecords(executeKw(model, "search_read", new Object[]{domain}, searchReadParams(projection, order, offset, limit)));
+    }
 
+    /**
+     * Search
+     * <p>
+     * Implementation of odoo's xmlrpc <b>search()</b> method with a domain already in odoo's prefix notation
+     *
+     * @param model  The odoo model
+     * @param domain The domain, see {@link Domain#toPrefix()}
+     * @param order  The order
+     * @param offset The offset
+     * @param limit  The limit
+     * @return an array of record id
+     * @throws OdooCallMethodException when calling method failed
+     */
+    @Nonnull
+    public int[] searchDomain(@Nonnull String model, @Nonnull Object[] domain, String order, Integer offset, Integer limit) throws OdooCallMethodException {
         final Map<String, Object> namedParams = new HashMap<>() {{
+            if (offset != null) put("offset", offset);
+            if (limit != null) put("limit", limit);
+            if (order != null) put("order", order);
+        }};
+
+        return executeKwIds(model, "search", new Object[]{domain}, namedParams);
+    }
+
+    /**
+     * Search Count
+     * <p>
+     * Implementation of odoo's xmlrpc <b>search_count()</b> with a domain already in odoo's prefix notation
+     *
+     * @param model  The odoo model
+     * @param domain The domain, see {@link Domain#toPrefix()}
+     * @return total of counted record
+     * @throws OdooCallMethodException when calling method failed
+     */
+    public int searchCountDomain(@Nonnull String model, @Nonnull Object[] domain) throws OdooCallMethodException {
+        return Optional.ofNullable((Integer) executeKw(model, "search_count", new Object[]{domain}))
+                .orElse(0);
+    }
+
+    /**
+     * Call odoo's xmlrpc <b>search_read()</b> with the fields as given, null or empty fields read every field
+     */
+    private Map<String, Object>[] searchReadRecords(String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        final FilterChunks chunks = FilterChunks.of(filters, idChunkSize);
+        if (chunks != null) {
+            return searchReadChunks(model, fields, chunks, order, offset, limit);
+        }
+
+        final Object[] domain = new Object[]{XmlRpcUtil.prefixation(filters)};
+        return toRecords(executeKw(model, "search_read", domain, searchReadParams(fields, order, offset, limit)));
+    }
+
+    /**
+     * Search Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>search_read()</b> method which parses the response while it is received,
+     * handing each record to the consumer as soon as it is complete. Memory use does not grow with the size of the result.
+     *
+     * @param model    The odoo model
+     * @param fields   an array of field, the default {@link FieldSet} when null or empty
+     * @param filters  An array of {@link SearchFilter}
+     * @param order    The order
+     * @param offset   The offset
+     * @param limit    The limit
+     * @param consumer The consumer of each record
+     * @return the number of records consumed
+     * @throws OdooCallMethodException when calling method failed
+     */
+    public int searchRead(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit, @Nonnull Consumer<Map<String, Object>> consumer) throws OdooCallMethodException {
+        int count = 0;
+        try (Stream<Map<String, Object>> records = searchReadLazy(model, fields, filters, order, offset, limit)) {
+            final Iterator<Map<String, Object>> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        } catch (UncheckedOdooCallMethodException e) {
+            throw e.getCause();
+        }
+        return count;
+    }
+
+    /**
+     * Search Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>search_read()</b> method in a single request, returning a stream which parses
+     * records from the response as they are consumed. The stream holds an http connection, close it when done.
+     *
+     * @param model   The odoo model
+     * @param fields  an array of field, the default {@link FieldSet} when null or empty
+     * @param filters An array of {@link SearchFilter}
+     * @param order   The order
+     * @param offset  The offset
+     * @param limit   The limit
+     * @return stream of records, a failure while reading throws {@link UncheckedOdooCallMethodException}
+     * @throws OdooCallMethodException when calling method failed
+     * @see #searchReadStream(String, String[], SearchFilter[], String, int) to fetch in pages
+     */
+    @Nonnull
+    public Stream<Map<String, Object>> searchReadLazy(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        final String[] projection = fields == null || fields.length == 0 ? resolveFields(model, defaultFieldSet) : fields;
+        final Object[] domain = new Object[]{XmlRpcUtil.prefixation(filters)};
+        return executeKwStream(model, "search_read", domain, searchReadParams(projection, order, offset, limit))
+                .map(o -> (Map<String, Object>) o)
+                .peek(OdooRpc::falseToNull);
+    }
+
+    static Map<String, Object> searchReadParams(String[] fields, String order, Integer offset, Integer limit) {
+        return new HashMap<>() {{
             if (fields != null && fields.length > 0) put("fields", fields);
             if (offset != null) put("offset", offset);
             if (limit != null) put("limit", limit);
             if (order != null) put("order", order);
         }};
+    }
+
+    /**
+     * Search with an oversized <code>in</code> or <code>not in</code> filter, one chunk of its operands at a time.
+     * <p>
+     * Ids of an <code>in</code> filter ordered by id are merged into that order. In any other order they follow the
+     * order within each chunk, chunk after chunk, and an offset or limit is applied by a last search among the matching
+     * ids, which must then fit in a single chunk.
+     * <p>
+     * Ids of a <code>not in</code> filter follow the order of the first chunk. Each chunk returns every record outside its
+     * operands, so the chunks are never limited and cost about as much as reading the ids of the whole model.
+     */
+    private int[] searchChunks(String model, FilterChunks chunks, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        final Integer chunkLimit = chunkLimit(chunks, order, offset, limit);
+        final int[] ids = mergeChunks(chunks, order, executeChunks(chunks.count(), chunk -> search(model, chunks.chunk(chunk), order, null, chunkLimit)));
+        return pagesAmong(chunks, order, offset, limit) ? searchAmong(model, ids, order, offset, limit) : page(ids, offset, limit);
+    }
+
+    /**
+     * Limit of each chunk of a search, null when every chunk must return all of its matches
+     */
+    static Integer chunkLimit(FilterChunks chunks, String order, Integer offset, Integer limit) {
+        return limit == null || chunks.isExclusion() || idOrder(order) == 0 ? null : (offset == null ? 0 : offset) + limit;
+    }
+
+    /**
+     * Whether the offset and limit of a search split into chunks can only be applied by a last search among the merged ids
+     */
+    static boolean pagesAmong(FilterChunks chunks, String order, Integer offset, Integer limit) {
+        return !chunks.isExclusion() && idOrder(order) == 0 && (offset != null || limit != null);
+    }
+
+    /**
+     * Merge the ids found chunk by chunk, see {@link #searchChunks(String, FilterChunks, String, Integer, Integer)}
+     */
+    static int[] mergeChunks(FilterChunks chunks, String order, List<int[]> results) {
+        if (chunks.isExclusion()) {
+            final List<IntIdSet> others = results.subList(1, results.size()).stream()
+                    .map(IntIdSet::of)
+                    .collect(Collectors.toList());
+            return Arrays.stream(results.get(0))
+                    .filter(id -> others.stream().allMatch(other -> other.contains(id)))
+                    .toArray();
+        }
+
+        final int idOrder = idOrder(order);
+        if (idOrder == 0) {
+            return distinct(results.stream().flatMapToInt(Arrays::stream).toArray());
+        }
+
+        final int[] ids = IntIdSet.of(results.stream().flatMapToInt(Arrays::stream).toArray()).toArray();
+        for (int i = 0, j = ids.length - 1; idOrder < 0 && i < j; i++, j--) {
+            final int id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+        return ids;
+    }
+
+    /**
+     * Search Read with an oversized <code>in</code> or <code>not in</code> filter, see {@link #searchChunks(String, FilterChunks, String, Integer, Integer)}
+     */
+    private Map<String, Object>[] searchReadChunks(String model, String[] fields, FilterChunks chunks, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        if (chunks.isExclusion() || pagesAmong(chunks, order, offset, limit)) {
+            return readRecords(model, fields, searchChunks(model, chunks, order, offset, limit));
+        }
+
+        final Integer chunkLimit = chunkLimit(chunks, order, offset, limit);
+        return mergeRecordChunks(executeChunks(chunks.count(), chunk -> searchReadRecords(model, fields, chunks.chunk(chunk), order, null, chunkLimit)), order, offset, limit);
+    }
+
+    /**
+     * Merge the records found chunk by chunk of an <code>in</code> filter, then apply the offset and limit
+     */
+    static Map<String, Object>[] mergeRecordChunks(List<Map<String, Object>[]> results, String order, Integer offset, Integer limit) {
+        final Map<String, Object>[] merged = results.stream()
+                .flatMap(Arrays::stream)
+                .toArray(Map[]::new);
+
+        // chunks of an x2many filter may match the same record
+        final IntIdSet seen = IntIdSet.of(Arrays.stream(merged).mapToInt(record -> (Integer) record.get("id")).toArray());
+        final List<Map<String, Object>> records = new ArrayList<>(seen.size());
+        final boolean[] emitted = new boolean[seen.size()];
+        for (Map<String, Object> record : merged) {
+            final int position = seen.indexOf((Integer) record.get("id"));
+            if (!emitted[position]) {
+                emitted[position] = true;
+                records.add(record);
+            }
+        }
+        final int idOrder = idOrder(order);
+        if (idOrder != 0) {
+            final Comparator<Map<String, Object>> byId = Comparator.comparingInt(record -> (Integer) record.get("id"));
+            records.sort(idOrder > 0 ? byId : byId.reversed());
+        }
+
+        final int from = Math.min(records.size(), offset == null ? 0 : offset);
+        final int to = limit == null ? records.size() : (int) Math.min(records.size(), (long) from + limit);
+        return records.subList(from, to).toArray(new Map[0]);
+    }
+
+    /**
+     * Apply an order, offset and limit to ids matched chunk by chunk, with a last search among them
+     */
+    private int[] searchAmong(String model, int[] ids, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        if (ids.length > idChunkSize) {
+            throw new OdooCallMethodException("Cannot apply offset and limit in order [" + order + "] to the [" + ids.length
+                    + "] records of [" + model + "] matching an oversized in filter, order by id or raise the id chunk size");
+        }
+        return ids.length == 0 ? ids : search(model, new SearchFilter[]{new SearchFilter(SearchFilter.Join.AND, "id", SearchFilter.Operator.IN, ids)}, order, offset, limit);
+    }
 
-        return Arrays.stream((Object[]) executeKw(model, "search_read", domain, namedParams))
+    /**
+     * Direction of an order by id alone
+     *
+     * @return 1 for ascending, -1 for descending, 0 for any other order including the default order of the model
+     */
+    private static int idOrder(String order) {
+        if (order == null) {
+            return 0;
+        }
+
+        final String[] terms = order.trim().toLowerCase().split("\\s+");
+        if (!terms[0].equals("id") || terms.length > 2) {
+            return 0;
+        }
+        return terms.length == 1 || terms[1].equals("asc") ? 1 : terms[1].equals("desc") ? -1 : 0;
+    }
+
+    /**
+     * Remove repeated ids, keeping the first occurrence of each
+     */
+    private static int[] distinct(int[] ids) {
+        final IntIdSet set = IntIdSet.of(ids);
+        if (set.size() == ids.length) {
+            return ids;
+        }
+
+        final boolean[] emitted = new boolean[set.size()];
+        final int[] result = new int[set.size()];
+        int size = 0;
+        for (int id : ids) {
+            final int position = set.indexOf(id);
+            if (!emitted[position]) {
+                emitted[position] = true;
+                result[size++] = id;
+            }
+        }
+        return result;
+    }
+
+    static int[] page(int[] ids, Integer offset, Integer limit) {
+        final int from = Math.min(ids.length, offset == null ? 0 : offset);
+        final int to = limit == null ? ids.length : (int) Math.min(ids.length, (long) from + limit);
+        return from == 0 && to == ids.length ? ids : Arrays.copyOfRange(ids, from, to);
+    }
+
+    /**
+     * Odoo sends false for empty values
+     */
+    private static void falseToNull(Map<String, Object> record) {
+        record.replaceAll((key, value) -> value instanceof Boolean && !(boolean) value ? null : value);
+    }
+
+    /**
+     * Convert the result of <b>search()</b> to record ids
+     */
+    static int[] toIds(Object ret) {
+        if (ret instanceof int[]) {
+            return (int[]) ret;
+        }
+
+        final Object[] values = (Object[]) ret;
+        final int[] ids = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ids[i] = (Integer) values[i];
+        }
+        return ids;
+    }
+
+    /**
+     * Convert the result of <b>search_read()</b> or <b>read()</b> to records
+     */
+    static Map<String, Object>[] toRecords(Object ret) {
+        return Arrays.stream((Object[]) ret)
                 .map(o -> (Map<String, Object>) o)
-                .peek(m -> m.forEach((key, value) -> {
-                    if (value instanceof Boolean && !(boolean) value) m.replace(key, null);
-                }))
+                .peek(OdooRpc::falseToNull)
                 .toArray(Map[]::new);
     }
 
+    /**
+     * Convert the result of <b>fields_get()</b> to the schema of a model
+     */
+    ModelSchema toSchema(String model, Object ret) {
+        return new ModelSchema(database, model, toFields(ret), System.currentTimeMillis());
+    }
+
+    /**
+     * Convert the result of <b>fields_get()</b> to fields
+     */
+    static Collection<Field> toFields(Object ret) {
+        return Optional.ofNullable((Map<String, Map<String, Object>>) ret)
+                .map(Map::entrySet)
+                .stream()
+                .flatMap(Collection::stream)
+                .map(e -> new Field(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Search Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>search_read()</b> method, requesting the fields of a {@link FieldSet}
+     *
+     * @param model    The odoo model
+     * @param fieldSet The projection, resolved against the cached model schema
+     * @param filters  An array of {@link SearchFilter}
+     * @param order    The order
+     * @param offset   The offset
+     * @param limit    The limit
+     * @return an array of map
+     * @throws OdooCallMethodException when calling method failed
+     * @see #resolveFields(String, FieldSet)
+     */
+    @Nonnull
+    public Map<String, Object>[] searchReadProjection(@Nonnull String model, @Nonnull FieldSet fieldSet, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+        return searchReadRecords(model, resolveFields(model, fieldSet), filters, order, offset, limit);
+    }
+
     /**
      * Search Read
      * <p>
@@ -228,19 +934,110 @@ public class OdooRpc {
      * @param limit   The limit
      * @param <T>     The type of class
      * @return an array of object
-     * @throws OdooCallMethodException when calling method failed
+     * @throws OdooCallMethodException when calling method failed or a value cannot be converted to its field type
      */
     public <T> T[] searchRead(@Nonnull Class<T> tClass, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
         String model = getModel(tClass);
         String[] fields = getFields(tClass);
         Map<String, Object>[] records = searchRead(model, fields, filters, order, offset, limit);
 
-        return Arrays.stream(records)
-                .filter(Objects::nonNull)
-                .map(m -> parseRecord(tClass, m))
+        try {
+            return Arrays.stream(records)
+                    .filter(Objects::nonNull)
+                    .map(m -> parseRecord(tClass, m))
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .toArray(size -> (T[]) java.lang.reflect.Array.newInstance(tClass, size));
+        } catch (IllegalArgumentException e) {
+            // a value does not fit its field
+            throw new OdooCallMethodException(e);
+        }
+    }
+
+    /**
+     * Search Read Iterator
+     * <p>
+     * Iterate the result of odoo's xmlrpc <b>search_read()</b> page by page, prefetching the next page in the background
+     *
+     * @param model    The odoo model
+     * @param fields   an array of field
+     * @param filters  An array of {@link SearchFilter}
+     * @param order    The order, must be null or <code>id</code> on {@link PageMode#KEYSET}
+     * @param pageSize The number of records fetched per call
+     * @param pageMode The pagination strategy
+     * @return an iterator of map, close it when not fully consumed
+     */
+    @Nonnull
+    public SearchReadIterator searchReadIterator(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, int pageSize, @Nonnull PageMode pageMode) {
+        return new SearchReadIterator(this, model, fields, filters, order, pageSize, pageMode, getExecutor());
+    }
+
+    /**
+     * Search Read Stream
+     *
+     * @param model    The odoo model
+     * @param fields   an array of field
+     * @param filters  An array of {@link SearchFilter}
+     * @param order    The order
+     * @param pageSize The number of records fetched per call
+     * @return a lazy stream of map, paged with offset and limit
+     * @see #searchReadStream(String, String[], SearchFilter[], String, int, PageMode)
+     */
+    @Nonnull
+    public Stream<Map<String, Object>> searchReadStream(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, int pageSize) {
+        return searchReadStream(model, fields, filters, order, pageSize, PageMode.OFFSET);
+    }
+
+    /**
+     * Search Read Stream
+     * <p>
+     * Lazily stream the result of odoo's xmlrpc <b>search_read()</b> page by page.
+     * Failed calls are thrown as {@link UncheckedOdooCallMethodException}.
+     *
+     * @param model    The odoo model
+     * @param fields   an array of field
+     * @param filters  An array of {@link SearchFilter}
+     * @param order    The order, must be null or <code>id</code> on {@link PageMode#KEYSET}
+     * @param pageSize The number of records fetched per call
+     * @param pageMode The pagination strategy
+     * @return a lazy stream of map, close it when not fully consumed
+     * @see #searchReadIterator(String, String[], SearchFilter[], String, int, PageMode)
+     */
+    @Nonnull
+    public Stream<Map<String, Object>> searchReadStream(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, int pageSize, @Nonnull PageMode pageMode) {
+        final SearchReadIterator iterator = searchReadIterator(model, fields, filters, order, pageSize, pageMode);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Search Read Stream
+     *
+     * @param tClass   The class that is annotated with {@link OdooModel}
+     * @param filters  An array of {@link SearchFilter}
+     * @param order    The order, must be null or <code>id</code> on {@link PageMode#KEYSET}
+     * @param pageSize The number of records fetched per call
+     * @param pageMode The pagination strategy
+     * @param <T>      The type of class
+     * @return a lazy stream of object, close it when not fully consumed. A value which cannot be converted to its field type
+     * throws {@link UncheckedOdooCallMethodException}
+     * @throws OdooCallMethodException when the class is not annotated with {@link OdooModel}
+     * @see #searchReadStream(String, String[], SearchFilter[], String, int, PageMode)
+     */
+    @Nonnull
+    public <T> Stream<T> searchReadStream(@Nonnull Class<T> tClass, SearchFilter[] filters, String order, int pageSize, @Nonnull PageMode pageMode) throws OdooCallMethodException {
+        String model = getModel(tClass);
+        String[] fields = getFields(tClass);
+        return searchReadStream(model, fields, filters, order, pageSize, pageMode)
+                .map(m -> {
+                    try {
+                        return parseRecord(tClass, m);
+                    } catch (IllegalArgumentException e) {
+                        throw new UncheckedOdooCallMethodException(new OdooCallMethodException(e));
+                    }
+                })
                 .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toArray(size -> (T[]) java.lang.reflect.Array.newInstance(tClass, size));
+                .map(Optional::get);
     }
 
     /**
@@ -255,6 +1052,12 @@ public class OdooRpc {
      * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#count-records">Count records</a>
      */
     public int searchCount(@Nonnull String model, SearchFilter[] filters) throws OdooCallMethodException {
+        final FilterChunks chunks = FilterChunks.of(filters, idChunkSize);
+        if (chunks != null) {
+            // chunks of an x2many filter may count the same record, so count the merged ids
+            return searchChunks(model, chunks, null, null, null).length;
+        }
+
         final Object[] domain = new Object[]{XmlRpcUtil.prefixation(filters)};
         return Optional.ofNullable((Integer) executeKw(model, "search_count", domain))
                 .orElse(0);
@@ -302,85 +1105,278 @@ public class OdooRpc {
      * @throws OdooCallMethodException when calling method failed
      * @see #read(String, String[], int[])
      */
-    public Optional<Map<String, Object>> read(String model, int recordIds) throws OdooCallMethodException {
-        return read(model, null, recordIds);
+    public Optional<Map<String, Object>> read(String model, int recordIds) throws OdooCallMethodException {
+        return read(model, null, recordIds);
+    }
+
+    /**
+     * Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>read()</b> for a single record with specific fields
+     *
+     * @param model    The odoo model
+     * @param fields   an array of field names to read
+     * @param recordId The record id
+     * @return an optional of map containing the record data
+     * @throws OdooCallMethodException when calling method failed
+     * @see #read(String, String[], int[])
+     */
+    public Optional<Map<String, Object>> read(@Nonnull String model, String[] fields, int recordId) throws OdooCallMethodException {
+        return Arrays.stream(read(model, fields, new int[]{recordId}))
+                .findFirst();
+    }
+
+    /**
+     * Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>read()</b> for multiple records on an annotated class
+     * <p>
+     * Reads all fields from the model definition
+     *
+     * @param tClass    The class that is annotated with {@link OdooModel}
+     * @param recordIds The array of record ids
+     * @return an array of maps containing the records data
+     * @throws OdooCallMethodException when calling method failed
+     * @see #read(String, String[], int[])
+     */
+    public Map<String, Object>[] read(@Nonnull Class<?> tClass, int[] recordIds) throws OdooCallMethodException {
+        String model = getModel(tClass);
+        String[] fields = getFields(tClass);
+        return read(model, fields, recordIds);
+    }
+
+    /**
+     * Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>read()</b> for multiple records
+     *
+     * @param model     The odoo model
+     * @param recordIds The array of record ids
+     * @return an array of maps containing the records data
+     * @throws OdooCallMethodException when calling method failed
+     * @see #read(String, String[], int[])
+     */
+    public Map<String, Object>[] read(String model, int[] recordIds) throws OdooCallMethodException {
+        return read(model, null, recordIds);
+    }
+
+    /**
+     * Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>read()</b>
+     * <p>
+     * When a {@link RecordCache} is set and caches the model, only ids missing from the cache are read, in a single call
+     *
+     * @param model     The odoo model
+     * @param fields    an array of field
+     * @param recordIds The record id
+     * @return an array of map, in the order of recordIds
+     * @throws OdooCallMethodException when calling method failed
+     * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#read-records">Read records</a>
+     */
+    public Map<String, Object>[] read(@Nonnull String model, String[] fields, int[] recordIds) throws OdooCallMethodException {
+        return readResolved(model, fields == null || fields.length == 0 ? resolveFields(model, defaultFieldSet) : fields, recordIds);
+    }
+
+    /**
+     * Read
+     * <p>
+     * Implementation of odoo's xmlrpc <b>read()</b>, requesting the fields of a {@link FieldSet}
+     *
+     * @param model     The odoo model
+     * @param fieldSet  The projection, resolved against the cached model schema
+     * @param recordIds The record id
+     * @return an array of map, in the order of recordIds
+     * @throws OdooCallMethodException when calling method failed
+     * @see #resolveFields(String, FieldSet)
+     */
+    public Map<String, Object>[] readProjection(@Nonnull String model, @Nonnull FieldSet fieldSet, int[] recordIds) throws OdooCallMethodException {
+        return readResolved(model, resolveFields(model, fieldSet), recordIds);
+    }
+
+    private Map<String, Object>[] readResolved(String model, String[] fields, int[] recordIds) throws OdooCallMethodException {
+        final RecordCache cache = recordCache;
+        if (cache == null || !cache.isCached(model)) {
+            return readRecords(model, fields, recordIds);
+        }
+
+        // taken before reading, so records written meanwhile are not cached as they were before the write
+        final long stamp = cache.stamp();
+        final Map<Integer, Map<String, Object>> records = new HashMap<>(recordIds.length * 4 / 3 + 1);
+        final int[] missing = Arrays.stream(recordIds)
+                .distinct()
+                .filter(id -> {
+                    final Map<String, Object> record = cache.get(model, fields, id);
+                    if (record == null) {
+                        return true;
+                    }
+                    records.put(id, record);
+                    return false;
+                })
+                .toArray();
+
+        if (missing.length > 0) {
+            for (Map<String, Object> record : readRecords(model, fields, missing)) {
+                cache.put(model, fields, record, stamp);
+                records.put((Integer) record.get("id"), record);
+            }
+        }
+
+        return Arrays.stream(recordIds)
+                .mapToObj(records::get)
+                .filter(Objects::nonNull)
+                .toArray(Map[]::new);
+    }
+
+    /**
+     * Read records
+     * <p>
+     * Call odoo's xmlrpc <b>read()</b> bypassing the {@link RecordCache}
+     *
+     * @param model     The odoo model
+     * @param fields    an array of field
+     * @param recordIds The record id
+     * @return an array of map
+     * @throws OdooCallMethodException when calling method failed
+     */
+    protected Map<String, Object>[] readRecords(@Nonnull String model, String[] fields, int[] recordIds) throws OdooCallMethodException {
+        final int size = idChunkSize;
+        if (recordIds.length > size) {
+            // odoo reads records in the order of the ids, so chunks in order keep that order
+            return executeChunks(chunkCount(recordIds.length, size), chunk -> readRecords(model, fields, chunkIds(recordIds, chunk, size)))
+                    .stream()
+                    .flatMap(Arrays::stream)
+                    .toArray(Map[]::new);
+        }
+
+        final Map<String, Object> namedParams = new HashMap<>() {{
+            if (fields != null && fields.length > 0) put("fields", fields);
+        }};
+
+        return toRecords(executeKw(model, "read", new Object[]{recordIds}, namedParams));
+    }
+
+    /**
+     * Resolve a {@link FieldSet} into the field names to request
+     * <p>
+     * The schema comes from the {@link SchemaRegistry}, so <b>fields_get()</b> is only called once per model.
+     * When odoo denies access to the schema every field is requested, and the denial is remembered for the time to live
+     * of the registry.
+     *
+     * @param model    The odoo model
+     * @param fieldSet The projection
+     * @return the field names, null to request every field
+     * @throws OdooCallMethodException when the schema cannot be loaded for another reason, such as a failed connection
+     */
+    @Nullable
+    public String[] resolveFields(@Nonnull String model, @Nonnull FieldSet fieldSet) throws OdooCallMethodException {
+        if (!fieldSet.requiresSchema()) {
+            return null;
+        } else if (isSchemaDenied(model)) {
+            return project(fieldSet, null);
+        }
+
+        ModelSchema schema;
+        try {
+            schema = getSchema(model, PROJECTION_ATTRIBUTES);
+        } catch (OdooCallMethodException e) {
+            if (!isAccessFault(e)) {
+                throw e;
+            }
+            denySchema(model);
+            schema = null;
+        }
+        return project(fieldSet, schema);
+    }
+
+    /**
+     * Resolve a {@link FieldSet} against a schema loaded with {@link #PROJECTION_ATTRIBUTES}
+     *
+     * @return the field names, null to request every field
+     */
+    static String[] project(FieldSet fieldSet, ModelSchema schema) {
+        // an empty list would make odoo return every field
+        return Optional.ofNullable(fieldSet.resolve(schema))
+                .map(fields -> fields.length == 0 ? new String[]{"id"} : fields)
+                .orElse(null);
+    }
+
+    /**
+     * Whether odoo denied access to the schema of a model within the time to live of the {@link SchemaRegistry}
+     */
+    boolean isSchemaDenied(String model) {
+        final Long deniedAt = deniedSchemas.get(model);
+        return deniedAt != null && System.currentTimeMillis() - deniedAt < schemaRegistry.getTtl();
     }
 
     /**
-     * Read
-     * <p>
-     * Implementation of odoo's xmlrpc <b>read()</b> for a single record with specific fields
-     *
-     * @param model    The odoo model
-     * @param fields   an array of field names to read
-     * @param recordId The record id
-     * @return an optional of map containing the record data
-     * @throws OdooCallMethodException when calling method failed
-     * @see #read(String, String[], int[])
+     * Remember that odoo denied access to the schema of a model, see {@link #isSchemaDenied(String)}
      */
-    public Optional<Map<String, Object>> read(@Nonnull String model, String[] fields, int recordId) throws OdooCallMethodException {
-        return Arrays.stream(read(model, fields, new int[]{recordId}))
-                .findFirst();
+    void denySchema(String model) {
+        deniedSchemas.put(model, System.currentTimeMillis());
     }
 
     /**
-     * Read
-     * <p>
-     * Implementation of odoo's xmlrpc <b>read()</b> for multiple records on an annotated class
-     * <p>
-     * Reads all fields from the model definition
+     * Whether a failure is odoo refusing access, as opposed to a failed connection or any other error
+     */
+    static boolean isAccessFault(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof XmlRpcException) {
+                final int code = ((XmlRpcException) cause).code;
+                return code == XmlRpcUtil.FAULT_ACCESS_DENIED || code == XmlRpcUtil.FAULT_ACCESS_ERROR;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the schema of a model from the {@link SchemaRegistry} without loading it
      *
-     * @param tClass    The class that is annotated with {@link OdooModel}
-     * @param recordIds The array of record ids
-     * @return an array of maps containing the records data
-     * @throws OdooCallMethodException when calling method failed
-     * @see #read(String, String[], int[])
+     * @return the schema, null when it is not cached or expired
      */
-    public Map<String, Object>[] read(@Nonnull Class<?> tClass, int[] recordIds) throws OdooCallMethodException {
-        String model = getModel(tClass);
-        String[] fields = getFields(tClass);
-        return read(model, fields, recordIds);
+    ModelSchema getCachedSchema(String model, String[] attributes) {
+        return schemaRegistry.peek(database, model, attributes);
+    }
+
+    public FieldSet getDefaultFieldSet() {
+        return defaultFieldSet;
     }
 
     /**
-     * Read
+     * Set the projection used by untyped {@link #searchRead(String, String[], SearchFilter[], String, Integer, Integer)}
+     * and {@link #read(String, String[], int[])} when no fields are given.
      * <p>
-     * Implementation of odoo's xmlrpc <b>read()</b> for multiple records
+     * Defaults to {@link FieldSet#lightweight()}, so non-stored computed fields such as <code>display_name</code> are not
+     * returned and the first call per model resolves the fields through <b>fields_get()</b>.
+     * Use {@link FieldSet#all()} to read every field, as earlier versions did.
      *
-     * @param model     The odoo model
-     * @param recordIds The array of record ids
-     * @return an array of maps containing the records data
-     * @throws OdooCallMethodException when calling method failed
-     * @see #read(String, String[], int[])
+     * @param defaultFieldSet The projection
      */
-    public Map<String, Object>[] read(String model, int[] recordIds) throws OdooCallMethodException {
-        return read(model, null, recordIds);
+    public void setDefaultFieldSet(@Nonnull FieldSet defaultFieldSet) {
+        this.defaultFieldSet = defaultFieldSet;
+    }
+
+    public RecordCache getRecordCache() {
+        return recordCache;
     }
 
     /**
-     * Read
-     * <p>
-     * Implementation of odoo's xmlrpc <b>read()</b>
+     * Set the record cache used by {@link #read(String, String[], int[])}, null disables caching.
+     * Create, write and unlink through this instance invalidate the affected records.
      *
-     * @param model     The odoo model
-     * @param fields    an array of field
-     * @param recordIds The record id
-     * @return an optional of map
-     * @throws OdooCallMethodException when calling method failed
-     * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#read-records">Read records</a>
+     * @param recordCache The record cache
      */
-    public Map<String, Object>[] read(@Nonnull String model, String[] fields, int[] recordIds) throws OdooCallMethodException {
-        final Integer[] ids = Arrays.stream(recordIds).boxed().toArray(Integer[]::new);
-        final Map<String, Object> namedParams = new HashMap<>() {{
-            if (fields != null && fields.length > 0) put("fields", fields);
-        }};
+    public void setRecordCache(@Nullable RecordCache recordCache) {
+        this.recordCache = recordCache;
+    }
 
-        return Arrays.stream((Object[]) executeKw(model, "read", ids, namedParams))
-                .map(o -> (Map<String, Object>) o)
-                .map(Try.toPeek(m -> m.forEach((key, value) -> {
-                    if (value instanceof Boolean && !(boolean) value) m.replace(key, null);
-                })))
-                .toArray(Map[]::new);
+    private void invalidateRecords(String model, int... recordIds) {
+        final RecordCache cache = recordCache;
+        if (cache != null) {
+            for (int recordId : recordIds) {
+                cache.invalidate(model, recordId);
+            }
+        }
     }
 
     /**
@@ -395,7 +1391,9 @@ public class OdooRpc {
      * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#create-records">Create records</a>
      */
     public int create(@Nonnull String model, Map<String, Object> record) throws OdooCallMethodException {
-        return (int) executeKw(model, "create", record);
+        final int recordId = (int) executeKw(model, "create", record);
+        invalidateRecords(model, recordId);
+        return recordId;
     }
 
     /**
@@ -412,6 +1410,100 @@ public class OdooRpc {
         return create(model, map);
     }
 
+    /**
+     * Create All
+     * <p>
+     * Implementation of odoo's xmlrpc <b>create()</b> with a list of values,
+     * sent in chunks of {@link #getBatchSize()} records
+     *
+     * @param model   The odoo model
+     * @param records The record maps
+     * @return new record ids, in the order of records
+     * @throws OdooCallMethodException when calling method failed, chunks already sent are not rolled back
+     */
+    @Nonnull
+    public int[] createAll(@Nonnull String model, @Nonnull List<Map<String, Object>> records) throws OdooCallMethodException {
+        final int size = batchSize;
+        final List<int[]> chunks = executeChunks(chunkCount(records.size(), size), chunk -> {
+            final List<Map<String, Object>> values = records.subList(chunk * size, Math.min(records.size(), (chunk + 1) * size));
+            final Object ret = executeKw(model, "create", new Object[]{values.toArray()}, null);
+            if (ret instanceof Object[]) {
+                return toIds(ret);
+            } else {
+                return new int[]{(Integer) ret};
+            }
+        });
+
+        final int[] recordIds = chunks.stream()
+                .flatMapToInt(Arrays::stream)
+                .toArray();
+        invalidateRecords(model, recordIds);
+        return recordIds;
+    }
+
+    /**
+     * Create All
+     *
+     * @param records The record objects, all of the same class
+     * @param <T>     The type of record
+     * @return new record ids, in the order of records
+     * @throws OdooCallMethodException when calling method failed or the records are not all of the same class
+     * @see #createAll(String, List)
+     */
+    @Nonnull
+    public <T> int[] createAll(@Nonnull Collection<T> records) throws OdooCallMethodException {
+        if (records.isEmpty()) {
+            return new int[0];
+        }
+
+        final Class<?> tClass = records.iterator().next().getClass();
+        for (T record : records) {
+            if (record.getClass() != tClass) {
+                throw new OdooCallMethodException("Records of class [" + tClass.getName() + "] and [" + record.getClass().getName() + "] cannot be created together");
+            }
+        }
+
+        String model = getModel(tClass);
+        List<Map<String, Object>> maps = records.stream()
+                .map(this::getRowMap)
+                .collect(Collectors.toList());
+        return createAll(model, maps);
+    }
+
+    /**
+     * Write
+     * <p>
+     * Implementation of odoo's xmlrpc <b>write()</b> on multiple records with the same values,
+     * sent in chunks of {@link #getBatchSize()} ids
+     *
+     * @param model     The odoo model
+     * @param recordIds The record ids
+     * @param record    The record map
+     * @throws OdooCallMethodException when calling method failed, chunks already sent are not rolled back
+     */
+    public void write(@Nonnull String model, @Nonnull int[] recordIds, Map<String, Object> record) throws OdooCallMethodException {
+        final int size = batchSize;
+        try {
+            executeChunks(chunkCount(recordIds.length, size), chunk -> executeKw(model, "write", new Object[]{chunkIds(recordIds, chunk, size), record}, null));
+        } finally {
+            invalidateRecords(model, recordIds);
+        }
+    }
+
+    /**
+     * Write
+     *
+     * @param recordIds The record ids
+     * @param record    The record object
+     * @throws OdooCallMethodException when calling method failed
+     * @see #write(String, int[], Map)
+     */
+    public <T> void write(@Nonnull int[] recordIds, @Nonnull T record) throws OdooCallMethodException {
+        String model = getModel(record.getClass());
+        Map<String, Object> map = getRowMap(record);
+        write(model, recordIds, map);
+    }
+
     /**
      * Write
      * <p>
@@ -424,7 +1516,11 @@ public class OdooRpc {
      * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#update-records">Update records</a>
      */
     public void write(@Nonnull String model, int recordId, Map<String, Object> record) throws OdooCallMethodException {
-        executeKw(model, "write", recordId, record);
+        try {
+            executeKw(model, "write", recordId, record);
+        } finally {
+            invalidateRecords(model, recordId);
+        }
     }
 
     /**
@@ -453,7 +1549,11 @@ public class OdooRpc {
      * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#delete-records">Delete records</a>
      */
     public void unlink(@Nonnull String model, int recordId) throws OdooCallMethodException {
-        executeKw(model, "unlink", recordId);
+        try {
+            executeKw(model, "unlink", recordId);
+        } finally {
+            invalidateRecords(model, recordId);
+        }
     }
 
     /**
@@ -469,6 +1569,38 @@ public class OdooRpc {
         unlink(model, recordId);
     }
 
+    /**
+     * Unlink
+     * <p>
+     * Implementation of odoo's xmlrpc <b>unlink()</b> on multiple records,
+     * sent in chunks of {@link #getBatchSize()} ids
+     *
+     * @param model     The odoo model
+     * @param recordIds The record ids
+     * @throws OdooCallMethodException when calling method failed, chunks already sent are not rolled back
+     */
+    public void unlink(@Nonnull String model, @Nonnull int[] recordIds) throws OdooCallMethodException {
+        final int size = batchSize;
+        try {
+            executeChunks(chunkCount(recordIds.length, size), chunk -> executeKw(model, "unlink", new Object[]{chunkIds(recordIds, chunk, size)}, null));
+        } finally {
+            invalidateRecords(model, recordIds);
+        }
+    }
+
+    /**
+     * Unlink
+     *
+     * @param tClass    The class that is annotated with {@link OdooModel}
+     * @param recordIds The record ids
+     * @throws OdooCallMethodException when calling method failed
+     * @see #unlink(String, int[])
+     */
+    public void unlink(@Nonnull Class<?> tClass, @Nonnull int[] recordIds) throws OdooCallMethodException {
+        String model = getModel(tClass);
+        unlink(model, recordIds);
+    }
+
     /**
      * Post message
      *
@@ -527,8 +1659,8 @@ public class OdooRpc {
     @Nonnull
     protected String getModel(@Nonnull Class<?> tClass) throws OdooCallMethodException {
         return Optional.of(tClass)
-                .map(c -> c.getAnnotation(OdooModel.class))
-                .map(OdooModel::value)
+                .map(ModelMapping::of)
+                .map(ModelMapping::getModel)
                 .orElseThrow(() -> new OdooCallMethodException("Class [" + tClass.getName() + "] is not annotated with @OdooModel"));
     }
 
@@ -537,18 +1669,11 @@ public class OdooRpc {
      *
      * @param tClass The class that is annotated with {@link OdooModel}
      * @return an array of field name
+     * @see ModelMapping#getFields()
      */
     @Nonnull
     protected String[] getFields(@Nonnull Class<?> tClass) {
-        return Optional.of(tClass)
-                .map(Class::getDeclaredFields)
-                .stream()
-                .flatMap(Arrays::stream)
-                .map(f -> Optional.of(OdooField.class)
-                        .map(f::getAnnotation)
-                        .map(OdooField::value)
-                        .orElse(f.getName()))
-                .toArray(String[]::new);
+        return ModelMapping.of(tClass).getFields();
     }
 
     /**
@@ -557,29 +1682,12 @@ public class OdooRpc {
      * @param record The record object
      * @param <T>    The type of record
      * @return The map of the record
+     * @see ModelMapping#toMap(Object)
      */
     @Nonnull
     protected <T> Map<String, Object> getRowMap(@Nonnull T record) {
-        Map<String, Object> map = new HashMap<>();
-
-        Optional.of(record)
-                .map(Object::getClass)
-                .map(Class::getDeclaredFields)
-                .stream()
-                .flatMap(Arrays::stream)
-                .forEach(Try.onConsumer(f -> {
-                    f.setAccessible(true);
-                    String key = Optional.of(OdooField.class)
-                            .map(f::getAnnotation)
-                            .map(OdooField::value)
-                            .orElse(f.getName());
-                    Object value = f.get(record);
-                    map.put(key, value);
-                }, (Exception ignored) -> {
-                    // ignore
-                }));
-
-        return map;
+        final ModelMapping<T> mapping = ModelMapping.of((Class<T>) record.getClass());
+        return mapping.toMap(record);
     }
 
     /**
@@ -589,34 +1697,11 @@ public class OdooRpc {
      * @param record The map of the record
      * @param <T>    The type of the object
      * @return an optional of the object
+     * @throws IllegalArgumentException when a value cannot be converted to its field type
+     * @see ModelMapping#fromMap(Map)
      */
     protected <T> Optional<T> parseRecord(@Nonnull Class<T> tClass, @Nonnull Map<String, Object> record) {
-        try {
-            T instance = tClass.getDeclaredConstructor().newInstance();
-
-            Optional.of(tClass)
-                    .map(Class::getDeclaredFields)
-                    .stream()
-                    .flatMap(Arrays::stream)
-                    .forEach(Try.onConsumer(field -> {
-                        field.setAccessible(true);
-
-                        // get fieldname from either annotation or field declaration
-                        String fieldName = Optional.of(OdooField.class)
-                                .map(field::getAnnotation)
-                                .map(OdooField::value)
-                                .orElseGet(field::getName);
-
-                        if (record.containsKey(fieldName)) {
-                            Object value = record.get(fieldName);
-                            field.set(instance, value);
-                        }
-                    }));
-
-            return Optional.of(instance);
-        } catch (Exception e) {
-            return Optional.empty();
-        }
+        return ModelMapping.of(tClass).fromMap(record);
     }
 
     /**
@@ -664,24 +1749,194 @@ public class OdooRpc {
      */
     public Object executeKw(String model, String method, Object[] posArgs, Map<String, Object> namedArgs) throws OdooCallMethodException {
         try {
-            final Object[] params = new ArrayList<>() {{
-                add(database);
-                add(uid);
-                add(apiKey);
-                add(model);
-                add(method);
-                add(posArgs != null ? posArgs : new Object[]{new Object[0]});
-                if (namedArgs != null) add(namedArgs);
-            }}.toArray();
-
-            return execute(baseUrl + "/" + PATH_OBJECT, "execute_kw", params);
+            return execute(baseUrl + "/" + PATH_OBJECT, "execute_kw", executeKwParams(model, method, posArgs, namedArgs));
+        } catch (MalformedURLException | XmlRpcException e) {
+            throw new OdooCallMethodException(e);
+        }
+    }
+
+    /**
+     * Execute Kw
+     * <p>
+     * Execute a method on the model and parse the result while it is received. When the result is an array,
+     * its elements are parsed one at a time as the stream is consumed; any other result is a single element.
+     * The stream holds an http connection, close it when done.
+     *
+     * @param model     The odoo model
+     * @param method    The method name to execute
+     * @param posArgs   The positional arguments
+     * @param namedArgs The named arguments
+     * @return stream of the result elements, a failure while reading throws {@link UncheckedOdooCallMethodException}
+     * @throws OdooCallMethodException when calling method failed
+     * @see ResponseReader
+     */
+    @Nonnull
+    public Stream<Object> executeKwStream(String model, String method, Object[] posArgs, Map<String, Object> namedArgs) throws OdooCallMethodException {
+        try {
+            return executeStreaming(baseUrl + "/" + PATH_OBJECT, "execute_kw", executeKwParams(model, method, posArgs, namedArgs)).stream();
+        } catch (XmlRpcException e) {
+            throw new OdooCallMethodException(e);
+        }
+    }
+
+    /**
+     * Execute a method on the model whose result is an array of ids, parsed straight into an <code>int[]</code>
+     */
+    int[] executeKwIds(String model, String method, Object[] posArgs, Map<String, Object> namedArgs) throws OdooCallMethodException {
+        try {
+            return executeStreaming(baseUrl + "/" + PATH_OBJECT, "execute_kw", executeKwParams(model, method, posArgs, namedArgs)).readIntArray();
+        } catch (XmlRpcException e) {
+            throw new OdooCallMethodException(e);
+        }
+    }
+
+    /**
+     * Execute Kw
+     * <p>
+     * Execute a method on the model without blocking the calling thread, using the async api of the transport
+     *
+     * @param model     The odoo model
+     * @param method    The method name to execute
+     * @param posArgs   The positional arguments
+     * @param namedArgs The named arguments
+     * @return future of the result, completed exceptionally with {@link OdooCallMethodException} when calling method failed
+     */
+    @Nonnull
+    public CompletableFuture<Object> executeKwAsync(String model, String method, Object[] posArgs, Map<String, Object> namedArgs) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        executeAsync(baseUrl + "/" + PATH_OBJECT, "execute_kw", executeKwParams(model, method, posArgs, namedArgs))
+                .whenComplete((result, error) -> {
+                    if (error == null) {
+                        future.complete(result);
+                    } else {
+                        final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        future.completeExceptionally(cause instanceof OdooCallMethodException ? cause : new OdooCallMethodException(cause));
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * Execute Kw
+     * <p>
+     * Execute several methods on models in a single request
+     *
+     * @param calls The <b>execute_kw()</b> parameters of each call, see {@link #executeKwParams(String, String, Object[], Map)}
+     * @return the result of each call in the order of calls, an {@link XmlRpcException} for a call which failed
+     * @throws OdooCallMethodException when the request as a whole failed
+     */
+    @Nonnull
+    List<Object> executeKwMulticall(@Nonnull List<Object[]> calls) throws OdooCallMethodException {
+        try {
+            return executeMulticall(baseUrl + "/" + PATH_OBJECT, "execute_kw", calls);
         } catch (MalformedURLException | XmlRpcException e) {
             throw new OdooCallMethodException(e);
         }
     }
 
+    Object[] executeKwParams(String model, String method, Object[] posArgs, Map<String, Object> namedArgs) {
+        return new ArrayList<>() {{
+            add(database);
+            add(uid);
+            add(apiKey);
+            add(model);
+            add(method);
+            add(posArgs != null ? posArgs : new Object[]{new Object[0]});
+            if (namedArgs != null) add(namedArgs);
+        }}.toArray();
+    }
+
+    /**
+     * Execute chunks of a batch, one after another or up to {@link #getBatchParallelism()} at the same time
+     *
+     * @param chunkCount The number of chunks
+     * @param call       The call executing a single chunk
+     * @param <R>        The type of chunk result
+     * @return the chunk results, in chunk order
+     * @throws OdooCallMethodException when any chunk failed
+     */
+    @Nonnull
+    protected <R> List<R> executeChunks(int chunkCount, @Nonnull ChunkCall<R> call) throws OdooCallMethodException {
+        final int parallelism = Math.min(batchParallelism, chunkCount);
+        final Object[] results = new Object[chunkCount];
+
+        if (parallelism <= 1) {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                results[chunk] = call.call(chunk);
+            }
+        } else {
+            final AtomicInteger nextChunk = new AtomicInteger();
+            final AtomicReference<OdooCallMethodException> failure = new AtomicReference<>();
+            final CompletableFuture<?>[] workers = new CompletableFuture[parallelism];
+
+            for (int i = 0; i < parallelism; i++) {
+                workers[i] = CompletableFuture.runAsync(() -> {
+                    int chunk;
+                    while (failure.get() == null && (chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                        try {
+                            results[chunk] = call.call(chunk);
+                        } catch (OdooCallMethodException e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                }, getExecutor());
+            }
+
+            try {
+                CompletableFuture.allOf(workers).join();
+            } catch (CompletionException e) {
+                throw new OdooCallMethodException(e.getCause());
+            }
+
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+
+        return Arrays.stream(results)
+                .map(o -> (R) o)
+                .collect(Collectors.toList());
+    }
+
+    static int chunkCount(int length, int chunkSize) {
+        return (length + chunkSize - 1) / chunkSize;
+    }
+
+    static int[] chunkIds(int[] recordIds, int chunk, int chunkSize) {
+        return Arrays.copyOfRange(recordIds, chunk * chunkSize, Math.min(recordIds.length, (chunk + 1) * chunkSize));
+    }
+
+    /**
+     * Call executing a single chunk of a batch
+     *
+     * @param <R> The type of chunk result
+     */
+    @FunctionalInterface
+    protected interface ChunkCall<R> {
+        R call(int chunk) throws OdooCallMethodException;
+    }
+
+    /**
+     * Get the executor for background work of this instance, such as page prefetching
+     *
+     * @return the executor, shut down on {@link #close()}
+     */
+    @Nonnull
+    protected ExecutorService getExecutor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (executorLock) {
+                result = executor;
+                if (result == null) {
+                    executor = result = AsyncOdooRpc.newDefaultExecutor();
+                }
+            }
+        }
+        return result;
+    }
+
     /**
-     * Execute xml rpc
+     * Execute xml rpc on the transport
      *
      * @param url    The url
      * @param method The method
@@ -691,6 +1946,48 @@ public class OdooRpc {
      * @throws XmlRpcException       when the xml rpc execution failed
      */
     protected Object execute(String url, String method, Object[] params) throws MalformedURLException, XmlRpcException {
-        return XmlRpcUtil.execute(url, method, params);
+        return transport.execute(url, method, params);
+    }
+
+    /**
+     * Execute xml rpc on the transport and parse the response while it is received
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return The response reader, holding the connection until it is closed
+     * @throws XmlRpcException when the request failed or the response is a fault
+     */
+    @Nonnull
+    protected ResponseReader executeStreaming(String url, String method, Object[] params) throws XmlRpcException {
+        return transport.executeStreaming(url, method, params);
+    }
+
+    /**
+     * Execute several calls of the same method in a single request on the transport
+     *
+     * @param url    The url
+     * @param method The method of every call
+     * @param calls  The parameters of each call
+     * @return the result of each call, an {@link XmlRpcException} for a call which failed
+     * @throws MalformedURLException when the url is malformed
+     * @throws XmlRpcException       when the request as a whole failed
+     */
+    @Nonnull
+    protected List<Object> executeMulticall(String url, String method, List<Object[]> calls) throws MalformedURLException, XmlRpcException {
+        return transport.executeMulticall(url, method, calls);
+    }
+
+    /**
+     * Execute xml rpc on the transport without blocking the calling thread
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return future of the result, completed exceptionally with {@link XmlRpcException} when the execution failed
+     */
+    @Nonnull
+    protected CompletableFuture<Object> executeAsync(String url, String method, Object[] params) {
+        return transport.executeAsync(url, method, params);
     }
 }
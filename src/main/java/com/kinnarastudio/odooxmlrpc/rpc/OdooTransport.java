@@ -0,0 +1,119 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.MalformedURLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport sending XML-RPC calls of an {@link OdooRpc}
+ * <p>
+ * Implementations own their connections and must be safe to use from several threads.
+ *
+ * @see JavaHttpTransport
+ * @see XmlRpcClientTransport
+ */
+public interface OdooTransport extends AutoCloseable {
+    /**
+     * Get the connection settings
+     *
+     * @return the connection settings
+     */
+    @Nonnull
+    ConnectionSettings getConnectionSettings();
+
+    /**
+     * Get the byte counters of the request and response bodies
+     *
+     * @return the compression stats
+     */
+    @Nonnull
+    CompressionStats getCompressionStats();
+
+    /**
+     * Execute xml rpc
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return The result of the execution
+     * @throws MalformedURLException when the url is malformed
+     * @throws XmlRpcException       when the xml rpc execution failed
+     */
+    @Nullable
+    Object execute(@Nonnull String url, @Nonnull String method, Object[] params) throws MalformedURLException, XmlRpcException;
+
+    /**
+     * Execute xml rpc and parse the response while it is received
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return The response reader, holding the connection until it is closed
+     * @throws XmlRpcException when the request failed or the response is a fault
+     */
+    @Nonnull
+    ResponseReader executeStreaming(@Nonnull String url, @Nonnull String method, Object[] params) throws XmlRpcException;
+
+    /**
+     * Execute xml rpc without blocking the calling thread
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return future of the result, completed exceptionally with {@link XmlRpcException} when the execution failed
+     */
+    @Nonnull
+    CompletableFuture<Object> executeAsync(@Nonnull String url, @Nonnull String method, Object[] params);
+
+    /**
+     * Execute several calls of the same method in a single request
+     * <p>
+     * The default implementation uses XML-RPC <code>system.multicall</code>, which odoo does not offer out of the box,
+     * the server needs a module providing it on the endpoint.
+     *
+     * @param url    The url
+     * @param method The method of every call
+     * @param calls  The parameters of each call
+     * @return the result of each call in the order of calls, an {@link XmlRpcException} for a call which failed
+     * @throws MalformedURLException when the url is malformed
+     * @throws XmlRpcException       when the request as a whole failed
+     */
+    @Nonnull
+    default List<Object> executeMulticall(@Nonnull String url, @Nonnull String method, @Nonnull List<Object[]> calls) throws MalformedURLException, XmlRpcException {
+        final Object[] multicall = new Object[calls.size()];
+        for (int i = 0; i < multicall.length; i++) {
+            final Map<String, Object> call = new HashMap<>();
+            call.put("methodName", method);
+            call.put("params", calls.get(i));
+            multicall[i] = call;
+        }
+
+        final Object ret = execute(url, "system.multicall", new Object[]{multicall});
+        if (!(ret instanceof Object[]) || ((Object[]) ret).length != calls.size()) {
+            throw new XmlRpcException("Invalid system.multicall response, expected " + calls.size() + " results");
+        }
+
+        final List<Object> results = new ArrayList<>(calls.size());
+        for (Object result : (Object[]) ret) {
+            if (result instanceof Object[] && ((Object[]) result).length == 1) {
+                results.add(((Object[]) result)[0]);
+            } else if (result instanceof Map) {
+                final Object code = ((Map<?, ?>) result).get("faultCode");
+                results.add(new XmlRpcException(code instanceof Integer ? (Integer) code : 0, String.valueOf(((Map<?, ?>) result).get("faultString"))));
+            } else {
+                throw new XmlRpcException("Invalid system.multicall result [" + result + "]");
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Release the connections of this transport
+     */
+    @Override
+    void close();
+}
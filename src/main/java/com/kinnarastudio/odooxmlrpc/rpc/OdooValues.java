@@ -0,0 +1,182 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Conversion of raw XML-RPC values into java field types, used by generated {@link OdooMapper}s and {@link ModelMapping}.
+ * <p>
+ * Odoo sends <code>false</code> for empty values, which becomes null for objects and the default for primitives.
+ * A many2one value <code>[id, display_name]</code> converts to its id for numbers and to its display name for strings.
+ * Any other mismatch throws {@link IllegalArgumentException} naming the field.
+ */
+public final class OdooValues {
+    private OdooValues() {}
+
+    public static int toInt(Object value, String field) {
+        final Integer result = toIntOrNull(value, field);
+        return result == null ? 0 : result;
+    }
+
+    @Nullable
+    public static Integer toIntOrNull(Object value, String field) {
+        final Object v = unwrap(value, 0);
+        if (v == null) {
+            return null;
+        } else if (v instanceof Integer) {
+            return (Integer) v;
+        } else if (v instanceof Short || v instanceof Byte) {
+            return ((Number) v).intValue();
+        }
+        throw mismatch(value, "int", field);
+    }
+
+    public static long toLong(Object value, String field) {
+        final Long result = toLongOrNull(value, field);
+        return result == null ? 0L : result;
+    }
+
+    @Nullable
+    public static Long toLongOrNull(Object value, String field) {
+        final Object v = unwrap(value, 0);
+        if (v == null) {
+            return null;
+        } else if (v instanceof Long || v instanceof Integer || v instanceof Short || v instanceof Byte) {
+            return ((Number) v).longValue();
+        }
+        throw mismatch(value, "long", field);
+    }
+
+    public static double toDouble(Object value, String field) {
+        final Double result = toDoubleOrNull(value, field);
+        return result == null ? 0.0 : result;
+    }
+
+    @Nullable
+    public static Double toDoubleOrNull(Object value, String field) {
+        final Object v = unwrap(value, 0);
+        if (v == null) {
+            return null;
+        } else if (v instanceof Number) {
+            return ((Number) v).doubleValue();
+        }
+        throw mismatch(value, "double", field);
+    }
+
+    public static float toFloat(Object value, String field) {
+        final Float result = toFloatOrNull(value, field);
+        return result == null ? 0f : result;
+    }
+
+    @Nullable
+    public static Float toFloatOrNull(Object value, String field) {
+        final Object v = unwrap(value, 0);
+        if (v == null) {
+            return null;
+        } else if (v instanceof Number) {
+            return ((Number) v).floatValue();
+        }
+        throw mismatch(value, "float", field);
+    }
+
+    public static boolean toBoolean(Object value, String field) {
+        final Boolean result = toBooleanOrNull(value, field);
+        return result != null && result;
+    }
+
+    @Nullable
+    public static Boolean toBooleanOrNull(Object value, String field) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw mismatch(value, "boolean", field);
+    }
+
+    @Nullable
+    public static String toText(Object value, String field) {
+        final Object v = unwrap(value, 1);
+        if (v == null) {
+            return null;
+        } else if (v instanceof String) {
+            return (String) v;
+        } else if (v instanceof Number) {
+            return v.toString();
+        }
+        throw mismatch(value, "String", field);
+    }
+
+    @Nullable
+    public static int[] toIntArray(Object value, String field) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return null;
+        } else if (value instanceof int[]) {
+            return (int[]) value;
+        } else if (value instanceof Object[]) {
+            final Object[] values = (Object[]) value;
+            final int[] result = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (!(values[i] instanceof Integer)) {
+                    throw mismatch(value, "int[]", field);
+                }
+                result[i] = (Integer) values[i];
+            }
+            return result;
+        }
+        throw mismatch(value, "int[]", field);
+    }
+
+    @Nullable
+    public static Integer[] toIntegerArray(Object value, String field) {
+        final int[] ids = toIntArray(value, field);
+        if (ids == null) {
+            return null;
+        }
+
+        final Integer[] result = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = ids[i];
+        }
+        return result;
+    }
+
+    @Nullable
+    public static <V> V cast(Object value, @Nonnull Class<V> type, String field) {
+        if (value == null || (Boolean.FALSE.equals(value) && type != Boolean.class && type != Object.class)) {
+            return null;
+        } else if (type.isInstance(value)) {
+            return type.cast(value);
+        }
+        throw mismatch(value, type.getSimpleName(), field);
+    }
+
+    /**
+     * Turn <code>false</code> into null and pick one element of a many2one pair
+     */
+    private static Object unwrap(Object value, int many2oneIndex) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return null;
+        } else if (isMany2one(value)) {
+            return ((Object[]) value)[many2oneIndex];
+        }
+        return value;
+    }
+
+    /**
+     * A many2one value is <code>[id, display_name]</code>, unlike a two element list of ids
+     */
+    private static boolean isMany2one(Object value) {
+        if (!(value instanceof Object[])) {
+            return false;
+        }
+
+        final Object[] values = (Object[]) value;
+        return values.length == 2 && values[0] instanceof Integer && values[1] instanceof String;
+    }
+
+    private static IllegalArgumentException mismatch(Object value, String type, String field) {
+        return new IllegalArgumentException("Cannot convert value [" + value + "] of type ["
+                + value.getClass().getSimpleName() + "] to [" + type + "] for field [" + field + "]");
+    }
+}
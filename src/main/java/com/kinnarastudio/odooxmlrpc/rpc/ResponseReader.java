@@ -0,0 +1,181 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.exception.UncheckedOdooCallMethodException;
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Pull parser of an rpc response body
+ * <p>
+ * When the response value is an array, its elements are parsed one at a time as {@link #next()} is called,
+ * so a large <b>search_read()</b> result never has to be held in memory as a whole.
+ * Any other response value is returned as a single element.
+ * Malformed content found while iterating is thrown as {@link UncheckedOdooCallMethodException}.
+ *
+ * @see XmlRpcResponseReader
+ * @see JsonRpcResponseReader
+ */
+public abstract class ResponseReader implements Iterator<Object>, Closeable {
+    private final InputStream in;
+    private Runnable onClose;
+    private boolean closed;
+
+    /**
+     * ResponseReader constructor
+     *
+     * @param in      The response body, closed by {@link #close()}
+     * @param onClose Called once when the reader is closed, for example to release the http connection
+     */
+    protected ResponseReader(@Nonnull InputStream in, @Nullable Runnable onClose) {
+        this.in = in;
+        this.onClose = onClose;
+    }
+
+    /**
+     * Check if the response value is an array, whose elements are streamed
+     *
+     * @return true for an array response
+     */
+    public abstract boolean isArray();
+
+    /**
+     * Run an additional action when the reader is closed
+     *
+     * @param action The action
+     * @return this reader
+     */
+    public ResponseReader onClose(@Nonnull Runnable action) {
+        final Runnable previous = onClose;
+        onClose = previous == null ? action : () -> {
+            try {
+                previous.run();
+            } finally {
+                action.run();
+            }
+        };
+        return this;
+    }
+
+    /**
+     * Read the whole response value and close the reader
+     *
+     * @return the value, an <code>Object[]</code> for an array response
+     * @throws XmlRpcException when the response is not valid
+     */
+    @Nullable
+    public Object readValue() throws XmlRpcException {
+        try {
+            if (!isArray()) {
+                return hasNext() ? next() : null;
+            }
+
+            final List<Object> elements = new ArrayList<>();
+            while (hasNext()) {
+                elements.add(next());
+            }
+            return elements.toArray();
+        } catch (UncheckedOdooCallMethodException e) {
+            throw new XmlRpcException("Invalid rpc response", e.getCause().getCause());
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Read the whole response as an array of integers and close the reader, such as the ids returned by <b>search()</b>
+     *
+     * @return the integers
+     * @throws XmlRpcException when the response is not an array of integers
+     */
+    @Nonnull
+    public int[] readIntArray() throws XmlRpcException {
+        try {
+            if (!isArray()) {
+                throw new XmlRpcException("Expected an array of integers in rpc response");
+            }
+
+            int[] elements = new int[64];
+            int size = 0;
+            while (hasNext()) {
+                if (size == elements.length) {
+                    elements = Arrays.copyOf(elements, size << 1);
+                }
+                elements[size++] = nextInt();
+            }
+            return size == elements.length ? elements : Arrays.copyOf(elements, size);
+        } catch (UncheckedOdooCallMethodException e) {
+            throw new XmlRpcException("Invalid rpc response", e.getCause().getCause());
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Parse the next element as an integer, called by {@link #readIntArray()} after {@link #hasNext()}.
+     * Implementations override it to parse the element without boxing it.
+     *
+     * @return the element
+     * @throws XmlRpcException when the element is not an integer
+     */
+    protected int nextInt() throws XmlRpcException {
+        final Object element = next();
+        if (!(element instanceof Integer)) {
+            throw new XmlRpcException("Expected an integer in rpc response but found [" + element + "]");
+        }
+        return (Integer) element;
+    }
+
+    /**
+     * Stream the remaining elements, closing the stream closes this reader
+     *
+     * @return the stream of elements
+     */
+    @Nonnull
+    public Stream<Object> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Release the parser, the input stream and run the close action
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            release();
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // ignore
+            } finally {
+                if (onClose != null) {
+                    onClose.run();
+                }
+            }
+        }
+    }
+
+    protected boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Release the resources of the parser, called once by {@link #close()} before the input stream is closed
+     */
+    protected void release() {
+    }
+}
@@ -0,0 +1,153 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.exception.UncheckedOdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.PageMode;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Iterator over the result of <b>search_read()</b> which fetches one page at a time.
+ * While the current page is consumed the next one is already requested in the background.
+ *
+ * @see OdooRpc#searchReadIterator(String, String[], SearchFilter[], String, int, PageMode)
+ */
+public class SearchReadIterator implements Iterator<Map<String, Object>>, AutoCloseable {
+    private final static String FIELD_ID = "id";
+
+    private final OdooRpc rpc;
+    private final String model;
+    private final String[] fields;
+    private final SearchFilter[] filters;
+    private final String order;
+    private final int pageSize;
+    private final PageMode pageMode;
+    private final Executor executor;
+
+    private Map<String, Object>[] page;
+    private int index;
+    private int offset;
+    private CompletableFuture<Map<String, Object>[]> nextPage;
+
+    SearchReadIterator(@Nonnull OdooRpc rpc, @Nonnull String model, String[] fields, SearchFilter[] filters, String order, int pageSize, @Nonnull PageMode pageMode, @Nonnull Executor executor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+
+        if (pageMode == PageMode.KEYSET && order != null && !order.trim().matches("(?i)id(\\s+asc)?")) {
+            throw new IllegalArgumentException("Keyset pagination is ordered by id, order [" + order + "] is not supported");
+        }
+
+        this.rpc = rpc;
+        this.model = model;
+        this.fields = pageMode == PageMode.KEYSET ? withId(fields) : fields;
+        this.filters = filters;
+        this.order = pageMode == PageMode.KEYSET ? FIELD_ID + " asc" : order;
+        this.pageSize = pageSize;
+        this.pageMode = pageMode;
+        this.executor = executor;
+        this.nextPage = fetch(null);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (page == null || index >= page.length) {
+            if (nextPage == null) {
+                return false;
+            }
+
+            page = await(nextPage);
+            index = 0;
+            offset += page.length;
+            nextPage = page.length < pageSize ? null : fetch(page[page.length - 1]);
+        }
+
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final Map<String, Object> record = page[index];
+
+        // release the reference so consumed records can be collected
+        page[index++] = null;
+        return record;
+    }
+
+    /**
+     * Cancel the page being fetched in the background
+     */
+    @Override
+    public void close() {
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+        page = null;
+    }
+
+    protected CompletableFuture<Map<String, Object>[]> fetch(Map<String, Object> lastRecord) {
+        final SearchFilter[] pageFilters;
+        final Integer pageOffset;
+
+        if (pageMode == PageMode.KEYSET) {
+            pageFilters = lastRecord == null ? filters : withIdAfter(filters, (Integer) lastRecord.get(FIELD_ID));
+            pageOffset = null;
+        } else {
+            pageFilters = filters;
+            pageOffset = offset;
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return rpc.searchRead(model, fields, pageFilters, order, pageOffset, pageSize);
+            } catch (OdooCallMethodException e) {
+                throw new UncheckedOdooCallMethodException(e);
+            }
+        }, executor);
+    }
+
+    private Map<String, Object>[] await(CompletableFuture<Map<String, Object>[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } catch (CancellationException e) {
+            throw new NoSuchElementException("Iterator has been closed");
+        }
+    }
+
+    private static String[] withId(String[] fields) {
+        if (fields == null || fields.length == 0 || Arrays.asList(fields).contains(FIELD_ID)) {
+            return fields;
+        }
+
+        final String[] result = Arrays.copyOf(fields, fields.length + 1);
+        result[fields.length] = FIELD_ID;
+        return result;
+    }
+
+    private static SearchFilter[] withIdAfter(SearchFilter[] filters, int lastId) {
+        final SearchFilter after = new SearchFilter(SearchFilter.Join.AND, FIELD_ID, SearchFilter.Operator.GREATER, lastId);
+        if (filters == null || filters.length == 0) {
+            return new SearchFilter[]{after};
+        }
+
+        final SearchFilter[] result = Arrays.copyOf(filters, filters.length + 1);
+        result[filters.length] = after;
+        return result;
+    }
+}
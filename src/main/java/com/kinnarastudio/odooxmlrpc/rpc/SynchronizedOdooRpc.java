@@ -6,33 +6,254 @@ import org.apache.xmlrpc.XmlRpcException;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.MalformedURLException;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Odoo RPC
+ * <p>
+ * Thread safe {@link OdooRpc} which bounds the number of concurrent in-flight requests of this instance.
+ * Instances do not share the limit, so each tenant or server gets its own.
+ * A streamed response holds its permit until its reader or stream is closed. Blocking calls made by the thread
+ * holding a permit share it instead of waiting for another, so a consumer of a streamed response may call the same
+ * instance; a thread never has more than one permit, though it may then have more than one request in flight.
  *
  * @see <a href="https://www.odoo.com/documentation/17.0/developer/reference/external_api.html#external-api">External API</a>
  */
 public class SynchronizedOdooRpc extends OdooRpc {
-    private static final Object lock = new Object();
+    public final static int DEFAULT_MAX_CONCURRENT_REQUESTS = 1;
+
+    private final int maxConcurrentRequests;
+    private final AsyncSemaphore permits;
+    private final ThreadLocal<Hold> holds = ThreadLocal.withInitial(Hold::new);
 
     public SynchronizedOdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey) throws OdooAuthorizationException {
-        super(baseUrl, database, user, apiKey);
+        this(baseUrl, database, user, apiKey, ConnectionSettings.getDefault(), DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    public SynchronizedOdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey, @Nonnull ConnectionSettings connectionSettings) throws OdooAuthorizationException {
+        this(baseUrl, database, user, apiKey, connectionSettings, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
+
+    /**
+     * SynchronizedOdooRpc constructor
+     *
+     * @param baseUrl               The odoo base url
+     * @param database              The database name
+     * @param user                  The username
+     * @param apiKey                The api key
+     * @param connectionSettings    The http connection pool settings
+     * @param maxConcurrentRequests Maximum number of requests this instance sends at the same time
+     * @throws OdooAuthorizationException when authorization failed
+     */
+    public SynchronizedOdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey, @Nonnull ConnectionSettings connectionSettings, int maxConcurrentRequests) throws OdooAuthorizationException {
+        this(baseUrl, database, user, apiKey, newTransport(connectionSettings, maxConcurrentRequests), maxConcurrentRequests);
     }
 
     /**
+     * SynchronizedOdooRpc constructor
      *
-     * @param url
-     * @param method
-     * @param params
-     * @return
-     * @throws MalformedURLException
-     * @throws XmlRpcException
+     * @param baseUrl               The odoo base url
+     * @param database              The database name
+     * @param user                  The username
+     * @param apiKey                The api key
+     * @param transport             The transport, closed together with this instance
+     * @param maxConcurrentRequests Maximum number of requests this instance sends at the same time
+     * @throws OdooAuthorizationException when authorization failed
+     */
+    public SynchronizedOdooRpc(@Nonnull String baseUrl, @Nonnull String database, @Nonnull String user, @Nonnull String apiKey, @Nonnull OdooTransport transport, int maxConcurrentRequests) throws OdooAuthorizationException {
+        super(baseUrl, database, user, apiKey, checkMaxConcurrentRequests(transport, maxConcurrentRequests));
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.permits = new AsyncSemaphore(maxConcurrentRequests, command -> getExecutor().execute(command));
+    }
+
+    /**
+     * Execute xml rpc once a permit is available
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return The result of the execution
+     * @throws MalformedURLException when the url is malformed
+     * @throws XmlRpcException       when the xml rpc execution failed or the thread was interrupted while waiting
      */
     @Nullable
     @Override
     protected Object execute(String url, String method, Object[] params) throws MalformedURLException, XmlRpcException {
-        synchronized (lock) {
+        // login() runs inside the super constructor, before permits is assigned
+        if (permits == null) {
             return super.execute(url, method, params);
         }
+
+        final Runnable release = acquire(method);
+        try {
+            return super.execute(url, method, params);
+        } finally {
+            release.run();
+        }
+    }
+
+    /**
+     * Execute streaming xml rpc once a permit is available
+     * <p>
+     * The permit is held until the reader is closed, the way the transport holds its connection, so the response is
+     * parsed while it is received. Calls the consumer makes on this instance from the same thread share the permit,
+     * though each still needs an http connection of its own, see {@link ConnectionSettings#getMaxConnectionsPerRoute()}.
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return The response reader, holding the permit until it is closed
+     * @throws XmlRpcException when the request failed or the response is a fault, or the thread was interrupted while waiting
+     */
+    @Nonnull
+    @Override
+    protected ResponseReader executeStreaming(String url, String method, Object[] params) throws XmlRpcException {
+        if (permits == null) {
+            return super.executeStreaming(url, method, params);
+        }
+
+        final Runnable release = acquire(method);
+        try {
+            return super.executeStreaming(url, method, params).onClose(release);
+        } catch (XmlRpcException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /**
+     * Execute a multicall once a permit is available, the whole multicall is a single request
+     *
+     * @param url    The url
+     * @param method The method of every call
+     * @param calls  The parameters of each call
+     * @return the result of each call
+     * @throws MalformedURLException when the url is malformed
+     * @throws XmlRpcException       when the request failed or the thread was interrupted while waiting
+     */
+    @Nonnull
+    @Override
+    protected List<Object> executeMulticall(String url, String method, List<Object[]> calls) throws MalformedURLException, XmlRpcException {
+        if (permits == null) {
+            return super.executeMulticall(url, method, calls);
+        }
+
+        final Runnable release = acquire(method);
+        try {
+            return super.executeMulticall(url, method, calls);
+        } finally {
+            release.run();
+        }
+    }
+
+    /**
+     * Execute async xml rpc once a permit is available, waiting for it without blocking the calling thread.
+     * The permit is released when the future completes. It is never shared with a permit the calling thread holds,
+     * so do not wait for the future while holding one.
+     *
+     * @param url    The url
+     * @param method The method
+     * @param params The parameters
+     * @return future of the result
+     */
+    @Nonnull
+    @Override
+    protected CompletableFuture<Object> executeAsync(String url, String method, Object[] params) {
+        if (permits == null) {
+            return super.executeAsync(url, method, params);
+        }
+
+        return permits.acquireAsync()
+                .thenCompose(v -> {
+                    try {
+                        return super.executeAsync(url, method, params);
+                    } catch (RuntimeException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                })
+                .whenComplete((result, error) -> permits.release());
+    }
+
+    /**
+     * Get the maximum number of concurrent in-flight requests
+     *
+     * @return maximum concurrent requests
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Acquire a permit for the calling thread, or share the one it already holds
+     *
+     * @param method The method, for error messages
+     * @return action giving the permit back, which runs once however often it is called, from any thread
+     * @throws XmlRpcException when the thread was interrupted while waiting
+     */
+    private Runnable acquire(String method) throws XmlRpcException {
+        final Hold hold = holds.get();
+        if (!hold.reenter()) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new XmlRpcException("Interrupted while waiting to execute [" + method + "]", e);
+            }
+            hold.enter();
+        }
+
+        final AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true) && hold.exit()) {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * Validate before anything is opened, so an invalid value never costs a login
+     */
+    private static OdooTransport newTransport(ConnectionSettings connectionSettings, int maxConcurrentRequests) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+        }
+        return new JavaHttpTransport(connectionSettings, HttpClient.Version.HTTP_1_1);
+    }
+
+    /**
+     * Validate before the super constructor logs in, closing the transport handed over the way a failed login does
+     */
+    private static OdooTransport checkMaxConcurrentRequests(OdooTransport transport, int maxConcurrentRequests) {
+        if (maxConcurrentRequests <= 0) {
+            transport.close();
+            throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+        }
+        return transport;
+    }
+
+    /**
+     * Number of calls sharing the permit of a thread, counted down wherever their reader is closed
+     */
+    private final static class Hold {
+        private int count;
+
+        synchronized boolean reenter() {
+            if (count == 0) {
+                return false;
+            }
+            count++;
+            return true;
+        }
+
+        synchronized void enter() {
+            count++;
+        }
+
+        synchronized boolean exit() {
+            return --count == 0;
+        }
     }
 }
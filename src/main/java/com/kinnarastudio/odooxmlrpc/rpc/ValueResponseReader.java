@@ -0,0 +1,48 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import javax.annotation.Nullable;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link ResponseReader} of a response value already read into memory
+ * <p>
+ * Used when the response cannot be streamed, for example because it must be read before a permit is released.
+ */
+final class ValueResponseReader extends ResponseReader {
+    private final Object[] elements;
+    private final boolean array;
+    private int position;
+
+    /**
+     * ValueResponseReader constructor
+     *
+     * @param value The response value, an <code>Object[]</code> for an array response
+     */
+    ValueResponseReader(@Nullable Object value) {
+        super(InputStream.nullInputStream(), null);
+        this.array = value instanceof Object[];
+        this.elements = array ? (Object[]) value : new Object[]{value};
+    }
+
+    @Override
+    public boolean isArray() {
+        return array;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !isClosed() && position < elements.length;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final Object element = elements[position];
+        elements[position++] = null;
+        return element;
+    }
+}
@@ -0,0 +1,177 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Transport over the Apache XML-RPC client and {@link java.net.HttpURLConnection}
+ * <p>
+ * Fallback for servers or proxies the JDK {@link java.net.http.HttpClient} of {@link JavaHttpTransport} does not get along
+ * with. One client is created per endpoint by {@link XmlRpcUtil#createClient(URL, ConnectionSettings)} and reused,
+ * keep-alive connections are cached by the JDK. Responses are parsed as a whole, so
+ * {@link #executeStreaming(String, String, Object[])} returns a reader of a value already in memory, and
+ * {@link #executeAsync(String, String, Object[])} holds a thread of its executor while waiting for the response.
+ * Requests are never compressed and {@link #getCompressionStats()} stays empty. With extensions enabled the Apache
+ * client would write an <code>int[]</code> as a Java serialized <code>ex:serializable</code> odoo cannot parse, so
+ * <code>int[]</code> parameters are sent as arrays of {@link Integer}.
+ */
+public class XmlRpcClientTransport implements OdooTransport {
+    private final ConnectionSettings connectionSettings;
+    private final CompressionStats compressionStats = new CompressionStats();
+    private final ConcurrentMap<String, XmlRpcClient> clients = new ConcurrentHashMap<>();
+    private final Object executorLock = new Object();
+    private volatile ExecutorService executor;
+
+    /**
+     * XmlRpcClientTransport constructor
+     *
+     * @param connectionSettings The connection settings
+     */
+    public XmlRpcClientTransport(@Nonnull ConnectionSettings connectionSettings) {
+        this.connectionSettings = connectionSettings;
+    }
+
+    @Nonnull
+    @Override
+    public ConnectionSettings getConnectionSettings() {
+        return connectionSettings;
+    }
+
+    @Nonnull
+    @Override
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    @Nullable
+    @Override
+    public Object execute(@Nonnull String url, @Nonnull String method, Object[] params) throws MalformedURLException, XmlRpcException {
+        return XmlRpcUtil.execute(getClient(url), method, params == null ? null : (Object[]) toXmlRpcValue(params));
+    }
+
+    @Nonnull
+    @Override
+    public ResponseReader executeStreaming(@Nonnull String url, @Nonnull String method, Object[] params) throws XmlRpcException {
+        try {
+            return new ValueResponseReader(execute(url, method, params));
+        } catch (MalformedURLException e) {
+            throw new XmlRpcException("Invalid url [" + url + "]", e);
+        }
+    }
+
+    /**
+     * Execute xml rpc on a background thread, the Apache client has no non-blocking api
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Object> executeAsync(@Nonnull String url, @Nonnull String method, Object[] params) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(execute(url, method, params));
+                } catch (MalformedURLException e) {
+                    future.completeExceptionally(new XmlRpcException("Invalid url [" + url + "]", e));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Stop the executor of async calls and drop the clients
+     */
+    @Override
+    public void close() {
+        synchronized (executorLock) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        clients.clear();
+    }
+
+    /**
+     * Replace <code>int[]</code> by <code>Object[]</code> of {@link Integer}, within arrays, collections and maps.
+     * Containers without any <code>int[]</code> are returned as they are.
+     */
+    static Object toXmlRpcValue(Object value) {
+        if (value instanceof int[]) {
+            final int[] ids = (int[]) value;
+            final Object[] result = new Object[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                result[i] = ids[i];
+            }
+            return result;
+        } else if (value instanceof Object[]) {
+            final Object[] array = (Object[]) value;
+            Object[] result = array;
+            for (int i = 0; i < array.length; i++) {
+                final Object element = toXmlRpcValue(array[i]);
+                if (element != array[i]) {
+                    if (result == array) {
+                        result = array.clone();
+                    }
+                    result[i] = element;
+                }
+            }
+            return result;
+        } else if (value instanceof Collection) {
+            final Collection<?> collection = (Collection<?>) value;
+            final Object[] array = collection.toArray();
+            final Object[] result = (Object[]) toXmlRpcValue(array);
+            return result == array ? collection : Arrays.asList(result);
+        } else if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            Map<Object, Object> result = null;
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                final Object element = toXmlRpcValue(e.getValue());
+                if (element != e.getValue()) {
+                    if (result == null) {
+                        result = new LinkedHashMap<>(map);
+                    }
+                    result.put(e.getKey(), element);
+                }
+            }
+            return result == null ? map : result;
+        }
+        return value;
+    }
+
+    private XmlRpcClient getClient(String url) throws MalformedURLException {
+        final XmlRpcClient client = clients.get(url);
+        if (client != null) {
+            return client;
+        }
+
+        final URL endpoint = new URL(url);
+        return clients.computeIfAbsent(url, u -> XmlRpcUtil.createClient(endpoint, connectionSettings));
+    }
+
+    private ExecutorService getExecutor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (executorLock) {
+                result = executor;
+                if (result == null) {
+                    executor = result = AsyncOdooRpc.newDefaultExecutor();
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,308 @@
+package com.kinnarastudio.odooxmlrpc.rpc;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.exception.UncheckedOdooCallMethodException;
+import org.apache.xmlrpc.XmlRpcException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.*;
+
+/**
+ * Pull parser of an XML-RPC <code>methodResponse</code>
+ * <p>
+ * Values are converted like Apache XML-RPC does: <code>struct</code> to {@link Map}, <code>array</code> to <code>Object[]</code>,
+ * <code>int</code> to {@link Integer}, <code>i8</code> to {@link Long}, <code>double</code> to {@link Double},
+ * <code>dateTime.iso8601</code> to {@link Date} in UTC, <code>base64</code> to <code>byte[]</code> and <code>nil</code> to null.
+ */
+public class XmlRpcResponseReader extends ResponseReader {
+    private final static XMLInputFactory FACTORY = newFactory();
+
+    private final XMLStreamReader reader;
+    private final boolean array;
+    private final Object single;
+    private boolean ready;
+    private boolean consumed;
+
+    /**
+     * Start reading a response, up to its first value
+     *
+     * @param in      The response body, closed by {@link #close()}
+     * @param onClose Called once when the reader is closed, for example to release the http connection
+     * @throws XmlRpcException when the response is a fault or is not a valid XML-RPC response
+     */
+    public XmlRpcResponseReader(@Nonnull InputStream in, @Nullable Runnable onClose) throws XmlRpcException {
+        super(in, onClose);
+
+        try {
+            this.reader = FACTORY.createXMLStreamReader(in);
+
+            nextElement();
+            expect("methodResponse");
+            nextElement();
+            if ("fault".equals(reader.getLocalName())) {
+                throw fault();
+            }
+
+            expect("params");
+            nextElement();
+            expect("param");
+            nextElement();
+            expect("value");
+
+            final StringBuilder text = new StringBuilder();
+            int event;
+            while ((event = reader.next()) != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+                if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    text.append(reader.getText());
+                }
+            }
+
+            if (event == XMLStreamConstants.START_ELEMENT && "array".equals(reader.getLocalName())) {
+                nextElement();
+                expect("data");
+                this.array = true;
+                this.single = null;
+            } else {
+                // a single value is small, read it right away
+                this.array = false;
+                this.single = event == XMLStreamConstants.START_ELEMENT ? readTyped(reader.getLocalName()) : text.toString();
+            }
+        } catch (XMLStreamException e) {
+            close();
+            throw new XmlRpcException("Invalid XML-RPC response", e);
+        } catch (XmlRpcException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isArray() {
+        return array;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (isClosed() || consumed) {
+            return false;
+        }
+
+        if (!array || ready) {
+            return true;
+        }
+
+        try {
+            if (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                expect("value");
+                ready = true;
+                return true;
+            }
+
+            // </data>
+            consumed = true;
+            close();
+            return false;
+        } catch (XMLStreamException | XmlRpcException e) {
+            close();
+            throw new UncheckedOdooCallMethodException(new OdooCallMethodException(e));
+        }
+    }
+
+    /**
+     * Parse the next element
+     *
+     * @return the element, may be null for <code>nil</code>
+     */
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        if (!array) {
+            consumed = true;
+            close();
+            return single;
+        }
+
+        try {
+            ready = false;
+            return readInnerValue();
+        } catch (XMLStreamException | XmlRpcException e) {
+            close();
+            throw new UncheckedOdooCallMethodException(new OdooCallMethodException(e));
+        }
+    }
+
+    /**
+     * Parse the next <code>int</code> element straight from the text of the element
+     */
+    @Override
+    protected int nextInt() throws XmlRpcException {
+        if (!array) {
+            return super.nextInt();
+        }
+
+        try {
+            ready = false;
+            if (reader.nextTag() != XMLStreamConstants.START_ELEMENT) {
+                throw new XmlRpcException("Expected an integer in XML-RPC response but found an empty value");
+            }
+
+            final String type = reader.getLocalName();
+            if (!"int".equals(type) && !"i4".equals(type)) {
+                throw new XmlRpcException("Expected an integer in XML-RPC response but found <" + type + ">");
+            }
+
+            final String text = reader.getElementText();
+            try {
+                final int value = Integer.parseInt(text.trim());
+                reader.nextTag();
+                return value;
+            } catch (NumberFormatException e) {
+                throw new XmlRpcException("Invalid XML-RPC " + type + " value [" + text + "]", e);
+            }
+        } catch (XMLStreamException e) {
+            throw new XmlRpcException("Invalid XML-RPC response", e);
+        }
+    }
+
+    @Override
+    protected void release() {
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+        } catch (XMLStreamException ignored) {
+            // ignore
+        }
+    }
+
+    /**
+     * Read the content of the current <code>value</code> element, leaving the reader on its end tag
+     */
+    private Object readInnerValue() throws XMLStreamException, XmlRpcException {
+        // text directly inside <value> is a string
+        final StringBuilder text = new StringBuilder();
+        while (true) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                final Object value = readTyped(reader.getLocalName());
+                reader.nextTag();
+                return value;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return text.toString();
+            }
+        }
+    }
+
+    private Object readTyped(String type) throws XMLStreamException, XmlRpcException {
+        switch (type) {
+            case "struct": {
+                final Map<String, Object> struct = new HashMap<>();
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    expect("member");
+                    String name = null;
+                    Object value = null;
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if ("name".equals(reader.getLocalName())) {
+                            name = reader.getElementText();
+                        } else {
+                            expect("value");
+                            value = readInnerValue();
+                        }
+                    }
+                    struct.put(name, value);
+                }
+                return struct;
+            }
+            case "array": {
+                final List<Object> list = new ArrayList<>();
+                nextElement();
+                expect("data");
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    expect("value");
+                    list.add(readInnerValue());
+                }
+                reader.nextTag();
+                return list.toArray();
+            }
+            case "nil":
+                reader.nextTag();
+                return null;
+            default:
+                return parseScalar(type, reader.getElementText());
+        }
+    }
+
+    private static Object parseScalar(String type, String text) throws XmlRpcException {
+        try {
+            switch (type) {
+                case "int":
+                case "i4":
+                    return Integer.valueOf(text.trim());
+                case "i8":
+                    return Long.valueOf(text.trim());
+                case "boolean":
+                    return "1".equals(text.trim());
+                case "double":
+                    return Double.valueOf(text.trim());
+                case "dateTime.iso8601":
+                    return XmlRpcUtil.dateFormat("yyyyMMdd'T'HH:mm:ss").parse(text.trim());
+                case "base64":
+                    return Base64.getMimeDecoder().decode(text.trim());
+                case "string":
+                    return text;
+                default:
+                    throw new XmlRpcException("Unknown XML-RPC type [" + type + "]");
+            }
+        } catch (NumberFormatException | ParseException e) {
+            throw new XmlRpcException("Invalid XML-RPC " + type + " value [" + text + "]", e);
+        }
+    }
+
+    private XmlRpcException fault() throws XMLStreamException, XmlRpcException {
+        nextElement();
+        expect("value");
+        final Object value = readInnerValue();
+        if (!(value instanceof Map)) {
+            return new XmlRpcException("Invalid XML-RPC fault");
+        }
+
+        final Map<?, ?> fault = (Map<?, ?>) value;
+        final Object code = fault.get("faultCode");
+        return new XmlRpcException(code instanceof Integer ? (Integer) code : 0, String.valueOf(fault.get("faultString")));
+    }
+
+    private void nextElement() throws XMLStreamException, XmlRpcException {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                return;
+            }
+        }
+        throw new XmlRpcException("Unexpected end of XML-RPC response");
+    }
+
+    private void expect(String name) throws XmlRpcException {
+        if (reader.getEventType() != XMLStreamConstants.START_ELEMENT || !name.equals(reader.getLocalName())) {
+            throw new XmlRpcException("Expected <" + name + "> in XML-RPC response");
+        }
+    }
+
+    private static XMLInputFactory newFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -1,5 +1,6 @@
 package com.kinnarastudio.odooxmlrpc.rpc;
 
+import com.kinnarastudio.odooxmlrpc.model.Domain;
 import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.XmlRpcClient;
@@ -9,94 +10,217 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Stack;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
 
 public final class XmlRpcUtil {
+    public final static String CONTENT_TYPE = "text/xml; charset=UTF-8";
+
+    /**
+     * Time zone of dates sent and received, odoo stores and expects datetimes in UTC
+     */
+    public final static TimeZone TIME_ZONE = TimeZone.getTimeZone("UTC");
+
+    /**
+     * Fault code odoo answers <b>AccessDenied</b> with on <code>/xmlrpc/2</code>
+     */
+    public final static int FAULT_ACCESS_DENIED = 3;
+
+    /**
+     * Fault code odoo answers <b>AccessError</b> with on <code>/xmlrpc/2</code>, such as a model the user cannot read
+     */
+    public final static int FAULT_ACCESS_ERROR = 4;
+
     private XmlRpcUtil() {}
 
     @Nullable
     public static Object execute(String url, String method, Object[] params) throws MalformedURLException, XmlRpcException {
         XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
         config.setServerURL(new URL(url));
+        config.setTimeZone(TIME_ZONE);
         XmlRpcClient client = new XmlRpcClient();
         client.setConfig(config);
         Object ret = client.execute(method, params);
         return ret;
     }
 
+    /**
+     * Execute xml rpc using an already configured client
+     *
+     * @param client The client, see {@link #createClient(URL, ConnectionSettings)}
+     * @param method The method
+     * @param params The parameters
+     * @return The result of the execution
+     * @throws XmlRpcException when the xml rpc execution failed
+     */
+    @Nullable
+    public static Object execute(@Nonnull XmlRpcClient client, String method, Object[] params) throws XmlRpcException {
+        return client.execute(method, params);
+    }
+
+    /**
+     * Create a long-lived xml rpc client for a single endpoint.
+     * The client is configured once and may be shared across threads, it connects through {@link java.net.HttpURLConnection}
+     * whose keep-alive connections are cached by the JDK. Extensions are enabled, so <code>nil</code> and <code>i8</code>
+     * values are accepted, gzip responses are requested as configured in the settings and dates are in {@link #TIME_ZONE}.
+     *
+     * @param url      The endpoint url
+     * @param settings The connection settings
+     * @return The xml rpc client
+     */
     @Nonnull
-    public static Object[] prefixation(SearchFilter[] filters) {
-        if (filters == null || filters.length == 0) {
-            return new Object[0];
+    public static XmlRpcClient createClient(@Nonnull URL url, @Nonnull ConnectionSettings settings) {
+        final XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+        config.setServerURL(url);
+        config.setConnectionTimeout(settings.getConnectTimeout());
+        config.setReplyTimeout(settings.getReadTimeout());
+        config.setEnabledForExtensions(true);
+        config.setGzipRequesting(settings.isResponseCompression());
+        config.setTimeZone(TIME_ZONE);
+
+        final XmlRpcClient client = new XmlRpcClient();
+        client.setConfig(config);
+        return client;
+    }
+
+    /**
+     * Serialize an XML-RPC <code>methodCall</code>, the same way Apache XML-RPC does with extensions enabled
+     *
+     * @param method The method
+     * @param params The parameters
+     * @return the UTF-8 encoded request body
+     */
+    @Nonnull
+    public static byte[] serializeRequest(@Nonnull String method, Object[] params) {
+        final StringBuilder xml = new StringBuilder(256)
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><methodCall><methodName>");
+        escape(xml, method).append("</methodName><params>");
+        if (params != null) {
+            for (Object param : params) {
+                xml.append("<param>");
+                serializeValue(xml, param);
+                xml.append("</param>");
+            }
         }
+        return xml.append("</params></methodCall>").toString().getBytes(StandardCharsets.UTF_8);
+    }
 
-        List<Object> result = new ArrayList<>();
+    /**
+     * Date format in {@link #TIME_ZONE}, shared by the readers and writers of both protocols so that a date means the
+     * same time on either
+     */
+    static SimpleDateFormat dateFormat(String pattern) {
+        final SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(TIME_ZONE);
+        return format;
+    }
 
-        for (SearchFilter filter : filters) {
-            if (result.isEmpty()) {
-                result.add(new SearchFilter.Operand(filter));
-            } else {
-                SearchFilter.Join operator = filter.getJoin();
-                result.add(0, operator);
-                result.add(new SearchFilter.Operand(filter));
+    private static void serializeValue(StringBuilder xml, Object value) {
+        xml.append("<value>");
+        if (value == null) {
+            xml.append("<nil/>");
+        } else if (value instanceof Boolean) {
+            xml.append("<boolean>").append((Boolean) value ? '1' : '0').append("</boolean>");
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            xml.append("<int>").append(value).append("</int>");
+        } else if (value instanceof Long) {
+            xml.append("<i8>").append(value).append("</i8>");
+        } else if (value instanceof Number) {
+            xml.append("<double>").append(((Number) value).doubleValue()).append("</double>");
+        } else if (value instanceof Date) {
+            xml.append("<dateTime.iso8601>").append(dateFormat("yyyyMMdd'T'HH:mm:ss").format((Date) value)).append("</dateTime.iso8601>");
+        } else if (value instanceof byte[]) {
+            xml.append("<base64>").append(Base64.getEncoder().encodeToString((byte[]) value)).append("</base64>");
+        } else if (value instanceof int[]) {
+            xml.append("<array><data>");
+            for (int i : (int[]) value) {
+                xml.append("<value><int>").append(i).append("</int></value>");
+            }
+            xml.append("</data></array>");
+        } else if (value instanceof Object[] || value instanceof Collection) {
+            xml.append("<array><data>");
+            for (Object o : value instanceof Collection ? ((Collection<?>) value).toArray() : (Object[]) value) {
+                serializeValue(xml, o);
+            }
+            xml.append("</data></array>");
+        } else if (value instanceof Map) {
+            xml.append("<struct>");
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                xml.append("<member><name>");
+                escape(xml, String.valueOf(e.getKey())).append("</name>");
+                serializeValue(xml, e.getValue());
+                xml.append("</member>");
             }
+            xml.append("</struct>");
+        } else {
+            xml.append("<string>");
+            escape(xml, value.toString()).append("</string>");
         }
+        xml.append("</value>");
+    }
 
-        return result.stream()
-                .map(o -> {
-                    if (o instanceof SearchFilter.Operand) {
-                        return ((SearchFilter.Operand) o).toObjects();
-                    } else if (o instanceof SearchFilter.Join) {
-                        return o.toString();
-                    } else {
-                        return o;
-                    }
-                }).toArray();
+    private static StringBuilder escape(StringBuilder xml, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    xml.append("&lt;");
+                    break;
+                case '>':
+                    xml.append("&gt;");
+                    break;
+                case '&':
+                    xml.append("&amp;");
+                    break;
+                case '\r':
+                    xml.append("&#13;");
+                    break;
+                default:
+                    xml.append(c);
+            }
+        }
+        return xml;
     }
 
+    /**
+     * Compile filters into an odoo domain in prefix notation
+     * <p>
+     * Joins are left associative, <code>a, OR b, AND c</code> is <code>(a OR b) AND c</code>, which is
+     * <code>["&amp;", "|", a, b, c]</code>: the joins in reverse order followed by the leaves. The domain is written
+     * in a single pass into an array of its final size, the leaves are the cached {@link SearchFilter#toLeaf()}.
+     *
+     * @param filters An array of {@link SearchFilter}
+     * @return the domain, empty for no filter
+     */
     @Nonnull
-    public static Object[] mathematicPrefixation(SearchFilter[] filters) {
+    public static Object[] prefixation(SearchFilter[] filters) {
         if (filters == null || filters.length == 0) {
             return new Object[0];
         }
 
-        Stack<List<Object>> operandStack = new Stack<>();
-        Stack<SearchFilter.Join> operatorStack = new Stack<>();
-
-        for (SearchFilter filter : filters) {
-            if (operandStack.isEmpty()) {
-                operandStack.push(new ArrayList<>() {{
-                    add(new SearchFilter.Operand(filter));
-                }});
-            } else {
-                SearchFilter.Join operator = filter.getJoin();
-                if (operator == SearchFilter.Join.OR) {
-                    operatorStack.push(operator);
-                    operandStack.push(new ArrayList<>() {{
-                        add(new SearchFilter.Operand(filter));
-                    }});
-                } else {
-                    List<Object> pop = operandStack.pop();
-                    pop.add(0, operator);
-                    pop.add(0, new SearchFilter.Operand(filter));
-                    operandStack.push(pop);
-                }
+        final int joins = filters.length - 1;
+        final Object[] result = new Object[joins + filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            final SearchFilter filter = filters[i];
+            if (i > 0) {
+                result[joins - i] = filter.getJoin().toString();
             }
+            result[joins + i] = filter.toLeaf();
         }
+        return result;
+    }
 
-        List<Object> result = new ArrayList<>();
-        while (!operatorStack.isEmpty()) {
-            SearchFilter.Join operator = operatorStack.pop();
-            List<Object> right = operandStack.pop();
-            List<Object> left = operandStack.pop();
-
-            result.add(operator);
-            result.add(left);
-            result.add(right);
-        }
-
-        return result.toArray();
+    /**
+     * Compile filters into an odoo domain in prefix notation where <code>AND</code> binds tighter than <code>OR</code>,
+     * so <code>a, OR b, AND c</code> is <code>a OR (b AND c)</code>
+     *
+     * @param filters An array of {@link SearchFilter}
+     * @return the domain, empty for no filter
+     * @see Domain#ofPrecedence(SearchFilter[])
+     */
+    @Nonnull
+    public static Object[] mathematicPrefixation(SearchFilter[] filters) {
+        return Domain.ofPrecedence(filters).toPrefix();
     }
 }
@@ -0,0 +1,283 @@
+package com.kinnarastudio.odooxmlrpc.sync;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooUtilityException;
+import com.kinnarastudio.odooxmlrpc.model.IntIdSet;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcUtil;
+
+import javax.annotation.Nonnull;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Incremental sync of a model, reading only the records written since the previous run
+ * <p>
+ * Records are read in pages ordered by <code>(write_date, id)</code>, each page starting after the last record of the
+ * previous one. The <code>write_date</code> and <code>id</code> of the last record read is saved in a
+ * {@link WatermarkStore} after every page, and the next run starts from there. A run that fails resumes after the last
+ * page that was consumed. A record written again while the sync runs is handed over again.
+ * <p>
+ * A <code>(write_date, id)</code> position alone misses records: odoo stores <code>write_date</code> to the second, so a
+ * record with a lower id may be written within the second of the watermark after it was saved, and
+ * <code>write_date</code> is the start time of the transaction, so a long transaction commits records dated before the
+ * watermark. Each run therefore reads again the {@link #setOverlap(long) overlap} before the watermark. The
+ * <code>(write_date, id)</code> of the records read within the overlap are saved as well, and a record of the overlap is
+ * skipped only when the previous runs already handed over that very version, a record written again within the overlap
+ * being handed over again.
+ * <pre>{@code
+ * DeltaSync sync = new DeltaSync(rpc, new FileWatermarkStore(Path.of("sync")));
+ * sync.sync("res.partner", fields, null, records -> upsert(records));
+ * for (int id : sync.detectDeletions("res.partner", null)) {
+ *     delete(id);
+ * }
+ * }</pre>
+ */
+public class DeltaSync {
+    public final static int DEFAULT_PAGE_SIZE = 1_000;
+    public final static long DEFAULT_OVERLAP = 300;
+    public final static String WRITE_DATE = "write_date";
+    private final static String ORDER = WRITE_DATE + " asc, id asc";
+    private final static DateTimeFormatter WRITE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final OdooRpc rpc;
+    private final WatermarkStore store;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private long overlap = DEFAULT_OVERLAP;
+
+    /**
+     * DeltaSync constructor
+     *
+     * @param rpc   The odoo rpc
+     * @param store The store of the watermarks
+     */
+    public DeltaSync(@Nonnull OdooRpc rpc, @Nonnull WatermarkStore store) {
+        this.rpc = rpc;
+        this.store = store;
+    }
+
+    public WatermarkStore getStore() {
+        return store;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Set the number of records read per call
+     *
+     * @param pageSize The page size
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.pageSize = pageSize;
+    }
+
+    public long getOverlap() {
+        return overlap;
+    }
+
+    /**
+     * Set how far before the watermark each run reads again, to pick up records committed late or written within the
+     * second of the watermark. It should exceed the longest transaction writing the model.
+     *
+     * @param overlap The overlap in seconds, 0 to only read after the watermark
+     */
+    public void setOverlap(long overlap) {
+        if (overlap < 0) {
+            throw new IllegalArgumentException("overlap must not be negative");
+        }
+        this.overlap = overlap;
+    }
+
+    /**
+     * Sync using the model as the key of the watermark
+     *
+     * @see #sync(String, String, String[], SearchFilter[], Consumer)
+     */
+    @Nonnull
+    public SyncResult sync(@Nonnull String model, String[] fields, SearchFilter[] filters, @Nonnull Consumer<Map<String, Object>[]> consumer) throws OdooCallMethodException, OdooUtilityException {
+        return sync(model, model, fields, filters, consumer);
+    }
+
+    /**
+     * Sync
+     * <p>
+     * Read the records matching the filters written since the watermark of the key, and hand them to the consumer page by page.
+     * Records of the overlap handed over by a previous run with the same <code>write_date</code> are left out, a page left
+     * empty is not handed over.
+     * The watermark is only saved once the consumer returned, a consumer that throws stops the sync.
+     *
+     * @param key      The watermark key, to sync a model several times with different filters
+     * @param model    The odoo model
+     * @param fields   an array of field, the default {@link com.kinnarastudio.odooxmlrpc.model.FieldSet} of the rpc when null or empty.
+     *                 <code>id</code> and <code>write_date</code> are always read.
+     * @param filters  An array of {@link SearchFilter}, null to sync every record
+     * @param consumer The consumer of each page
+     * @return the result of the run
+     * @throws OdooCallMethodException when reading failed
+     * @throws OdooUtilityException    when the watermark cannot be loaded or saved
+     */
+    @Nonnull
+    public SyncResult sync(@Nonnull String key, @Nonnull String model, String[] fields, SearchFilter[] filters, @Nonnull Consumer<Map<String, Object>[]> consumer) throws OdooCallMethodException, OdooUtilityException {
+        final long start = System.currentTimeMillis();
+        final String[] projection = withKeyFields(fields == null || fields.length == 0 ? rpc.resolveFields(model, rpc.getDefaultFieldSet()) : fields);
+        final Object[] domain = XmlRpcUtil.prefixation(filters);
+        final Watermark previous = store.loadWatermark(key).orElse(null);
+        final Set<Watermark> handed = previous == null || overlap == 0
+                ? Collections.emptySet()
+                : new HashSet<>(Arrays.asList(store.loadOverlap(key).orElseGet(() -> new Watermark[0])));
+
+        // positions read within the overlap before the position, in (write_date, id) order
+        final Deque<Watermark> window = new ArrayDeque<>();
+        Watermark watermark = previous;
+        long records = 0;
+        int pages = 0;
+        boolean first = true;
+        while (true) {
+            final Object[] pageDomain = first && previous != null && overlap > 0
+                    ? since(overlapStart(previous), domain)
+                    : after(watermark, domain);
+            first = false;
+            final Map<String, Object>[] page = rpc.searchReadDomain(model, projection, pageDomain, ORDER, null, pageSize);
+            if (page.length == 0) {
+                break;
+            }
+
+            final List<Map<String, Object>> fresh = new ArrayList<>(page.length);
+            for (Map<String, Object> record : page) {
+                final Watermark position = watermarkOf(model, record);
+                if (previous == null || position.compareTo(previous) > 0 || !handed.contains(position)) {
+                    fresh.add(record);
+                }
+                watermark = position;
+                if (overlap > 0) {
+                    window.addLast(position);
+                }
+            }
+
+            if (!fresh.isEmpty()) {
+                consumer.accept(fresh.toArray(new Map[0]));
+                records += fresh.size();
+                pages++;
+            }
+
+            if (overlap > 0) {
+                final String windowStart = overlapStart(watermark);
+                while (window.getFirst().getWriteDate().compareTo(windowStart) < 0) {
+                    window.removeFirst();
+                }
+                store.saveOverlap(key, window.toArray(new Watermark[0]));
+            }
+            store.saveWatermark(key, watermark);
+
+            if (page.length < pageSize) {
+                break;
+            }
+        }
+
+        return new SyncResult(previous, watermark, records, pages, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Detect deletions
+     * <p>
+     * Compare the ids currently matching the filters with the ids of the previous check of the model.
+     * Records which are archived or no longer match the filters are reported as well.
+     *
+     * @param model   The odoo model, also the key of the stored ids
+     * @param filters An array of {@link SearchFilter}, null for every record
+     * @return the sorted ids which disappeared since the previous check, empty on the first check
+     * @throws OdooCallMethodException when searching failed
+     * @throws OdooUtilityException    when the ids cannot be loaded or saved
+     */
+    @Nonnull
+    public int[] detectDeletions(@Nonnull String model, SearchFilter[] filters) throws OdooCallMethodException, OdooUtilityException {
+        final IntIdSet current = IntIdSet.of(rpc.search(model, filters, "id", null, null));
+        final int[] deleted = store.loadIds(model)
+                .map(previous -> IntIdSet.ofSorted(previous).minus(current).toArray())
+                .orElseGet(() -> new int[0]);
+        store.saveIds(model, current.toArray());
+        return deleted;
+    }
+
+    /**
+     * Domain of the records after the watermark
+     *
+     * @param watermark The watermark, null for every record
+     * @param domain    The domain of the filters in prefix notation
+     * @return the domain
+     */
+    @Nonnull
+    protected Object[] after(Watermark watermark, @Nonnull Object[] domain) {
+        if (watermark == null) {
+            return domain;
+        }
+
+        final List<Object> result = new ArrayList<>(domain.length + 6);
+        if (domain.length > 0) {
+            result.add("&");
+        }
+        result.add("|");
+        result.add(new Object[]{WRITE_DATE, ">", watermark.getWriteDate()});
+        result.add("&");
+        result.add(new Object[]{WRITE_DATE, "=", watermark.getWriteDate()});
+        result.add(new Object[]{"id", ">", watermark.getId()});
+        result.addAll(Arrays.asList(domain));
+        return result.toArray();
+    }
+
+    /**
+     * Domain of the records written since a date
+     *
+     * @param writeDate The date, <code>yyyy-MM-dd HH:mm:ss</code> in UTC
+     * @param domain    The domain of the filters in prefix notation
+     * @return the domain
+     */
+    @Nonnull
+    protected Object[] since(@Nonnull String writeDate, @Nonnull Object[] domain) {
+        final List<Object> result = new ArrayList<>(domain.length + 2);
+        if (domain.length > 0) {
+            result.add("&");
+        }
+        result.add(new Object[]{WRITE_DATE, ">=", writeDate});
+        result.addAll(Arrays.asList(domain));
+        return result.toArray();
+    }
+
+    private String overlapStart(Watermark watermark) throws OdooUtilityException {
+        try {
+            return LocalDateTime.parse(watermark.getWriteDate(), WRITE_DATE_FORMAT).minusSeconds(overlap).format(WRITE_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new OdooUtilityException("Invalid watermark [" + WRITE_DATE + "] [" + watermark.getWriteDate() + "]");
+        }
+    }
+
+    private static String[] withKeyFields(String[] fields) {
+        if (fields == null) {
+            return null;
+        }
+
+        final Set<String> projection = new LinkedHashSet<>(Arrays.asList(fields));
+        projection.add("id");
+        projection.add(WRITE_DATE);
+        return projection.toArray(new String[0]);
+    }
+
+    @Nonnull
+    private static Watermark watermarkOf(String model, Map<String, Object> record) throws OdooCallMethodException {
+        final Object writeDate = record.get(WRITE_DATE);
+        final Object id = record.get("id");
+        if (writeDate == null || !(id instanceof Number)) {
+            throw new OdooCallMethodException("Model [" + model + "] returned a record without [" + WRITE_DATE + "] or [id]");
+        }
+        return new Watermark(writeDate.toString(), ((Number) id).intValue());
+    }
+}
@@ -0,0 +1,236 @@
+package com.kinnarastudio.odooxmlrpc.sync;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooUtilityException;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link WatermarkStore} keeping its state in a local directory
+ * <p>
+ * Watermarks are kept in <code>watermarks.properties</code>. The ids of a deletion check are kept in
+ * <code>&lt;key&gt;.ids.gz</code>, a gzip compressed list of the gaps between the sorted ids written as variable length
+ * integers, which is about a byte per id for dense ids. The positions handed over within the overlap of a sync are kept
+ * in <code>&lt;key&gt;.overlap.gz</code>. Every file is replaced atomically.
+ */
+public class FileWatermarkStore implements WatermarkStore {
+    private final static String WATERMARKS_FILE = "watermarks.properties";
+    private final static String IDS_SUFFIX = ".ids.gz";
+    private final static String OVERLAP_SUFFIX = ".overlap.gz";
+    private final static int IDS_MAGIC = 0x4F444944;
+    private final static int OVERLAP_MAGIC = 0x4F444F56;
+
+    private final Path directory;
+
+    /**
+     * FileWatermarkStore constructor
+     *
+     * @param directory The directory, created on the first save
+     */
+    public FileWatermarkStore(@Nonnull Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Optional<Watermark> loadWatermark(@Nonnull String key) throws OdooUtilityException {
+        final Properties properties = readWatermarks();
+        final String writeDate = properties.getProperty(key + ".write_date");
+        final String id = properties.getProperty(key + ".id");
+        if (writeDate == null || id == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new Watermark(writeDate, Integer.parseInt(id)));
+        } catch (NumberFormatException e) {
+            throw new OdooUtilityException("Invalid watermark id [" + id + "] of [" + key + "]");
+        }
+    }
+
+    @Override
+    public synchronized void saveWatermark(@Nonnull String key, @Nonnull Watermark watermark) throws OdooUtilityException {
+        final Properties properties = readWatermarks();
+        properties.setProperty(key + ".write_date", watermark.getWriteDate());
+        properties.setProperty(key + ".id", String.valueOf(watermark.getId()));
+        writeWatermarks(properties);
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Optional<int[]> loadIds(@Nonnull String key) throws OdooUtilityException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(idsFile(key)))))) {
+            if (in.readInt() != IDS_MAGIC) {
+                throw new OdooUtilityException("Unknown id file format of [" + key + "]");
+            }
+
+            final int[] ids = new int[in.readInt()];
+            int previous = 0;
+            for (int i = 0; i < ids.length; i++) {
+                previous += readVarInt(in);
+                ids[i] = previous;
+            }
+            return Optional.of(ids);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new OdooUtilityException(e);
+        }
+    }
+
+    @Override
+    public synchronized void saveIds(@Nonnull String key, @Nonnull int[] ids) throws OdooUtilityException {
+        write(idsFile(key), stream -> {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream)))) {
+                out.writeInt(IDS_MAGIC);
+                out.writeInt(ids.length);
+                int previous = 0;
+                for (int id : ids) {
+                    if (id < previous) {
+                        throw new IllegalArgumentException("ids must be sorted");
+                    }
+                    writeVarInt(out, id - previous);
+                    previous = id;
+                }
+            }
+        });
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Optional<Watermark[]> loadOverlap(@Nonnull String key) throws OdooUtilityException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(overlapFile(key)))))) {
+            if (in.readInt() != OVERLAP_MAGIC) {
+                throw new OdooUtilityException("Unknown overlap file format of [" + key + "]");
+            }
+
+            final Watermark[] positions = new Watermark[in.readInt()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = new Watermark(in.readUTF(), readVarInt(in));
+            }
+            return Optional.of(positions);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new OdooUtilityException(e);
+        }
+    }
+
+    @Override
+    public synchronized void saveOverlap(@Nonnull String key, @Nonnull Watermark[] positions) throws OdooUtilityException {
+        write(overlapFile(key), stream -> {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream)))) {
+                out.writeInt(OVERLAP_MAGIC);
+                out.writeInt(positions.length);
+                for (Watermark position : positions) {
+                    out.writeUTF(position.getWriteDate());
+                    writeVarInt(out, position.getId());
+                }
+            }
+        });
+    }
+
+    @Override
+    public synchronized void reset(@Nonnull String key) throws OdooUtilityException {
+        final Properties properties = readWatermarks();
+        final boolean present = properties.containsKey(key + ".write_date") || properties.containsKey(key + ".id");
+        if (present) {
+            properties.remove(key + ".write_date");
+            properties.remove(key + ".id");
+            writeWatermarks(properties);
+        }
+
+        try {
+            Files.deleteIfExists(idsFile(key));
+            Files.deleteIfExists(overlapFile(key));
+        } catch (IOException e) {
+            throw new OdooUtilityException(e);
+        }
+    }
+
+    private Path idsFile(String key) {
+        return directory.resolve(key.replaceAll("[^A-Za-z0-9._-]", "_") + IDS_SUFFIX);
+    }
+
+    private Path overlapFile(String key) {
+        return directory.resolve(key.replaceAll("[^A-Za-z0-9._-]", "_") + OVERLAP_SUFFIX);
+    }
+
+    private Properties readWatermarks() throws OdooUtilityException {
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(directory.resolve(WATERMARKS_FILE), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            // no sync ran yet
+        } catch (IOException e) {
+            throw new OdooUtilityException(e);
+        }
+        return properties;
+    }
+
+    private void writeWatermarks(Properties properties) throws OdooUtilityException {
+        write(directory.resolve(WATERMARKS_FILE), stream -> {
+            try (Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+                properties.store(writer, "odoo delta sync watermarks");
+            }
+        });
+    }
+
+    private void write(Path file, StreamWriter content) throws OdooUtilityException {
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            content.write(Files.newOutputStream(temp));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new OdooUtilityException(e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed id file");
+    }
+
+    @FunctionalInterface
+    private interface StreamWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,65 @@
+package com.kinnarastudio.odooxmlrpc.sync;
+
+import javax.annotation.Nullable;
+
+/**
+ * Outcome of a {@link DeltaSync} run
+ */
+public final class SyncResult {
+    private final Watermark previous;
+    private final Watermark watermark;
+    private final long records;
+    private final int pages;
+    private final long elapsed;
+
+    public SyncResult(@Nullable Watermark previous, @Nullable Watermark watermark, long records, int pages, long elapsed) {
+        this.previous = previous;
+        this.watermark = watermark;
+        this.records = records;
+        this.pages = pages;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return the watermark the run started from, null on the first run
+     */
+    @Nullable
+    public Watermark getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return the watermark after the run, null when the model has no record yet
+     */
+    @Nullable
+    public Watermark getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return true when the run is the first of its key and so read every record
+     */
+    public boolean isFull() {
+        return previous == null;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    /**
+     * @return the run duration in milliseconds
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncResult[" + records + " records in " + pages + " pages, " + previous + " -> " + watermark + ", " + elapsed + "ms]";
+    }
+}
@@ -0,0 +1,59 @@
+package com.kinnarastudio.odooxmlrpc.sync;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Position of a {@link DeltaSync} in a model, the <code>write_date</code> and <code>id</code> of the last synchronized record
+ */
+public final class Watermark implements Comparable<Watermark> {
+    private final String writeDate;
+    private final int id;
+
+    /**
+     * Constructs a watermark
+     *
+     * @param writeDate The <code>write_date</code> as sent by odoo, <code>yyyy-MM-dd HH:mm:ss</code> in UTC
+     * @param id        The record id
+     */
+    public Watermark(@Nonnull String writeDate, int id) {
+        this.writeDate = writeDate;
+        this.id = id;
+    }
+
+    @Nonnull
+    public String getWriteDate() {
+        return writeDate;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Odoo sends <code>write_date</code> in a fixed width format, so text order is time order
+     */
+    @Override
+    public int compareTo(@Nonnull Watermark other) {
+        final int byDate = writeDate.compareTo(other.writeDate);
+        return byDate != 0 ? byDate : Integer.compare(id, other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Watermark)) return false;
+        final Watermark other = (Watermark) o;
+        return id == other.id && writeDate.equals(other.writeDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(writeDate, id);
+    }
+
+    @Override
+    public String toString() {
+        return "Watermark[" + writeDate + ", " + id + "]";
+    }
+}
@@ -0,0 +1,80 @@
+package com.kinnarastudio.odooxmlrpc.sync;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooUtilityException;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+
+/**
+ * Storage of the state of a {@link DeltaSync} between runs
+ * <p>
+ * Implementations must be safe to use from several threads.
+ *
+ * @see FileWatermarkStore
+ */
+public interface WatermarkStore {
+    /**
+     * Load the watermark of a sync
+     *
+     * @param key The sync key, usually the model
+     * @return the watermark, empty when the sync never ran
+     * @throws OdooUtilityException when the store cannot be read
+     */
+    @Nonnull
+    Optional<Watermark> loadWatermark(@Nonnull String key) throws OdooUtilityException;
+
+    /**
+     * Save the watermark of a sync
+     *
+     * @param key       The sync key, usually the model
+     * @param watermark The watermark
+     * @throws OdooUtilityException when the store cannot be written
+     */
+    void saveWatermark(@Nonnull String key, @Nonnull Watermark watermark) throws OdooUtilityException;
+
+    /**
+     * Load the ids seen by the last deletion check
+     *
+     * @param key The sync key, usually the model
+     * @return the sorted ids, empty when deletions were never checked
+     * @throws OdooUtilityException when the store cannot be read
+     */
+    @Nonnull
+    Optional<int[]> loadIds(@Nonnull String key) throws OdooUtilityException;
+
+    /**
+     * Save the ids seen by a deletion check
+     *
+     * @param key The sync key, usually the model
+     * @param ids The sorted ids
+     * @throws OdooUtilityException when the store cannot be written
+     */
+    void saveIds(@Nonnull String key, @Nonnull int[] ids) throws OdooUtilityException;
+
+    /**
+     * Load the positions of the records a sync handed over within its overlap
+     *
+     * @param key The sync key, usually the model
+     * @return the <code>(write_date, id)</code> positions in ascending order, empty when none were saved
+     * @throws OdooUtilityException when the store cannot be read
+     */
+    @Nonnull
+    Optional<Watermark[]> loadOverlap(@Nonnull String key) throws OdooUtilityException;
+
+    /**
+     * Save the positions of the records a sync handed over within its overlap
+     *
+     * @param key       The sync key, usually the model
+     * @param positions The <code>(write_date, id)</code> positions in ascending order
+     * @throws OdooUtilityException when the store cannot be written
+     */
+    void saveOverlap(@Nonnull String key, @Nonnull Watermark[] positions) throws OdooUtilityException;
+
+    /**
+     * Forget the state of a sync, so the next run reads every record again
+     *
+     * @param key The sync key, usually the model
+     * @throws OdooUtilityException when the store cannot be written
+     */
+    void reset(@Nonnull String key) throws OdooUtilityException;
+}
@@ -0,0 +1,198 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.*;
+import com.kinnarastudio.odooxmlrpc.service.SearchBuilder;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+/**
+ * {@link OdooBatch} against {@link InMemoryOdooServer}
+ */
+public class BatchTest {
+    private final static String[] FIELDS = {"id", "name", "email", "active", "parent_id"};
+    private final static long LATENCY = 50;
+    private final static int RECORDS = 200;
+
+    @Test
+    public void testPipelined() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, LATENCY);
+             OdooRpc rpc = server.connect(new JavaHttpTransport(ConnectionSettings.getDefault()))) {
+            final OdooBatch batch = rpc.batch();
+            final CompletableFuture<int[]> ids = batch.search("res.partner", null, "id", null, 2);
+            final CompletableFuture<Map<String, Object>[]> records = batch.searchRead("res.partner", FIELDS, null, null, null, null);
+            final CompletableFuture<Map<String, Object>[]> read = batch.read("res.partner", new String[]{"name"}, new int[]{4, 2});
+            assert batch.size() == 3;
+
+            batch.execute();
+
+            // sent together rather than one after the other
+            assert batch.size() == 0;
+            assert server.getRequests() == 3;
+            assert server.getMaxInFlight() == 3;
+
+            assert Arrays.equals(ids.join(), new int[]{1, 2});
+            assert records.join().length == RECORDS;
+            assert records.join()[0].keySet().equals(Set.of(FIELDS));
+            assert records.join()[0].get("parent_id") == null;
+            assert "partner2@example.com".equals(records.join()[1].get("email"));
+
+            final Map<String, Object>[] partners = read.join();
+            assert partners.length == 2;
+            assert partners[0].equals(Map.of("id", 4, "name", "Partner 4"));
+            assert partners[1].equals(Map.of("id", 2, "name", "Partner 2"));
+        }
+    }
+
+    @Test
+    public void testXmlRpcMulticall() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect()) {
+            rpc.setMulticall(true);
+
+            final OdooBatch batch = rpc.batch();
+            final CompletableFuture<int[]> ids = batch.search("res.partner", null, "id", null, 2);
+            final CompletableFuture<Map<String, Object>[]> records = batch.searchRead("res.partner", FIELDS, null, null, null, null);
+            final CompletableFuture<Integer> count = batch.searchCount("res.partner", null);
+            final CompletableFuture<Map<String, Object>[]> missing = batch.read("res.partner", new String[]{"name"}, new int[]{RECORDS + 1});
+            batch.execute();
+
+            assert server.getRequests() == 1 && server.getCalls("search_count") == 1;
+            assert Arrays.equals(ids.join(), new int[]{1, 2});
+            assert records.join().length == RECORDS;
+            assert count.join() == RECORDS;
+            try {
+                missing.join();
+                assert false;
+            } catch (CompletionException e) {
+                assert e.getCause() instanceof OdooCallMethodException;
+                assert e.getCause().getMessage().contains("does not exist");
+            }
+        }
+    }
+
+    @Test
+    public void testJsonRpcBatch() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = new JsonOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)) {
+            rpc.setMulticall(true);
+
+            final OdooBatch batch = rpc.batch();
+            final CompletableFuture<Map<String, Object>[]> records = batch.searchRead("res.partner", FIELDS, null, null, null, null);
+            final CompletableFuture<int[]> ids = batch.search("res.partner", null, "id", null, 2);
+            final CompletableFuture<Object> raw = batch.executeKw("res.partner", "search", new Object[]{new Object[0]}, Map.of("limit", 2));
+            batch.execute();
+
+            // the server answers in reverse order, responses are matched by id
+            assert server.getRequests() == 1 && server.getCalls("search") == 2;
+            assert records.join().length == RECORDS;
+            assert Arrays.equals(ids.join(), new int[]{1, 2});
+            assert Arrays.equals((Object[]) raw.join(), new Object[]{1, 2});
+        }
+    }
+
+    @Test
+    public void testDefaultFieldSetResolvedOnExecute() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect()) {
+            rpc.setMulticall(true);
+            server.getStore().field("res.partner", "comment", "html").write("res.partner", new int[]{1, 2}, Map.of("comment", "<p>Heavy</p>"));
+            server.resetStatistics();
+
+            final OdooBatch batch = rpc.batch();
+            final CompletableFuture<Map<String, Object>[]> records = batch.searchRead("res.partner", null, null, "id", null, 2);
+            final CompletableFuture<Map<String, Object>[]> read = batch.read("res.partner", null, new int[]{1});
+            assert server.getRequests() == 0;
+
+            batch.execute();
+
+            // the schema is loaded once for the whole batch, ahead of it
+            assert server.getRequests() == 2 && server.getCalls("fields_get") == 1;
+            assert records.join().length == 2 && Arrays.stream(records.join()).noneMatch(record -> record.containsKey("comment"));
+            assert "Partner 1".equals(read.join()[0].get("name")) && !read.join()[0].containsKey("comment");
+
+            final CompletableFuture<Map<String, Object>[]> cached = batch.read("res.partner", null, new int[]{2});
+            batch.execute();
+            assert server.getRequests() == 3 && server.getCalls("fields_get") == 1;
+            assert !cached.join()[0].containsKey("comment");
+        }
+    }
+
+    @Test
+    public void testSchemaFailures() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate("res.users", 3, 16);
+            server.denyAccess("res.users", "fields_get");
+
+            // a failed connection fails the calls needing the schema only
+            server.failNext(1, InMemoryOdooServer.Failure.UNAVAILABLE);
+            final OdooBatch batch = rpc.batch();
+            final CompletableFuture<Map<String, Object>[]> failed = batch.searchRead("res.partner", null, null, null, null, null);
+            final CompletableFuture<Integer> count = batch.searchCount("res.partner", null);
+            batch.execute();
+            assert count.join() == RECORDS;
+            try {
+                failed.join();
+                assert false;
+            } catch (CompletionException e) {
+                assert e.getCause() instanceof OdooCallMethodException;
+            }
+
+            // a denied schema reads every field, and is not asked again
+            server.resetStatistics();
+            for (int i = 0; i < 2; i++) {
+                final CompletableFuture<Map<String, Object>[]> users = batch.read("res.users", null, new int[]{1});
+                batch.execute();
+                assert users.join()[0].containsKey("payload");
+            }
+            assert server.getCalls("fields_get") == 1 : server.getCalls("fields_get");
+        }
+    }
+
+    @Test
+    public void testOversizedCallsChunked() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect()) {
+            rpc.setMulticall(true);
+            rpc.setIdChunkSize(50);
+            final int[] ids = IntStream.rangeClosed(1, 120).map(i -> 121 - i).toArray();
+            final Object[] operands = Arrays.stream(ids).boxed().toArray();
+            server.resetStatistics();
+
+            final OdooBatch batch = rpc.batch();
+            final CompletableFuture<Map<String, Object>[]> read = batch.read("res.partner", new String[]{"name"}, ids);
+            final CompletableFuture<int[]> in = batch.search("res.partner", SearchBuilder.in("id", operands), "id desc", 5, 3);
+            final CompletableFuture<int[]> notIn = batch.search("res.partner", new SearchFilter[]{new SearchFilter("id", SearchFilter.Operator.NOT_IN, operands)}, "id", null, null);
+            final CompletableFuture<Map<String, Object>[]> records = batch.searchRead("res.partner", new String[]{"name"}, SearchBuilder.in("id", operands), "id", null, null);
+            final CompletableFuture<int[]> unordered = batch.search("res.partner", SearchBuilder.in("id", operands), null, null, 3);
+            final CompletableFuture<Map<String, Object>[]> excluded = batch.searchRead("res.partner", new String[]{"name"}, new SearchFilter[]{new SearchFilter("id", SearchFilter.Operator.NOT_IN, operands)}, null, null, null);
+            assert batch.size() == 12 : batch.size();
+
+            batch.execute();
+
+            assert server.getRequests() == 1 && server.getCalls("read") == 3 && server.getCalls("search") == 6;
+            assert Arrays.equals(Arrays.stream(read.join()).mapToInt(record -> (Integer) record.get("id")).toArray(), ids);
+            assert Arrays.equals(in.join(), new int[]{115, 114, 113});
+            assert Arrays.equals(notIn.join(), IntStream.rangeClosed(121, RECORDS).toArray());
+            assert records.join().length == 120 && records.join()[119].get("id").equals(120);
+
+            // merges needing another round trip are refused
+            for (CompletableFuture<?> refused : List.of(unordered, excluded)) {
+                try {
+                    refused.join();
+                    assert false;
+                } catch (CompletionException e) {
+                    assert e.getCause() instanceof OdooCallMethodException && e.getCause().getMessage().contains("oversized");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import model.HrEmployee;
+import model.ProductTemplate;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Chunked <b>create()</b>, <b>write()</b> and <b>unlink()</b> against {@link InMemoryOdooServer}
+ */
+public class BatchWriteTest {
+    private final static String MODEL = "res.partner";
+    private final static int BATCH = 10;
+
+    @Test
+    public void testCreateAllKeepsOrderAcrossChunks() throws Exception {
+        for (int parallelism : new int[]{1, 3}) {
+            try (InMemoryOdooServer server = InMemoryOdooServer.start();
+                 OdooRpc rpc = batched(server.connect(), parallelism)) {
+                server.setLatency(50, 0);
+
+                final int[] ids = rpc.createAll(MODEL, records(25));
+                assert Arrays.stream(ids).sorted().distinct().toArray().length == 25;
+                assert server.getCalls("create") == 3;
+                assert server.getMaxInFlight() == parallelism : parallelism + " " + server.getMaxInFlight();
+
+                // chunks may be created in any order, ids come back in the order of the records
+                final List<Map<String, Object>> records = server.getStore().read(MODEL, ids, new Object[]{"name"});
+                for (int i = 0; i < ids.length; i++) {
+                    assert records.get(i).get("id").equals(ids[i]) && records.get(i).get("name").equals("Record " + (i + 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testChunkBoundaries() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = batched(server.connect(), 1)) {
+            for (int count : new int[]{0, 1, BATCH - 1, BATCH, BATCH + 1, 2 * BATCH}) {
+                server.resetStatistics();
+                final int[] ids = rpc.createAll(MODEL, records(count));
+                assert ids.length == count;
+                assert server.getCalls("create") == (count + BATCH - 1) / BATCH : count;
+
+                rpc.write(MODEL, ids, Collections.singletonMap("active", false));
+                assert server.getCalls("write") == (count + BATCH - 1) / BATCH : count;
+
+                rpc.unlink(MODEL, ids);
+                assert server.getCalls("unlink") == (count + BATCH - 1) / BATCH : count;
+                assert server.getStore().size(MODEL) == 0;
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndUnlinkChunks() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = batched(server.connect(), 3)) {
+            final int[] ids = server.getStore().generate(MODEL, 35, 0);
+
+            rpc.write(MODEL, ids, Collections.singletonMap("name", "Written"));
+            assert server.getCalls("write") == 4;
+            for (Map<String, Object> record : server.getStore().read(MODEL, ids, new Object[]{"name"})) {
+                assert record.get("name").equals("Written");
+            }
+
+            rpc.unlink(MODEL, Arrays.copyOf(ids, 25));
+            assert server.getCalls("unlink") == 3;
+            assert Arrays.equals(server.getStore().search(MODEL, new Object[0], "id", 0, null), Arrays.copyOfRange(ids, 25, 35));
+        }
+    }
+
+    @Test
+    public void testFailurePartway() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = batched(server.connect(), 1)) {
+            server.failAfter(2, 1, InMemoryOdooServer.Failure.FAULT);
+            try {
+                rpc.createAll(MODEL, records(45));
+                assert false;
+            } catch (OdooCallMethodException expected) {
+                // expected
+            }
+
+            // chunks sent before the failure stay created, the ones after it are not sent
+            assert server.getRequests() == 3;
+            assert server.getStore().size(MODEL) == 2 * BATCH;
+
+            // the third chunk refers to a missing record
+            final int[] ids = IntStream.rangeClosed(1, 2 * BATCH).toArray();
+            final int[] writeIds = Arrays.copyOf(ids, 4 * BATCH);
+            for (int i = 2 * BATCH; i < writeIds.length; i++) {
+                writeIds[i] = 1_000 + i;
+            }
+            server.resetStatistics();
+            try {
+                rpc.write(MODEL, writeIds, Collections.singletonMap("name", "Written"));
+                assert false;
+            } catch (OdooCallMethodException expected) {
+                // expected
+            }
+            assert server.getCalls("write") == 3;
+            for (Map<String, Object> record : server.getStore().read(MODEL, ids, new Object[]{"name"})) {
+                assert record.get("name").equals("Written");
+            }
+        }
+    }
+
+    @Test
+    public void testCreateAllRejectsMixedClasses() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = batched(server.connect(), 1)) {
+            final HrEmployee employee = new HrEmployee();
+            employee.setName("Employee");
+            try {
+                rpc.createAll(Arrays.asList(employee, new ProductTemplate()));
+                assert false;
+            } catch (OdooCallMethodException expected) {
+                assert expected.getMessage().contains(ProductTemplate.class.getName());
+            }
+            assert server.getRequests() == 0;
+
+            assert Arrays.equals(rpc.createAll(Collections.singletonList(employee)), new int[]{1});
+            assert server.getStore().read("hr.employee", new int[]{1}, new Object[]{"name"}).get(0).get("name").equals("Employee");
+        }
+    }
+
+    private static List<Map<String, Object>> records(int count) {
+        final List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            records.add(Collections.singletonMap("name", "Record " + i));
+        }
+        return records;
+    }
+
+    private static OdooRpc batched(OdooRpc rpc, int parallelism) {
+        rpc.setBatchSize(BATCH);
+        rpc.setBatchParallelism(parallelism);
+        return rpc;
+    }
+}
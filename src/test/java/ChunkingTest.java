@@ -0,0 +1,218 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.*;
+import com.kinnarastudio.odooxmlrpc.service.SearchBuilder;
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Splitting of oversized id lists and <code>in</code> operands, against an in-memory model
+ */
+public class ChunkingTest {
+    private final static int RECORDS = 1_000;
+    private final static int CHUNK = 100;
+
+    @Test
+    public void testReadKeepsOrder() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        rpc.setIdChunkSize(CHUNK);
+        rpc.setBatchParallelism(4);
+
+        final int[] ids = IntStream.rangeClosed(1, RECORDS).map(i -> RECORDS + 1 - i).toArray();
+        final Map<String, Object>[] records = rpc.read("res.partner", new String[]{"name"}, ids);
+        assert records.length == RECORDS;
+        for (int i = 0; i < ids.length; i++) {
+            assert records[i].get("id").equals(ids[i]);
+        }
+        assert rpc.calls.get() == RECORDS / CHUNK && rpc.maxOperands.get() == CHUNK;
+    }
+
+    @Test
+    public void testSearchIn() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        rpc.setIdChunkSize(CHUNK);
+
+        final Object[] even = IntStream.rangeClosed(1, RECORDS / 2).map(i -> i * 2).boxed().toArray();
+        final int[] ids = rpc.search("res.partner", SearchBuilder.in("id", even), "id", null, null);
+        assert ids.length == RECORDS / 2 && ids[0] == 2 && ids[ids.length - 1] == RECORDS;
+        assert rpc.calls.get() == 5 && rpc.maxOperands.get() == CHUNK;
+
+        // offset and limit apply to the merged ids
+        assert Arrays.equals(rpc.search("res.partner", SearchBuilder.in("id", even), "id", 150, 3), new int[]{302, 304, 306});
+        assert rpc.searchCount("res.partner", SearchBuilder.in("id", even)) == RECORDS / 2;
+    }
+
+    @Test
+    public void testSearchInByIdDescending() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        rpc.setIdChunkSize(CHUNK);
+
+        // the highest ids are in the last chunk
+        final Object[] even = IntStream.rangeClosed(1, RECORDS / 2).map(i -> i * 2).boxed().toArray();
+        assert Arrays.equals(rpc.search("res.partner", SearchBuilder.in("id", even), "id desc", null, 3), new int[]{RECORDS, RECORDS - 2, RECORDS - 4});
+
+        final Map<String, Object>[] records = rpc.searchRead("res.partner", new String[]{"name"}, SearchBuilder.in("id", even), "id desc", 1, 2);
+        assert Arrays.stream(records).map(r -> r.get("id")).collect(Collectors.toList()).equals(List.of(RECORDS - 2, RECORDS - 4));
+    }
+
+    @Test
+    public void testSearchInPagedInOtherOrder() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        rpc.setIdChunkSize(CHUNK);
+
+        // 250 operands matching the last 100 records, paged by a last search among them
+        final Object[] operands = IntStream.rangeClosed(RECORDS - 99, RECORDS + 150).boxed().toArray();
+        assert Arrays.equals(rpc.search("res.partner", SearchBuilder.in("id", operands), "name", 5, 3), new int[]{RECORDS - 94, RECORDS - 93, RECORDS - 92});
+        final Map<String, Object>[] records = rpc.searchRead("res.partner", new String[]{"name"}, SearchBuilder.in("id", operands), "name", 0, 2);
+        assert Arrays.stream(records).map(r -> r.get("id")).collect(Collectors.toList()).equals(List.of(RECORDS - 99, RECORDS - 98));
+
+        // too many matches to page among them in a single request
+        final Object[] even = IntStream.rangeClosed(1, RECORDS / 2).map(i -> i * 2).boxed().toArray();
+        try {
+            rpc.search("res.partner", SearchBuilder.in("id", even), "name", null, 3);
+            assert false;
+        } catch (OdooCallMethodException e) {
+            assert e.getMessage().contains("order by id");
+        }
+    }
+
+    @Test
+    public void testSearchReadInRemovesRepeatedRecords() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        rpc.setIdChunkSize(3);
+
+        // every record has two tags, so a record may match two chunks
+        final SearchFilter[] filters = {new SearchFilter(SearchFilter.Join.AND, "tag_ids", SearchFilter.Operator.IN, new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9})};
+        final Map<String, Object>[] records = rpc.searchRead("res.partner", new String[]{"name"}, filters, "id", null, null);
+        assert records.length == RECORDS;
+        assert Arrays.stream(records).map(r -> r.get("id")).distinct().count() == RECORDS;
+        assert rpc.searchCount("res.partner", filters) == RECORDS;
+
+        final Map<String, Object>[] page = rpc.searchRead("res.partner", new String[]{"name"}, filters, "id", 10, 5);
+        assert page.length == 5;
+    }
+
+    @Test
+    public void testSearchNotIn() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        rpc.setIdChunkSize(CHUNK);
+
+        final Object[] excluded = IntStream.rangeClosed(1, RECORDS - 10).boxed().toArray();
+        final SearchFilter[] filters = {new SearchFilter("id", SearchFilter.Operator.NOT_IN, excluded)};
+        assert Arrays.equals(rpc.search("res.partner", filters, "id", null, null), IntStream.rangeClosed(RECORDS - 9, RECORDS).toArray());
+
+        final Map<String, Object>[] records = rpc.searchRead("res.partner", new String[]{"name"}, filters, "id", 2, 3);
+        assert Arrays.stream(records).map(r -> r.get("id")).collect(Collectors.toList()).equals(List.of(RECORDS - 7, RECORDS - 6, RECORDS - 5));
+    }
+
+    @Test
+    public void testSmallRequestsAreNotSplit() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        rpc.read("res.partner", new String[]{"name"}, IntStream.rangeClosed(1, RECORDS).toArray());
+        rpc.search("res.partner", SearchBuilder.in("id", IntStream.rangeClosed(1, RECORDS).boxed().toArray()), null, null, null);
+        assert rpc.calls.get() == 2 && rpc.maxOperands.get() == RECORDS;
+    }
+
+    /**
+     * Rpc serving ids 1..1000 from memory, each record tagged with its last digit and the next one.
+     * Orders other than <code>id desc</code> are served in id order.
+     */
+    private static class FakeRpc extends OdooRpc {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger maxOperands = new AtomicInteger();
+
+        FakeRpc() throws OdooAuthorizationException {
+            super("http://127.0.0.1:1", "db", "user", "key", new JavaHttpTransport(ConnectionSettings.getDefault()));
+        }
+
+        @Override
+        protected Object execute(String url, String method, Object[] params) {
+            if (params.length < 6) {
+                return 2;
+            }
+
+            calls.incrementAndGet();
+            final String kwMethod = (String) params[4];
+            final Object[] args = (Object[]) params[5];
+            final Map<String, Object> named = params.length > 6 ? (Map<String, Object>) params[6] : Map.of();
+            switch (kwMethod) {
+                case "read":
+                    final int[] ids = (int[]) args[0];
+                    maxOperands.accumulateAndGet(ids.length, Math::max);
+                    return Arrays.stream(ids).mapToObj(FakeRpc::record).toArray();
+                case "search_count":
+                    return (int) matching((Object[]) args[0]).count();
+                case "search_read":
+                    return page(matching((Object[]) args[0]), named).mapToObj(FakeRpc::record).toArray();
+                default:
+                    throw new IllegalArgumentException(kwMethod);
+            }
+        }
+
+        @Override
+        protected ResponseReader executeStreaming(String url, String method, Object[] params) throws XmlRpcException {
+            calls.incrementAndGet();
+            final Map<String, Object> named = params.length > 6 ? (Map<String, Object>) params[6] : Map.of();
+            final Object[] ids = page(matching((Object[]) ((Object[]) params[5])[0]), named).boxed().toArray();
+            final String xml = new String(XmlRpcUtil.serializeRequest("search", new Object[]{ids}), StandardCharsets.UTF_8)
+                    .replace("<methodCall><methodName>search</methodName>", "<methodResponse>")
+                    .replace("</methodCall>", "</methodResponse>");
+            return new XmlRpcResponseReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+        }
+
+        /**
+         * Ids matching a domain of leaves joined by "&amp;", in id order
+         */
+        private IntStream matching(Object[] domain) {
+            IntStream ids = IntStream.rangeClosed(1, RECORDS);
+            for (Object term : domain) {
+                if (!(term instanceof Object[])) {
+                    continue;
+                }
+
+                final Object[] leaf = (Object[]) term;
+                final Object value = leaf[2];
+                final Set<Integer> operands = value instanceof int[]
+                        ? Arrays.stream((int[]) value).boxed().collect(Collectors.toSet())
+                        : Arrays.stream((Object[]) value).map(o -> (Integer) o).collect(Collectors.toSet());
+                maxOperands.accumulateAndGet(operands.size(), Math::max);
+
+                final boolean in = "in".equals(leaf[1]);
+                if ("id".equals(leaf[0])) {
+                    ids = ids.filter(id -> operands.contains(id) == in);
+                } else {
+                    ids = ids.filter(id -> (operands.contains(id % 10) || operands.contains((id + 1) % 10)) == in);
+                }
+            }
+            return ids;
+        }
+
+        private static IntStream page(IntStream ids, Map<String, Object> named) {
+            if ("id desc".equals(named.get("order"))) {
+                ids = ids.map(id -> -id).sorted().map(id -> -id);
+            }
+            if (named.get("offset") != null) {
+                ids = ids.skip((Integer) named.get("offset"));
+            }
+            if (named.get("limit") != null) {
+                ids = ids.limit((Integer) named.get("limit"));
+            }
+            return ids;
+        }
+
+        private static Map<String, Object> record(int id) {
+            final Map<String, Object> record = new HashMap<>();
+            record.put("id", id);
+            record.put("name", "Partner " + id);
+            return record;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import com.kinnarastudio.odooxmlrpc.rpc.*;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * gzip compression of {@link OdooTransport} implementations against {@link InMemoryOdooServer}
+ */
+public class CompressionTest {
+    private final static int RECORDS = 200;
+    private final static String[] FIELDS = {"id", "name", "email", "active", "parent_id"};
+
+    /**
+     * Each transport is created within the try-with-resources of its rpc, which closes it
+     */
+    private final static List<Function<ConnectionSettings, OdooTransport>> TRANSPORTS = List.of(
+            settings -> new JavaHttpTransport(settings, HttpClient.Version.HTTP_1_1),
+            JavaHttpTransport::new);
+
+    @Test
+    public void testResponseCompression() throws Exception {
+        for (Function<ConnectionSettings, OdooTransport> transport : TRANSPORTS) {
+            try (InMemoryOdooServer server = start();
+                 OdooRpc rpc = server.connect(transport.apply(ConnectionSettings.getDefault()))) {
+                final Map<String, Object>[] records = rpc.searchRead("res.partner", FIELDS, null, null, null, null);
+                assert records.length == RECORDS;
+                assert "Partner 7".equals(records[6].get("name"));
+                assert records[6].get("parent_id") == null;
+
+                final CompressionStats stats = rpc.getCompressionStats();
+                assert stats.isServerGzip();
+                assert stats.getCompressedResponses() > 0;
+                assert stats.getResponseBytesReceived() * 4 < stats.getResponseBytes();
+                assert stats.getCompressedRequests() == 0;
+            }
+        }
+    }
+
+    @Test
+    public void testRequestCompressionOnceServerAdvertisesGzip() throws Exception {
+        final ConnectionSettings settings = ConnectionSettings.getBuilder()
+                .requestCompressionThreshold(64)
+                .build();
+
+        for (Function<ConnectionSettings, OdooTransport> transport : TRANSPORTS) {
+            try (InMemoryOdooServer server = start();
+                 OdooRpc rpc = server.connect(transport.apply(settings))) {
+                // the login response advertised gzip
+                assert rpc.getCompressionStats().isServerGzip();
+
+                rpc.searchRead("res.partner", FIELDS, null, null, null, null);
+                assert server.getGzipRequests() == 1;
+                assert rpc.getCompressionStats().getCompressedRequests() == 1;
+            }
+        }
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        final ConnectionSettings settings = ConnectionSettings.getBuilder()
+                .responseCompression(false)
+                .requestCompressionThreshold(0)
+                .build();
+
+        for (Function<ConnectionSettings, OdooTransport> transport : TRANSPORTS) {
+            try (InMemoryOdooServer server = start();
+                 OdooRpc rpc = server.connect(transport.apply(settings))) {
+                rpc.searchRead("res.partner", FIELDS, null, null, null, null);
+
+                final CompressionStats stats = rpc.getCompressionStats();
+                assert !stats.isServerGzip();
+                assert stats.getBytesSaved() == 0;
+                assert server.getGzipRequests() == 0;
+            }
+        }
+    }
+
+    private static InMemoryOdooServer start() throws IOException {
+        final InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+        server.setResponseCompression(true);
+        return server;
+    }
+}
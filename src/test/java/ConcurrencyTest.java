@@ -0,0 +1,242 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.rpc.*;
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Concurrency of {@link SynchronizedOdooRpc} against {@link InMemoryOdooServer}, measured by the requests the server has in flight
+ */
+public class ConcurrencyTest {
+    private final static long LATENCY = 20;
+    private final static int CALLS = 64;
+    private final static int RECORDS = 200;
+
+    @Test
+    public void testConcurrencyScalesWithThreadCount() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, LATENCY)) {
+            for (int threads : new int[]{1, 2, 4, 8}) {
+                server.resetStatistics();
+                final int requests = server.getRequests();
+                run(server, threads);
+
+                assert server.getRequests() - requests == CALLS;
+                assert server.getMaxInFlight() == threads : "threads=" + threads + " maxInFlight=" + server.getMaxInFlight();
+            }
+        }
+    }
+
+    @Test
+    public void testInstancesDoNotShareLimit() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, LATENCY * 5);
+             OdooRpc first = new SynchronizedOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY);
+             OdooRpc second = new SynchronizedOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)) {
+
+            final ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                final Future<int[]> a = executor.submit(() -> first.search("res.partner", null, null, null, null));
+                final Future<int[]> b = executor.submit(() -> second.search("res.partner", null, null, null, null));
+                a.get();
+                b.get();
+            } finally {
+                executor.shutdown();
+            }
+
+            assert server.getMaxInFlight() == 2;
+        }
+    }
+
+    @Test
+    public void testConsumerMayCallSameInstance() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = new SynchronizedOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)) {
+
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                // with a single permit, a permit held while consuming would block the nested search forever
+                final Future<Integer> records = executor.submit(() -> rpc.searchRead("res.partner", new String[]{"name"}, null, null, null, null, record -> {
+                    try {
+                        assert rpc.search("res.partner", null, null, null, null).length > 0;
+                    } catch (OdooCallMethodException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+
+                assert records.get(30, TimeUnit.SECONDS) == RECORDS;
+                assert server.getRequests() == RECORDS + 1;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testStreamHoldsPermitUntilClosed() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = new SynchronizedOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)) {
+
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                final Future<int[]> other;
+                try (Stream<Object> ids = rpc.executeKwStream("res.partner", "search", new Object[]{new Object[0]}, null)) {
+                    assert ids.iterator().next().equals(1);
+
+                    // the only permit is held by the open stream
+                    other = executor.submit(() -> rpc.search("res.partner", null, null, null, null));
+                    Thread.sleep(LATENCY * 10);
+                    assert !other.isDone();
+                }
+                assert other.get(30, TimeUnit.SECONDS).length == RECORDS;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncWaitsForPermitWithoutBlocking() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             PendingTransport transport = new PendingTransport(new JavaHttpTransport(ConnectionSettings.getDefault()));
+             OdooRpc rpc = new SynchronizedOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY, transport, 1)) {
+
+            final ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                // the second call waits for the permit held by the first, which blocking the caller would never release
+                final Future<List<CompletableFuture<Object>>> submitted = executor.submit(() -> List.of(
+                        rpc.executeKwAsync("res.partner", "search_count", new Object[]{new Object[0]}, null),
+                        rpc.executeKwAsync("res.partner", "search_count", new Object[]{new Object[0]}, null)));
+                final List<CompletableFuture<Object>> futures = submitted.get(30, TimeUnit.SECONDS);
+
+                final CompletableFuture<Object> first = transport.pending.poll(30, TimeUnit.SECONDS);
+                assert first != null && transport.pending.isEmpty();
+                first.complete(1);
+                assert futures.get(0).get(30, TimeUnit.SECONDS).equals(1);
+
+                final CompletableFuture<Object> second = transport.pending.poll(30, TimeUnit.SECONDS);
+                assert second != null && !futures.get(1).isDone();
+                second.complete(2);
+                assert futures.get(1).get(30, TimeUnit.SECONDS).equals(2);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidLimitRejectedBeforeLogin() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0)) {
+            final PendingTransport transport = new PendingTransport(new JavaHttpTransport(ConnectionSettings.getDefault()));
+            try {
+                new SynchronizedOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY, transport, 0);
+                assert false;
+            } catch (IllegalArgumentException e) {
+                assert transport.executed.get() == 0;
+                assert transport.closed;
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncFanOut() throws Exception {
+        final int fanOut = 32;
+        final ConnectionSettings settings = ConnectionSettings.getBuilder()
+                .maxConnectionsPerRoute(fanOut)
+                .build();
+
+        // longer than opening the connections of every call takes
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, LATENCY * 25);
+             OdooRpc rpc = new OdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY, settings);
+             AsyncOdooRpc async = new AsyncOdooRpc(rpc)) {
+
+            final CompletableFuture<?>[] futures = new CompletableFuture[fanOut];
+            for (int i = 0; i < fanOut; i++) {
+                futures[i] = async.search("res.partner", null, null, null, null);
+            }
+            CompletableFuture.allOf(futures).join();
+
+            // every call was sent before the first response came back
+            assert server.getRequests() == fanOut;
+            assert server.getMaxInFlight() == fanOut : "maxInFlight=" + server.getMaxInFlight();
+        }
+    }
+
+    /**
+     * Transport whose async calls stay pending until the test completes them
+     */
+    private final static class PendingTransport implements OdooTransport {
+        private final OdooTransport transport;
+        private final BlockingQueue<CompletableFuture<Object>> pending = new LinkedBlockingQueue<>();
+        private final AtomicInteger executed = new AtomicInteger();
+        private volatile boolean closed;
+
+        PendingTransport(OdooTransport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public ConnectionSettings getConnectionSettings() {
+            return transport.getConnectionSettings();
+        }
+
+        @Override
+        public CompressionStats getCompressionStats() {
+            return transport.getCompressionStats();
+        }
+
+        @Override
+        public Object execute(@Nonnull String url, @Nonnull String method, Object[] params) throws MalformedURLException, XmlRpcException {
+            executed.incrementAndGet();
+            return transport.execute(url, method, params);
+        }
+
+        @Override
+        public ResponseReader executeStreaming(@Nonnull String url, @Nonnull String method, Object[] params) throws XmlRpcException {
+            return transport.executeStreaming(url, method, params);
+        }
+
+        @Override
+        public CompletableFuture<Object> executeAsync(@Nonnull String url, @Nonnull String method, Object[] params) {
+            final CompletableFuture<Object> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            transport.close();
+        }
+    }
+
+    private void run(InMemoryOdooServer server, int threads) throws OdooAuthorizationException, InterruptedException, ExecutionException, IOException {
+        final ConnectionSettings settings = ConnectionSettings.getBuilder()
+                .maxConnectionsPerRoute(threads)
+                .build();
+
+        try (OdooRpc rpc = new SynchronizedOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY, settings, threads)) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                final List<Callable<int[]>> calls = new ArrayList<>();
+                for (int i = 0; i < CALLS; i++) {
+                    calls.add(() -> rpc.search("res.partner", null, null, null, null));
+                }
+
+                for (Future<int[]> future : executor.invokeAll(calls)) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
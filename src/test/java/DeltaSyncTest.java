@@ -0,0 +1,247 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.model.FieldSet;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.ConnectionSettings;
+import com.kinnarastudio.odooxmlrpc.rpc.JavaHttpTransport;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import com.kinnarastudio.odooxmlrpc.sync.*;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * {@link DeltaSync} against an in-memory model
+ */
+public class DeltaSyncTest {
+    @Test
+    public void testIncrementalSync() throws Exception {
+        final Path directory = Files.createTempDirectory("delta-sync");
+        final FakeRpc rpc = new FakeRpc();
+        IntStream.rangeClosed(1, 25).forEach(id -> rpc.write(id, "2024-01-01 10:00:00"));
+
+        final DeltaSync sync = new DeltaSync(rpc, new FileWatermarkStore(directory));
+        sync.setPageSize(10);
+
+        final List<Integer> seen = new ArrayList<>();
+        SyncResult result = sync.sync("res.partner", new String[]{"name"}, null, page -> collect(seen, page));
+        assert result.isFull() && result.getRecords() == 25 && result.getPages() == 3;
+        assert result.getWatermark().equals(new Watermark("2024-01-01 10:00:00", 25));
+        assert seen.equals(IntStream.rangeClosed(1, 25).boxed().collect(Collectors.toList()));
+        assert Arrays.asList(rpc.fields).containsAll(Arrays.asList("name", "id", "write_date"));
+
+        // nothing changed
+        seen.clear();
+        result = sync.sync("res.partner", new String[]{"name"}, null, page -> collect(seen, page));
+        assert !result.isFull() && result.getRecords() == 0 && seen.isEmpty();
+
+        // an update and a creation, read from a new store instance
+        rpc.write(3, "2024-01-02 08:00:00");
+        rpc.write(26, "2024-01-01 10:00:00");
+        final DeltaSync next = new DeltaSync(rpc, new FileWatermarkStore(directory));
+        result = next.sync("res.partner", new String[]{"name"}, null, page -> collect(seen, page));
+        assert result.getRecords() == 2 && seen.equals(Arrays.asList(26, 3)) : seen;
+        assert result.getWatermark().equals(new Watermark("2024-01-02 08:00:00", 3));
+    }
+
+    @Test
+    public void testOverlapPicksUpRecordsBehindWatermark() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        IntStream.rangeClosed(5, 10).forEach(id -> rpc.write(id, "2024-01-01 10:00:00"));
+
+        final DeltaSync sync = new DeltaSync(rpc, new FileWatermarkStore(Files.createTempDirectory("delta-sync")));
+        sync.setPageSize(4);
+        final List<Integer> seen = new ArrayList<>();
+        sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert seen.equals(IntStream.rangeClosed(5, 10).boxed().collect(Collectors.toList()));
+
+        // a lower id written within the second of the watermark, and a long transaction committed after the watermark was saved
+        rpc.write(3, "2024-01-01 10:00:00");
+        rpc.write(11, "2024-01-01 09:58:00");
+        seen.clear();
+        SyncResult result = sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert seen.equals(Arrays.asList(11, 3)) : seen;
+        assert result.getRecords() == 2 && result.getWatermark().equals(new Watermark("2024-01-01 10:00:00", 10));
+
+        // what was handed over is not handed over again
+        seen.clear();
+        result = sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert result.getRecords() == 0 && seen.isEmpty();
+
+        // without overlap the keyset alone misses them
+        sync.setOverlap(0);
+        rpc.write(2, "2024-01-01 10:00:00");
+        result = sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert result.getRecords() == 0 && seen.isEmpty();
+    }
+
+    @Test
+    public void testOverlapHandsOverRecordRewrittenWithinWindow() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        IntStream.rangeClosed(5, 9).forEach(id -> rpc.write(id, "2024-01-01 09:59:00"));
+        rpc.write(10, "2024-01-01 10:00:00");
+
+        final DeltaSync sync = new DeltaSync(rpc, new FileWatermarkStore(Files.createTempDirectory("delta-sync")));
+        sync.setPageSize(4);
+        final List<Integer> seen = new ArrayList<>();
+        sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert seen.equals(IntStream.rangeClosed(5, 10).boxed().collect(Collectors.toList()));
+
+        // written again by a transaction dated before the watermark, committed after the run
+        rpc.write(6, "2024-01-01 09:59:30");
+        seen.clear();
+        SyncResult result = sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert seen.equals(Collections.singletonList(6)) : seen;
+        assert result.getRecords() == 1 && result.getWatermark().equals(new Watermark("2024-01-01 10:00:00", 10));
+
+        seen.clear();
+        result = sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert result.getRecords() == 0 && seen.isEmpty();
+    }
+
+    @Test
+    public void testFailedConsumerKeepsWatermark() throws Exception {
+        final FakeRpc rpc = new FakeRpc();
+        IntStream.rangeClosed(1, 20).forEach(id -> rpc.write(id, "2024-01-01 10:00:00"));
+
+        final DeltaSync sync = new DeltaSync(rpc, new FileWatermarkStore(Files.createTempDirectory("delta-sync")));
+        sync.setPageSize(5);
+
+        final List<Integer> seen = new ArrayList<>();
+        try {
+            sync.sync("res.partner", null, null, page -> {
+                if (seen.size() == 10) {
+                    throw new IllegalStateException("sink failed");
+                }
+                collect(seen, page);
+            });
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().equals("sink failed");
+        }
+
+        final SyncResult result = sync.sync("res.partner", null, null, page -> collect(seen, page));
+        assert result.getPrevious().getId() == 10 && result.getRecords() == 10;
+        assert seen.equals(IntStream.rangeClosed(1, 20).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testDetectDeletions() throws Exception {
+        final Path directory = Files.createTempDirectory("delta-sync");
+        final FakeRpc rpc = new FakeRpc();
+        IntStream.rangeClosed(1, 100_000).forEach(id -> rpc.write(id * 3, "2024-01-01 10:00:00"));
+
+        final DeltaSync sync = new DeltaSync(rpc, new FileWatermarkStore(directory));
+        assert sync.detectDeletions("res.partner", null).length == 0;
+        // gaps of 3 are a byte each before compression
+        assert Files.size(directory.resolve("res.partner.ids.gz")) < 100_000;
+
+        rpc.records.remove(3);
+        rpc.records.remove(150_000);
+        rpc.records.remove(300_000);
+        rpc.write(300_001, "2024-01-02 10:00:00");
+        assert Arrays.equals(sync.detectDeletions("res.partner", null), new int[]{3, 150_000, 300_000});
+        assert sync.detectDeletions("res.partner", null).length == 0;
+    }
+
+    @Test
+    public void testStore() throws Exception {
+        final Path directory = Files.createTempDirectory("delta-sync");
+        final FileWatermarkStore store = new FileWatermarkStore(directory.resolve("nested"));
+        assert !store.loadWatermark("res.partner").isPresent();
+        assert !store.loadIds("res.partner").isPresent();
+
+        store.saveWatermark("res.partner", new Watermark("2024-01-01 10:00:00", 7));
+        store.saveWatermark("sale.order", new Watermark("2024-02-01 10:00:00", 9));
+        final int[] ids = {1, 2, 127, 128, 16_384, Integer.MAX_VALUE};
+        store.saveIds("res.partner", ids);
+        final Watermark[] overlap = {new Watermark("2024-01-01 09:59:00", 3), new Watermark("2024-01-01 10:00:00", 128)};
+        store.saveOverlap("res.partner", overlap);
+
+        final FileWatermarkStore reopened = new FileWatermarkStore(directory.resolve("nested"));
+        assert reopened.loadWatermark("res.partner").get().equals(new Watermark("2024-01-01 10:00:00", 7));
+        assert reopened.loadWatermark("sale.order").get().getId() == 9;
+        assert Arrays.equals(reopened.loadIds("res.partner").get(), ids);
+        assert Arrays.equals(reopened.loadOverlap("res.partner").get(), overlap);
+        assert !reopened.loadOverlap("sale.order").isPresent();
+
+        reopened.reset("res.partner");
+        assert !reopened.loadWatermark("res.partner").isPresent();
+        assert !reopened.loadIds("res.partner").isPresent();
+        assert !reopened.loadOverlap("res.partner").isPresent();
+        assert reopened.loadWatermark("sale.order").isPresent();
+    }
+
+    private static void collect(List<Integer> seen, Map<String, Object>[] page) {
+        for (Map<String, Object> record : page) {
+            seen.add((Integer) record.get("id"));
+        }
+    }
+
+    /**
+     * Rpc serving records from memory, understanding the domain built by {@link DeltaSync}
+     */
+    private static class FakeRpc extends OdooRpc {
+        private final TreeMap<Integer, String> records = new TreeMap<>();
+        private String[] fields;
+
+        FakeRpc() throws OdooAuthorizationException {
+            super("http://127.0.0.1:1", "db", "user", "key", new JavaHttpTransport(ConnectionSettings.getDefault()));
+        }
+
+        void write(int id, String writeDate) {
+            records.put(id, writeDate);
+        }
+
+        @Override
+        protected Object execute(String url, String method, Object[] params) {
+            return 2;
+        }
+
+        @Override
+        public String[] resolveFields(String model, FieldSet fieldSet) {
+            return null;
+        }
+
+        @Override
+        public int[] search(String model, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+            return records.keySet().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        @Override
+        public Map<String, Object>[] searchReadDomain(String model, String[] fields, Object[] domain, String order, Integer offset, Integer limit) {
+            assert order.equals("write_date asc, id asc");
+            this.fields = fields;
+
+            String writeDate = null;
+            int lastId = 0;
+            for (Object term : domain) {
+                if (term instanceof Object[]) {
+                    final Object[] leaf = (Object[]) term;
+                    if (leaf[0].equals("write_date")) {
+                        writeDate = (String) leaf[2];
+                    } else if (leaf[0].equals("id")) {
+                        lastId = (Integer) leaf[2];
+                    }
+                }
+            }
+
+            final String from = writeDate;
+            final int after = lastId;
+            return records.entrySet().stream()
+                    .filter(e -> from == null || e.getValue().compareTo(from) > 0 || e.getValue().equals(from) && e.getKey() > after)
+                    .sorted(Map.Entry.<Integer, String>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(e -> {
+                        final Map<String, Object> record = new HashMap<>();
+                        record.put("id", e.getKey());
+                        record.put("write_date", e.getValue());
+                        return record;
+                    })
+                    .toArray(Map[]::new);
+        }
+    }
+}
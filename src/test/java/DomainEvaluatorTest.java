@@ -0,0 +1,150 @@
+import com.kinnarastudio.odooxmlrpc.cache.CachePolicy;
+import com.kinnarastudio.odooxmlrpc.cache.DomainEvaluator;
+import com.kinnarastudio.odooxmlrpc.cache.RecordCache;
+import com.kinnarastudio.odooxmlrpc.model.Domain;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import model.HrEmployee;
+import org.junit.Test;
+
+import java.util.*;
+
+public class DomainEvaluatorTest {
+    private final static Map<String, Object> ACME = record(1, "Acme Corp", new Object[]{7, "Indonesia"}, new Object[]{3, 4}, 12.5, true);
+    private final static Map<String, Object> BOLT = record(2, "bolt supply", false, new Object[0], 3, false);
+    private final static Map<String, Object> CARGO = record(3, "Cargo_100%", new Object[]{8, "Singapore"}, new Object[]{4}, 100, true);
+    private final static List<Map<String, Object>> RECORDS = Arrays.asList(ACME, BOLT, CARGO);
+
+    @Test
+    public void testOperators() {
+        assert ids(new SearchFilter("active", true)).equals(Arrays.asList(1, 3));
+        assert ids(new SearchFilter("country_id", 7)).equals(Collections.singletonList(1));
+        assert ids(new SearchFilter("country_id", SearchFilter.Operator.NOT_EQUAL, 7)).equals(Arrays.asList(2, 3));
+        assert ids(new SearchFilter("country_id", null)).equals(Collections.singletonList(2));
+        assert ids(new SearchFilter("credit", 3.0)).equals(Collections.singletonList(2));
+        assert ids(new SearchFilter("credit", SearchFilter.Operator.GREATER_EQUAL, 12.5)).equals(Arrays.asList(1, 3));
+        assert ids(new SearchFilter("name", SearchFilter.Operator.LESS, "b")).equals(Arrays.asList(1, 3));
+        assert ids(new SearchFilter("id", SearchFilter.Operator.IN, 3, 1)).equals(Arrays.asList(1, 3));
+        assert ids(new SearchFilter("id", SearchFilter.Operator.NOT_IN, new int[]{3, 1})).equals(Collections.singletonList(2));
+        assert ids(new SearchFilter("credit", SearchFilter.Operator.IN, 3L, "x")).equals(Collections.singletonList(2));
+        assert ids(new SearchFilter("category_id", 4)).equals(Arrays.asList(1, 3));
+        assert ids(new SearchFilter("category_id", SearchFilter.Operator.NOT_IN, 3)).equals(Arrays.asList(2, 3));
+        assert ids(new SearchFilter("category_id", false)).equals(Collections.singletonList(2));
+        assert ids(new SearchFilter("country_id", SearchFilter.Operator.UNSET_OR_EQUAL, (Object) null)).equals(Arrays.asList(1, 2, 3));
+        assert ids(new SearchFilter("country_id", SearchFilter.Operator.UNSET_OR_EQUAL, 8)).equals(Collections.singletonList(3));
+    }
+
+    @Test
+    public void testPatterns() {
+        assert ids(new SearchFilter("name", SearchFilter.Operator.LIKE, "%Corp")).equals(Collections.singletonList(1));
+        assert ids(new SearchFilter("name", SearchFilter.Operator.LIKE, "a%")).isEmpty();
+        assert ids(new SearchFilter("name", SearchFilter.Operator.ILIKE, "%s_pply")).equals(Collections.singletonList(2));
+        assert ids(new SearchFilter("name", SearchFilter.Operator.ILIKE, "%\\_100\\%")).equals(Collections.singletonList(3));
+        assert ids(new SearchFilter("name", SearchFilter.Operator.NOT_ILIKE, "acme%")).equals(Arrays.asList(2, 3));
+        assert ids(new SearchFilter("country_id", SearchFilter.Operator.ILIKE, "indo%")).equals(Collections.singletonList(1));
+        assert ids(new SearchFilter("country_id", SearchFilter.Operator.NOT_LIKE, "Indo%")).equals(Arrays.asList(2, 3));
+    }
+
+    @Test
+    public void testJoinsAndDomains() {
+        final SearchFilter[] filters = {
+                new SearchFilter("active", false),
+                new SearchFilter(SearchFilter.Join.OR, "credit", SearchFilter.Operator.GREATER, 50),
+                new SearchFilter(SearchFilter.Join.AND, "name", SearchFilter.Operator.ILIKE, "cargo%"),
+        };
+        assert ids(filters).equals(Collections.singletonList(3));
+        assert ids().equals(Arrays.asList(1, 2, 3));
+
+        final Domain domain = Domain.and(
+                Domain.not(Domain.eq("id", 2)),
+                Domain.or(Domain.FALSE, Domain.leaf("name", SearchFilter.Operator.ILIKE, "%corp")));
+        assert DomainEvaluator.ofDomain(domain.toPrefix()).filter(RECORDS).equals(Collections.singletonList(ACME));
+        assert DomainEvaluator.ofDomain(new Object[]{"|", new Object[]{"name", "ilike", "ACME"}, Arrays.asList("credit", "!=", 3)})
+                .filter(RECORDS).equals(Arrays.asList(ACME, CARGO));
+    }
+
+    @Test
+    public void testRejected() {
+        final Object[][] domains = {
+                {"&", new Object[]{"id", "=", 1}},
+                {new Object[]{"parent_id", "child_of", 1}},
+                {new Object[]{"country_id.code", "=", "ID"}},
+                {new Object[]{"id", "~", 1}},
+                {"id"},
+        };
+        for (Object[] domain : domains) {
+            try {
+                DomainEvaluator.ofDomain(domain);
+                assert false : Arrays.deepToString(domain);
+            } catch (IllegalArgumentException ignored) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testObjects() {
+        final HrEmployee alice = employee(1, "Alice", "A-1");
+        final HrEmployee bob = employee(2, "Bob", null);
+
+        final DomainEvaluator<HrEmployee> evaluator = DomainEvaluator.of(HrEmployee.class,
+                new SearchFilter("barcode", SearchFilter.Operator.LIKE, "A-%"),
+                new SearchFilter(SearchFilter.Join.OR, "id", 2));
+        assert evaluator.filter(Arrays.asList(alice, bob)).size() == 2;
+        assert !DomainEvaluator.of(HrEmployee.class, new SearchFilter("barcode", false)).test(alice);
+        assert DomainEvaluator.of(HrEmployee.class, new SearchFilter("barcode", false)).test(bob);
+
+        try {
+            DomainEvaluator.of(HrEmployee.class, new SearchFilter("email", "x"));
+            assert false;
+        } catch (IllegalArgumentException ignored) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRecordCache() {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 60_000));
+        final String[] fields = {"name", "credit"};
+        cache.put("res.partner", fields, CARGO);
+        cache.put("res.partner", fields, ACME);
+        cache.put("res.partner", null, BOLT);
+
+        final Map<String, Object>[] records = cache.searchRead("res.partner", fields,
+                DomainEvaluator.of(new SearchFilter("credit", SearchFilter.Operator.GREATER, 10)));
+        assert records.length == 2;
+        assert records[0].get("id").equals(1) && records[1].get("id").equals(3);
+
+        records[0].put("name", "changed");
+        assert "Acme Corp".equals(cache.get("res.partner", fields, 1).get("name"));
+        assert cache.searchRead("res.partner", null, DomainEvaluator.of()).length == 1;
+        assert cache.searchRead("res.users", null, DomainEvaluator.of()).length == 0;
+    }
+
+    private static List<Integer> ids(SearchFilter... filters) {
+        final DomainEvaluator<Map<String, Object>> evaluator = DomainEvaluator.of(filters);
+        final List<Integer> ids = new ArrayList<>();
+        for (Map<String, Object> record : evaluator.filter(RECORDS)) {
+            ids.add((Integer) record.get("id"));
+        }
+        return ids;
+    }
+
+    private static Map<String, Object> record(int id, String name, Object country, Object[] categories, Object credit, boolean active) {
+        final Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        record.put("name", name);
+        record.put("country_id", country);
+        record.put("category_id", categories);
+        record.put("credit", credit);
+        record.put("active", active);
+        return record;
+    }
+
+    private static HrEmployee employee(int id, String name, String barcode) {
+        final HrEmployee employee = new HrEmployee();
+        employee.setId(id);
+        employee.setName(name);
+        employee.setBarcode(barcode);
+        return employee;
+    }
+}
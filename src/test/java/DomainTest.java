@@ -0,0 +1,101 @@
+import com.kinnarastudio.odooxmlrpc.model.Domain;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcUtil;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class DomainTest {
+    @Test
+    public void testNestedGroups() {
+        final Domain domain = Domain.and(
+                Domain.eq("active", true),
+                Domain.or(Domain.eq("state", "draft"), Domain.ne("partner_id.country_id.code", "ID")),
+                Domain.not(Domain.childOf("categ_id", 4)),
+                Domain.unsetOrEq("user_id", null),
+                Domain.parentOf("location_id", new Object[]{1, 2}));
+
+        assert Arrays.deepEquals(domain.toPrefix(), new Object[]{
+                "&", "&", "&", "&",
+                new Object[]{"active", "=", true},
+                "|", new Object[]{"state", "=", "draft"}, new Object[]{"partner_id.country_id.code", "<>", "ID"},
+                "!", new Object[]{"categ_id", "child_of", 4},
+                new Object[]{"user_id", "=?", false},
+                new Object[]{"location_id", "parent_of", new Object[]{1, 2}}});
+    }
+
+    @Test
+    public void testConstants() {
+        assert Domain.TRUE.toPrefix().length == 0;
+        assert Domain.and().toPrefix().length == 0;
+        assert Arrays.deepEquals(Domain.FALSE.toPrefix(), new Object[]{new Object[]{0, "=", 1}});
+        assert Domain.and(Domain.eq("a", 1), Domain.FALSE).simplify() == Domain.FALSE;
+        assert Domain.or(Domain.eq("a", 1), Domain.not(Domain.FALSE)).simplify() == Domain.TRUE;
+        assert Domain.and(Domain.TRUE, Domain.eq("a", 1)).simplify().equals(Domain.eq("a", 1));
+        assert Domain.in("a").simplify() == Domain.FALSE;
+    }
+
+    @Test
+    public void testInvalidPath() {
+        for (String field : new String[]{"", ".a", "a.", "a..b"}) {
+            try {
+                Domain.eq(field, 1);
+                assert false : field;
+            } catch (IllegalArgumentException ignored) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testFromSearchFilters() {
+        final SearchFilter[] filters = {
+                new SearchFilter("a", 1),
+                new SearchFilter(SearchFilter.Join.OR, "b", 2),
+                new SearchFilter(SearchFilter.Join.AND, "c", 3),
+                new SearchFilter(SearchFilter.Join.OR, "d", 4),
+        };
+
+        // joins apply from left to right: ((a OR b) AND c) OR d
+        assert Arrays.deepEquals(Domain.of(filters).toPrefix(), XmlRpcUtil.prefixation(filters));
+
+        // AND binds tighter: a OR (b AND c) OR d
+        assert Arrays.deepEquals(XmlRpcUtil.mathematicPrefixation(filters), new Object[]{
+                "|", "|", new Object[]{"a", "=", 1}, "&", new Object[]{"b", "=", 2}, new Object[]{"c", "=", 3}, new Object[]{"d", "=", 4}});
+        assert XmlRpcUtil.mathematicPrefixation(null).length == 0;
+    }
+
+    @Test
+    public void testSimplify() {
+        // OR of equalities on a field becomes a single in
+        final Domain states = Domain.or(Domain.eq("state", "draft"), Domain.eq("state", "sent"), Domain.in("state", "sent", "sale"), Domain.eq("user_id", 5));
+        assert states.simplify().equals(Domain.or(Domain.in("state", "draft", "sent", "sale"), Domain.eq("user_id", 5)));
+
+        // AND of inequalities becomes a single not in, nested groups are flattened and repeated terms dropped
+        final Domain excluded = Domain.and(Domain.ne("code", "A"), Domain.and(Domain.ne("code", "B"), Domain.eq("active", true)), Domain.eq("active", true));
+        assert excluded.simplify().equals(Domain.and(Domain.notIn("code", "A", "B"), Domain.eq("active", true)));
+
+        // NOT is pushed into leaves with an inverse operator only
+        assert Domain.not(Domain.not(Domain.eq("a", 1))).simplify().equals(Domain.eq("a", 1));
+        assert Domain.not(Domain.in("a", 1, 2)).simplify().equals(Domain.notIn("a", 1, 2));
+        assert Domain.not(Domain.leaf("a", SearchFilter.Operator.GREATER, 1)).simplify().equals(Domain.not(Domain.leaf("a", SearchFilter.Operator.GREATER, 1)));
+        for (SearchFilter.Operator operator : new SearchFilter.Operator[]{SearchFilter.Operator.LIKE, SearchFilter.Operator.ILIKE}) {
+            final Domain negated = Domain.not(Domain.leaf("name", operator, "A%"));
+            assert Arrays.deepEquals(negated.simplify().toPrefix(), new Object[]{"!", new Object[]{"name", operator.toString(), "A%"}});
+        }
+
+        // unset values and paths are kept as written
+        final Domain unset = Domain.or(Domain.eq("parent_id", null), Domain.eq("parent_id", 3));
+        assert unset.simplify().equals(unset);
+        final Domain paths = Domain.or(Domain.eq("tag_ids.name", "x"), Domain.eq("tag_ids.name", "y"));
+        assert paths.simplify().equals(paths);
+
+        // leaves of equal primitive arrays are repeated terms
+        final Domain ids = Domain.and(Domain.leaf("id", SearchFilter.Operator.IN, new int[]{1, 2}), Domain.leaf("id", SearchFilter.Operator.IN, new int[]{1, 2}));
+        assert Domain.leaf("id", SearchFilter.Operator.IN, new int[]{1, 2}).hashCode() == Domain.leaf("id", SearchFilter.Operator.IN, new int[]{1, 2}).hashCode();
+        assert ids.simplify().equals(Domain.leaf("id", SearchFilter.Operator.IN, new int[]{1, 2}));
+
+        final Domain simple = Domain.and(Domain.eq("a", 1), Domain.eq("b", 2));
+        assert simple.simplify() == simple;
+    }
+}
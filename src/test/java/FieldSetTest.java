@@ -0,0 +1,47 @@
+import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.FieldSet;
+import com.kinnarastudio.odooxmlrpc.model.ModelSchema;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FieldSetTest {
+    private final static ModelSchema SCHEMA = new ModelSchema("db", "res.partner", List.of(
+            field("id", "integer", true),
+            field("name", "char", true),
+            field("image_1920", "binary", true),
+            field("comment", "html", true),
+            field("display_name", "char", false)
+    ), System.currentTimeMillis());
+
+    @Test
+    public void testAll() {
+        assert FieldSet.all().resolve(SCHEMA) == null;
+        assert Arrays.equals(FieldSet.all().exclude("comment").resolve(SCHEMA), new String[]{"id", "name", "image_1920", "display_name"});
+    }
+
+    @Test
+    public void testLightweight() {
+        assert Arrays.equals(FieldSet.lightweight().resolve(SCHEMA), new String[]{"id", "name"});
+        assert Arrays.equals(FieldSet.lightweight().include("comment").resolve(SCHEMA), new String[]{"id", "name", "comment"});
+        assert Arrays.equals(FieldSet.lightweight().exclude("name").resolve(SCHEMA), new String[]{"id"});
+    }
+
+    @Test
+    public void testIncludeDropsUnknownFields() {
+        assert Arrays.equals(FieldSet.of("name", "unknown").resolve(SCHEMA), new String[]{"name"});
+        assert Arrays.equals(FieldSet.of("name", "unknown").resolve(null), new String[]{"name", "unknown"});
+        assert FieldSet.lightweight().resolve(null) == null;
+    }
+
+    private static Field field(String key, String type, boolean stored) {
+        final Map<String, Object> metadata = new HashMap<>();
+        metadata.put("type", type);
+        metadata.put("string", key);
+        metadata.put("store", stored);
+        return new Field(key, metadata);
+    }
+}
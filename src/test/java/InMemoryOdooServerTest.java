@@ -0,0 +1,268 @@
+import com.kinnarastudio.odooxmlrpc.cache.SchemaRegistry;
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.export.ExportProgress;
+import com.kinnarastudio.odooxmlrpc.export.ExportSettings;
+import com.kinnarastudio.odooxmlrpc.export.ModelExporter;
+import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.FieldSet;
+import com.kinnarastudio.odooxmlrpc.model.PageMode;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.JsonOdooRpc;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import com.kinnarastudio.odooxmlrpc.sync.DeltaSync;
+import com.kinnarastudio.odooxmlrpc.sync.FileWatermarkStore;
+import com.kinnarastudio.odooxmlrpc.sync.SyncResult;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+import stub.ModelStore;
+
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link OdooRpc} end to end against {@link InMemoryOdooServer}
+ */
+public class InMemoryOdooServerTest {
+    private final static String MODEL = "res.partner";
+
+    @Test
+    public void testCrud() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate(MODEL, 250, 16);
+
+            assert rpc.searchCount(MODEL, null) == 250;
+            assert Arrays.equals(rpc.search(MODEL, null, "id desc", 10, 3), new int[]{240, 239, 238});
+            assert rpc.search(MODEL, new SearchFilter[]{new SearchFilter("name", SearchFilter.Operator.LIKE, "Record 1_")}, null, null, null).length == 10;
+
+            final Map<String, Object>[] records = rpc.read(MODEL, new String[]{"email"}, new int[]{5, 3});
+            assert records.length == 2 && records[0].get("id").equals(5) && "record5@example.com".equals(records[0].get("email"));
+            assert !records[0].containsKey("payload");
+
+            final Map<String, Object> values = new HashMap<>();
+            values.put("name", "Created");
+            values.put("active", false);
+            final int id = rpc.create(MODEL, values);
+            assert id == 251;
+
+            rpc.write(MODEL, id, Collections.singletonMap("name", "Written"));
+            assert "Written".equals(rpc.read(MODEL, new String[]{"name"}, new int[]{id})[0].get("name"));
+            assert rpc.searchCount(MODEL, new SearchFilter[]{new SearchFilter("active", false)}) == 1;
+
+            rpc.unlink(MODEL, new int[]{id, 1});
+            assert server.getStore().size(MODEL) == 249;
+
+            final Set<String> fields = rpc.fieldsGet(MODEL).stream().map(Field::getKey).collect(Collectors.toSet());
+            assert fields.containsAll(Arrays.asList("id", "name", "email", "active", "payload", "write_date"));
+        }
+    }
+
+    @Test
+    public void testPaging() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate(MODEL, 250, 16);
+
+            for (PageMode mode : PageMode.values()) {
+                server.resetStatistics();
+                final List<Object> ids = rpc.searchReadStream(MODEL, new String[]{"name"}, null, "id", 100, mode)
+                        .map(record -> record.get("id"))
+                        .collect(Collectors.toList());
+                assert ids.size() == 250 && ids.get(0).equals(1) && ids.get(249).equals(250) : mode;
+                assert server.getCalls("search_read") == 3 : mode + " " + server.getCalls("search_read");
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultFieldSetLoadsTypeAndStore() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate(MODEL, 5, 16);
+
+            assert rpc.searchRead(MODEL, null, null, null, null).length == 5;
+            assert rpc.read(MODEL, null, new int[]{1, 2}).length == 2;
+            assert server.getCalls("fields_get") == 1;
+
+            final List<SchemaRegistry.Entry> entries = rpc.getSchemaRegistry().getEntries(InMemoryOdooServer.DATABASE);
+            assert entries.size() == 1 && Arrays.equals(entries.get(0).getAttributes(), new String[]{"store", "type"});
+            assert entries.get(0).getSchema().getFields().stream().allMatch(field -> field.getTypeName() != null && field.isStored());
+        }
+    }
+
+    @Test
+    public void testDefaultFieldSetFallsBackOnAccessFault() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect();
+             OdooRpc json = new JsonOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)) {
+            server.getStore().generate(MODEL, 5, 16);
+            server.denyAccess(MODEL, "fields_get");
+
+            // every field is requested, and the denial is not asked again
+            for (OdooRpc client : List.of(rpc, json)) {
+                assert client.resolveFields(MODEL, FieldSet.lightweight()) == null;
+                assert client.searchRead(MODEL, null, null, null, null)[0].containsKey("payload");
+                assert client.read(MODEL, null, new int[]{1}).length == 1;
+            }
+            assert server.getCalls("fields_get") == 2;
+
+            rpc.invalidateSchema(MODEL);
+            assert rpc.resolveFields(MODEL, FieldSet.lightweight()) == null;
+            assert server.getCalls("fields_get") == 3;
+        }
+    }
+
+    @Test
+    public void testDefaultFieldSetRethrowsOtherFailures() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate(MODEL, 5, 16);
+
+            for (InMemoryOdooServer.Failure failure : InMemoryOdooServer.Failure.values()) {
+                server.failNext(5, failure);
+                try {
+                    rpc.resolveFields(MODEL, FieldSet.lightweight());
+                    assert false : failure;
+                } catch (OdooCallMethodException expected) {
+                    // expected
+                }
+                server.failNext(0, failure);
+            }
+
+            // nothing was cached, the schema is loaded once the server answers
+            assert Arrays.asList(rpc.resolveFields(MODEL, FieldSet.lightweight())).contains("payload");
+        }
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate(MODEL, 10, 16);
+
+            for (InMemoryOdooServer.Failure failure : InMemoryOdooServer.Failure.values()) {
+                // more than the http client may retry on a dropped connection
+                server.failNext(5, failure);
+                try {
+                    rpc.searchCount(MODEL, null);
+                    assert false : failure;
+                } catch (OdooCallMethodException expected) {
+                    // expected
+                }
+
+                server.failNext(0, failure);
+                assert rpc.searchCount(MODEL, null) == 10 : failure;
+            }
+            assert server.getFailures() >= InMemoryOdooServer.Failure.values().length;
+
+            try {
+                new OdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, "wrong").close();
+                assert false;
+            } catch (OdooAuthorizationException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testExportRetriesInjectedFailures() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(new ModelStore(), 42);
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate(MODEL, 1_000, 64);
+            server.setLatency(1, 4);
+
+            final ModelExporter exporter = new ModelExporter(rpc, ExportSettings.getBuilder()
+                    .shardSize(100)
+                    .parallelism(4)
+                    .maxRetries(10)
+                    .retryDelay(1)
+                    .build());
+
+            // the search planning the shards goes through, the next three shard reads fail
+            server.failAfter(1, 3, InMemoryOdooServer.Failure.UNAVAILABLE);
+            final Set<Object> ids = ConcurrentHashMap.newKeySet();
+            final ExportProgress progress = exporter.export(MODEL, new String[]{"name"}, null, (shard, records) -> {
+                for (Map<String, Object> record : records) {
+                    ids.add(record.get("id"));
+                }
+            });
+
+            assert progress.isDone() && ids.size() == 1_000;
+            assert server.getFailures() == 3 && progress.getRetries() == 3;
+
+            // a fault raised by odoo is not retried
+            server.failAfter(1, 1, InMemoryOdooServer.Failure.FAULT);
+            try {
+                exporter.export(MODEL, new String[]{"name"}, null, (shard, records) -> {
+                });
+                assert false;
+            } catch (OdooCallMethodException e) {
+                assert server.getFailures() == 4;
+            }
+        }
+    }
+
+    @Test
+    public void testExportSkipsRecordsDeletedMeanwhile() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate(MODEL, 300, 16);
+
+            final ModelExporter exporter = new ModelExporter(rpc, ExportSettings.getBuilder()
+                    .shardSize(100)
+                    .parallelism(1)
+                    .ordered(true)
+                    .build());
+
+            // deleted once the shards are planned, before the shard holding them is read
+            final List<Object> ids = new ArrayList<>();
+            final ExportProgress progress = exporter.export(MODEL, new String[]{"name"}, null, (shard, records) -> {
+                if (shard.getIndex() == 0) {
+                    server.getStore().unlink(MODEL, new int[]{150, 250});
+                }
+                Arrays.stream(records).forEach(record -> ids.add(record.get("id")));
+            });
+
+            assert progress.isDone() && progress.getRecords() == 298 && ids.size() == 298;
+            assert !ids.contains(150) && !ids.contains(250) && ids.contains(151);
+        }
+    }
+
+    @Test
+    public void testDeltaSync() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            final ModelStore store = server.getStore();
+            store.generate(MODEL, 25, 16);
+
+            final DeltaSync sync = new DeltaSync(rpc, new FileWatermarkStore(Files.createTempDirectory("in-memory-odoo")));
+            sync.setPageSize(10);
+            SyncResult result = sync.sync(MODEL, new String[]{"name"}, null, page -> {
+            });
+            assert result.isFull() && result.getRecords() == 25 && result.getPages() == 3;
+
+            store.write(MODEL, new int[]{3, 7}, Collections.singletonMap("name", "changed"));
+            final List<Object> changed = new ArrayList<>();
+            result = sync.sync(MODEL, new String[]{"name"}, null, page -> Arrays.stream(page).forEach(r -> changed.add(r.get("id"))));
+            assert !result.isFull() && changed.equals(Arrays.asList(3, 7));
+        }
+    }
+
+    @Test
+    public void testPayloadSize() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            server.getStore().generate("small", 100, 10);
+            server.getStore().generate("large", 100, 10_000);
+
+            rpc.searchRead("small", null, null, null, null);
+            final long small = server.getBytesSent();
+            rpc.searchRead("large", null, null, null, null);
+            final long large = server.getBytesSent() - small;
+            assert large > 100 * 10_000 && large > small * 10;
+        }
+    }
+}
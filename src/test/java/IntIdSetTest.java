@@ -0,0 +1,49 @@
+import com.kinnarastudio.odooxmlrpc.model.IntIdSet;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+public class IntIdSetTest {
+    @Test
+    public void testOf() {
+        final int[] ids = {5, 3, 9, 3, 1, 5};
+        final IntIdSet set = IntIdSet.of(ids);
+        assert set.size() == 4 && set.first() == 1 && set.last() == 9;
+        assert set.contains(3) && !set.contains(4);
+        assert set.equals(IntIdSet.ofSorted(new int[]{1, 3, 5, 9}));
+        assert ids[0] == 5 : "input must not be modified";
+        assert IntIdSet.of() == IntIdSet.empty();
+
+        try {
+            IntIdSet.ofSorted(new int[]{1, 1});
+            assert false;
+        } catch (IllegalArgumentException ignored) {
+            // expected
+        }
+        try {
+            IntIdSet.empty().first();
+            assert false;
+        } catch (NoSuchElementException ignored) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSetOperations() {
+        final IntIdSet evens = IntIdSet.of(IntStream.rangeClosed(1, 100_000).map(i -> i * 2).toArray());
+        final IntIdSet threes = IntIdSet.of(IntStream.rangeClosed(1, 100_000).map(i -> i * 3).toArray());
+
+        final IntIdSet sixes = evens.intersect(threes);
+        assert sixes.size() == 33_333 && sixes.stream().allMatch(id -> id % 6 == 0);
+        assert evens.union(threes).size() == 200_000 - 33_333;
+        assert evens.minus(threes).size() == 100_000 - 33_333;
+        assert evens.minus(threes).intersect(threes).isEmpty();
+        assert evens.minus(evens).isEmpty();
+        assert evens.union(IntIdSet.empty()) == evens;
+
+        final int[] array = evens.toArray();
+        array[0] = -1;
+        assert evens.first() == 2;
+    }
+}
@@ -0,0 +1,153 @@
+import com.kinnarastudio.odooxmlrpc.rpc.*;
+import model.HrEmployee;
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * {@link JsonOdooRpc} against {@link InMemoryOdooServer} serving the same records over XML-RPC and JSON-RPC
+ */
+public class JsonOdooRpcTest {
+    private final static String[] FIELDS = {"id", "name", "email", "active", "parent_id"};
+    private final static int RECORDS = 200;
+
+    @Test
+    public void testReader() throws Exception {
+        final String json = "{\"jsonrpc\": \"2.0\", \"id\": 1, \"result\": ["
+                + "{\"id\": 7, \"name\": \"A \\\"B\\\" \\u00e9\", \"amount\": -1.5e2, \"big\": 12345678901, \"partner_id\": [3, \"Agrolait\"], \"tags\": [], \"meta\": {}},"
+                + " null, false]}";
+
+        final ResponseReader reader = new JsonRpcResponseReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), null);
+        assert reader.isArray();
+
+        final Map<String, Object> record = (Map<String, Object>) reader.next();
+        assert Integer.valueOf(7).equals(record.get("id"));
+        assert "A \"B\" \u00e9".equals(record.get("name"));
+        assert Double.valueOf(-150).equals(record.get("amount"));
+        assert Long.valueOf(12345678901L).equals(record.get("big"));
+        assert Arrays.equals((Object[]) record.get("partner_id"), new Object[]{3, "Agrolait"});
+        assert ((Object[]) record.get("tags")).length == 0;
+
+        assert reader.next() == null;
+        assert Boolean.FALSE.equals(reader.next());
+        assert !reader.hasNext();
+    }
+
+    @Test
+    public void testReadIntArray() throws Exception {
+        assert Arrays.equals(reader("[1, 22 ,333,\n-4, 2147483647]").readIntArray(), new int[]{1, 22, 333, -4, Integer.MAX_VALUE});
+        assert reader("[]").readIntArray().length == 0;
+        for (String invalid : new String[]{"[1, 2.5]", "[1, \"2\"]", "[2147483648]", "7"}) {
+            try {
+                reader(invalid).readIntArray();
+                assert false : invalid;
+            } catch (XmlRpcException ignored) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testError() {
+        final String json = "{\"jsonrpc\": \"2.0\", \"id\": 1, \"error\": {\"code\": 200, \"message\": \"Odoo Server Error\", "
+                + "\"data\": {\"name\": \"odoo.exceptions.AccessDenied\", \"message\": \"Access Denied\"}}}";
+        try {
+            new JsonRpcResponseReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), null);
+            assert false;
+        } catch (XmlRpcException e) {
+            assert e.code == XmlRpcUtil.FAULT_ACCESS_DENIED;
+            assert "Access Denied".equals(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSameResultsAsXmlRpc() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc xml = server.connect();
+             OdooRpc json = new JsonOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)) {
+            server.getStore().generatePartners("hr.employee", RECORDS);
+            assert json.getUid() == InMemoryOdooServer.UID;
+            assert Arrays.equals(json.search("res.partner", null, null, null, null), xml.search("res.partner", null, null, null, null));
+
+            final Map<String, Object>[] xmlRecords = xml.searchRead("res.partner", FIELDS, null, null, null, null);
+            final Map<String, Object>[] jsonRecords = json.searchRead("res.partner", FIELDS, null, null, null, null);
+            assert sameRecords(xmlRecords, jsonRecords);
+            assert Arrays.deepEquals((Object[]) jsonRecords[1].get("parent_id"), new Object[]{1, "Partner 1"});
+
+            final HrEmployee[] employees = json.searchRead(HrEmployee.class, null, null, null, null);
+            assert employees.length == RECORDS;
+            assert employees[4].getId() == 5 && "Partner 5".equals(employees[4].getName());
+        }
+    }
+
+    @Test
+    public void testDatesSentInUtcOnEveryProtocol() throws Exception {
+        final TimeZone defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Jakarta"));
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc xml = server.connect();
+             OdooRpc apache = server.connect(new XmlRpcClientTransport(ConnectionSettings.getDefault()));
+             OdooRpc json = new JsonOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY)) {
+
+            final Date date = Date.from(Instant.parse("2024-01-02T03:04:05Z"));
+            final List<OdooRpc> clients = List.of(xml, apache, json);
+            for (int id = 1; id <= clients.size(); id++) {
+                clients.get(id - 1).write("res.partner", id, Collections.singletonMap("date", date));
+                final Object written = server.getStore().read("res.partner", new int[]{id}, new Object[]{"date"}).get(0).get("date");
+                assert "2024-01-02 03:04:05".equals(written) : "client " + id + " wrote " + written;
+            }
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    @Test
+    public void testJsonResponsesAreSmaller() throws Exception {
+        final ConnectionSettings settings = ConnectionSettings.getBuilder()
+                .responseCompression(false)
+                .build();
+
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc xml = server.connect(new JavaHttpTransport(settings));
+             OdooRpc json = new JsonOdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY, settings)) {
+
+            assert xml.searchRead("res.partner", FIELDS, null, null, null, null).length == RECORDS;
+            assert json.searchRead("res.partner", FIELDS, null, null, null, null).length == RECORDS;
+
+            final long xmlBytes = xml.getCompressionStats().getResponseBytes();
+            final long jsonBytes = json.getCompressionStats().getResponseBytes();
+            assert jsonBytes * 2 < xmlBytes;
+        }
+    }
+
+    private static ResponseReader reader(String result) throws XmlRpcException {
+        final String json = "{\"jsonrpc\": \"2.0\", \"id\": 1, \"result\": " + result + "}";
+        return new JsonRpcResponseReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    /**
+     * Compare records value by value, many2one values are arrays
+     */
+    private static boolean sameRecords(Map<String, Object>[] expected, Map<String, Object>[] actual) {
+        if (expected.length != actual.length) {
+            return false;
+        }
+
+        for (int i = 0; i < expected.length; i++) {
+            if (!expected[i].keySet().equals(actual[i].keySet())) {
+                return false;
+            }
+            for (Map.Entry<String, Object> e : expected[i].entrySet()) {
+                if (!Objects.deepEquals(e.getValue(), actual[i].get(e.getKey()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
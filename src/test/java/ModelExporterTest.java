@@ -0,0 +1,229 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.export.*;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.ConnectionSettings;
+import com.kinnarastudio.odooxmlrpc.rpc.JavaHttpTransport;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ModelExporter} against an in-memory model
+ */
+public class ModelExporterTest {
+    private final static int RECORDS = 1_000;
+
+    @Test
+    public void testUnorderedIdList() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final ModelExporter exporter = new ModelExporter(() -> {
+            created.incrementAndGet();
+            return new FakeRpc(closed);
+        }, ExportSettings.getBuilder().shardSize(100).parallelism(4).build());
+
+        final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        final ExportProgress progress = exporter.export("res.partner", null, null, (shard, records) -> {
+            assert shard.getIds() != null && shard.getIds().length == records.length;
+            for (Map<String, Object> record : records) {
+                assert ids.add((Integer) record.get("id"));
+            }
+        });
+
+        assert progress.isDone() && progress.getTotalShards() == 10;
+        assert progress.getRecords() == RECORDS && ids.size() == RECORDS;
+        assert created.get() == 5 && closed.get() == 5;
+    }
+
+    @Test
+    public void testOrderedIdRange() throws Exception {
+        final ModelExporter exporter = new ModelExporter(new FakeRpc(null), ExportSettings.getBuilder()
+                .shardMode(ShardMode.ID_RANGE)
+                .shardSize(64)
+                .parallelism(8)
+                .ordered(true)
+                .build());
+
+        final List<ExportProgress> progress = Collections.synchronizedList(new ArrayList<>());
+        exporter.setProgressListener(progress::add);
+
+        final List<Integer> ids = new ArrayList<>();
+        exporter.export("res.partner", null, null, (shard, records) -> {
+            for (Map<String, Object> record : records) {
+                final int id = (Integer) record.get("id");
+                assert id >= shard.getFromId() && id <= shard.getToId();
+                ids.add(id);
+            }
+        });
+
+        // ids are even, so ranges of 64 hold 32 records
+        final ExportProgress last = progress.get(progress.size() - 1);
+        assert last.isDone() && last.getTotalShards() == progress.size() && last.getTotalShards() == (RECORDS * 2 + 63) / 64;
+        assert ids.size() == RECORDS;
+        for (int i = 1; i < ids.size(); i++) {
+            assert ids.get(i - 1) < ids.get(i);
+        }
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        final FakeRpc rpc = new FakeRpc(null);
+        rpc.failures.set(2);
+        final ModelExporter exporter = new ModelExporter(rpc, ExportSettings.getBuilder()
+                .shardSize(100)
+                .retryDelay(1)
+                .build());
+
+        final ExportProgress progress = exporter.export("res.partner", null, null, (shard, records) -> {
+        });
+        assert progress.isDone() && progress.getRetries() == 2;
+
+        rpc.failures.set(Integer.MAX_VALUE);
+        try {
+            exporter.export("res.partner", null, null, (shard, records) -> {
+            });
+            assert false;
+        } catch (OdooCallMethodException e) {
+            assert e.getMessage().contains("read failed");
+        }
+    }
+
+    @Test
+    public void testFaultIsNotRetried() throws Exception {
+        final FakeRpc rpc = new FakeRpc(null);
+        rpc.failureCode = 1;
+        rpc.failures.set(1);
+        try {
+            // a retry would succeed
+            new ModelExporter(rpc, ExportSettings.getBuilder().shardSize(100).retryDelay(1).build())
+                    .export("res.partner", null, null, (shard, records) -> {
+                    });
+            assert false;
+        } catch (OdooCallMethodException e) {
+            assert e.getMessage().contains("read failed");
+        }
+    }
+
+    @Test
+    public void testOrderedReadAheadIsBounded() throws Exception {
+        final int shardSize = 10;
+        final int parallelism = 4;
+        final AtomicInteger delivered = new AtomicInteger();
+        final AtomicInteger maxAhead = new AtomicInteger();
+        final FakeRpc rpc = new FakeRpc(null) {
+            @Override
+            public Map<String, Object>[] searchRead(String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+                final int index = (((int[]) filters[filters.length - 1].getValue())[0] / 2 - 1) / shardSize;
+                maxAhead.accumulateAndGet(index - delivered.get(), Math::max);
+                if (index == 0) {
+                    // the first shard is slow, the others would all be read meanwhile
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.searchRead(model, fields, filters, order, offset, limit);
+            }
+        };
+
+        new ModelExporter(rpc, ExportSettings.getBuilder().shardSize(shardSize).parallelism(parallelism).ordered(true).build())
+                .export("res.partner", null, null, (shard, records) -> delivered.incrementAndGet());
+
+        assert delivered.get() == RECORDS / shardSize;
+        assert maxAhead.get() < 2 * parallelism : "maxAhead=" + maxAhead.get();
+    }
+
+    @Test
+    public void testJsonLinesSink() throws Exception {
+        final StringWriter writer = new StringWriter();
+        try (JsonLinesSink sink = new JsonLinesSink(writer)) {
+            new ModelExporter(new FakeRpc(null), ExportSettings.getBuilder().shardSize(300).ordered(true).build())
+                    .export("res.partner", null, null, sink);
+        }
+
+        final String[] lines = writer.toString().split("\n");
+        assert lines.length == RECORDS;
+        assert lines[0].contains("\"id\":2") && lines[0].contains("\"name\":\"Partner 2\"");
+    }
+
+    /**
+     * Rpc serving even ids 2..2000 from memory, with random latency, failing searches of records with an http status or fault code
+     */
+    private static class FakeRpc extends OdooRpc {
+        private final AtomicInteger closed;
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile int failureCode = 503;
+
+        FakeRpc(AtomicInteger closed) throws OdooAuthorizationException {
+            super("http://127.0.0.1:1", "db", "user", "key", new JavaHttpTransport(ConnectionSettings.getDefault()));
+            this.closed = closed;
+        }
+
+        @Override
+        protected Object execute(String url, String method, Object[] params) {
+            return 2;
+        }
+
+        @Override
+        public int[] search(String model, SearchFilter[] filters, String order, Integer offset, Integer limit) {
+            final int[] ids = IntStream.rangeClosed(1, RECORDS).map(i -> i * 2).toArray();
+            if (limit == null) {
+                return ids;
+            }
+            return new int[]{order.endsWith("desc") ? ids[ids.length - 1] : ids[0]};
+        }
+
+        @Override
+        public Map<String, Object>[] searchRead(String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+            if (failures.getAndDecrement() > 0) {
+                throw new OdooCallMethodException(new XmlRpcException(failureCode, "read failed"));
+            }
+
+            final SearchFilter last = filters[filters.length - 1];
+            if (last.getOperator() == SearchFilter.Operator.IN) {
+                sleep();
+                return Arrays.stream((int[]) last.getValue()).mapToObj(FakeRpc::record).toArray(Map[]::new);
+            }
+
+            final int from = (Integer) filters[filters.length - 2].getValue();
+            final int to = (Integer) filters[filters.length - 1].getValue();
+            sleep();
+            return IntStream.rangeClosed(from, to)
+                    .filter(id -> id % 2 == 0 && id <= RECORDS * 2)
+                    .mapToObj(FakeRpc::record)
+                    .toArray(Map[]::new);
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (closed != null) {
+                closed.incrementAndGet();
+            }
+        }
+
+        private static Map<String, Object> record(int id) {
+            final Map<String, Object> record = new HashMap<>();
+            record.put("id", id);
+            record.put("name", "Partner " + id);
+            return record;
+        }
+
+        private static void sleep() {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+import com.kinnarastudio.odooxmlrpc.rpc.ModelMapping;
+import model.HrEmployee;
+import model.ProductTemplate;
+import org.junit.Test;
+
+import java.util.*;
+
+public class ModelMappingTest {
+    @Test
+    public void testModelAndFields() {
+        final ModelMapping<HrEmployee> mapping = ModelMapping.of(HrEmployee.class);
+
+        assert "hr.employee".equals(mapping.getModel());
+        assert Arrays.asList(mapping.getFields()).equals(Arrays.asList("id", "name", "barcode"));
+        assert mapping == ModelMapping.of(HrEmployee.class);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final ModelMapping<HrEmployee> mapping = ModelMapping.of(HrEmployee.class);
+        final HrEmployee employee = mapping.fromMap(record(7)).orElseThrow();
+
+        assert employee.getId() == 7;
+        assert "Employee 7".equals(employee.getName());
+        assert mapping.toMap(employee).equals(record(7));
+    }
+
+    @Test
+    public void testPrimitiveWidening() {
+        final Map<String, Object> record = new HashMap<>();
+        record.put("reordering_max_qty", 5);
+        record.put("detailed_type", "product");
+
+        final ProductTemplate product = ModelMapping.of(ProductTemplate.class).fromMap(record).orElseThrow();
+        assert product.getReorderingMaxQty() == 5.0;
+    }
+
+    @Test
+    public void testMismatchedTypeThrows() {
+        final Map<String, Object> record = record(1);
+        record.put("id", "not a number");
+
+        try {
+            ModelMapping.of(HrEmployee.class).fromMap(record);
+            assert false;
+        } catch (IllegalArgumentException expected) {
+            assert expected.getMessage().contains("[id]");
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testUnreadableObjectThrows() {
+        final ModelMapping mapping = ModelMapping.of(HrEmployee.class);
+        try {
+            mapping.toMap(new Object());
+            assert false;
+        } catch (ClassCastException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFalseAndMany2one() {
+        final Map<String, Object> record = record(1);
+        record.put("id", new Object[]{3, "Employee 3"});
+        record.put("name", new Object[]{3, "Employee 3"});
+        record.put("barcode", false);
+
+        final HrEmployee employee = ModelMapping.of(HrEmployee.class).fromMap(record).orElseThrow();
+        assert employee.getId() == 3;
+        assert "Employee 3".equals(employee.getName());
+        assert employee.getBarcode() == null;
+    }
+
+    private static Map<String, Object> record(int id) {
+        final Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        record.put("name", "Employee " + id);
+        record.put("barcode", "B" + id);
+        return record;
+    }
+}
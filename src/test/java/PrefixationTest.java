@@ -0,0 +1,64 @@
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class PrefixationTest {
+    @Test
+    public void testLeftAssociativeJoins() {
+        final Object[] domain = XmlRpcUtil.prefixation(new SearchFilter[]{
+                new SearchFilter("a", 1),
+                new SearchFilter(SearchFilter.Join.OR, "b", 2),
+                new SearchFilter(SearchFilter.Join.AND, "c", null),
+        });
+        assert Arrays.deepEquals(domain, new Object[]{"&", "|", new Object[]{"a", "=", 1}, new Object[]{"b", "=", 2}, new Object[]{"c", "=", false}});
+        assert XmlRpcUtil.prefixation(null).length == 0;
+        assert XmlRpcUtil.prefixation(new SearchFilter[0]).length == 0;
+    }
+
+    @Test
+    public void testSameAsInsertingJoins() {
+        final Random random = new Random(7);
+        for (int n = 1; n <= 50; n++) {
+            final SearchFilter[] filters = new SearchFilter[n];
+            for (int i = 0; i < n; i++) {
+                filters[i] = new SearchFilter(random.nextBoolean() ? SearchFilter.Join.AND : SearchFilter.Join.OR, "f" + i,
+                        SearchFilter.Operator.values()[random.nextInt(SearchFilter.Operator.values().length)], i);
+            }
+            assert Arrays.deepEquals(XmlRpcUtil.prefixation(filters), insertingJoins(filters));
+        }
+    }
+
+    @Test
+    public void testLeavesAreReused() {
+        final SearchFilter[] filters = new SearchFilter[5_000];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = new SearchFilter(SearchFilter.Join.OR, "code", "C" + i);
+        }
+
+        final Object[] first = XmlRpcUtil.prefixation(filters);
+        final Object[] second = XmlRpcUtil.prefixation(Arrays.copyOf(filters, filters.length));
+        assert first.length == 9_999 && first != second;
+        for (int i = filters.length - 1; i < first.length; i++) {
+            assert first[i] == second[i];
+        }
+    }
+
+    /**
+     * The former quadratic implementation, as reference
+     */
+    private static Object[] insertingJoins(SearchFilter[] filters) {
+        final List<Object> result = new ArrayList<>();
+        for (SearchFilter filter : filters) {
+            if (!result.isEmpty()) {
+                result.add(0, filter.getJoin().toString());
+            }
+            result.add(new SearchFilter.Operand(filter).toObjects());
+        }
+        return result.toArray();
+    }
+}
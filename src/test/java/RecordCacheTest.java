@@ -0,0 +1,134 @@
+import com.kinnarastudio.odooxmlrpc.cache.CachePolicy;
+import com.kinnarastudio.odooxmlrpc.cache.RecordCache;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class RecordCacheTest {
+    private final static String MODEL = "res.partner";
+    private final static String[] FIELDS = {"id", "name"};
+
+    @Test
+    public void testHitAndMiss() {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 60_000));
+
+        assert cache.get(MODEL, FIELDS, 1) == null;
+        cache.put(MODEL, FIELDS, record(1));
+        assert "Partner 1".equals(cache.get(MODEL, new String[]{"name", "id"}, 1).get("name"));
+        assert cache.get(MODEL, null, 1) == null;
+
+        assert cache.getHitCount() == 1;
+        assert cache.getMissCount() == 2;
+    }
+
+    @Test
+    public void testCopiesRecords() {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 60_000));
+        cache.put(MODEL, FIELDS, record(1));
+
+        cache.get(MODEL, FIELDS, 1).put("name", "changed");
+        assert "Partner 1".equals(cache.get(MODEL, FIELDS, 1).get("name"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        final RecordCache cache = new RecordCache(new CachePolicy(2, 60_000));
+        cache.put(MODEL, FIELDS, record(1));
+        cache.put(MODEL, FIELDS, record(2));
+        cache.get(MODEL, FIELDS, 1);
+        cache.put(MODEL, FIELDS, record(3));
+
+        assert cache.size(MODEL) == 2;
+        assert cache.get(MODEL, FIELDS, 1) != null;
+        assert cache.get(MODEL, FIELDS, 2) == null;
+        assert cache.getEvictionCount() == 1;
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 20));
+        cache.put(MODEL, FIELDS, record(1));
+        Thread.sleep(40);
+
+        assert cache.get(MODEL, FIELDS, 1) == null;
+    }
+
+    @Test
+    public void testPolicyPerModel() {
+        final RecordCache cache = new RecordCache();
+        cache.setPolicy("uom.uom", new CachePolicy(10, 60_000));
+        cache.put(MODEL, FIELDS, record(1));
+        cache.put("uom.uom", FIELDS, record(1));
+
+        assert !cache.isCached(MODEL);
+        assert cache.get(MODEL, FIELDS, 1) == null;
+        assert cache.get("uom.uom", FIELDS, 1) != null;
+    }
+
+    @Test
+    public void testInvalidate() {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 60_000));
+        cache.put(MODEL, FIELDS, record(1));
+        cache.put(MODEL, null, record(1));
+        cache.invalidate(MODEL, 1);
+
+        assert cache.get(MODEL, FIELDS, 1) == null;
+        assert cache.get(MODEL, null, 1) == null;
+    }
+
+    @Test
+    public void testStalePutIsDropped() {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 60_000));
+
+        // read started, then the record was written and invalidated before the read was put
+        final long stamp = cache.stamp();
+        cache.invalidate(MODEL, 1);
+        assert !cache.put(MODEL, FIELDS, record(1), stamp);
+        assert cache.get(MODEL, FIELDS, 1) == null;
+
+        // other records of the same read are kept
+        assert cache.put(MODEL, FIELDS, record(2), stamp);
+        assert cache.get(MODEL, FIELDS, 2) != null;
+
+        // reads started after the invalidation are cached
+        assert cache.put(MODEL, FIELDS, record(1), cache.stamp());
+        assert cache.get(MODEL, FIELDS, 1) != null;
+    }
+
+    @Test
+    public void testStalePutAfterModelInvalidation() {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 60_000));
+
+        long stamp = cache.stamp();
+        cache.invalidate(MODEL);
+        assert !cache.put(MODEL, FIELDS, record(1), stamp);
+        assert cache.size(MODEL) == 0;
+
+        stamp = cache.stamp();
+        cache.invalidateAll();
+        assert !cache.put(MODEL, FIELDS, record(1), stamp);
+        assert cache.put(MODEL, FIELDS, record(1), cache.stamp());
+    }
+
+    @Test
+    public void testForgottenInvalidationsStayConservative() {
+        final RecordCache cache = new RecordCache(new CachePolicy(10, 60_000));
+        final long stamp = cache.stamp();
+        cache.invalidate(MODEL, 1);
+        for (int id = 2; id < 10_000; id++) {
+            cache.invalidate(MODEL, id);
+        }
+
+        assert !cache.put(MODEL, FIELDS, record(1), stamp);
+        assert !cache.put(MODEL, FIELDS, record(10_000), stamp);
+        assert cache.put(MODEL, FIELDS, record(1), cache.stamp());
+    }
+
+    private static Map<String, Object> record(int id) {
+        final Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        record.put("name", "Partner " + id);
+        return record;
+    }
+}
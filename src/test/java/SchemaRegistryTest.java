@@ -0,0 +1,131 @@
+import com.kinnarastudio.odooxmlrpc.cache.SchemaRegistry;
+import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.ModelSchema;
+import org.junit.Test;
+
+import java.util.*;
+
+public class SchemaRegistryTest {
+    private final static String DATABASE = "odoo";
+    private final static long TTL = 60_000;
+
+    @Test
+    public void testHitWithinTtl() throws Exception {
+        final SchemaRegistry registry = new SchemaRegistry(TTL, 10);
+        final Loader loader = new Loader(0);
+
+        final ModelSchema schema = registry.get(DATABASE, "res.partner", null, loader);
+        assert registry.get(DATABASE, "res.partner", null, loader) == schema;
+        assert loader.loads == 1;
+        assert schema.hasField("name");
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        final SchemaRegistry registry = new SchemaRegistry(TTL, 10);
+
+        // loaded a ttl ago, so stale as soon as it is cached
+        final Loader stale = new Loader(TTL);
+        registry.get(DATABASE, "res.partner", null, stale);
+        registry.get(DATABASE, "res.partner", null, stale);
+        assert stale.loads == 2;
+
+        final Loader fresh = new Loader(TTL - 1_000);
+        registry.get(DATABASE, "res.partner", null, fresh);
+        registry.get(DATABASE, "res.partner", null, fresh);
+        assert fresh.loads == 1;
+    }
+
+    @Test
+    public void testZeroTtlDisablesCaching() throws Exception {
+        final SchemaRegistry registry = new SchemaRegistry(0, 10);
+        final Loader loader = new Loader(0);
+
+        registry.get(DATABASE, "res.partner", null, loader);
+        registry.get(DATABASE, "res.partner", null, loader);
+        assert loader.loads == 2;
+        assert registry.size() == 0;
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        final SchemaRegistry registry = new SchemaRegistry(TTL, 2);
+        final Loader loader = new Loader(0);
+
+        registry.get(DATABASE, "a", null, loader);
+        registry.get(DATABASE, "b", null, loader);
+        registry.get(DATABASE, "a", null, loader);
+        registry.get(DATABASE, "c", null, loader);
+        assert loader.loads == 3 && registry.size() == 2;
+
+        // b was the least recently used
+        registry.get(DATABASE, "a", null, loader);
+        registry.get(DATABASE, "c", null, loader);
+        assert loader.loads == 3;
+        registry.get(DATABASE, "b", null, loader);
+        assert loader.loads == 4 && registry.size() == 2;
+    }
+
+    @Test
+    public void testAttributesAreKeyed() throws Exception {
+        final SchemaRegistry registry = new SchemaRegistry(TTL, 10);
+        final Loader loader = new Loader(0);
+
+        registry.get(DATABASE, "res.partner", new String[]{"type", "string"}, loader);
+        registry.get(DATABASE, "res.partner", new String[]{"string", "type"}, loader);
+        assert loader.loads == 1;
+
+        registry.get(DATABASE, "res.partner", new String[]{"type"}, loader);
+        registry.get(DATABASE, "res.partner", null, loader);
+        registry.get("other", "res.partner", null, loader);
+        assert loader.loads == 4;
+        assert Arrays.equals(loader.attributes.get(1), new String[]{"type"}) && loader.attributes.get(2) == null;
+
+        final List<SchemaRegistry.Entry> entries = registry.getEntries(DATABASE);
+        assert entries.size() == 3;
+        assert entries.stream().anyMatch(e -> e.getAttributes() == null);
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        final SchemaRegistry registry = new SchemaRegistry(TTL, 10);
+        final Loader loader = new Loader(0);
+        registry.get(DATABASE, "res.partner", null, loader);
+        registry.get(DATABASE, "res.partner", new String[]{"type"}, loader);
+        registry.get(DATABASE, "res.users", null, loader);
+        registry.get("other", "res.partner", null, loader);
+
+        registry.invalidate(DATABASE, "res.partner");
+        assert registry.size() == 2;
+        registry.get(DATABASE, "res.users", null, loader);
+        registry.get("other", "res.partner", null, loader);
+        assert loader.loads == 4;
+
+        registry.invalidateAll();
+        assert registry.size() == 0;
+    }
+
+    /**
+     * Counts loads, returning schemas loaded some time ago
+     */
+    private final static class Loader implements SchemaRegistry.Loader {
+        private final long age;
+        private final List<String[]> attributes = new ArrayList<>();
+        private int loads;
+
+        Loader(long age) {
+            this.age = age;
+        }
+
+        @Override
+        public ModelSchema load(String model, String[] attributes) {
+            loads++;
+            this.attributes.add(attributes);
+
+            final Map<String, Object> metadata = new HashMap<>();
+            metadata.put("type", "char");
+            metadata.put("string", "Name");
+            return new ModelSchema(DATABASE, model, Collections.singletonList(new Field("name", metadata)), System.currentTimeMillis() - age);
+        }
+    }
+}
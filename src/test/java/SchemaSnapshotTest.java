@@ -0,0 +1,150 @@
+import com.kinnarastudio.odooxmlrpc.cache.SchemaRegistry;
+import com.kinnarastudio.odooxmlrpc.cache.SchemaSnapshot;
+import com.kinnarastudio.odooxmlrpc.exception.OdooUtilityException;
+import com.kinnarastudio.odooxmlrpc.model.Field;
+import com.kinnarastudio.odooxmlrpc.model.ModelSchema;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+import stub.ModelStore;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class SchemaSnapshotTest {
+    private final static String DATABASE = InMemoryOdooServer.DATABASE;
+    private final static String MODEL = "res.partner";
+    private final static String MODULE = "ir.module.module";
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final Map<String, Object> name = new HashMap<>();
+        name.put("type", "char");
+        name.put("string", "Name");
+        name.put("required", true);
+        name.put("size", 64);
+        name.put("digits", 12L);
+        name.put("weight", 1.5);
+        name.put("help", null);
+        name.put("selection", new Object[]{new Object[]{"a", "A"}, new Object[]{"b", "B"}});
+        name.put("context", Collections.singletonMap("lang", "en_US"));
+        name.put("write_date", new Date(1_700_000_000_000L));
+
+        final List<SchemaRegistry.Entry> entries = Arrays.asList(
+                new SchemaRegistry.Entry(new ModelSchema(DATABASE, MODEL, Collections.singletonList(new Field("name", name)), 1_000L), null),
+                new SchemaRegistry.Entry(new ModelSchema(DATABASE, "res.users", Collections.emptyList(), 2_000L), new String[]{"type", "string"}));
+
+        final Path file = Files.createTempDirectory("schema-snapshot").resolve("schemas.bin");
+        new SchemaSnapshot(DATABASE, "fingerprint", entries).write(file);
+        final SchemaSnapshot read = SchemaSnapshot.read(file).orElseThrow();
+
+        assert DATABASE.equals(read.getDatabase()) && "fingerprint".equals(read.getFingerprint());
+        assert read.getEntries().size() == 2;
+
+        final SchemaRegistry.Entry partner = read.getEntries().get(0);
+        assert partner.getAttributes() == null;
+        assert partner.getSchema().getModel().equals(MODEL) && partner.getSchema().getLoadedAt() == 1_000L;
+        final Map<String, Object> metadata = partner.getSchema().getField("name").orElseThrow().getMetadata();
+        assert metadata.keySet().equals(name.keySet());
+        for (Map.Entry<String, Object> e : name.entrySet()) {
+            assert Objects.deepEquals(metadata.get(e.getKey()), e.getValue()) : e.getKey();
+        }
+
+        final SchemaRegistry.Entry users = read.getEntries().get(1);
+        assert Arrays.equals(users.getAttributes(), new String[]{"type", "string"});
+        assert users.getSchema().getFields().isEmpty();
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        assert SchemaSnapshot.read(Files.createTempDirectory("schema-snapshot").resolve("missing.bin")).isEmpty();
+    }
+
+    @Test
+    public void testCorruptFile() throws Exception {
+        final Path file = Files.createTempDirectory("schema-snapshot").resolve("schemas.bin");
+        new SchemaSnapshot(DATABASE, null, Collections.singletonList(
+                new SchemaRegistry.Entry(new ModelSchema(DATABASE, MODEL, Collections.emptyList(), 1_000L), null))).write(file);
+        final byte[] valid = Files.readAllBytes(file);
+
+        for (byte[] corrupt : new byte[][]{"not a snapshot".getBytes(StandardCharsets.UTF_8), Arrays.copyOf(valid, valid.length / 2), new byte[0]}) {
+            Files.write(file, corrupt);
+            try {
+                SchemaSnapshot.read(file);
+                assert false;
+            } catch (OdooUtilityException expected) {
+                // expected
+            }
+        }
+
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect()) {
+            try {
+                rpc.loadSchemaSnapshot(file);
+                assert false;
+            } catch (OdooUtilityException expected) {
+                // expected
+            }
+            assert rpc.getSchemaRegistry().size() == 0;
+
+            // a corrupt file is replaced by the next save
+            server.getStore().field(MODEL, "name", "char");
+            rpc.getSchema(MODEL);
+            rpc.saveSchemaSnapshot(file);
+            assert SchemaSnapshot.read(file).orElseThrow().getEntries().size() == 1;
+        }
+    }
+
+    @Test
+    public void testUnchangedModulesKeepSnapshot() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start()) {
+            final Path file = snapshot(server);
+            server.getStore().field(MODEL, "phone", "char");
+
+            try (OdooRpc rpc = server.connect()) {
+                server.resetStatistics();
+                rpc.loadSchemaSnapshot(file).join();
+                assert !rpc.getSchema(MODEL).hasField("phone");
+                assert server.getCalls("fields_get") == 0;
+            }
+        }
+    }
+
+    @Test
+    public void testChangedModulesInvalidateSnapshot() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start()) {
+            final Path file = snapshot(server);
+            final ModelStore store = server.getStore();
+            store.field(MODEL, "phone", "char");
+            store.write(MODULE, new int[]{1}, Collections.singletonMap("latest_version", "17.0.1.1"));
+
+            try (OdooRpc rpc = server.connect()) {
+                server.resetStatistics();
+                rpc.loadSchemaSnapshot(file).join();
+                assert rpc.getSchema(MODEL).hasField("phone");
+                assert server.getCalls("fields_get") == 1;
+            }
+        }
+    }
+
+    /**
+     * Install a module, cache the schema of a model and save it
+     */
+    private static Path snapshot(InMemoryOdooServer server) throws Exception {
+        final Map<String, Object> module = new HashMap<>();
+        module.put("name", "base");
+        module.put("latest_version", "17.0.1.0");
+        module.put("state", "installed");
+        server.getStore().create(MODULE, module);
+        server.getStore().field(MODEL, "name", "char");
+
+        final Path file = Files.createTempDirectory("schema-snapshot").resolve("schemas.bin");
+        try (OdooRpc rpc = server.connect()) {
+            assert rpc.getSchema(MODEL).hasField("name");
+            rpc.saveSchemaSnapshot(file);
+        }
+        return file;
+    }
+}
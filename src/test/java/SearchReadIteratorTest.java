@@ -0,0 +1,130 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.model.PageMode;
+import com.kinnarastudio.odooxmlrpc.model.SearchFilter;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import com.kinnarastudio.odooxmlrpc.rpc.SearchReadIterator;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * {@link SearchReadIterator} and {@link OdooRpc#searchReadStream} against {@link InMemoryOdooServer}
+ */
+public class SearchReadIteratorTest {
+    private final static String MODEL = "res.partner";
+    private final static int RECORDS = 50;
+    private final static int PAGE_SIZE = 10;
+
+    @Test
+    public void testInsertDuringOffsetPaging() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect();
+             SearchReadIterator iterator = rpc.searchReadIterator(MODEL, new String[]{"name"}, null, "id desc", PAGE_SIZE, PageMode.OFFSET)) {
+
+            final List<Object> ids = consumeInserting(server, iterator);
+
+            // the insert shifts every later offset by one, the record at a page boundary is read twice
+            assert ids.size() == RECORDS + 1 : ids;
+            assert new HashSet<>(ids).size() == RECORDS : ids;
+            assert !ids.contains(RECORDS + 1);
+        }
+    }
+
+    @Test
+    public void testInsertDuringKeysetPaging() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect();
+             SearchReadIterator iterator = rpc.searchReadIterator(MODEL, new String[]{"name"}, null, null, PAGE_SIZE, PageMode.KEYSET)) {
+
+            final List<Object> ids = consumeInserting(server, iterator);
+
+            // pages continue after the last id, the new record comes last and nothing is read twice
+            assert ids.size() == RECORDS + 1 : ids;
+            assert new HashSet<>(ids).size() == RECORDS + 1 : ids;
+            assert ids.get(RECORDS).equals(RECORDS + 1);
+        }
+    }
+
+    @Test
+    public void testCloseReleasesPrefetch() throws Exception {
+        final long latency = 100;
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect()) {
+            server.setLatency(latency, 0);
+
+            final Stream<Map<String, Object>> stream = rpc.searchReadStream(MODEL, new String[]{"name"}, null, null, PAGE_SIZE, PageMode.OFFSET);
+            final Iterator<Map<String, Object>> iterator = stream.iterator();
+            assert iterator.next().get("id").equals(1);
+
+            // the second page is being prefetched, closing drops it and the rest of the first one
+            Thread.sleep(latency / 2);
+            stream.close();
+            assert !iterator.hasNext();
+
+            Thread.sleep(latency * 3);
+            assert server.getCalls("search_read") == 2 : server.getCalls("search_read");
+        }
+    }
+
+    @Test
+    public void testKeysetForcesIdOrder() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OrderRecordingRpc rpc = new OrderRecordingRpc(server)) {
+
+            for (String order : new String[]{null, "id", " ID asc "}) {
+                rpc.orders.clear();
+                try (SearchReadIterator iterator = rpc.searchReadIterator(MODEL, new String[]{"name"}, null, order, PAGE_SIZE, PageMode.KEYSET)) {
+                    int previous = 0;
+                    while (iterator.hasNext()) {
+                        final Map<String, Object> record = iterator.next();
+                        assert record.containsKey("id") && (Integer) record.get("id") > previous;
+                        previous = (Integer) record.get("id");
+                    }
+                    assert previous == RECORDS;
+                }
+                assert !rpc.orders.isEmpty() && rpc.orders.stream().allMatch("id asc"::equals) : order + " " + rpc.orders;
+            }
+
+            try {
+                rpc.searchReadIterator(MODEL, new String[]{"name"}, null, "name", PAGE_SIZE, PageMode.KEYSET);
+                assert false;
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * {@link OdooRpc} recording the order of every <b>search_read()</b>
+     */
+    private final static class OrderRecordingRpc extends OdooRpc {
+        private final List<String> orders = new CopyOnWriteArrayList<>();
+
+        OrderRecordingRpc(InMemoryOdooServer server) throws OdooAuthorizationException {
+            super(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY);
+        }
+
+        @Override
+        public Map<String, Object>[] searchRead(@Nonnull String model, String[] fields, SearchFilter[] filters, String order, Integer offset, Integer limit) throws OdooCallMethodException {
+            orders.add(order);
+            return super.searchRead(model, fields, filters, order, offset, limit);
+        }
+    }
+
+    /**
+     * Consume every record, inserting one once the first page is read. Later pages are requested after the insert,
+     * the second one possibly before
+     */
+    private static List<Object> consumeInserting(InMemoryOdooServer server, Iterator<Map<String, Object>> iterator) {
+        final List<Object> ids = new ArrayList<>();
+        ids.add(iterator.next().get("id"));
+        server.getStore().create(MODEL, Collections.singletonMap("name", "Inserted"));
+        iterator.forEachRemaining(record -> ids.add(record.get("id")));
+        return ids;
+    }
+}
@@ -0,0 +1,159 @@
+import com.kinnarastudio.odooxmlrpc.exception.OdooCallMethodException;
+import com.kinnarastudio.odooxmlrpc.rpc.*;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import java.net.http.HttpClient;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link OdooTransport} implementations against {@link InMemoryOdooServer}
+ */
+public class TransportTest {
+    private final static int RECORDS = 200;
+
+    @Test
+    public void testJavaHttpTransport() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(2, 0);
+             OdooRpc rpc = server.connect(new JavaHttpTransport(ConnectionSettings.getDefault()))) {
+            assert rpc.getUid() == InMemoryOdooServer.UID;
+            assert Arrays.equals(rpc.search("res.partner", null, null, null, null), new int[]{1, 2});
+
+            try (Stream<Object> ids = rpc.executeKwStream("res.partner", "search", new Object[]{new Object[0]}, null)) {
+                assert ids.collect(Collectors.toList()).equals(List.of(1, 2));
+            }
+        }
+    }
+
+    @Test
+    public void testXmlRpcClientTransport() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(RECORDS, 0);
+             OdooRpc rpc = server.connect(new XmlRpcClientTransport(ConnectionSettings.getDefault()))) {
+            assert rpc.getUid() == InMemoryOdooServer.UID;
+            assert rpc.search("res.partner", null, null, null, 2).length == 2;
+
+            try (Stream<Object> ids = rpc.executeKwStream("res.partner", "search", new Object[]{new Object[0]}, Map.of("limit", 2))) {
+                assert ids.collect(Collectors.toList()).equals(List.of(1, 2));
+            }
+
+            final Object[] records = (Object[]) rpc.executeKw("res.partner", "search_read", new Object[]{new Object[0]}, Map.of("fields", new String[]{"name"}));
+            assert records.length == RECORDS;
+            assert Arrays.stream(records).allMatch(record -> record instanceof Map && ((Map<?, ?>) record).get("id") instanceof Integer);
+        }
+    }
+
+    @Test
+    public void testXmlRpcClientTransportSendsIntIds() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start();
+             OdooRpc rpc = server.connect(new XmlRpcClientTransport(ConnectionSettings.getDefault()))) {
+            server.getStore().generate("res.partner", 5, 8);
+
+            final Map<String, Object>[] records = rpc.read("res.partner", new String[]{"name"}, new int[]{4, 2});
+            assert records.length == 2 && records[0].get("id").equals(4) && "Record 2".equals(records[1].get("name"));
+
+            rpc.write("res.partner", new int[]{1, 3}, Map.of("name", "Written"));
+            assert Arrays.stream(rpc.read("res.partner", new String[]{"name"}, new int[]{1, 3})).allMatch(record -> "Written".equals(record.get("name")));
+
+            rpc.unlink("res.partner", new int[]{1, 5});
+            assert server.getStore().size("res.partner") == 3;
+        }
+    }
+
+    @Test
+    public void testAsyncSendIsNotBoundByThreads() throws Exception {
+        for (OdooTransport transport : new OdooTransport[]{new JavaHttpTransport(ConnectionSettings.getDefault()), new JavaHttpTransport(ConnectionSettings.getDefault(), HttpClient.Version.HTTP_1_1), new XmlRpcClientTransport(ConnectionSettings.getDefault())}) {
+            try (InMemoryOdooServer server = InMemoryOdooServer.start(2, 100);
+                 OdooRpc rpc = server.connect(transport)) {
+                final CompletableFuture<?>[] futures = IntStream.range(0, 8)
+                        .mapToObj(i -> rpc.executeKwAsync("res.partner", "search", new Object[]{new Object[0]}, null))
+                        .toArray(CompletableFuture[]::new);
+                CompletableFuture.allOf(futures).join();
+
+                for (CompletableFuture<?> future : futures) {
+                    assert Arrays.equals((Object[]) future.join(), new Object[]{1, 2});
+                }
+                assert server.getMaxInFlight() > 1 : transport.getClass().getSimpleName() + " maxInFlight=" + server.getMaxInFlight();
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncFailure() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(2, 0);
+             OdooRpc rpc = server.connect(new JavaHttpTransport(ConnectionSettings.getDefault()))) {
+            server.close();
+            try {
+                rpc.executeKwAsync("res.partner", "search", null, null).join();
+                assert false;
+            } catch (CompletionException e) {
+                assert e.getCause() instanceof OdooCallMethodException;
+            }
+        }
+    }
+
+    @Test
+    public void testTransportsShareClient() {
+        final String keepAlive = System.getProperty("jdk.httpclient.keepalive.timeout");
+        final ConnectionSettings settings = ConnectionSettings.getBuilder().maxConnectionsPerRoute(3).idleTimeout(5_000).build();
+        try (JavaHttpTransport first = new JavaHttpTransport(settings);
+             JavaHttpTransport second = new JavaHttpTransport(ConnectionSettings.getBuilder().maxConnectionsPerRoute(3).idleTimeout(5_000).build());
+             JavaHttpTransport other = new JavaHttpTransport(ConnectionSettings.getBuilder().maxConnectionsPerRoute(4).build())) {
+            assert first.getHttpClient() == second.getHttpClient();
+            assert first.getHttpClient() != other.getHttpClient();
+            assert Objects.equals(System.getProperty("jdk.httpclient.keepalive.timeout"), keepAlive);
+        }
+    }
+
+    @Test
+    public void testIdleConnectionsEvicted() throws Exception {
+        final ConnectionSettings settings = ConnectionSettings.getBuilder().idleTimeout(200).build();
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(2, 0);
+             OdooRpc rpc = server.connect(new JavaHttpTransport(settings, HttpClient.Version.HTTP_1_1))) {
+            rpc.search("res.partner", null, null, null, null);
+            final int connections = server.getConnections();
+
+            // an idle pooled connection would be reused, the replaced client opens a new one
+            Thread.sleep(600);
+            rpc.search("res.partner", null, null, null, null);
+            assert server.getConnections() == connections + 1 : connections + " " + server.getConnections();
+        }
+    }
+
+    @Test
+    public void testConnectionsPerRouteBoundCalls() throws Exception {
+        final ConnectionSettings settings = ConnectionSettings.getBuilder().maxConnectionsPerRoute(2).build();
+        try (InMemoryOdooServer server = InMemoryOdooServer.start(2, 50);
+             OdooRpc rpc = server.connect(new JavaHttpTransport(settings, HttpClient.Version.HTTP_1_1))) {
+            server.resetStatistics();
+            final CompletableFuture<?>[] futures = IntStream.range(0, 8)
+                    .mapToObj(i -> rpc.executeKwAsync("res.partner", "search", new Object[]{new Object[0]}, null))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).join();
+
+            final Thread[] threads = new Thread[8];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        rpc.search("res.partner", null, null, null, null);
+                    } catch (OdooCallMethodException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assert server.getMaxInFlight() == 2 : server.getMaxInFlight();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import com.kinnarastudio.odooxmlrpc.rpc.XmlRpcResponseReader;
+import org.apache.xmlrpc.XmlRpcException;
+import org.junit.Test;
+import stub.InMemoryOdooServer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class XmlRpcResponseReaderTest {
+    @Test
+    public void testStreamsArrayElements() throws Exception {
+        final String xml = response("<array><data>"
+                + "<value><struct>"
+                + "<member><name>id</name><value><int>7</int></value></member>"
+                + "<member><name>name</name><value><string>A &amp; B</string></value></member>"
+                + "<member><name>active</name><value><boolean>0</boolean></value></member>"
+                + "<member><name>partner_id</name><value><array><data><value><int>3</int></value><value>Agrolait</value></data></array></value></member>"
+                + "</struct></value>\n"
+                + "<value><struct><member><name>id</name><value><i4>8</i4></value></member><member><name>amount</name><value><double>1.5</double></value></member></struct></value>"
+                + "<value><nil/></value>"
+                + "</data></array>");
+
+        final AtomicBoolean closed = new AtomicBoolean();
+        final XmlRpcResponseReader reader = reader(xml, () -> closed.set(true));
+        assert reader.isArray();
+
+        final Map<String, Object> first = (Map<String, Object>) reader.next();
+        assert Integer.valueOf(7).equals(first.get("id"));
+        assert "A & B".equals(first.get("name"));
+        assert Boolean.FALSE.equals(first.get("active"));
+        assert Arrays.equals((Object[]) first.get("partner_id"), new Object[]{3, "Agrolait"});
+        assert !closed.get();
+
+        final Map<String, Object> second = (Map<String, Object>) reader.next();
+        assert Double.valueOf(1.5).equals(second.get("amount"));
+
+        assert reader.hasNext();
+        assert reader.next() == null;
+        assert !reader.hasNext();
+        assert closed.get();
+    }
+
+    @Test
+    public void testSingleValue() throws Exception {
+        try (Stream<Object> stream = reader(response("<int>2</int>"), null).stream()) {
+            assert stream.collect(Collectors.toList()).equals(List.of(2));
+        }
+        try (Stream<Object> stream = reader(response("plain"), null).stream()) {
+            assert stream.collect(Collectors.toList()).equals(List.of("plain"));
+        }
+    }
+
+    @Test
+    public void testFault() {
+        final String xml = "<?xml version=\"1.0\"?><methodResponse><fault><value><struct>"
+                + "<member><name>faultCode</name><value><int>1</int></value></member>"
+                + "<member><name>faultString</name><value><string>Access Denied</string></value></member>"
+                + "</struct></value></fault></methodResponse>";
+
+        final AtomicBoolean closed = new AtomicBoolean();
+        try {
+            reader(xml, () -> closed.set(true));
+            assert false;
+        } catch (XmlRpcException e) {
+            assert e.code == 1;
+            assert "Access Denied".equals(e.getMessage());
+        }
+        assert closed.get();
+    }
+
+    @Test
+    public void testReadIntArray() throws Exception {
+        final StringBuilder values = new StringBuilder("<array><data>");
+        for (int i = 1; i <= 1_000; i++) {
+            values.append(i % 2 == 0 ? "<value><int>" : "<value>\n <i4> ").append(i).append(i % 2 == 0 ? "</int></value>" : " </i4>\n</value>");
+        }
+        final int[] ids = reader(response(values.append("</data></array>").toString()), null).readIntArray();
+        assert ids.length == 1_000 && ids[0] == 1 && ids[999] == 1_000;
+        assert reader(response("<array><data></data></array>"), null).readIntArray().length == 0;
+
+        final AtomicBoolean closed = new AtomicBoolean();
+        try {
+            reader(response("<array><data><value><int>1</int></value><value><string>2</string></value></data></array>"), () -> closed.set(true)).readIntArray();
+            assert false;
+        } catch (XmlRpcException e) {
+            assert e.getMessage().contains("<string>");
+        }
+        assert closed.get();
+    }
+
+    @Test
+    public void testExecuteKwStream() throws Exception {
+        try (InMemoryOdooServer server = InMemoryOdooServer.start()) {
+            server.getStore().generatePartners("res.partner", 2);
+            try (OdooRpc rpc = new OdooRpc(server.getBaseUrl(), InMemoryOdooServer.DATABASE, InMemoryOdooServer.USER, InMemoryOdooServer.API_KEY);
+                 Stream<Object> ids = rpc.executeKwStream("res.partner", "search", new Object[]{new Object[0]}, null)) {
+                assert ids.collect(Collectors.toList()).equals(List.of(1, 2));
+            }
+        }
+    }
+
+    private static XmlRpcResponseReader reader(String xml, Runnable onClose) throws XmlRpcException {
+        return new XmlRpcResponseReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), onClose);
+    }
+
+    private static String response(String value) {
+        return "<?xml version=\"1.0\"?><methodResponse><params><param><value>" + value + "</value></param></params></methodResponse>";
+    }
+}
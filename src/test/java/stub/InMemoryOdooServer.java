@@ -0,0 +1,590 @@
+package stub;
+
+import com.kinnarastudio.odooxmlrpc.exception.OdooAuthorizationException;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooRpc;
+import com.kinnarastudio.odooxmlrpc.rpc.OdooTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Loopback XML-RPC server behaving like odoo on an in-memory {@link ModelStore}, so that paging, throughput and retry
+ * behavior of the client can be measured without a live odoo
+ * <p>
+ * It answers <code>/xmlrpc/2/common</code> <b>login</b> and <code>/xmlrpc/2/object</code> <b>execute_kw</b> for
+ * <b>search</b>, <b>search_read</b>, <b>read</b>, <b>search_count</b>, <b>create</b>, <b>write</b>,
+ * <b>unlink</b> and <b>fields_get</b>, alone or within <b>system.multicall</b>. The same services are answered on
+ * <code>/jsonrpc</code>, where a batch array is answered in reverse order. Requests may be gzip compressed, and responses
+ * are when {@link #setResponseCompression(boolean) enabled} and accepted by the client. Latency and failures can be
+ * injected while it runs, failures being drawn from a seeded random so that a run can be repeated, and access to a model
+ * method {@link #denyAccess(String, String) denied}.
+ */
+public class InMemoryOdooServer implements AutoCloseable {
+    public final static int UID = 2;
+    public final static String DATABASE = "odoo";
+    public final static String USER = "admin";
+    public final static String API_KEY = "admin";
+    public final static String PATH_JSONRPC = "/jsonrpc";
+
+    /**
+     * Way an injected failure is answered
+     */
+    public enum Failure {
+        /**
+         * XML-RPC fault response
+         */
+        FAULT,
+
+        /**
+         * Http status 503
+         */
+        UNAVAILABLE,
+
+        /**
+         * Connection closed before any response
+         */
+        DISCONNECT
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ModelStore store;
+    private final Random random;
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double failureRate;
+    private volatile Failure failure = Failure.FAULT;
+    private volatile boolean responseCompression;
+    private final AtomicInteger pendingFailures = new AtomicInteger();
+    private int pendingSuccesses;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger gzipRequests = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final ConcurrentMap<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Set<String> connections = ConcurrentHashMap.newKeySet();
+    private final Set<String> denied = ConcurrentHashMap.newKeySet();
+
+    static {
+        // without it the JDK server waits on delayed ACKs and every call pays ~40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private InMemoryOdooServer(ModelStore store, long seed) throws IOException {
+        this.store = store;
+        this.random = new Random(seed);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    /**
+     * Start a server with an empty store on a random loopback port
+     *
+     * @return the running server
+     * @throws IOException when the server cannot be bound
+     */
+    public static InMemoryOdooServer start() throws IOException {
+        return start(new ModelStore(), 0);
+    }
+
+    /**
+     * Start a server on a random loopback port
+     *
+     * @param store The records
+     * @param seed  The seed of injected failures and latency jitter
+     * @return the running server
+     * @throws IOException when the server cannot be bound
+     */
+    public static InMemoryOdooServer start(ModelStore store, long seed) throws IOException {
+        final InMemoryOdooServer odoo = new InMemoryOdooServer(store, seed);
+        odoo.server.start();
+        return odoo;
+    }
+
+    /**
+     * Start a server on a random loopback port with partner-like records, see {@link ModelStore#generatePartners(String, int)}
+     *
+     * @param partners      The number of <code>res.partner</code> records
+     * @param latencyMillis The latency of every call apart from login
+     * @return the running server
+     * @throws IOException when the server cannot be bound
+     */
+    public static InMemoryOdooServer start(int partners, long latencyMillis) throws IOException {
+        final InMemoryOdooServer odoo = start();
+        odoo.store.generatePartners("res.partner", partners);
+        odoo.setLatency(latencyMillis, 0);
+        return odoo;
+    }
+
+    /**
+     * Log in to this server over XML-RPC
+     *
+     * @return the rpc
+     * @throws OdooAuthorizationException when login failed
+     */
+    public OdooRpc connect() throws OdooAuthorizationException {
+        return new OdooRpc(getBaseUrl(), DATABASE, USER, API_KEY);
+    }
+
+    /**
+     * Log in to this server over XML-RPC through a transport
+     *
+     * @param transport The transport
+     * @return the rpc
+     * @throws OdooAuthorizationException when login failed
+     */
+    public OdooRpc connect(OdooTransport transport) throws OdooAuthorizationException {
+        return new OdooRpc(getBaseUrl(), DATABASE, USER, API_KEY, transport);
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public ModelStore getStore() {
+        return store;
+    }
+
+    /**
+     * Set the latency added to every call apart from login
+     *
+     * @param latencyMillis The fixed latency
+     * @param jitterMillis  The upper bound of a random latency added to it
+     */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    /**
+     * Gzip the responses of clients sending <code>Accept-Encoding: gzip</code>, login included
+     *
+     * @param responseCompression true to compress
+     */
+    public void setResponseCompression(boolean responseCompression) {
+        this.responseCompression = responseCompression;
+    }
+
+    /**
+     * Fail a share of the calls apart from login
+     *
+     * @param rate    The probability of a call to fail, between 0 and 1
+     * @param failure The way failures are answered
+     */
+    public void setFailureRate(double rate, Failure failure) {
+        this.failureRate = rate;
+        this.failure = failure;
+    }
+
+    /**
+     * Fail the next calls apart from login, before any random failure
+     *
+     * @param count   The number of calls to fail
+     * @param failure The way failures are answered
+     */
+    public void failNext(int count, Failure failure) {
+        failAfter(0, count, failure);
+    }
+
+    /**
+     * Answer every call of a model method with odoo's <b>AccessError</b>, as for a user without the rights to it
+     *
+     * @param model  The odoo model
+     * @param method The method such as <code>fields_get</code>
+     */
+    public void denyAccess(String model, String method) {
+        denied.add(model + "." + method);
+    }
+
+    /**
+     * Let the next calls apart from login succeed, then fail the calls after them
+     *
+     * @param calls   The number of calls to succeed first
+     * @param count   The number of calls to fail
+     * @param failure The way failures are answered
+     */
+    public void failAfter(int calls, int count, Failure failure) {
+        this.failure = failure;
+        synchronized (pendingFailures) {
+            pendingSuccesses = calls;
+            pendingFailures.set(count);
+        }
+    }
+
+    /**
+     * Get the number of http requests received, apart from login
+     *
+     * @return the number of requests
+     */
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getFailures() {
+        return failures.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * Get the number of gzip compressed http requests received, login included
+     *
+     * @return the number of requests
+     */
+    public int getGzipRequests() {
+        return gzipRequests.get();
+    }
+
+    /**
+     * Get the number of response bytes written, apart from login
+     *
+     * @return the number of bytes
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Get the number of calls of a model method, each call of a multicall counted
+     *
+     * @param method The method such as <code>search_read</code>
+     * @return the number of calls
+     */
+    public int getCalls(String method) {
+        return Optional.ofNullable(calls.get(method)).map(AtomicInteger::get).orElse(0);
+    }
+
+    /**
+     * Get the number of client connections requests came over, told apart by their remote address
+     *
+     * @return the number of connections
+     */
+    public int getConnections() {
+        return connections.size();
+    }
+
+    public void resetStatistics() {
+        connections.clear();
+        requests.set(0);
+        failures.set(0);
+        maxInFlight.set(0);
+        gzipRequests.set(0);
+        bytesSent.set(0);
+        calls.clear();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        connections.add(exchange.getRemoteAddress().toString());
+        try {
+            final byte[] body;
+            final boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            if (gzip) {
+                gzipRequests.incrementAndGet();
+            }
+            try (InputStream in = gzip ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+
+            // the client joins the base url and path with an extra slash, which URI would parse as an authority
+            final String path = exchange.getRequestURI().toString();
+            final boolean json = path.endsWith(PATH_JSONRPC);
+            final Object call;
+            try {
+                call = json ? JsonCodec.parse(body) : XmlRpcCodec.parseCall(body);
+            } catch (Exception e) {
+                respond(exchange, 400, "Malformed request: " + e.getMessage(), false, false);
+                return;
+            }
+
+            if (json ? isLogin(call) : path.endsWith("/xmlrpc/2/common")) {
+                respond(exchange, 200, json ? jsonCall((Map<?, ?>) call) : common((XmlRpcCodec.Call) call), false, json);
+                return;
+            } else if (!json && !path.endsWith("/xmlrpc/2/object")) {
+                respond(exchange, 404, "Not found", false, false);
+                return;
+            }
+
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            final int status;
+            final String response;
+            try {
+                sleep();
+                final Failure injected = nextFailure();
+                if (injected == Failure.DISCONNECT) {
+                    failures.incrementAndGet();
+                    return;
+                } else if (injected == Failure.UNAVAILABLE) {
+                    failures.incrementAndGet();
+                    status = 503;
+                    response = "Service unavailable";
+                } else if (injected == Failure.FAULT) {
+                    failures.incrementAndGet();
+                    status = 200;
+                    response = json ? JsonCodec.error(null, "odoo.exceptions.UserError", "Injected failure") : XmlRpcCodec.fault(1, "Injected failure");
+                } else {
+                    status = 200;
+                    response = json ? jsonObject(call) : object((XmlRpcCodec.Call) call);
+                }
+            } finally {
+                // before the response is written, the client may send its next call as soon as it is read
+                inFlight.decrementAndGet();
+            }
+            respond(exchange, status, response, true, json && status == 200);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String common(XmlRpcCodec.Call call) {
+        if (!"login".equals(call.method)) {
+            return XmlRpcCodec.fault(1, "Method [" + call.method + "] is not supported");
+        }
+        return XmlRpcCodec.response(login(call.params));
+    }
+
+    private static Object login(Object[] params) {
+        final boolean valid = params.length == 3 && DATABASE.equals(params[0]) && USER.equals(params[1]) && API_KEY.equals(params[2]);
+        return valid ? UID : false;
+    }
+
+    private String object(XmlRpcCodec.Call call) {
+        if ("execute_kw".equals(call.method)) {
+            try {
+                return XmlRpcCodec.response(executeKw(call.params));
+            } catch (RuntimeException e) {
+                return XmlRpcCodec.fault(faultCode(e), e.toString());
+            }
+        } else if ("system.multicall".equals(call.method)) {
+            final List<Object> results = new ArrayList<>();
+            for (Object element : (Object[]) call.params[0]) {
+                final Map<?, ?> entry = (Map<?, ?>) element;
+                try {
+                    results.add(new Object[]{executeKw((Object[]) entry.get("params"))});
+                } catch (RuntimeException e) {
+                    final Map<String, Object> fault = new LinkedHashMap<>();
+                    fault.put("faultCode", faultCode(e));
+                    fault.put("faultString", e.toString());
+                    results.add(fault);
+                }
+            }
+            return XmlRpcCodec.response(results);
+        }
+        return XmlRpcCodec.fault(1, "Method [" + call.method + "] is not supported");
+    }
+
+    private static boolean isLogin(Object call) {
+        return call instanceof Map && ((Map<?, ?>) call).get("params") instanceof Map
+                && "common".equals(((Map<?, ?>) ((Map<?, ?>) call).get("params")).get("service"));
+    }
+
+    /**
+     * Answer a JSON-RPC request, or each request of a batch in reverse order
+     */
+    private String jsonObject(Object call) {
+        if (!(call instanceof Object[])) {
+            return jsonCall((Map<?, ?>) call);
+        }
+
+        final Object[] batch = (Object[]) call;
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = batch.length - 1; i >= 0; i--) {
+            json.append(i < batch.length - 1 ? "," : "").append(jsonCall((Map<?, ?>) batch[i]));
+        }
+        return json.append(']').toString();
+    }
+
+    private String jsonCall(Map<?, ?> call) {
+        final Object id = call.get("id");
+        final Map<?, ?> params = (Map<?, ?>) call.get("params");
+        final String service = String.valueOf(params.get("service"));
+        final String method = String.valueOf(params.get("method"));
+        final Object[] args = params.get("args") instanceof Object[] ? (Object[]) params.get("args") : new Object[0];
+        try {
+            if ("common".equals(service) && "login".equals(method)) {
+                return JsonCodec.response(id, login(args));
+            } else if ("object".equals(service) && "execute_kw".equals(method)) {
+                return JsonCodec.response(id, executeKw(args));
+            }
+            throw new UnsupportedOperationException("Method [" + service + "." + method + "] is not supported");
+        } catch (RuntimeException e) {
+            return JsonCodec.error(id, e instanceof AccessError ? "odoo.exceptions.AccessError" : e.getClass().getName(), e.toString());
+        }
+    }
+
+    private Object executeKw(Object[] params) {
+        if (params.length < 5 || !Integer.valueOf(UID).equals(params[1]) || !API_KEY.equals(params[2])) {
+            throw new SecurityException("Access denied");
+        }
+
+        final String model = (String) params[3];
+        final String method = (String) params[4];
+        final Object[] args = params.length > 5 && params[5] instanceof Object[] ? (Object[]) params[5] : new Object[0];
+        final Map<?, ?> kwargs = params.length > 6 && params[6] instanceof Map ? (Map<?, ?>) params[6] : Collections.emptyMap();
+        calls.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+        if (denied.contains(model + "." + method)) {
+            throw new AccessError("You are not allowed to access '" + model + "' records");
+        }
+
+        switch (method) {
+            case "search":
+                return store.search(model, domain(args), order(kwargs), offset(kwargs), limit(kwargs));
+            case "search_read":
+                return store.searchRead(model, domain(args), (Object[]) kwargs.get("fields"), order(kwargs), offset(kwargs), limit(kwargs));
+            case "search_count":
+                return store.count(model, domain(args));
+            case "read":
+                return store.read(model, ids(args[0]), (Object[]) (args.length > 1 ? args[1] : kwargs.get("fields")));
+            case "create":
+                if (args[0] instanceof Object[]) {
+                    final Object[] values = (Object[]) args[0];
+                    final int[] ids = new int[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        ids[i] = store.create(model, values(values[i]));
+                    }
+                    return ids;
+                }
+                return store.create(model, values(args[0]));
+            case "write":
+                store.write(model, ids(args[0]), values(args[1]));
+                return true;
+            case "unlink":
+                store.unlink(model, ids(args[0]));
+                return true;
+            case "fields_get":
+                return store.fieldsGet(model, (Object[]) kwargs.get("attributes"));
+            default:
+                throw new UnsupportedOperationException("Method [" + method + "] is not supported");
+        }
+    }
+
+    private void sleep() {
+        final long jitter = jitterMillis;
+        final long delay;
+        synchronized (random) {
+            delay = latencyMillis + (jitter > 0 ? (long) (random.nextDouble() * jitter) : 0);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Failure nextFailure() {
+        synchronized (pendingFailures) {
+            if (pendingSuccesses > 0) {
+                pendingSuccesses--;
+                return null;
+            }
+            if (pendingFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                return failure;
+            }
+        }
+
+        final double rate = failureRate;
+        if (rate <= 0) {
+            return null;
+        }
+        synchronized (random) {
+            return random.nextDouble() < rate ? failure : null;
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String content, boolean counted, boolean json) throws IOException {
+        byte[] response = content.getBytes(StandardCharsets.UTF_8);
+        final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (responseCompression && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(response.length / 4 + 64);
+            try (OutputStream os = new GZIPOutputStream(compressed)) {
+                os.write(response);
+            }
+            response = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+
+        if (counted) {
+            bytesSent.addAndGet(response.length);
+        }
+        exchange.getResponseHeaders().add("Content-Type", status != 200 ? "text/plain" : json ? "application/json" : "text/xml");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
+
+    private static Object[] domain(Object[] args) {
+        return args.length > 0 && args[0] instanceof Object[] ? (Object[]) args[0] : new Object[0];
+    }
+
+    private static String order(Map<?, ?> kwargs) {
+        return (String) kwargs.get("order");
+    }
+
+    private static int offset(Map<?, ?> kwargs) {
+        return kwargs.get("offset") instanceof Integer ? (Integer) kwargs.get("offset") : 0;
+    }
+
+    private static Integer limit(Map<?, ?> kwargs) {
+        return kwargs.get("limit") instanceof Integer ? (Integer) kwargs.get("limit") : null;
+    }
+
+    private static int[] ids(Object value) {
+        if (value instanceof Integer) {
+            return new int[]{(Integer) value};
+        }
+        return Arrays.stream((Object[]) value).mapToInt(id -> (Integer) id).toArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> values(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Fault code odoo answers an exception with on <code>/xmlrpc/2</code>
+     */
+    private static int faultCode(RuntimeException e) {
+        return e instanceof AccessError ? 4 : 2;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Odoo's <b>AccessError</b>
+     */
+    private final static class AccessError extends RuntimeException {
+        AccessError(String message) {
+            super(message);
+        }
+    }
+}
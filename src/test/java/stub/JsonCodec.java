@@ -0,0 +1,255 @@
+package stub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Server side of JSON-RPC: parsing of a request or batch and writing of a response, independent of the client parser
+ * so that the stub does not vouch for it
+ */
+final class JsonCodec {
+    private final String text;
+    private int position;
+
+    private JsonCodec(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parse a JSON document, objects as maps, arrays as <code>Object[]</code>, integers as {@link Integer} when they
+     * fit and {@link Long} otherwise, other numbers as {@link Double}
+     */
+    static Object parse(byte[] body) {
+        final JsonCodec parser = new JsonCodec(new String(body, StandardCharsets.UTF_8));
+        final Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != parser.text.length()) {
+            throw parser.error("Trailing content");
+        }
+        return value;
+    }
+
+    static String response(Object id, Object result) {
+        final StringBuilder json = new StringBuilder(256).append("{\"jsonrpc\":\"2.0\",\"id\":");
+        writeValue(json, id);
+        json.append(",\"result\":");
+        writeValue(json, result);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Error response the way odoo writes it, the message of the exception being in <code>data</code>
+     */
+    static String error(Object id, String name, String message) {
+        final Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", name);
+        data.put("message", message);
+        final Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", 200);
+        error.put("message", "Odoo Server Error");
+        error.put("data", data);
+
+        final StringBuilder json = new StringBuilder(256).append("{\"jsonrpc\":\"2.0\",\"id\":");
+        writeValue(json, id);
+        json.append(",\"error\":");
+        writeValue(json, error);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Write a value the way odoo does, null being written as <code>false</code>
+     */
+    static void writeValue(StringBuilder json, Object value) {
+        if (value == null || value instanceof Boolean) {
+            json.append(Boolean.TRUE.equals(value));
+        } else if (value instanceof Number) {
+            json.append(value);
+        } else if (value instanceof int[]) {
+            json.append('[');
+            final int[] array = (int[]) value;
+            for (int i = 0; i < array.length; i++) {
+                json.append(i > 0 ? "," : "").append(array[i]);
+            }
+            json.append(']');
+        } else if (value instanceof Object[] || value instanceof Collection) {
+            json.append('[');
+            boolean first = true;
+            for (Object element : value instanceof Object[] ? Arrays.asList((Object[]) value) : (Collection<?>) value) {
+                json.append(first ? "" : ",");
+                first = false;
+                writeValue(json, element);
+            }
+            json.append(']');
+        } else if (value instanceof Map) {
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                json.append(first ? "" : ",");
+                first = false;
+                writeString(json, String.valueOf(e.getKey()));
+                json.append(':');
+                writeValue(json, e.getValue());
+            }
+            json.append('}');
+        } else {
+            writeString(json, value.toString());
+        }
+    }
+
+    private static void writeString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("Unexpected end");
+        }
+
+        final char c = text.charAt(position);
+        switch (c) {
+            case '{': {
+                position++;
+                final Map<String, Object> object = new LinkedHashMap<>();
+                if (consume('}')) {
+                    return object;
+                }
+                do {
+                    skipWhitespace();
+                    final String name = readString();
+                    expect(':');
+                    object.put(name, readValue());
+                } while (consume(','));
+                expect('}');
+                return object;
+            }
+            case '[': {
+                position++;
+                final List<Object> array = new ArrayList<>();
+                if (consume(']')) {
+                    return array.toArray();
+                }
+                do {
+                    array.add(readValue());
+                } while (consume(','));
+                expect(']');
+                return array.toArray();
+            }
+            case '"':
+                return readString();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                return readNumber();
+        }
+    }
+
+    private String readString() {
+        if (position >= text.length() || text.charAt(position) != '"') {
+            throw error("Expected string");
+        }
+        position++;
+
+        final StringBuilder result = new StringBuilder();
+        while (position < text.length()) {
+            final char c = text.charAt(position++);
+            if (c == '"') {
+                return result.toString();
+            } else if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+
+            final char escaped = text.charAt(position++);
+            switch (escaped) {
+                case 'n':
+                    result.append('\n');
+                    break;
+                case 'r':
+                    result.append('\r');
+                    break;
+                case 't':
+                    result.append('\t');
+                    break;
+                case 'b':
+                    result.append('\b');
+                    break;
+                case 'f':
+                    result.append('\f');
+                    break;
+                case 'u':
+                    result.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    result.append(escaped);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private Object readNumber() {
+        final int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+
+        final String number = text.substring(start, position);
+        if (number.isEmpty()) {
+            throw error("Unexpected character");
+        }
+        if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+            return Double.valueOf(number);
+        }
+        final long value = Long.parseLong(number);
+        return value == (int) value ? (Object) (int) value : (Object) value;
+    }
+
+    private Object literal(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("Unexpected character");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + position);
+    }
+}
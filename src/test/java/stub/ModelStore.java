@@ -0,0 +1,247 @@
+package stub;
+
+import com.kinnarastudio.odooxmlrpc.cache.DomainEvaluator;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * In-memory records of odoo models, behind {@link InMemoryOdooServer}
+ * <p>
+ * Domains are evaluated with {@link DomainEvaluator}. Every create and write stamps <code>write_date</code> from a
+ * logical clock advancing one second per change, so runs are reproducible. Thread safe.
+ */
+public class ModelStore {
+    public final static String EPOCH = "2024-01-01 00:00:00";
+
+    private final static DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Map<String, Model> models = new HashMap<>();
+    private LocalDateTime clock = LocalDateTime.parse(EPOCH, DATE_TIME);
+
+    /**
+     * Declare a field, listed by <b>fields_get()</b>
+     *
+     * @param model The odoo model
+     * @param field The field name
+     * @param type  The odoo field type, such as <code>char</code> or <code>many2one</code>
+     * @return this store
+     */
+    public synchronized ModelStore field(String model, String field, String type) {
+        model(model).fields.put(field, type);
+        return this;
+    }
+
+    /**
+     * Generate records of <code>name</code>, <code>email</code>, <code>active</code> and a <code>payload</code>
+     * text padding each record to a size
+     *
+     * @param model        The odoo model
+     * @param count        The number of records
+     * @param payloadBytes The length of the payload text of each record
+     * @return the ids of the records
+     */
+    public synchronized int[] generate(String model, int count, int payloadBytes) {
+        field(model, "name", "char").field(model, "email", "char").field(model, "active", "boolean").field(model, "payload", "text");
+
+        final char[] payload = new char[payloadBytes];
+        final int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            Arrays.fill(payload, (char) ('a' + i % 26));
+            final Map<String, Object> values = new HashMap<>();
+            values.put("name", "Record " + (i + 1));
+            values.put("email", "record" + (i + 1) + "@example.com");
+            values.put("active", true);
+            values.put("payload", new String(payload));
+            ids[i] = create(model, values);
+        }
+        return ids;
+    }
+
+    /**
+     * Generate partner-like records of <code>name</code>, <code>email</code>, <code>active</code> and a
+     * <code>parent_id</code> many2one, set to the first record on even ids
+     *
+     * @param model The odoo model
+     * @param count The number of records
+     * @return the ids of the records
+     */
+    public synchronized int[] generatePartners(String model, int count) {
+        field(model, "name", "char").field(model, "email", "char").field(model, "active", "boolean").field(model, "parent_id", "many2one");
+
+        final int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            final Map<String, Object> values = new HashMap<>();
+            values.put("name", "Partner " + (i + 1));
+            values.put("email", "partner" + (i + 1) + "@example.com");
+            values.put("active", true);
+            values.put("parent_id", (i + 1) % 2 == 0 ? new Object[]{1, "Partner 1"} : null);
+            ids[i] = create(model, values);
+        }
+        return ids;
+    }
+
+    public synchronized int create(String model, Map<String, Object> values) {
+        final Model m = model(model);
+        final int id = ++m.sequence;
+        final Map<String, Object> record = new HashMap<>(values);
+        record.put("id", id);
+        record.put("write_date", tick());
+        m.records.put(id, record);
+        return id;
+    }
+
+    public synchronized void write(String model, int[] ids, Map<String, Object> values) {
+        final Model m = model(model);
+        final String writeDate = tick();
+        for (int id : ids) {
+            final Map<String, Object> record = m.records.get(id);
+            if (record == null) {
+                throw new IllegalArgumentException("Record " + model + "(" + id + ") does not exist");
+            }
+            record.putAll(values);
+            record.put("id", id);
+            record.put("write_date", writeDate);
+        }
+    }
+
+    public synchronized void unlink(String model, int[] ids) {
+        final Model m = model(model);
+        for (int id : ids) {
+            m.records.remove(id);
+        }
+    }
+
+    public synchronized int[] search(String model, Object[] domain, String order, int offset, Integer limit) {
+        return select(model, domain, order, offset, limit).stream()
+                .mapToInt(r -> (Integer) r.get("id"))
+                .toArray();
+    }
+
+    public synchronized int count(String model, Object[] domain) {
+        return select(model, domain, null, 0, null).size();
+    }
+
+    public synchronized List<Map<String, Object>> searchRead(String model, Object[] domain, Object[] fields, String order, int offset, Integer limit) {
+        final List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> record : select(model, domain, order, offset, limit)) {
+            result.add(project(record, fields));
+        }
+        return result;
+    }
+
+    /**
+     * Read records in the order of ids, failing like odoo's <code>MissingError</code> when one does not exist
+     */
+    public synchronized List<Map<String, Object>> read(String model, int[] ids, Object[] fields) {
+        final Model m = model(model);
+        final List<Map<String, Object>> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            final Map<String, Object> record = m.records.get(id);
+            if (record == null) {
+                throw new IllegalArgumentException("Record " + model + "(" + id + ") does not exist or has been deleted");
+            }
+            result.add(project(record, fields));
+        }
+        return result;
+    }
+
+    /**
+     * Field metadata, only the requested attributes when given
+     */
+    public synchronized Map<String, Object> fieldsGet(String model, Object[] attributes) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        final Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("id", "integer");
+        fields.put("write_date", "datetime");
+        fields.putAll(model(model).fields);
+        fields.forEach((name, type) -> {
+            final Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("string", name);
+            metadata.put("type", type);
+            metadata.put("store", true);
+            if (attributes != null) {
+                metadata.keySet().retainAll(Arrays.asList(attributes));
+            }
+            result.put(name, metadata);
+        });
+        return result;
+    }
+
+    public synchronized int size(String model) {
+        return model(model).records.size();
+    }
+
+    private Model model(String model) {
+        return models.computeIfAbsent(model, m -> new Model());
+    }
+
+    private String tick() {
+        clock = clock.plusSeconds(1);
+        return clock.format(DATE_TIME);
+    }
+
+    private List<Map<String, Object>> select(String model, Object[] domain, String order, int offset, Integer limit) {
+        final Predicate<Map<String, Object>> filter = DomainEvaluator.ofDomain(domain == null ? new Object[0] : domain);
+        final List<Map<String, Object>> matches = new ArrayList<>();
+        for (Map<String, Object> record : model(model).records.values()) {
+            if (filter.test(record)) {
+                matches.add(record);
+            }
+        }
+
+        final Comparator<Map<String, Object>> comparator = comparator(order);
+        if (comparator != null) {
+            matches.sort(comparator);
+        }
+
+        final int from = Math.min(offset, matches.size());
+        final int to = limit == null || limit <= 0 ? matches.size() : Math.min(matches.size(), from + limit);
+        return matches.subList(from, to);
+    }
+
+    /**
+     * Parse an order such as <code>write_date asc, id desc</code>, null for the id order of the records
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Map<String, Object>> comparator(String order) {
+        if (order == null || order.isBlank()) {
+            return null;
+        }
+
+        Comparator<Map<String, Object>> result = null;
+        for (String term : order.split(",")) {
+            final String[] parts = term.trim().split("\\s+");
+            final String field = parts[0];
+            Comparator<Map<String, Object>> next = Comparator.comparing(
+                    r -> (Comparable) (r.get(field) instanceof Comparable ? r.get(field) : ""),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (parts.length > 1 && "desc".equalsIgnoreCase(parts[1])) {
+                next = next.reversed();
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> project(Map<String, Object> record, Object[] fields) {
+        if (fields == null || fields.length == 0) {
+            return new HashMap<>(record);
+        }
+
+        final Map<String, Object> result = new HashMap<>(fields.length * 4 / 3 + 2);
+        result.put("id", record.get("id"));
+        for (Object field : fields) {
+            result.put(String.valueOf(field), record.get(String.valueOf(field)));
+        }
+        return result;
+    }
+
+    private final static class Model {
+        private final Map<String, String> fields = new LinkedHashMap<>();
+        private final SortedMap<Integer, Map<String, Object>> records = new TreeMap<>();
+        private int sequence;
+    }
+}
@@ -0,0 +1,205 @@
+package stub;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.util.*;
+
+/**
+ * Server side of XML-RPC: parsing of a {@code methodCall} and writing of a {@code methodResponse}, independent of the
+ * client parser so that the stub does not vouch for it
+ */
+final class XmlRpcCodec {
+    private final static XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+    private XmlRpcCodec() {
+    }
+
+    /**
+     * A parsed {@code methodCall}
+     */
+    final static class Call {
+        final String method;
+        final Object[] params;
+
+        Call(String method, Object[] params) {
+            this.method = method;
+            this.params = params;
+        }
+    }
+
+    static Call parseCall(byte[] body) throws XMLStreamException {
+        final XMLStreamReader reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(body));
+        try {
+            String method = null;
+            final List<Object> params = new ArrayList<>();
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                if ("methodName".equals(reader.getLocalName())) {
+                    method = reader.getElementText().trim();
+                } else if ("value".equals(reader.getLocalName())) {
+                    params.add(readValue(reader));
+                }
+            }
+            if (method == null) {
+                throw new XMLStreamException("Missing methodName");
+            }
+            return new Call(method, params.toArray());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Read a value, the reader being on its {@code <value>} start tag and left on its end tag
+     */
+    private static Object readValue(XMLStreamReader reader) throws XMLStreamException {
+        final StringBuilder text = new StringBuilder();
+        while (true) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                // untyped value is a string
+                return text.toString();
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                final Object value = readTyped(reader, reader.getLocalName());
+                reader.nextTag();
+                return value;
+            }
+        }
+    }
+
+    private static Object readTyped(XMLStreamReader reader, String type) throws XMLStreamException {
+        switch (type) {
+            case "array": {
+                final List<Object> values = new ArrayList<>();
+                reader.nextTag();
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    values.add(readValue(reader));
+                }
+                reader.nextTag();
+                return values.toArray();
+            }
+            case "struct": {
+                final Map<String, Object> struct = new LinkedHashMap<>();
+                while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                    String name = null;
+                    Object value = null;
+                    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if ("name".equals(reader.getLocalName())) {
+                            name = reader.getElementText();
+                        } else {
+                            value = readValue(reader);
+                        }
+                    }
+                    struct.put(name, value);
+                }
+                return struct;
+            }
+            case "nil":
+                reader.nextTag();
+                return null;
+            case "int":
+            case "i4":
+                return Integer.valueOf(reader.getElementText().trim());
+            case "i8":
+                return Long.valueOf(reader.getElementText().trim());
+            case "double":
+                return Double.valueOf(reader.getElementText().trim());
+            case "boolean":
+                return "1".equals(reader.getElementText().trim());
+            case "base64":
+                return Base64.getMimeDecoder().decode(reader.getElementText().trim());
+            case "dateTime.iso8601": {
+                // stored the way odoo writes a datetime field, the text taken as UTC like odoo does
+                final String text = reader.getElementText().trim();
+                return text.substring(0, 4) + "-" + text.substring(4, 6) + "-" + text.substring(6, 8) + " " + text.substring(9);
+            }
+            default:
+                // string
+                return reader.getElementText();
+        }
+    }
+
+    static String response(Object value) {
+        final StringBuilder xml = new StringBuilder(256).append("<?xml version=\"1.0\"?><methodResponse><params><param>");
+        writeValue(xml, value);
+        return xml.append("</param></params></methodResponse>").toString();
+    }
+
+    static String fault(int code, String message) {
+        final Map<String, Object> fault = new LinkedHashMap<>();
+        fault.put("faultCode", code);
+        fault.put("faultString", message);
+        final StringBuilder xml = new StringBuilder(256).append("<?xml version=\"1.0\"?><methodResponse><fault>");
+        writeValue(xml, fault);
+        return xml.append("</fault></methodResponse>").toString();
+    }
+
+    /**
+     * Write a value the way odoo does, null being written as <code>false</code>
+     */
+    static void writeValue(StringBuilder xml, Object value) {
+        xml.append("<value>");
+        if (value == null || value instanceof Boolean) {
+            xml.append("<boolean>").append(Boolean.TRUE.equals(value) ? '1' : '0').append("</boolean>");
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            xml.append("<int>").append(value).append("</int>");
+        } else if (value instanceof Long) {
+            xml.append("<i8>").append(value).append("</i8>");
+        } else if (value instanceof Number) {
+            xml.append("<double>").append(((Number) value).doubleValue()).append("</double>");
+        } else if (value instanceof int[]) {
+            xml.append("<array><data>");
+            for (int i : (int[]) value) {
+                xml.append("<value><int>").append(i).append("</int></value>");
+            }
+            xml.append("</data></array>");
+        } else if (value instanceof Object[] || value instanceof Collection) {
+            xml.append("<array><data>");
+            for (Object element : value instanceof Object[] ? Arrays.asList((Object[]) value) : (Collection<?>) value) {
+                writeValue(xml, element);
+            }
+            xml.append("</data></array>");
+        } else if (value instanceof Map) {
+            xml.append("<struct>");
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                xml.append("<member><name>");
+                escape(xml, String.valueOf(e.getKey())).append("</name>");
+                writeValue(xml, e.getValue());
+                xml.append("</member>");
+            }
+            xml.append("</struct>");
+        } else {
+            xml.append("<string>");
+            escape(xml, value.toString()).append("</string>");
+        }
+        xml.append("</value>");
+    }
+
+    private static StringBuilder escape(StringBuilder xml, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    xml.append("&lt;");
+                    break;
+                case '>':
+                    xml.append("&gt;");
+                    break;
+                case '&':
+                    xml.append("&amp;");
+                    break;
+                default:
+                    xml.append(c);
+            }
+        }
+        return xml;
+    }
+}